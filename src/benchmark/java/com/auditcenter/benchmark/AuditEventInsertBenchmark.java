@@ -0,0 +1,220 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.AuditCenterApplication;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.AuditEventRepository;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a vazão de inserts de eventos (eventos/segundo) conforme a estratégia de ID.
+ *
+ * - identity: um INSERT por evento lendo a chave gerada, que é o que o Hibernate faz com
+ *   GenerationType.IDENTITY (o batching JDBC fica desativado).
+ * - sequence: IDs reservados em blocos de 50 na sequência e INSERTs enviados em um único
+ *   'executeBatch', que é o SQL que o Hibernate passa a gerar com a sequência.
+ * - repository: o caminho real, {@code AuditEventRepository.batchInsert} com o contexto Spring
+ *   (inclui o roteamento para a partição do período).
+ *
+ * O H2 em memória não tem latência de rede, então aqui a diferença mede apenas o custo por
+ * comando; em um banco remoto cada INSERT isolado de 'identity' custa também uma ida e volta.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditEventInsertBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 4)
+@Measurement(iterations = 5, time = 4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AuditEventInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String INSERT_COLUMNS = "system_name, user_email, action, timestamp, metadata";
+
+    @Param({"identity", "sequence", "repository"})
+    public String strategy;
+
+    private Connection connection;
+    private PreparedStatement identityInsert;
+    private PreparedStatement sequenceInsert;
+    private PreparedStatement nextBlock;
+    private long nextId;
+    private long blockEnd;
+
+    private ConfigurableApplicationContext context;
+    private AuditEventRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:insert" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        if ("repository".equals(strategy)) {
+            context = new SpringApplicationBuilder(AuditCenterApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=" + url, "--logging.level.root=WARN");
+            repository = context.getBean(AuditEventRepository.class);
+            connection = DriverManager.getConnection(url, "sa", "");
+            return;
+        }
+
+        // V2 traz os índices secundários, que também pesam em cada INSERT. A tabela de
+        // 'identity' recebe a coluna IDENTITY original (V1); a de 'sequence', a sequência de V3.
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target("identity".equals(strategy) ? "2" : "latest")
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        connection.setAutoCommit(false);
+        identityInsert = connection.prepareStatement(
+                "INSERT INTO audit_events (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?)", new String[]{"id"});
+        sequenceInsert = "identity".equals(strategy) ? null : connection.prepareStatement(
+                "INSERT INTO audit_events (" + INSERT_COLUMNS + ", id) VALUES (?, ?, ?, ?, ?, ?)");
+        if ("sequence".equals(strategy)) {
+            nextBlock = connection.prepareStatement("SELECT NEXT VALUE FOR audit_events_seq");
+        }
+    }
+
+    /**
+     * Esvazia a tabela a cada iteração para que o tamanho dos índices não distorça a comparação.
+     * Em 'repository', os eventos estão nas partições (registradas em audit_partitions).
+     */
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            if ("repository".equals(strategy)) {
+                try (ResultSet rs = statement.executeQuery("SELECT name FROM audit_partitions")) {
+                    while (rs.next()) {
+                        tables.add("audit_event_attributes_" + rs.getString(1));
+                        tables.add("audit_events_" + rs.getString(1));
+                    }
+                }
+            } else {
+                tables.add("audit_events");
+            }
+            // O H2 não trunca uma tabela referenciada por chave estrangeira (a dos atributos).
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String table : tables) {
+                statement.execute("TRUNCATE TABLE " + table);
+            }
+            statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long insertBatch() throws SQLException {
+        return switch (strategy) {
+            case "identity" -> insertWithIdentity();
+            case "sequence" -> insertWithSequence();
+            default -> repository.batchInsert(newEvents()).get(BATCH_SIZE - 1).getId();
+        };
+    }
+
+    private long insertWithIdentity() throws SQLException {
+        long lastId = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            bind(identityInsert, i, now);
+            identityInsert.executeUpdate();
+            try (ResultSet keys = identityInsert.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    private long insertWithSequence() throws SQLException {
+        long id = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            id = nextSequenceId();
+            bind(sequenceInsert, i, now);
+            sequenceInsert.setLong(6, id);
+            sequenceInsert.addBatch();
+        }
+        sequenceInsert.executeBatch();
+        connection.commit();
+        return id;
+    }
+
+    /** Mesmo esquema do otimizador "pooled" do Hibernate: o valor da sequência é o fim do bloco. */
+    private long nextSequenceId() throws SQLException {
+        if (nextId == 0 || nextId > blockEnd) {
+            try (ResultSet rs = nextBlock.executeQuery()) {
+                rs.next();
+                blockEnd = rs.getLong(1);
+            }
+            nextId = blockEnd - ALLOCATION_SIZE + 1;
+        }
+        return nextId++;
+    }
+
+    private static void bind(PreparedStatement ps, int i, Timestamp now) throws SQLException {
+        ps.setString(1, "system-" + (i % 20));
+        ps.setString(2, "user" + (i % 1000) + "@example.com");
+        ps.setString(3, "ACTION_" + (i % 50));
+        ps.setTimestamp(4, now);
+        ps.setString(5, "{\"seq\":" + i + "}");
+    }
+
+    private static List<AuditEvent> newEvents() {
+        List<AuditEvent> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            events.add(AuditEvent.builder()
+                    .systemName("system-" + (i % 20))
+                    .userEmail("user" + (i % 1000) + "@example.com")
+                    .action("ACTION_" + (i % 50))
+                    .metadata("{\"seq\":" + i + "}")
+                    .build());
+        }
+        return events;
+    }
+}
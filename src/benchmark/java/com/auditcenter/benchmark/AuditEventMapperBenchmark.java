@@ -0,0 +1,104 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede as conversões do {@link AuditEventMapper} feitas em cada requisição:
+ *
+ * - toEntity: corpo do webhook para entidade (por evento ingerido);
+ * - toDto: entidade para DTO (por evento distribuído no SSE);
+ * - toDtoList: uma página de GET /events ('pageSize' eventos).
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditEventMapperBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditEventMapperBenchmark {
+
+    private final AuditEventMapper auditEventMapper = AuditEventMapper.INSTANCE;
+    private WebhookEventRequest request;
+    private AuditEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = new WebhookEventRequest();
+        request.setSystemName("Financeiro");
+        request.setUserEmail("user@example.com");
+        request.setAction("PEDIDO_CRIADO");
+        request.setMetadata("{\"orderId\":12345,\"customer\":{\"id\":987,\"segment\":\"varejo\"}}");
+        event = event(1);
+    }
+
+    @Benchmark
+    public AuditEvent toEntity() {
+        return auditEventMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public AuditEventDto toDto() {
+        return auditEventMapper.toDto(event);
+    }
+
+    @Benchmark
+    public List<AuditEventDto> toDtoList(Page page) {
+        return auditEventMapper.toDtoList(page.events);
+    }
+
+    /**
+     * Uma página de eventos; o padrão de 'audit.query.max-page-size' é 500.
+     */
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({"50", "500"})
+        public int pageSize;
+
+        private List<AuditEvent> events;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            events = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                events.add(event(i));
+            }
+        }
+    }
+
+    private static AuditEvent event(long id) {
+        return AuditEvent.builder()
+                .id(id)
+                .systemName("Financeiro")
+                .userEmail("user" + id % 100 + "@example.com")
+                .action("PEDIDO_CRIADO")
+                .metadata("{\"orderId\":" + id + ",\"customer\":{\"id\":987,\"segment\":\"varejo\"}}")
+                .timestamp(LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(id))
+                .build();
+    }
+}
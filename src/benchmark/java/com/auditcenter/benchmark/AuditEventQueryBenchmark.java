@@ -0,0 +1,168 @@
+package com.auditcenter.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a latência das consultas de GET /events sobre o esquema real (migrações Flyway) em H2.
+ *
+ * Com os índices compostos de V2 a latência deve ficar praticamente constante entre 10k e 10M
+ * linhas, porque cada consulta lê apenas as 51 linhas da página. Com {@code indexed=false} o
+ * mesmo SQL precisa varrer e ordenar a tabela, e o custo cresce com o volume.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditEventQueryBenchmark"
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditEventQueryBenchmark -p rows=10000,100000"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class AuditEventQueryBenchmark {
+
+    private static final int PAGE_SIZE = 51;
+    private static final int USERS = 1_000;
+    private static final int SYSTEMS = 20;
+    private static final int ACTIONS = 50;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement latestPage;
+    private PreparedStatement byUser;
+    private PreparedStatement bySystemAndRange;
+    private PreparedStatement nextPageByAction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // OPTIMIZE_REUSE_RESULTS=FALSE impede o H2 de devolver o resultado anterior de uma
+        // consulta idêntica sem executá-la, o que mascararia a medição.
+        String url = "jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        // Cria a tabela (V1), popula sem índices e só então aplica V2: bem mais rápido que
+        // manter quatro índices atualizados durante a carga.
+        migrate(url, "1");
+        connection = DriverManager.getConnection(url, "sa", "");
+        populate();
+        if (indexed) {
+            migrate(url, "latest");
+        }
+
+        // Mesmo formato do SQL gerado por AuditEventRepositoryImpl.findPage.
+        String select = "SELECT id, timestamp, action, system_name, user_email, metadata FROM audit_events ";
+        String order = "timestamp DESC, id DESC LIMIT " + PAGE_SIZE;
+        latestPage = connection.prepareStatement(select + "ORDER BY " + order);
+        byUser = connection.prepareStatement(select + "WHERE user_email = ? ORDER BY user_email, " + order);
+        bySystemAndRange = connection.prepareStatement(select
+                + "WHERE system_name = ? AND timestamp >= ? AND timestamp < ? ORDER BY system_name, " + order);
+        nextPageByAction = connection.prepareStatement(select
+                + "WHERE action = ? AND timestamp <= ? AND (timestamp < ? OR (timestamp = ? AND id < ?))"
+                + " ORDER BY action, " + order);
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    /** Um evento por segundo a partir de BASE_TIME, com usuário, sistema e ação distribuídos em ciclo. */
+    private void populate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO audit_events (timestamp, action, system_name, user_email, metadata) "
+                    + "SELECT DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00'), "
+                    + "'ACTION_' || MOD(X, " + ACTIONS + "), "
+                    + "'system-' || MOD(X, " + SYSTEMS + "), "
+                    + "'user' || MOD(X, " + USERS + ") || '@example.com', "
+                    + "'{\"seq\":' || X || '}' "
+                    + "FROM SYSTEM_RANGE(1, " + rows + ")");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @Benchmark
+    public void latestPage(Blackhole bh) throws SQLException {
+        consume(latestPage, bh);
+    }
+
+    @Benchmark
+    public void byUser(Blackhole bh) throws SQLException {
+        byUser.setString(1, "user" + ThreadLocalRandom.current().nextInt(USERS) + "@example.com");
+        consume(byUser, bh);
+    }
+
+    @Benchmark
+    public void bySystemAndRange(Blackhole bh) throws SQLException {
+        // Janela de um dia em posição aleatória dentro do intervalo populado.
+        long start = ThreadLocalRandom.current().nextLong(Math.max(1, rows - 86_400));
+        bySystemAndRange.setString(1, "system-" + ThreadLocalRandom.current().nextInt(SYSTEMS));
+        bySystemAndRange.setTimestamp(2, Timestamp.valueOf(BASE_TIME.plusSeconds(start)));
+        bySystemAndRange.setTimestamp(3, Timestamp.valueOf(BASE_TIME.plusSeconds(start + 86_400)));
+        consume(bySystemAndRange, bh);
+    }
+
+    @Benchmark
+    public void nextPageByAction(Blackhole bh) throws SQLException {
+        // Cursor no meio da tabela, como uma página profunda navegada pelo keyset.
+        long cursorId = rows / 2;
+        Timestamp cursorTime = Timestamp.valueOf(BASE_TIME.plusSeconds(cursorId));
+        nextPageByAction.setString(1, "ACTION_" + ThreadLocalRandom.current().nextInt(ACTIONS));
+        nextPageByAction.setTimestamp(2, cursorTime);
+        nextPageByAction.setTimestamp(3, cursorTime);
+        nextPageByAction.setTimestamp(4, cursorTime);
+        nextPageByAction.setLong(5, cursorId);
+        consume(nextPageByAction, bh);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole bh) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getLong(1));
+                bh.consume(rs.getString(6));
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.IntegrityReport;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditEventHashes;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import com.auditcenter.repository.AuditPartitionScheme;
+import com.auditcenter.repository.PartitionPeriod;
+import com.auditcenter.service.AuditIntegrityService;
+import com.auditcenter.service.AuditMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mede a verificação de integridade (AuditIntegrityService.verify) de milhões de eventos já
+ * selados, sobre o esquema real (migrações Flyway e DDL das partições) em H2 em memória.
+ *
+ * Um evento a cada 50 ms (1.200 por intervalo de um minuto); 1M de eventos ocupam cerca de 14 horas
+ * e 834 selos. Cada medição é uma verificação completa: leitura dos eventos, recálculo do hash de
+ * cada um, as árvores de Merkle e a cadeia de selos. A vazão em eventos por segundo é
+ * 'rows' dividido pelo tempo medido. O ganho com 'parallelism' depende dos núcleos disponíveis.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditIntegrityBenchmark"
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="AuditIntegrityBenchmark -p rows=1000000 -p parallelism=1,4"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class AuditIntegrityBenchmark {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"1000000", "5000000"})
+    public int rows;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private HikariDataSource dataSource;
+    private AuditIntegrityService integrityService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:integrity" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").load().migrate();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(parallelism + 1);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Uma partição mensal, com o mesmo DDL da aplicação.
+        AuditPartitionScheme scheme = new AuditPartitionScheme();
+        ReflectionTestUtils.setField(scheme, "period", PartitionPeriod.MONTH);
+        AuditPartition partition = scheme.partitionFor(BASE_TIME, 0);
+        scheme.createStatements(partition).forEach(jdbcTemplate::execute);
+        populate(partition);
+
+        AuditPartitionCatalog partitionCatalog = mock(AuditPartitionCatalog.class);
+        when(partitionCatalog.partitions()).thenReturn(List.of(partition));
+        when(partitionCatalog.partitionsOverlapping(any(), any())).thenReturn(List.of(partition));
+        integrityService = new AuditIntegrityService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                partitionCatalog, mock(AuditArchive.class), new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(integrityService, "bucketMinutes", 1);
+        ReflectionTestUtils.setField(integrityService, "verifyParallelism", parallelism);
+        ReflectionTestUtils.setField(integrityService, "chunkBuckets", 60);
+        integrityService.sealUpTo(BASE_TIME.plusDays(30));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    /** Os eventos com o hash calculado como no insert da aplicação. */
+    private void populate(AuditPartition partition) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO " + partition.getEventsTable()
+                     + " (id, timestamp, action, system_name, user_email, metadata, event_hash) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= rows; id++) {
+                LocalDateTime timestamp = BASE_TIME.plusNanos(id * 50_000_000L);
+                String action = "ACTION_" + id % 50;
+                String systemName = "system-" + id % 20;
+                String userEmail = "user" + id % 1_000 + "@example.com";
+                String metadata = "{\"orderId\":" + id + ",\"customer\":{\"id\":" + id % 997 + "}}";
+                insert.setLong(1, id);
+                insert.setTimestamp(2, Timestamp.valueOf(timestamp));
+                insert.setString(3, action);
+                insert.setString(4, systemName);
+                insert.setString(5, userEmail);
+                insert.setString(6, metadata);
+                insert.setString(7, AuditEventHashes.contentHash(timestamp, systemName, userEmail, action, metadata));
+                insert.addBatch();
+                if (id % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @Benchmark
+    public IntegrityReport verify() {
+        IntegrityReport report = integrityService.verify(null, null);
+        if (!report.isValid() || report.getEventsChecked() != rows) {
+            throw new IllegalStateException("Verificação inesperada: " + report);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,28 @@
+package com.auditcenter.benchmark;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Argumentos 'chave=valor' dos pontos de entrada fora do JMH (harnesses de carga e
+ * BenchmarkComparison), passados com -Djmh.args="...". Argumentos sem '=' são ignorados.
+ */
+final class BenchmarkArgs {
+
+    private BenchmarkArgs() {
+    }
+
+    /**
+     * @return As opções, ordenadas pela chave (assim aparecem na mesma ordem nos relatórios).
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new TreeMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
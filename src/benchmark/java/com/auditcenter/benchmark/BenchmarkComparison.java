@@ -0,0 +1,98 @@
+package com.auditcenter.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dois resultados JSON do JMH (o 'target/jmh-result.json' que o perfil 'benchmark'
+ * grava em toda execução) e aponta as regressões entre duas versões.
+ *
+ * Cada benchmark é identificado pelo nome e pelos parâmetros (@Param). É regressão quando o
+ * resultado piora mais que 'threshold' por cento e a diferença é maior que a soma das margens
+ * de erro das duas medições. "Piorar" depende do modo: em 'thrpt' o score deve subir; nos
+ * outros modos (tempo por operação) ele deve cair. Havendo regressão, o processo termina com
+ * código 1, o que faz o build falhar.
+ *
+ * Execução:
+ * <pre>
+ * cp target/jmh-result.json benchmarks/baseline.json        # na versão de referência
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtTokenProviderBenchmark AuditEventMapperBenchmark"
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.auditcenter.benchmark.BenchmarkComparison \
+ *     -Djmh.args="baseline=benchmarks/baseline.json current=target/jmh-result.json threshold=10"
+ * </pre>
+ */
+public class BenchmarkComparison {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = BenchmarkArgs.parse(args);
+        if (!options.containsKey("baseline")) {
+            System.err.println("Uso: baseline=<arquivo> [current=target/jmh-result.json] [threshold=10]");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "10"));
+        Map<String, JsonNode> baseline = read(options.get("baseline"));
+        Map<String, JsonNode> current = read(options.getOrDefault("current", "target/jmh-result.json"));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Atual", "Variação");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  (novo, %s)%n", entry.getKey(), "-", score, "-", unit);
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double error = finite(before.path("primaryMetric").path("scoreError").asDouble())
+                    + finite(now.path("primaryMetric").path("scoreError").asDouble());
+            double change = (score - previous) / previous * 100;
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double worse = higherIsBetter ? -change : change;
+            boolean regression = worse > threshold && Math.abs(score - previous) > error;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), previous, score, change, unit,
+                    regression ? "  REGRESSÃO" : "");
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s (não executado nesta medição)%n", key));
+
+        System.out.printf("%n%d regressão(ões) acima de %.1f%%.%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lê um resultado JSON do JMH, indexado por "benchmark:modo{parâmetros}".
+     */
+    private static Map<String, JsonNode> read(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : OBJECT_MAPPER.readTree(new File(path))) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String benchmark = result.path("benchmark").asText().replace("com.auditcenter.benchmark.", "");
+            results.put(benchmark + ':' + result.path("mode").asText() + (params.isEmpty() ? "" : params.toString()), result);
+        }
+        return results;
+    }
+
+    /** O JMH grava "NaN" como margem de erro quando há uma única iteração. */
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.service.AuditMetrics;
+import com.auditcenter.service.IdempotencyIndex;
+import com.auditcenter.service.IdempotencyMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o custo que a verificação de idempotência acrescenta a cada POST /events/webhook:
+ *
+ * - newKey: chave nunca vista (o caso comum): SHA-256 do cabeçalho, cache de chaves recentes e
+ *   filtro de Bloom, sem banco;
+ * - repeatedKey: reenvio de uma chave ainda no cache de chaves recentes;
+ * - contentKey: chave calculada do conteúdo do evento (modo CONTENT), sem a reserva.
+ *
+ * O banco não é consultado em nenhum dos casos; a consulta só acontece quando o filtro de Bloom
+ * responde "talvez" (ver 'auditcenter.ingestion.idempotency{outcome=false_positive}').
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="IdempotencyIndexBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdempotencyIndexBenchmark {
+
+    private IdempotencyIndex index;
+    private WebhookEventRequest request;
+    private String repeatedKey;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Banco sem chaves gravadas. Um mock do Mockito guardaria cada chamada (falsos positivos) e
+        // pesaria na medição.
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                return List.of();
+            }
+        };
+        index = new IdempotencyIndex(jdbcTemplate, new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(index, "mode", IdempotencyMode.CONTENT);
+        ReflectionTestUtils.setField(index, "recentKeys", 100_000L);
+        ReflectionTestUtils.setField(index, "bloomExpectedKeys", 1_000_000L);
+        ReflectionTestUtils.setField(index, "bloomFpp", 0.01);
+        index.init();
+
+        request = new WebhookEventRequest();
+        request.setSystemName("Financeiro");
+        request.setUserEmail("user@example.com");
+        request.setAction("PEDIDO_CRIADO");
+        request.setMetadata("{\"orderId\":12345,\"customer\":{\"id\":987,\"segment\":\"varejo\"}}");
+        repeatedKey = index.keyFor(request, "pedido-12345");
+        index.claim(repeatedKey, newTicket());
+    }
+
+    @Benchmark
+    public IngestionTicket newKey() {
+        return index.claim(index.keyFor(request, "pedido-" + sequence++), newTicket());
+    }
+
+    @Benchmark
+    public IngestionTicket repeatedKey() {
+        return index.claim(index.keyFor(request, "pedido-12345"), newTicket());
+    }
+
+    @Benchmark
+    public String contentKey() {
+        return index.keyFor(request, null);
+    }
+
+    private static IngestionTicket newTicket() {
+        return IngestionTicket.builder().status(IngestionTicket.Status.QUEUED).build();
+    }
+}
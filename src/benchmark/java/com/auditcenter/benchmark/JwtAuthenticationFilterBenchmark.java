@@ -0,0 +1,133 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.auditcenter.repository.UserRepository;
+import com.auditcenter.security.JwtAuthenticationFilter;
+import com.auditcenter.security.JwtTokenProvider;
+import com.auditcenter.security.TokenVersionCache;
+import com.auditcenter.service.AuditMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o custo por requisição do {@link JwtAuthenticationFilter}, sem o acesso ao banco
+ * (o UserDetailsService da versão anterior e o UserRepository são stubs em memória).
+ *
+ * - legacyFilter: reproduz a versão anterior do filtro, que reconstruía a chave e o parser
+ *   e verificava o mesmo token três vezes (extractUsername, e validateToken com
+ *   extractUsername e isTokenExpired).
+ * - filter com cacheSize=0: uma única verificação por requisição, com chave e parser prontos.
+ * - filter com cacheSize=10000: token já verificado encontrado no cache.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtAuthenticationFilterBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "a-chave-secreta-do-benchmark-precisa-ter-pelo-menos-256-bits-0123456789";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticationFilter filter;
+    private UserDetailsService userDetailsService;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxSize", cacheSize);
+        jwtTokenProvider.init();
+
+        User user = User.builder()
+                .id(1L)
+                .email("analyst@example.com")
+                .password("{noop}secret")
+                .role(Role.ANALYST)
+                .build();
+        userDetailsService = username -> user;
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditMetrics auditMetrics = new AuditMetrics(meterRegistry);
+        TokenVersionCache tokenVersionCache = new TokenVersionCache(userRepository, auditMetrics, meterRegistry);
+        ReflectionTestUtils.setField(tokenVersionCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(tokenVersionCache, "maxSize", 10_000L);
+        tokenVersionCache.init();
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, tokenVersionCache, auditMetrics);
+
+        token = jwtTokenProvider.generateToken(user);
+        request = new MockHttpServletRequest("GET", "/events");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Sem autenticação no contexto, a próxima chamada percorre o filtro inteiro de novo.
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    public boolean legacyFilter() {
+        String username = legacyParse(token).getSubject();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return legacyParse(token).getSubject().equals(userDetails.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,84 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.auditcenter.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede as operações do {@link JwtTokenProvider}, sem o filtro em volta:
+ *
+ * - generateToken: assinatura de um token novo (a cada login);
+ * - extractUsername e validateToken: verificação de um token válido, sem cache (cacheSize=0)
+ *   e com o token já no cache de tokens verificados (cacheSize=10000).
+ *
+ * O custo do filtro completo, com a versão dos tokens, está em {@link JwtAuthenticationFilterBenchmark}.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="JwtTokenProviderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "a-chave-secreta-do-benchmark-precisa-ter-pelo-menos-256-bits-0123456789";
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxSize", cacheSize);
+        jwtTokenProvider.init();
+
+        user = User.builder()
+                .id(1L)
+                .email("analyst@example.com")
+                .password("{noop}secret")
+                .role(Role.ANALYST)
+                .build();
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtTokenProvider.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenProvider.validateToken(token, user);
+    }
+}
@@ -0,0 +1,448 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.AuditCenterApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga com tráfego misto, para validar mudanças no AuditEventService, no filtro JWT
+ * ou na persistência antes de publicá-las. Durante 'durationSeconds' (depois de 'warmupSeconds'
+ * de aquecimento, fora da medição):
+ *
+ * - 'concurrency' threads enviam webhooks (POST /events/webhook) e listam eventos (GET /events,
+ *   seguindo o cursor por até 'pages' páginas, como ADMIN e como ANALYST), na proporção 'mix';
+ * - a cada 'loginBurstIntervalSeconds', 'loginBurst' logins (POST /auth/login) simultâneos;
+ * - 'sseClients' conexões em /events/stream contam os eventos recebidos.
+ *
+ * O relatório traz, por endpoint, requisições, vazão, latência p50/p99/p999/máx., taxa de erro e
+ * os status HTTP recebidos, e é gravado também em JSON ('report'). Cada thread sorteia as
+ * operações com uma semente fixa ('seed'), então duas execuções com os mesmos parâmetros geram
+ * a mesma sequência de requisições.
+ *
+ * Com 'url=embedded' (padrão), a aplicação sobe nesta mesma JVM, com um H2 em memória novo e
+ * porta aleatória; argumentos no formato '--propriedade=valor' são repassados a ela. Para medir
+ * sem dividir a CPU com o gerador de carga, aponte 'url' para uma instância já em execução.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.auditcenter.benchmark.MixedLoadHarness \
+ *     -Djmh.args="durationSeconds=60 concurrency=32 mix=webhook=70,list=30 sseClients=50 loginBurst=50"
+ * </pre>
+ */
+public class MixedLoadHarness {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String PASSWORD = "secret123";
+    private static final String[] SYSTEMS = {"Financeiro", "RH", "Vendas", "Estoque", "Portal"};
+    private static final String[] ACTIONS = {"LOGIN", "PEDIDO_CRIADO", "PAGAMENTO_APROVADO", "CADASTRO_ALTERADO"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkArgs.parse(args);
+        int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmupSeconds", "10"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int webhookWeight = Integer.parseInt(mix(options).getOrDefault("webhook", "70"));
+        int listWeight = Integer.parseInt(mix(options).getOrDefault("list", "30"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "3"));
+        int pageSize = Integer.parseInt(options.getOrDefault("pageSize", "50"));
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        int sseClients = Integer.parseInt(options.getOrDefault("sseClients", "50"));
+        int loginBurst = Integer.parseInt(options.getOrDefault("loginBurst", "50"));
+        int loginBurstIntervalSeconds = Integer.parseInt(options.getOrDefault("loginBurstIntervalSeconds", "10"));
+        int metadataBytes = Integer.parseInt(options.getOrDefault("metadataBytes", "512"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String report = options.getOrDefault("report", "target/load-report.json");
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.getOrDefault("url", "embedded");
+        if ("embedded".equals(baseUrl)) {
+            List<String> appArgs = new ArrayList<>(List.of("--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:load" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                    "--logging.level.root=WARN"));
+            options.forEach((key, value) -> {
+                if (key.startsWith("--")) {
+                    appArgs.add(key + '=' + value);
+                }
+            });
+            context = new SpringApplicationBuilder(AuditCenterApplication.class).run(appArgs.toArray(String[]::new));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        String adminEmail = "load-admin-" + run + "@test.com";
+        String adminToken = register(client, baseUrl, adminEmail, "ADMIN");
+        List<String> analystEmails = new ArrayList<>(users);
+        List<String> analystTokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            analystEmails.add("load-" + i + "-" + run + "@test.com");
+            analystTokens.add(register(client, baseUrl, analystEmails.get(i), "ANALYST"));
+        }
+
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        EndpointStats webhookStats = endpoints.computeIfAbsent("POST /events/webhook", EndpointStats::new);
+        EndpointStats listStats = endpoints.computeIfAbsent("GET /events", EndpointStats::new);
+        EndpointStats pageStats = endpoints.computeIfAbsent("GET /events?cursor", EndpointStats::new);
+        EndpointStats loginStats = endpoints.computeIfAbsent("POST /auth/login", EndpointStats::new);
+        AtomicLong acceptedWebhooks = new AtomicLong();
+
+        // Clientes SSE (ADMIN: recebem todos os eventos).
+        List<EventCounter> counters = new ArrayList<>(sseClients);
+        List<CompletableFuture<?>> streams = new ArrayList<>(sseClients);
+        AtomicInteger refusedStreams = new AtomicInteger();
+        for (int i = 0; i < sseClients; i++) {
+            EventCounter counter = new EventCounter();
+            counters.add(counter);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/events/stream"))
+                    .header("Authorization", "Bearer " + adminToken)
+                    .header("Accept", "text/event-stream")
+                    .build();
+            streams.add(client.sendAsync(request, responseInfo -> {
+                if (responseInfo.statusCode() != 200) {
+                    refusedStreams.incrementAndGet();
+                }
+                return HttpResponse.BodySubscribers.fromLineSubscriber(counter);
+            }));
+        }
+        long connectDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int subscribers;
+        while ((subscribers = getJson(client, baseUrl + "/events/stream/stats", adminToken).body.path("subscribers").asInt())
+                < sseClients && System.nanoTime() < connectDeadline) {
+            Thread.sleep(50);
+        }
+
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+        String padding = "x".repeat(Math.max(0, metadataBytes - 40));
+        String finalBaseUrl = baseUrl;
+
+        // Webhooks e listagens.
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            Random random = new Random(seed + t);
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    if (random.nextInt(webhookWeight + listWeight) < webhookWeight) {
+                        String body = "{\"systemName\":\"" + SYSTEMS[random.nextInt(SYSTEMS.length)]
+                                + "\",\"userEmail\":\"" + analystEmails.get(random.nextInt(users))
+                                + "\",\"action\":\"" + ACTIONS[random.nextInt(ACTIONS.length)]
+                                + "\",\"metadata\":{\"orderId\":" + random.nextInt(1_000_000)
+                                + ",\"padding\":\"" + padding + "\"}}";
+                        Result result = timed(webhookStats, measureStart, 202,
+                                () -> post(client, finalBaseUrl + "/events/webhook", body, adminToken));
+                        if (result.status == 202) {
+                            acceptedWebhooks.incrementAndGet();
+                        }
+                    } else {
+                        String token = random.nextBoolean() ? adminToken : analystTokens.get(random.nextInt(users));
+                        String query = "/events?size=" + pageSize;
+                        if (random.nextInt(4) == 0) {
+                            query += "&systemName=" + SYSTEMS[random.nextInt(SYSTEMS.length)];
+                        }
+                        Result page = timed(listStats, measureStart, 200, withUrl(client, finalBaseUrl + query, token));
+                        for (int p = 1; p < pages && page.body != null && page.body.hasNonNull("nextCursor"); p++) {
+                            String cursor = URLEncoder.encode(page.body.get("nextCursor").asText(), StandardCharsets.UTF_8);
+                            page = timed(pageStats, measureStart, 200,
+                                    withUrl(client, finalBaseUrl + query + "&cursor=" + cursor, token));
+                        }
+                    }
+                }
+            });
+        }
+
+        // Rajadas de login.
+        ExecutorService loginPool = Executors.newFixedThreadPool(Math.max(1, loginBurst));
+        Thread bursts = new Thread(() -> {
+            try {
+                while (loginBurst > 0 && System.nanoTime() < end) {
+                    List<Future<?>> logins = new ArrayList<>(loginBurst);
+                    for (int i = 0; i < loginBurst; i++) {
+                        String email = i == 0 ? adminEmail : analystEmails.get(i % users);
+                        logins.add(loginPool.submit(() -> timed(loginStats, measureStart, 200, () -> post(client,
+                                finalBaseUrl + "/auth/login", "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}",
+                                null))));
+                    }
+                    for (Future<?> login : logins) {
+                        login.get();
+                    }
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(loginBurstIntervalSeconds));
+                }
+            } catch (Exception e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "login-bursts");
+        bursts.setDaemon(true);
+        bursts.start();
+
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + warmupSeconds + 60L, TimeUnit.SECONDS);
+        bursts.interrupt();
+        loginPool.shutdownNow();
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+
+        // Entrega aos clientes SSE.
+        long deliveryStart = System.nanoTime();
+        long deliveryDeadline = deliveryStart + TimeUnit.SECONDS.toNanos(30);
+        long expected = acceptedWebhooks.get();
+        while (counters.stream().anyMatch(counter -> counter.events.get() < expected) && System.nanoTime() < deliveryDeadline) {
+            Thread.sleep(100);
+        }
+        long deliveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deliveryStart);
+        long complete = counters.stream().filter(counter -> counter.events.get() >= expected).count();
+        long received = counters.stream().mapToLong(counter -> counter.events.get()).sum();
+
+        // Relatório.
+        ObjectNode json = OBJECT_MAPPER.createObjectNode();
+        ObjectNode config = json.putObject("config");
+        options.forEach(config::put);
+        config.put("url", baseUrl);
+        json.put("measuredSeconds", measuredSeconds);
+        ArrayNode endpointsJson = json.putArray("endpoints");
+        System.out.printf("%n%-22s %9s %9s %9s %9s %9s %9s %8s  %s%n",
+                "Endpoint", "Req.", "Req/s", "p50 ms", "p99 ms", "p999 ms", "máx. ms", "Erros", "Status");
+        for (EndpointStats stats : endpoints.values()) {
+            long[] latencies = stats.sortedLatencies();
+            int count = latencies.length;
+            double throughput = count / measuredSeconds;
+            double errorRate = count == 0 ? 0 : (double) stats.errors / count;
+            System.out.printf("%-22s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%  %s%n", stats.name, count, throughput,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    percentile(latencies, 1.0), errorRate * 100, stats.statuses);
+            ObjectNode endpoint = endpointsJson.addObject();
+            endpoint.put("endpoint", stats.name);
+            endpoint.put("requests", count);
+            endpoint.put("throughputPerSecond", throughput);
+            endpoint.put("p50Ms", percentile(latencies, 0.50));
+            endpoint.put("p99Ms", percentile(latencies, 0.99));
+            endpoint.put("p999Ms", percentile(latencies, 0.999));
+            endpoint.put("maxMs", percentile(latencies, 1.0));
+            endpoint.put("errors", stats.errors);
+            endpoint.put("errorRate", errorRate);
+            ObjectNode statuses = endpoint.putObject("statuses");
+            stats.statuses.forEach((status, total) -> statuses.put(status == 0 ? "io-error" : status.toString(), total));
+        }
+        System.out.printf("%nSSE: %d/%d conexões (%d recusadas); %d/%d clientes receberam todos os %d webhooks aceitos "
+                        + "(%d entregas), %d ms após o fim da carga%n",
+                subscribers, sseClients, refusedStreams.get(), complete, subscribers, expected, received, deliveryMillis);
+        ObjectNode sse = json.putObject("sse");
+        sse.put("clients", sseClients);
+        sse.put("connected", subscribers);
+        sse.put("refused", refusedStreams.get());
+        sse.put("acceptedWebhooks", expected);
+        sse.put("clientsComplete", complete);
+        sse.put("deliveries", received);
+        sse.put("drainMillis", deliveryMillis);
+
+        File reportFile = new File(report);
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile, json);
+        System.out.println("Relatório: " + reportFile.getAbsolutePath());
+
+        streams.forEach(stream -> stream.cancel(true));
+        counters.forEach(EventCounter::cancel);
+        if (context != null) {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Executa uma requisição e, se ela começou depois do aquecimento, registra latência e status.
+     */
+    private static Result timed(EndpointStats stats, long measureStart, int expectedStatus, Call call) {
+        long start = System.nanoTime();
+        Result result;
+        try {
+            result = call.execute();
+        } catch (IOException e) {
+            result = new Result(0, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(0, null);
+        }
+        if (start >= measureStart) {
+            stats.record(System.nanoTime() - start, result.status, result.status == expectedStatus);
+        }
+        return result;
+    }
+
+    private static Call withUrl(HttpClient client, String url, String token) {
+        return () -> getJson(client, url, token);
+    }
+
+    private static String register(HttpClient client, String baseUrl, String email, String role)
+            throws IOException, InterruptedException {
+        Result result = post(client, baseUrl + "/auth/register", "{\"name\":\"Load\",\"email\":\"" + email
+                + "\",\"password\":\"" + PASSWORD + "\",\"role\":\"" + role + "\"}", null);
+        if (result.status != 200) {
+            throw new IllegalStateException("Falha ao registrar " + email + ": HTTP " + result.status);
+        }
+        return result.body.get("accessToken").asText();
+    }
+
+    private static Result post(HttpClient client, String url, String json, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return send(client, request.build());
+    }
+
+    private static Result getJson(HttpClient client, String url, String token) throws IOException, InterruptedException {
+        return send(client, HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .build());
+    }
+
+    private static Result send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode body = null;
+        if (response.statusCode() == 200 && response.body().length > 0) {
+            body = OBJECT_MAPPER.readTree(response.body());
+        }
+        return new Result(response.statusCode(), body);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, String> mix(Map<String, String> options) {
+        Map<String, String> weights = new HashMap<>();
+        for (String entry : options.getOrDefault("mix", "webhook=70,list=30").split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(parts[0].trim(), parts[1].trim());
+        }
+        return weights;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Result execute() throws IOException, InterruptedException;
+    }
+
+    /**
+     * O status HTTP (0 em erro de I/O) e o corpo JSON de uma resposta 200.
+     */
+    private static class Result {
+
+        private final int status;
+        private final JsonNode body;
+
+        Result(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Latências e status das requisições medidas de um endpoint.
+     */
+    private static class EndpointStats {
+
+        private final String name;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long nanos, int status, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Conta os eventos "audit-event" recebidos em uma conexão SSE.
+     */
+    private static class EventCounter implements Flow.Subscriber<String> {
+
+        private final AtomicLong events = new AtomicLong();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:audit-event")) {
+                events.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.service.AuditMetrics;
+import com.auditcenter.service.SseBroadcaster;
+import com.auditcenter.service.SlowConsumerPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o streaming do {@link SseBroadcaster} para diferentes quantidades de clientes conectados.
+ *
+ * - publish: o tempo que a thread de ingestão gasta com o streaming (apenas entregar o evento
+ *   à fila de despacho).
+ * - dispatch: publica e espera o despachante distribuir o evento para o buffer de todos os
+ *   clientes, ou seja, o custo do fan-out por evento.
+ *
+ * Os emitters não têm socket: o envio é descartado nas threads de escrita, que continuam
+ * drenando os buffers em paralelo durante a medição. Parte dos clientes pode ser "lenta"
+ * (cada envio leva 1 ms), para mostrar que nem a publicação nem a distribuição esperam por eles.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="SseBroadcastBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseBroadcastBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int subscribers;
+
+    // Porcentagem de clientes lentos.
+    @Param({"0", "10"})
+    public int slowPercent;
+
+    private SseBroadcaster broadcaster;
+    private AuditEventDto event;
+    // Contador interno lido diretamente: getStats() monta a lista de todos os clientes.
+    private AtomicLong dispatched;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Sem retomadas no benchmark, então o repositório e o mapper não são usados.
+        broadcaster = new SseBroadcaster(new ObjectMapper().registerModule(new JavaTimeModule()), null, null,
+                new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(broadcaster, "subscriberBufferSize", 256);
+        ReflectionTestUtils.setField(broadcaster, "slowConsumerPolicy", SlowConsumerPolicy.DROP_OLDEST);
+        ReflectionTestUtils.setField(broadcaster, "writerThreads", 4);
+        ReflectionTestUtils.setField(broadcaster, "dispatchQueueCapacity", 10_000);
+        ReflectionTestUtils.setField(broadcaster, "replayBufferSize", 10_000);
+        ReflectionTestUtils.invokeMethod(broadcaster, "start");
+        dispatched = (AtomicLong) ReflectionTestUtils.getField(broadcaster, "dispatched");
+
+        int slowEvery = slowPercent == 0 ? Integer.MAX_VALUE : 100 / slowPercent;
+        for (int i = 0; i < subscribers; i++) {
+            broadcaster.register(new DiscardingEmitter(i % slowEvery == 0 ? 1 : 0), "user" + i + "@example.com", null, null);
+        }
+        event = new AuditEventDto(1L, "billing", "user1@example.com", "INVOICE_PAID",
+                LocalDateTime.now(), "{\"invoice\":\"INV-0001\",\"amount\":199.9}");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(broadcaster, "stop");
+    }
+
+    @Benchmark
+    public void publish() {
+        broadcaster.publish(event);
+    }
+
+    @Benchmark
+    public long dispatch() {
+        long target = dispatched.get() + 1;
+        broadcaster.publish(event);
+        long current;
+        while ((current = dispatched.get()) < target) {
+            Thread.onSpinWait();
+        }
+        return current;
+    }
+
+    /**
+     * Emitter sem conexão: descarta os quadros, opcionalmente demorando para simular um cliente lento.
+     */
+    private static class DiscardingEmitter extends SseEmitter {
+
+        private final long delayMillis;
+
+        DiscardingEmitter(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.service.SubscriptionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede quanto custa encontrar os destinatários de um evento entre as assinaturas SSE,
+ * com filtros variados:
+ *
+ * - 70% ANALYSTs (filtro pelo próprio e-mail, entre 5.000 usuários);
+ * - 20% filtros por sistema (20 sistemas), metade deles também por ação;
+ * - 9% filtros só por ação (50 ações);
+ * - 1% ADMINs sem filtro.
+ *
+ * - indexed: {@link SubscriptionIndex}, que só confere as assinaturas candidatas.
+ * - scan: confere o filtro de todas as assinaturas, como faria uma lista simples.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="SseSubscriptionRoutingBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SseSubscriptionRoutingBenchmark {
+
+    private static final int USERS = 5_000;
+    private static final int SYSTEMS = 20;
+    private static final int ACTIONS = 50;
+    private static final int EVENTS = 1_024;
+
+    @Param({"10000"})
+    public int subscribers;
+
+    private SubscriptionIndex<Integer> index;
+    private List<AuditEventFilter> filters;
+    private AuditEventDto[] events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new SubscriptionIndex<>();
+        filters = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            int kind = random.nextInt(100);
+            AuditEventFilter filter;
+            if (kind < 70) {
+                filter = AuditEventFilter.builder().userEmail(user(random.nextInt(USERS))).build();
+            } else if (kind < 90) {
+                filter = AuditEventFilter.builder()
+                        .systemName(system(random.nextInt(SYSTEMS)))
+                        .action(kind < 80 ? action(random.nextInt(ACTIONS)) : null)
+                        .build();
+            } else if (kind < 99) {
+                filter = AuditEventFilter.builder().action(action(random.nextInt(ACTIONS))).build();
+            } else {
+                filter = null;
+            }
+            filters.add(index.add(i, filter));
+        }
+
+        events = new AuditEventDto[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            AuditEventDto event = new AuditEventDto();
+            event.setId((long) i);
+            event.setUserEmail(user(random.nextInt(USERS)));
+            event.setSystemName(system(random.nextInt(SYSTEMS)));
+            event.setAction(action(random.nextInt(ACTIONS)));
+            events[i] = event;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void indexed(Blackhole blackhole) {
+        for (AuditEventDto event : events) {
+            blackhole.consume(index.forEachMatch(event, blackhole::consume));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void scan(Blackhole blackhole) {
+        for (AuditEventDto event : events) {
+            int matches = 0;
+            for (int i = 0; i < filters.size(); i++) {
+                if (SubscriptionIndex.matches(filters.get(i), event)) {
+                    blackhole.consume(i);
+                    matches++;
+                }
+            }
+            blackhole.consume(matches);
+        }
+    }
+
+    private static String user(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    private static String system(int i) {
+        return "system-" + i;
+    }
+
+    private static String action(int i) {
+        return "ACTION_" + i;
+    }
+}
@@ -0,0 +1,262 @@
+package com.auditcenter.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de carga contra uma instância em execução, para comparar o modo padrão (threads de
+ * plataforma) com o perfil 'virtual-threads':
+ *
+ * 1. Abre 'sseClients' conexões em /events/stream e mede quantas o servidor registrou, e em quanto tempo.
+ * 2. Abre 'slowClients' conexões que nunca leem o socket (o envio para elas bloqueia).
+ * 3. Envia 'webhooks' eventos por POST /events/webhook, com 'concurrency' requisições
+ *    simultâneas, e mede a latência (p50/p99/máx.).
+ * 4. Espera a entrega e conta quantos clientes SSE receberam todos os eventos.
+ *
+ * Execução (com a aplicação já rodando, em cada modo):
+ * <pre>
+ * java -jar target/AuditCenter-0.0.1-SNAPSHOT.jar
+ * java -jar target/AuditCenter-0.0.1-SNAPSHOT.jar --spring.profiles.active=virtual-threads
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.auditcenter.benchmark.StreamingLoadHarness \
+ *     -Djmh.args="sseClients=2000 slowClients=50 webhooks=2000 concurrency=64"
+ * </pre>
+ */
+public class StreamingLoadHarness {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkArgs.parse(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int sseClients = Integer.parseInt(options.getOrDefault("sseClients", "1000"));
+        int slowClients = Integer.parseInt(options.getOrDefault("slowClients", "20"));
+        int webhooks = Integer.parseInt(options.getOrDefault("webhooks", "1000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        long deliveryTimeoutSeconds = Long.parseLong(options.getOrDefault("deliveryTimeoutSeconds", "30"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = adminToken(client, baseUrl);
+
+        // 1. Conexões SSE que leem normalmente.
+        List<EventCounter> counters = new ArrayList<>(sseClients);
+        List<CompletableFuture<?>> streams = new ArrayList<>(sseClients);
+        AtomicInteger refused = new AtomicInteger();
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < sseClients; i++) {
+            EventCounter counter = new EventCounter();
+            counters.add(counter);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/events/stream"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "text/event-stream")
+                    .build();
+            streams.add(client.sendAsync(request, responseInfo -> {
+                        if (responseInfo.statusCode() != 200) {
+                            refused.incrementAndGet();
+                        }
+                        return HttpResponse.BodySubscribers.fromLineSubscriber(counter);
+                    })
+                    .whenComplete((response, error) -> {
+                        if (error != null && counter.subscription == null) {
+                            refused.incrementAndGet();
+                        }
+                    }));
+        }
+        // O servidor só envia os cabeçalhos da resposta SSE junto com o primeiro evento, então
+        // as conexões são contadas pelas métricas do próprio servidor.
+        long connectDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        int subscribers;
+        while ((subscribers = subscribers(client, baseUrl, token)) < sseClients && refused.get() == 0
+                && System.nanoTime() < connectDeadline) {
+            Thread.sleep(50);
+        }
+        long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+
+        // 2. Conexões que nunca leem: o servidor acaba bloqueado escrevendo para elas.
+        List<Socket> slowSockets = new ArrayList<>(slowClients);
+        URI base = URI.create(baseUrl);
+        for (int i = 0; i < slowClients; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(1024);
+            socket.connect(new InetSocketAddress(base.getHost(), base.getPort()));
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /events/stream HTTP/1.1\r\nHost: " + base.getHost() + "\r\n"
+                    + "Authorization: Bearer " + token + "\r\nAccept: text/event-stream\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            slowSockets.add(socket);
+        }
+
+        // 3. Webhooks com 'concurrency' requisições em paralelo.
+        String payload = "{\"systemName\":\"load-test\",\"userEmail\":\"load@test.com\",\"action\":\"LOAD\","
+                + "\"metadata\":{\"padding\":\"" + "x".repeat(512) + "\"}}";
+        long[] latencies = new long[webhooks];
+        AtomicInteger nextWebhook = new AtomicInteger();
+        AtomicLong failedWebhooks = new AtomicLong();
+        ExecutorService senders = Executors.newFixedThreadPool(concurrency);
+        long webhookStart = System.nanoTime();
+        for (int t = 0; t < concurrency; t++) {
+            senders.execute(() -> {
+                int i;
+                while ((i = nextWebhook.getAndIncrement()) < webhooks) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/events/webhook"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(payload))
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 202) {
+                            failedWebhooks.incrementAndGet();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        failedWebhooks.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - start;
+                }
+            });
+        }
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.MINUTES);
+        long webhookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - webhookStart);
+
+        // 4. Entrega para os clientes SSE.
+        long deliveryDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(deliveryTimeoutSeconds);
+        int complete;
+        while ((complete = countComplete(counters, webhooks)) < subscribers && System.nanoTime() < deliveryDeadline) {
+            Thread.sleep(100);
+        }
+        long deliveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - webhookStart);
+        long received = counters.stream().mapToLong(counter -> counter.events.get()).sum();
+
+        Arrays.sort(latencies);
+        System.out.printf("SSE: %d/%d conexões registradas em %d ms (%d recusadas), mais %d clientes que não leem%n",
+                subscribers, sseClients, connectMillis, refused.get(), slowClients);
+        System.out.printf("Webhook: %d requisições (%d falhas) em %d ms, %.0f req/s, p50=%.1f ms, p99=%.1f ms, máx.=%.1f ms%n",
+                webhooks, failedWebhooks.get(), webhookMillis, webhooks * 1000.0 / Math.max(1, webhookMillis),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[webhooks - 1] / 1e6);
+        System.out.printf("Entrega: %d/%d clientes receberam todos os eventos (%d de %d entregas) em %d ms%n",
+                complete, subscribers, received, (long) subscribers * webhooks, deliveryMillis);
+        System.out.println("Servidor: " + streamStats(client, baseUrl, token));
+
+        streams.forEach(stream -> stream.cancel(true));
+        counters.forEach(EventCounter::cancel);
+        for (Socket socket : slowSockets) {
+            socket.close();
+        }
+        System.exit(0);
+    }
+
+    private static String adminToken(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        String email = "load-" + System.currentTimeMillis() + "@test.com";
+        post(client, baseUrl + "/auth/register", "{\"name\":\"Load\",\"email\":\"" + email
+                + "\",\"password\":\"secret123\",\"role\":\"ADMIN\"}", null);
+        String body = post(client, baseUrl + "/auth/login", "{\"email\":\"" + email + "\",\"password\":\"secret123\"}", null);
+        return OBJECT_MAPPER.readTree(body).get("accessToken").asText();
+    }
+
+    private static int subscribers(HttpClient client, String baseUrl, String token) throws IOException, InterruptedException {
+        return getStreamStats(client, baseUrl, token).path("subscribers").asInt();
+    }
+
+    private static String streamStats(HttpClient client, String baseUrl, String token) throws IOException, InterruptedException {
+        JsonNode stats = getStreamStats(client, baseUrl, token);
+        return "subscribers=" + stats.path("subscribers") + " dropped=" + stats.path("dropped")
+                + " slowConsumersDisconnected=" + stats.path("slowConsumersDisconnected")
+                + " dispatchOverflows=" + stats.path("dispatchOverflows");
+    }
+
+    private static JsonNode getStreamStats(HttpClient client, String baseUrl, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/events/stream/stats"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        return OBJECT_MAPPER.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private static String post(HttpClient client, String url, String json, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static int countComplete(List<EventCounter> counters, int expected) {
+        int complete = 0;
+        for (EventCounter counter : counters) {
+            if (counter.events.get() >= expected) {
+                complete++;
+            }
+        }
+        return complete;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Conta os eventos "audit-event" recebidos em uma conexão SSE.
+     */
+    private static class EventCounter implements Flow.Subscriber<String> {
+
+        private final AtomicLong events = new AtomicLong();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:audit-event")) {
+                events.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.auditcenter.benchmark;
+
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o caminho de um evento do webhook desde o corpo JSON (bytes) até a entidade pronta para
+ * o INSERT, com metadados de 1 KB e 64 KB (objetos aninhados, números, strings e arrays).
+ *
+ * - mapRoundTrip: reproduz a versão anterior, que lia 'metadata' como Map e o serializava de
+ *   volta para String com um ObjectMapper novo a cada evento.
+ * - rawPassthrough: a versão atual, que copia o objeto 'metadata' como texto durante a leitura
+ *   do corpo (RawJsonObjectDeserializer) e o mapper só repassa a String.
+ *
+ * Execução:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="WebhookMetadataBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookMetadataBenchmark {
+
+    @Param({"1024", "65536"})
+    public int metadataBytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AuditEventMapper auditEventMapper = AuditEventMapper.INSTANCE;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder metadata = new StringBuilder("{\"orderId\":12345,\"items\":[");
+        Random random = new Random(42);
+        int item = 0;
+        while (metadata.length() < metadataBytes - 100) {
+            if (item > 0) {
+                metadata.append(',');
+            }
+            metadata.append("{\"sku\":\"SKU-").append(random.nextInt(1_000_000))
+                    .append("\",\"quantity\":").append(1 + random.nextInt(10))
+                    .append(",\"price\":").append(random.nextInt(100_000) / 100.0)
+                    .append(",\"tags\":[\"promo\",\"frete-gratis\"],\"gift\":").append(random.nextBoolean())
+                    .append('}');
+            item++;
+        }
+        metadata.append("],\"customer\":{\"id\":987,\"segment\":\"varejo\"}}");
+        body = ("{\"systemName\":\"Financeiro\",\"userEmail\":\"user@example.com\",\"action\":\"PEDIDO_CRIADO\","
+                + "\"metadata\":" + metadata + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public AuditEvent mapRoundTrip() throws Exception {
+        LegacyWebhookEventRequest request = objectMapper.readValue(body, LegacyWebhookEventRequest.class);
+        return AuditEvent.builder()
+                .systemName(request.getSystemName())
+                .userEmail(request.getUserEmail())
+                .action(request.getAction())
+                .metadata(new ObjectMapper().writeValueAsString(request.getMetadata()))
+                .build();
+    }
+
+    @Benchmark
+    public AuditEvent rawPassthrough() throws Exception {
+        WebhookEventRequest request = objectMapper.readValue(body, WebhookEventRequest.class);
+        return auditEventMapper.toEntity(request);
+    }
+
+    /**
+     * O DTO do webhook como era antes: metadados lidos como Map.
+     */
+    @Data
+    public static class LegacyWebhookEventRequest {
+        private String systemName;
+        private String userEmail;
+        private String action;
+        private Map<String, Object> metadata;
+    }
+}
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principal que inicia a aplicação Spring Boot "AuditCenter".
@@ -24,8 +25,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @SecurityScheme: Define o esquema de segurança "Bearer Authentication" para JWT,
  *   permitindo que o token seja enviado no cabeçalho Authorization das requisições
  *   feitas a partir da UI do Swagger.
+ *
+ * @EnableScheduling habilita as tarefas periódicas (@Scheduled), como a retenção de eventos.
  */
 @SpringBootApplication
+@EnableScheduling
 @OpenAPIDefinition(info = @Info(title = "AuditCenter API", version = "1.0", description = "API para registrar e consultar eventos de auditoria."))
 @SecurityScheme(
     name = "bearerAuth",
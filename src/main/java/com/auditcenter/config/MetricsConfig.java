@@ -0,0 +1,33 @@
+package com.auditcenter.config;
+
+import com.auditcenter.security.JwtAuthenticationFilter;
+import com.auditcenter.service.AuditMetrics;
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Configuração das métricas HTTP publicadas pelo Actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Acrescenta o papel do usuário ('role') às métricas 'http.server.requests', que já trazem o
+     * endpoint ('uri'), o método e o status. O papel vem do atributo gravado pelo filtro JWT.
+     */
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object role = context.getCarrier().getAttribute(JwtAuthenticationFilter.ROLE_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                        .and("role", role == null ? AuditMetrics.NO_ROLE : role.toString());
+            }
+        };
+    }
+}
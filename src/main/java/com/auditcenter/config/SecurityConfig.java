@@ -1,6 +1,7 @@
 package com.auditcenter.config;
 
 import com.auditcenter.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -53,8 +54,14 @@ public class SecurityConfig {
 
                 // 2. Define as regras de autorização para cada endpoint
                 .authorizeHttpRequests(auth -> auth
+                        // Os despachos ASYNC (fim de uma resposta em streaming) e ERROR continuam uma
+                        // requisição já autorizada; o filtro JWT não roda neles, então não há token a checar.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // Permite acesso público aos endpoints de autenticação e documentação do Swagger
                         .requestMatchers(WHITE_LIST_URL).permitAll()
+                        // Health check público (load balancers); as métricas só para ADMINs
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Todas as outras requisições devem ser autenticadas
                         .anyRequest().authenticated()
                 )
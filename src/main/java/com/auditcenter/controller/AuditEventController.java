@@ -1,20 +1,53 @@
 package com.auditcenter.controller;
 
-import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.config.AsyncTimeoutConfig;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.AuditEventPage;
+import com.auditcenter.dto.BulkIngestionResponse;
+import com.auditcenter.dto.EventSearchPage;
+import com.auditcenter.dto.EventStats;
+import com.auditcenter.dto.IngestionStats;
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.IntegrityReport;
+import com.auditcenter.dto.StreamStats;
 import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.User;
+import com.auditcenter.service.AuditEventExportService;
+import com.auditcenter.service.AuditIntegrityService;
 import com.auditcenter.service.AuditEventService;
+import com.auditcenter.service.BulkIngestionService;
+import com.auditcenter.service.EventIngestionService;
+import com.auditcenter.service.EventSearchIndex;
+import com.auditcenter.service.EventSearchService;
+import com.auditcenter.service.EventStatsService;
+import com.auditcenter.service.ExportFormat;
+import com.auditcenter.service.SearchOrder;
+import com.auditcenter.service.SseBroadcaster;
+import com.auditcenter.service.StatsGranularity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 
 /**
  * Controller para manipulação de eventos de auditoria.
@@ -28,43 +61,228 @@ import java.util.List;
 public class AuditEventController {
 
     private final AuditEventService auditEventService;
+    private final EventIngestionService eventIngestionService;
+    private final BulkIngestionService bulkIngestionService;
+    private final AuditEventExportService auditEventExportService;
+    private final SseBroadcaster sseBroadcaster;
+    private final EventStatsService eventStatsService;
+    private final EventSearchService eventSearchService;
+    private final EventSearchIndex eventSearchIndex;
+    private final AuditIntegrityService auditIntegrityService;
+
+    @Value("${audit.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
 
     /**
      * Endpoint de webhook para receber eventos de sistemas externos.
+     * O evento é aceito no pipeline de ingestão assíncrona e gravado em lote logo em seguida.
      * @param request O payload do evento.
-     * @return O evento que foi salvo.
+     * @param idempotencyKey Chave opcional que identifica o evento nos reenvios do sistema de origem.
+     * @return O ticket de ingestão (HTTP 202 Accepted), ou o ticket do evento original se ele
+     *         já tinha sido recebido (HTTP 200 OK).
      */
     @PostMapping("/webhook")
-    @Operation(summary = "Recebe um evento de auditoria via webhook", description = "Endpoint para sistemas externos postarem eventos. Requer autenticação.")
+    @Operation(summary = "Recebe um evento de auditoria via webhook", description = "Endpoint para sistemas externos postarem eventos. O evento é gravado de forma assíncrona e a resposta traz um ticket de ingestão. Um reenvio com o mesmo cabeçalho 'Idempotency-Key' não é gravado de novo: retorna 200 com o ticket do original. Retorna 429 se a fila estiver cheia. Requer autenticação.")
     @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')") // Apenas usuários autenticados podem enviar eventos
-    public ResponseEntity<AuditEventDto> receiveWebhookEvent(@Valid @RequestBody WebhookEventRequest request) {
-        AuditEventDto savedEvent = auditEventService.saveEvent(request);
-        return new ResponseEntity<>(savedEvent, HttpStatus.CREATED);
+    public ResponseEntity<IngestionTicket> receiveWebhookEvent(
+            @Valid @RequestBody WebhookEventRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        IngestionTicket ticket = eventIngestionService.submit(request, idempotencyKey);
+        return ticket.isDuplicate() ? ResponseEntity.ok(ticket) : ResponseEntity.accepted().body(ticket);
+    }
+
+    /**
+     * Endpoint de webhook em lote: aceita um array JSON ou um fluxo NDJSON de eventos.
+     * O corpo é lido de forma incremental e os eventos são gravados em blocos.
+     * @param body O corpo da requisição, lido como fluxo.
+     * @return O resultado de cada evento do lote.
+     * @throws IOException se a leitura do corpo falhar.
+     */
+    @PostMapping(value = "/webhook/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Recebe um lote de eventos de auditoria", description = "Aceita um array JSON (application/json) ou um evento por linha (application/x-ndjson). Retorna o resultado de cada evento, na ordem de envio. Requer autenticação.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public ResponseEntity<BulkIngestionResponse> receiveBulkWebhookEvents(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkIngestionService.ingest(body));
+    }
+
+    /**
+     * Consulta o estado de um evento enviado pelo webhook.
+     * @param ticketId O identificador do ticket devolvido pelo webhook.
+     * @return O ticket atualizado, ou 404 se ele não existir (ou já tiver expirado).
+     */
+    @GetMapping("/ingestion/{ticketId}")
+    @Operation(summary = "Consulta um ticket de ingestão", description = "Retorna o estado (QUEUED, SPILLED, PERSISTED ou FAILED) de um evento enviado pelo webhook.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public ResponseEntity<IngestionTicket> getIngestionTicket(@PathVariable String ticketId) {
+        return eventIngestionService.getTicket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Lista os eventos de auditoria.
+     * Retorna as métricas do pipeline de ingestão.
+     * @return Profundidade da fila, contadores e latência de gravação dos lotes.
+     */
+    @GetMapping("/ingestion/stats")
+    @Operation(summary = "Métricas do pipeline de ingestão", description = "Profundidade da fila e latência de gravação dos lotes. Apenas ADMINs.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IngestionStats> getIngestionStats() {
+        return ResponseEntity.ok(eventIngestionService.getStats());
+    }
+
+    /**
+     * Lista os eventos de auditoria, do mais recente para o mais antigo, com paginação por cursor.
      * A lógica de quem vê o quê é tratada no AuditEventService.
-     * @return Uma lista de eventos de auditoria.
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param cursor Cursor devolvido pela página anterior.
+     * @param size Tamanho da página.
+     * @return Uma página de eventos de auditoria e o cursor da próxima página.
      */
     @GetMapping
-    @Operation(summary = "Lista eventos de auditoria", description = "Retorna uma lista de eventos. ADMINs veem tudo, ANALYSTs veem apenas os seus.")
+    @Operation(summary = "Lista eventos de auditoria", description = "Retorna uma página de eventos, do mais recente para o mais antigo. Use 'nextCursor' para buscar a próxima página. ADMINs veem tudo, ANALYSTs veem apenas os seus.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public ResponseEntity<AuditEventPage> listEvents(
+            @ParameterObject AuditEventFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(auditEventService.listEvents(filter, cursor, size));
+    }
+
+    /**
+     * Busca eventos de auditoria pelo texto da ação e dos metadados.
+     * @param filter Filtros opcionais (sistema, ação, e-mail e intervalo de tempo).
+     * @param q Os termos buscados (todos precisam aparecer no evento).
+     * @param sort Ordem dos resultados (RELEVANCE ou TIME).
+     * @param cursor Cursor devolvido pela página anterior da mesma busca.
+     * @param size Tamanho da página.
+     * @return Uma página de resultados e o cursor da próxima página, ou 503 se a busca estiver desabilitada.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Busca textual de eventos", description = "Encontra os eventos cuja ação ou metadados contêm todos os termos de 'q' (sem diferenciar maiúsculas nem acentos), por relevância ou do mais recente para o mais antigo. Use 'nextCursor' para buscar a próxima página. ADMINs buscam em tudo, ANALYSTs apenas nos seus. Retorna 503 se a busca textual estiver desabilitada.")
     @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
-    public ResponseEntity<List<AuditEventDto>> listEvents() {
-        return ResponseEntity.ok(auditEventService.listEvents());
+    public ResponseEntity<EventSearchPage> searchEvents(
+            @ParameterObject AuditEventFilter filter,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "RELEVANCE") SearchOrder sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(eventSearchService.search(filter, q, sort, cursor, size));
+    }
+
+    /**
+     * Reconstrói o índice da busca textual a partir do banco, em segundo plano.
+     * @return 202 se a reconstrução começou, ou 409 se outra já está em andamento.
+     */
+    @PostMapping("/search/rebuild")
+    @Operation(summary = "Reconstrói o índice da busca textual", description = "Relê todos os eventos (inclusive os arquivados) e troca o índice quando termina; as buscas continuam usando o índice atual enquanto isso. Retorna 409 se uma reconstrução já está em andamento. Apenas ADMINs.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        return eventSearchIndex.startRebuild()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Conta os eventos por intervalo de tempo, sistema e ação, a partir das contagens pré-agregadas.
+     * @param from Início do período (inclusivo); padrão: 24 horas antes de 'to'.
+     * @param to Fim do período (exclusivo); padrão: agora.
+     * @param granularity Tamanho dos intervalos (MINUTE, HOUR ou DAY).
+     * @param systemName Filtro opcional pelo sistema.
+     * @param action Filtro opcional pela ação.
+     * @return As contagens por intervalo, em ordem cronológica.
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Contagem de eventos por intervalo", description = "Eventos por sistema, ação e intervalo de tempo (minuto, hora ou dia), lidos de contagens pré-agregadas. Apenas ADMINs.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EventStats> getEventStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "MINUTE") StatsGranularity granularity,
+            @RequestParam(required = false) String systemName,
+            @RequestParam(required = false) String action
+    ) {
+        return ResponseEntity.ok(eventStatsService.getStats(from, to, granularity, systemName, action));
+    }
+
+    /**
+     * Verifica se os eventos de auditoria e a cadeia de selos foram alterados.
+     * @param from Início do período (inclusivo); padrão: desde o primeiro evento.
+     * @param to Fim do período (exclusivo); padrão: até o último intervalo selado.
+     * @return O relatório da verificação, com o primeiro elo quebrado, se houver.
+     */
+    @GetMapping("/integrity")
+    @Operation(summary = "Verifica a integridade dos eventos", description = "Recalcula o hash dos eventos do período e a raiz de Merkle de cada intervalo selado, e confere a cadeia de selos inteira. Retorna o primeiro elo quebrado (evento alterado, removido ou incluído, ou selo alterado ou removido). Apenas ADMINs.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IntegrityReport> verifyIntegrity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ResponseEntity.ok(auditIntegrityService.verify(from, to));
+    }
+
+    /**
+     * Exporta os eventos de auditoria em NDJSON ou CSV, opcionalmente compactados com gzip.
+     * As linhas são lidas do banco e escritas na resposta uma a uma, sem carregar o resultado em memória.
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param format Formato de saída (NDJSON ou CSV).
+     * @param gzip Se a saída deve ser compactada com gzip.
+     * @param request A requisição, que recebe o tempo máximo da exportação ('audit.export.timeout-ms').
+     * @return O arquivo de exportação, escrito à medida que os eventos são lidos.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Exporta eventos de auditoria", description = "Exporta os eventos em ordem cronológica como NDJSON ou CSV, opcionalmente com gzip. ADMINs exportam tudo, ANALYSTs apenas os seus.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @ParameterObject AuditEventFilter filter,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request
+    ) {
+        // Só a exportação ganha o tempo longo; as demais respostas assíncronas ficam com o padrão.
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeoutMs);
+        String fileName = "audit-events." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(auditEventExportService.export(filter, format, gzip));
     }
 
     /**
      * Abre um fluxo de Server-Sent Events (SSE) para receber eventos em tempo real.
+     * Apenas os eventos que passam no filtro são enviados; para ANALYSTs, o filtro é sempre
+     * restrito ao próprio e-mail. Ao reconectar com o cabeçalho Last-Event-ID, o cliente recebe
+     * antes os eventos que perdeu.
+     * @param filter Filtros opcionais (sistema, ação e e-mail; o intervalo de tempo e os atributos são ignorados).
+     * @param lastEventId ID do último evento recebido (enviado automaticamente pelo EventSource ao reconectar).
+     * @param user O usuário autenticado.
      * @return um SseEmitter que representa a conexão com o cliente.
      */
     @GetMapping("/stream")
-    @Operation(summary = "Recebe eventos de auditoria em tempo real", description = "Estabelece uma conexão SSE para streaming de eventos.")
+    @Operation(summary = "Recebe eventos de auditoria em tempo real", description = "Estabelece uma conexão SSE para streaming dos eventos que passam no filtro. ADMINs podem assinar qualquer evento, ANALYSTs apenas os seus (403 se pedirem outro e-mail). Com o cabeçalho Last-Event-ID, os eventos perdidos desde esse ID são reenviados primeiro.")
     @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
-    public SseEmitter streamEvents() {
+    public SseEmitter streamEvents(
+            @ParameterObject AuditEventFilter filter,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @AuthenticationPrincipal User user
+    ) {
+        AuditEventFilter scopedFilter = auditEventService.scopeToCurrentUser(filter)
+                .orElseThrow(() -> new AccessDeniedException("ANALYSTs só podem assinar os próprios eventos."));
         // Cria um emitter com um timeout longo (ex: 1 hora) para manter a conexão aberta.
         SseEmitter emitter = new SseEmitter(3600_000L);
-        auditEventService.addEmitter(emitter);
-        return emitter;
+        return sseBroadcaster.register(emitter, user.getEmail(), scopedFilter, lastEventId);
+    }
+
+    /**
+     * Retorna as métricas do streaming SSE.
+     * @return Clientes conectados, descartes por lentidão e o atraso de cada cliente.
+     */
+    @GetMapping("/stream/stats")
+    @Operation(summary = "Métricas do streaming SSE", description = "Clientes conectados, descartes por lentidão e atraso de cada cliente. Apenas ADMINs.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamStats> getStreamStats() {
+        return ResponseEntity.ok(sseBroadcaster.getStats());
     }
 } 
\ No newline at end of file
@@ -10,6 +10,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -21,7 +23,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
-@Tag(name = "Autenticação", description = "Endpoints para registro e login de usuários")
+@Tag(name = "Autenticação", description = "Endpoints para registro, login e revogação de tokens de usuários")
 public class AuthController {
 
     private final AuthService authService;
@@ -65,4 +67,26 @@ public class AuthController {
     ) {
         return ResponseEntity.ok(authService.login(request));
     }
+
+    /**
+     * Endpoint para revogar todos os tokens emitidos para um usuário (ex: logout de todos os
+     * dispositivos ou token vazado).
+     * @param userId ID do usuário cujos tokens serão revogados.
+     * @return ResponseEntity vazio (204), ou 404 se o usuário não existir.
+     */
+    @Operation(
+            summary = "Revoga os tokens de um usuário",
+            description = "Invalida todos os tokens JWT já emitidos para o usuário. ADMINs podem revogar qualquer usuário; os demais, apenas a si mesmos.",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Tokens revogados"),
+                    @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
+            }
+    )
+    @PostMapping("/users/{userId}/revoke")
+    @PreAuthorize("hasRole('ADMIN') or (isAuthenticated() and #userId == authentication.principal.id)")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long userId) {
+        return authService.revokeTokens(userId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.auditcenter.dto;
+
+import com.auditcenter.entity.AuditEventAttribute;
+import com.auditcenter.exception.InvalidQueryException;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros opcionais para a consulta de eventos de auditoria.
+ * Recebidos como parâmetros de query string e aplicados diretamente na consulta ao banco.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Filtros para a consulta de eventos de auditoria.")
+public class AuditEventFilter {
+
+    @Schema(description = "Filtra pelo nome do sistema de origem.", example = "Financeiro")
+    private String systemName;
+
+    @Schema(description = "Filtra pela ação realizada.", example = "PAGAMENTO_APROVADO")
+    private String action;
+
+    @Schema(description = "Filtra pelo e-mail do usuário. Para ANALYSTs, é sempre o próprio e-mail.", example = "user@example.com")
+    private String userEmail;
+
+    @Schema(description = "Início do intervalo (inclusivo), em ISO-8601.", example = "2025-01-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @Schema(description = "Fim do intervalo (exclusivo), em ISO-8601.", example = "2025-02-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Schema(description = "Filtra por atributos dos metadados, no formato 'caminho:valor' (ex.: orderId:12345). "
+            + "Só aceita os caminhos de 'audit.metadata.indexed-attributes'; vários atributos são combinados com E.",
+            example = "[\"orderId:12345\"]")
+    private List<String> attributes;
+
+    /**
+     * Converte o parâmetro 'attributes' em pares (caminho, valor). O caminho termina no
+     * primeiro ':', então o valor pode conter ':'.
+     *
+     * @return Os atributos pedidos, ou uma lista vazia.
+     * @throws InvalidQueryException se algum item não tiver o formato 'caminho:valor'.
+     */
+    public List<AuditEventAttribute> attributeFilters() {
+        List<AuditEventAttribute> filters = new ArrayList<>();
+        if (attributes == null) {
+            return filters;
+        }
+        for (String attribute : attributes) {
+            int separator = attribute.indexOf(':');
+            if (separator <= 0) {
+                throw new InvalidQueryException("Filtro de atributo inválido (use 'caminho:valor'): " + attribute);
+            }
+            filters.add(new AuditEventAttribute(attribute.substring(0, separator), attribute.substring(separator + 1)));
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,26 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para uma página de eventos de auditoria obtida por paginação por cursor (keyset).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de eventos de auditoria, do mais recente para o mais antigo.")
+public class AuditEventPage {
+
+    @Schema(description = "Eventos da página.")
+    private List<AuditEventDto> items;
+
+    @Schema(description = "Cursor opaco para buscar a próxima página. Nulo quando não há mais eventos.", example = "MTczNjU0MDAwMDAwMDAwMDAwMDoxMjM")
+    private String nextCursor;
+}
@@ -0,0 +1,68 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de resposta do webhook em lote.
+ * Traz os totais e o resultado de cada item, na ordem em que foram enviados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado do processamento de um lote de eventos.")
+public class BulkIngestionResponse {
+
+    /**
+     * Resultado de um item do lote.
+     */
+    public enum ItemStatus {
+        PERSISTED,
+        INVALID,
+        FAILED
+    }
+
+    /**
+     * Resultado individual de um evento do lote.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Resultado de um evento do lote.")
+    public static class ItemResult {
+
+        @Schema(description = "Posição do evento no lote (começando em 0). Em NDJSON, corresponde à linha.", example = "0")
+        private long index;
+
+        @Schema(description = "Resultado do evento.", example = "PERSISTED")
+        private ItemStatus status;
+
+        @Schema(description = "ID do evento salvo, quando persistido.", example = "1")
+        private Long eventId;
+
+        @Schema(description = "Motivo da falha, quando houver.", example = "systemName: O nome do sistema não pode ser nulo.")
+        private String error;
+    }
+
+    @Schema(description = "Quantidade de eventos lidos.", example = "3")
+    private long total;
+
+    @Schema(description = "Quantidade de eventos persistidos.", example = "2")
+    private long persisted;
+
+    @Schema(description = "Quantidade de eventos rejeitados (inválidos ou com falha na gravação).", example = "1")
+    private long rejected;
+
+    @Schema(description = "Indica se a leitura foi interrompida por um erro de sintaxe no corpo da requisição.", example = "false")
+    private boolean aborted;
+
+    @Schema(description = "Resultado de cada evento, na ordem de envio.")
+    private List<ItemResult> results;
+}
@@ -0,0 +1,48 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para uma página de resultados da busca textual (/events/search).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de resultados da busca textual, por relevância ou do mais recente para o mais antigo.")
+public class EventSearchPage {
+
+    @Schema(description = "Eventos encontrados, na ordem pedida.")
+    private List<Hit> items;
+
+    @Schema(description = "Cursor opaco para buscar a próxima página. Nulo quando não há mais resultados.")
+    private String nextCursor;
+
+    @Schema(description = "Quantidade de eventos indexados que atendem à busca (antes da paginação).", example = "37")
+    private long totalMatches;
+
+    @Schema(description = "Falso enquanto o índice ainda está sendo construído na inicialização: os resultados podem estar incompletos.", example = "true")
+    private boolean indexComplete;
+
+    /**
+     * Um evento encontrado e a sua relevância.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Um resultado da busca textual.")
+    public static class Hit {
+
+        @Schema(description = "O evento.")
+        private AuditEventDto event;
+
+        @Schema(description = "Relevância (BM25) na ordem RELEVANCE; nula na ordem TIME.", example = "7.42")
+        private Double score;
+    }
+}
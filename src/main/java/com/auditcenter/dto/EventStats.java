@@ -0,0 +1,60 @@
+package com.auditcenter.dto;
+
+import com.auditcenter.service.StatsGranularity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO com a contagem de eventos por intervalo de tempo, sistema e ação (/events/stats).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Contagem de eventos por intervalo de tempo, sistema e ação.")
+public class EventStats {
+
+    @Schema(description = "Início do período consultado (inclusivo), alinhado ao intervalo.", example = "2025-01-01T00:00:00")
+    private LocalDateTime from;
+
+    @Schema(description = "Fim do período consultado (exclusivo), alinhado ao intervalo.", example = "2025-01-02T00:00:00")
+    private LocalDateTime to;
+
+    @Schema(description = "Tamanho dos intervalos.", example = "HOUR")
+    private StatsGranularity granularity;
+
+    @Schema(description = "Total de eventos no período.", example = "15230")
+    private long total;
+
+    @Schema(description = "Contagens por intervalo, sistema e ação, em ordem cronológica. Intervalos sem eventos não aparecem.")
+    private List<Bucket> buckets;
+
+    /**
+     * A contagem de um intervalo para um par (sistema, ação).
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Contagem de eventos de um sistema e ação em um intervalo.")
+    public static class Bucket {
+
+        @Schema(description = "Início do intervalo.", example = "2025-01-01T10:00:00")
+        private LocalDateTime bucketStart;
+
+        @Schema(description = "Sistema de origem.", example = "Financeiro")
+        private String systemName;
+
+        @Schema(description = "Ação.", example = "PAGAMENTO_APROVADO")
+        private String action;
+
+        @Schema(description = "Quantidade de eventos.", example = "42")
+        private long count;
+    }
+}
@@ -0,0 +1,63 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com um retrato instantâneo das métricas do pipeline de ingestão.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Métricas do pipeline de ingestão assíncrona.")
+public class IngestionStats {
+
+    @Schema(description = "Quantidade de eventos aguardando na fila em memória.", example = "42")
+    private int queueDepth;
+
+    @Schema(description = "Capacidade máxima da fila em memória.", example = "10000")
+    private int queueCapacity;
+
+    @Schema(description = "Quantidade de eventos aguardando no arquivo de transbordo (spill).", example = "0")
+    private long spilledPending;
+
+    @Schema(description = "Bytes de eventos no log em disco ainda não gravados no banco (0 sem 'audit.ingestion.wal.enabled').", example = "0")
+    private long walPendingBytes;
+
+    @Schema(description = "Quantidade de fsyncs do log em disco.", example = "250")
+    private long walSyncs;
+
+    @Schema(description = "Média de eventos confirmados por fsync do log em disco (group commit).", example = "4.0")
+    private double walRecordsPerSync;
+
+    @Schema(description = "Total de eventos aceitos.", example = "1000")
+    private long accepted;
+
+    @Schema(description = "Total de eventos rejeitados por backpressure.", example = "0")
+    private long rejected;
+
+    @Schema(description = "Total de eventos repetidos (mesma chave de idempotência) não gravados de novo.", example = "0")
+    private long duplicates;
+
+    @Schema(description = "Total de eventos persistidos.", example = "958")
+    private long persisted;
+
+    @Schema(description = "Total de eventos que falharam na persistência.", example = "0")
+    private long failed;
+
+    @Schema(description = "Quantidade de lotes gravados no banco.", example = "12")
+    private long flushes;
+
+    @Schema(description = "Duração do último lote gravado, em milissegundos.", example = "3.2")
+    private double lastFlushMillis;
+
+    @Schema(description = "Duração média dos lotes gravados, em milissegundos.", example = "2.7")
+    private double avgFlushMillis;
+
+    @Schema(description = "Maior duração de lote observada, em milissegundos.", example = "15.1")
+    private double maxFlushMillis;
+}
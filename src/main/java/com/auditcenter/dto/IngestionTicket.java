@@ -0,0 +1,50 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO que representa o "ticket" de ingestão devolvido pelo webhook.
+ * O evento é aceito de forma assíncrona; o ticket permite consultar depois se ele foi persistido.
+ *
+ * O ticket guardado pelo pipeline é atualizado pela thread escritora e lido pelas requisições:
+ * 'status', 'eventId' e 'duplicate' são voláteis, e quem escreve altera 'status' por último
+ * (quem lê 'status' primeiro vê os demais campos já atualizados).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ticket de ingestão de um evento aceito para processamento assíncrono.")
+public class IngestionTicket {
+
+    /**
+     * Estados possíveis de um evento dentro do pipeline de ingestão.
+     */
+    public enum Status {
+        QUEUED,
+        SPILLED,
+        PERSISTED,
+        FAILED
+    }
+
+    @Schema(description = "Identificador do ticket.", example = "5b8f0c2e-6a1d-4a8e-9f0e-2f1c7d3b9a10")
+    private String ticketId;
+
+    @Schema(description = "Estado atual do evento no pipeline.", example = "QUEUED")
+    private volatile Status status;
+
+    @Schema(description = "ID do evento de auditoria, preenchido após a persistência.", example = "1")
+    private volatile Long eventId;
+
+    @Schema(description = "Instante em que o evento foi aceito.")
+    private Instant acceptedAt;
+
+    @Schema(description = "Verdadeiro se o evento repete um já recebido (mesma chave de idempotência); o ticket e o ID são os do original.", example = "false")
+    private volatile boolean duplicate;
+}
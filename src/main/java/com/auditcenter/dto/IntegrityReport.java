@@ -0,0 +1,99 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com o resultado de uma verificação de integridade dos eventos (selos e cadeia de selos).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da verificação de integridade dos eventos de auditoria.")
+public class IntegrityReport {
+
+    @Schema(description = "Indica se nenhum elo quebrado foi encontrado.", example = "true")
+    private boolean valid;
+
+    @Schema(description = "Início do período verificado (inclusivo), ou nulo para desde o primeiro selo.")
+    private LocalDateTime from;
+
+    @Schema(description = "Fim do período verificado (exclusivo), ou nulo para até o último selo.")
+    private LocalDateTime to;
+
+    @Schema(description = "Fim do último intervalo selado: eventos mais novos ainda não são cobertos.")
+    private LocalDateTime sealedUpTo;
+
+    @Schema(description = "Quantidade de selos da cadeia conferidos (a cadeia é sempre conferida inteira).", example = "1440")
+    private long sealsChecked;
+
+    @Schema(description = "Selos de partições já removidas pela retenção: a cadeia é conferida, os eventos não.", example = "0")
+    private long expiredSeals;
+
+    @Schema(description = "Quantidade de intervalos selados do período cujos eventos foram conferidos.", example = "1440")
+    private long bucketsChecked;
+
+    @Schema(description = "Quantidade de eventos do período cujo hash foi recalculado.", example = "1000000")
+    private long eventsChecked;
+
+    @Schema(description = "Quantidade de elos quebrados encontrados.", example = "0")
+    private long brokenLinks;
+
+    @Schema(description = "O primeiro elo quebrado (o mais antigo), ou nulo se a verificação passou.")
+    private BrokenLink firstBrokenLink;
+
+    @Schema(description = "Hash do último selo da cadeia (guarde-o fora do banco para detectar a troca da cadeia inteira).")
+    private String chainHead;
+
+    @Schema(description = "Duração da verificação, em milissegundos.", example = "850")
+    private long elapsedMillis;
+
+    /**
+     * O motivo de um elo quebrado.
+     */
+    public enum Reason {
+        /** O hash de um selo não confere com o seu conteúdo e o selo anterior. */
+        CHAIN_HASH_MISMATCH,
+        /** Falta um selo na sequência (selo removido). */
+        SEAL_MISSING,
+        /** O conteúdo de um evento não confere com o hash gravado no insert. */
+        EVENT_ALTERED,
+        /** A quantidade de eventos do intervalo não confere com o selo (evento removido ou incluído). */
+        EVENT_COUNT_MISMATCH,
+        /** A raiz de Merkle do intervalo não confere com o selo. */
+        MERKLE_ROOT_MISMATCH,
+        /** Evento em um intervalo já encerrado que não tem selo (evento incluído depois da selagem). */
+        UNSEALED_EVENT
+    }
+
+    /**
+     * Um elo quebrado: o selo, o intervalo e, quando identificável, o evento.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Um elo quebrado da verificação de integridade.")
+    public static class BrokenLink {
+
+        @Schema(description = "Motivo.", example = "EVENT_ALTERED")
+        private Reason reason;
+
+        @Schema(description = "Número do selo na cadeia, ou nulo se o intervalo não tem selo.", example = "1021")
+        private Long seq;
+
+        @Schema(description = "Partição do intervalo.", example = "202610_r365")
+        private String partitionName;
+
+        @Schema(description = "Início do intervalo.")
+        private LocalDateTime bucketStart;
+
+        @Schema(description = "ID do evento, quando identificável.", example = "48213")
+        private Long eventId;
+    }
+}
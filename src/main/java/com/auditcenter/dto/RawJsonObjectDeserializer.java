@@ -0,0 +1,60 @@
+package com.auditcenter.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lê um objeto JSON como texto, sem convertê-lo em Map.
+ *
+ * Os tokens do objeto são copiados do parser direto para um gerador que escreve em um buffer,
+ * em uma única passada: a sintaxe é validada pelo próprio parser durante a cópia e nenhum
+ * objeto intermediário (Map, List, números convertidos) é criado. Os números são copiados
+ * com o texto original, então "150.00" continua "150.00". Os espaços entre os tokens são
+ * descartados.
+ *
+ * Qualquer valor que não seja um objeto (string, número, array) é rejeitado como erro de
+ * tipo, o mesmo comportamento de um campo declarado como Map.
+ */
+public class RawJsonObjectDeserializer extends StdDeserializer<String> {
+
+    // Só gera texto JSON compacto; é imutável e seguro para uso concorrente.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public RawJsonObjectDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (String) ctxt.handleUnexpectedToken(Map.class, parser);
+        }
+        SegmentedStringWriter writer = new SegmentedStringWriter(new BufferRecycler());
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            int depth = 0;
+            JsonToken token = parser.currentToken();
+            do {
+                switch (token) {
+                    case START_OBJECT, START_ARRAY -> depth++;
+                    case END_OBJECT, END_ARRAY -> depth--;
+                    default -> { }
+                }
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    generator.writeNumber(parser.getText());
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            } while (depth > 0 && (token = parser.nextToken()) != null);
+        }
+        return writer.getAndClear();
+    }
+}
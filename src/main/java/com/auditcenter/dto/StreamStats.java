@@ -0,0 +1,98 @@
+package com.auditcenter.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO com um retrato instantâneo das métricas do streaming SSE (/events/stream).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Métricas do streaming de eventos em tempo real.")
+public class StreamStats {
+
+    @Schema(description = "Quantidade de clientes SSE conectados.", example = "1200")
+    private int subscribers;
+
+    @Schema(description = "Total de eventos publicados para o streaming.", example = "50000")
+    private long published;
+
+    @Schema(description = "Total de eventos já distribuídos para os buffers dos clientes.", example = "49990")
+    private long dispatched;
+
+    @Schema(description = "Total de entregas (evento x cliente) colocadas nos buffers.", example = "120000")
+    private long deliveries;
+
+    @Schema(description = "Eventos recentes guardados para a retomada com Last-Event-ID.", example = "10000")
+    private int replayBufferEvents;
+
+    @Schema(description = "Retomadas atendidas pelo buffer de eventos recentes.", example = "40")
+    private long replaysFromBuffer;
+
+    @Schema(description = "Retomadas que precisaram buscar os eventos no banco.", example = "2")
+    private long replaysFromDatabase;
+
+    @Schema(description = "Eventos aguardando distribuição.", example = "10")
+    private int dispatchQueueDepth;
+
+    @Schema(description = "Eventos não transmitidos porque a fila de distribuição estava cheia.", example = "0")
+    private long dispatchOverflows;
+
+    @Schema(description = "Total de entregas descartadas por clientes lentos.", example = "12")
+    private long dropped;
+
+    @Schema(description = "Total de clientes desconectados por lentidão.", example = "1")
+    private long slowConsumersDisconnected;
+
+    @Schema(description = "Métricas de cada cliente conectado.")
+    private List<SubscriberStats> subscriberStats;
+
+    /**
+     * Métricas de um cliente SSE.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Métricas de um cliente SSE conectado.")
+    public static class SubscriberStats {
+
+        @Schema(description = "Identificador da conexão.", example = "17")
+        private long id;
+
+        @Schema(description = "Usuário autenticado da conexão.", example = "analyst@auditcenter.com")
+        private String principal;
+
+        @Schema(description = "Filtro da assinatura (campos nulos aceitam qualquer valor).")
+        private AuditEventFilter filter;
+
+        @Schema(description = "Momento da conexão.")
+        private Instant connectedAt;
+
+        @Schema(description = "Eventos aguardando envio no buffer do cliente.", example = "3")
+        private int queued;
+
+        @Schema(description = "Eventos entregues ao cliente.", example = "4980")
+        private long delivered;
+
+        @Schema(description = "Eventos descartados por lentidão do cliente.", example = "0")
+        private long dropped;
+
+        @Schema(description = "Eventos reenviados na retomada com Last-Event-ID.", example = "0")
+        private long replayed;
+
+        @Schema(description = "Atraso entre publicação e envio do último evento, em milissegundos.", example = "0.4")
+        private double lastLagMillis;
+
+        @Schema(description = "Maior atraso entre publicação e envio observado, em milissegundos.", example = "12.5")
+        private double maxLagMillis;
+    }
+}
@@ -1,6 +1,7 @@
 package com.auditcenter.dto;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,8 +10,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.Map;
-
 /**
  * DTO para receber um evento de auditoria através do endpoint de webhook.
  * Representa o payload JSON que sistemas externos enviarão.
@@ -35,28 +34,16 @@ public class WebhookEventRequest {
     private String action;
 
     /**
-     * Campo flexível para metadados adicionais.
-     * O Jackson (biblioteca de serialização/desserialização JSON usada pelo Spring)
-     * irá automaticamente converter o objeto JSON 'metadata' da requisição em um Map.
+     * Campo flexível para metadados adicionais, guardado exatamente como o JSON recebido.
+     * - @JsonDeserialize(using = RawJsonObjectDeserializer.class): o objeto 'metadata' da
+     *   requisição é validado e copiado como texto durante a leitura do corpo, sem passar por
+     *   um Map. É esse texto que vai para a coluna 'metadata', sem nova serialização.
+     * - @JsonRawValue: ao serializar a requisição (ex: no arquivo de spill), o texto volta a
+     *   ser escrito como objeto JSON, e não como string.
      */
-    @Schema(description = "Objeto JSON com metadados adicionais sobre o evento.", example = "{\"productId\": 789, \"amount\": 2, \"totalPrice\": 150.00}")
+    @Schema(description = "Objeto JSON com metadados adicionais sobre o evento.", type = "object", example = "{\"productId\": 789, \"amount\": 2, \"totalPrice\": 150.00}", requiredMode = Schema.RequiredMode.REQUIRED)
     @NotNull(message = "Os metadados não podem ser nulos.")
-    private Map<String, Object> metadata;
-
-    /**
-     * Método utilitário para converter o mapa de metadados em uma string JSON.
-     * Isso é útil para persistir os metadados no banco de dados, que espera uma string.
-     * @return A representação em String JSON dos metadados.
-     */
-    public String getMetadataAsJsonString() {
-        try {
-            // ObjectMapper é thread-safe e pode ser reutilizado, mas para simplicidade
-            // instanciamos um novo aqui. Em cenários de alta performance, injetar um
-            // bean singleton do ObjectMapper seria o ideal.
-            return new ObjectMapper().writeValueAsString(this.metadata);
-        } catch (Exception e) {
-            // Em uma aplicação real, um log de erro seria apropriado aqui.
-            return "{}";
-        }
-    }
-} 
\ No newline at end of file
+    @JsonDeserialize(using = RawJsonObjectDeserializer.class)
+    @JsonRawValue
+    private String metadata;
+}
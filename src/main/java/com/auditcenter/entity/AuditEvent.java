@@ -4,10 +4,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Representa um evento de auditoria no sistema.
@@ -16,6 +19,10 @@ import java.time.LocalDateTime;
  * Anotações JPA:
  * - @Entity: Marca esta classe como uma entidade JPA.
  * - @Table(name = "audit_events"): Define o nome da tabela no banco de dados.
+ *   Os índices declarados aqui documentam os criados pelas migrações Flyway
+ *   (db/migration/V2__audit_events_indexes.sql), que são a fonte oficial do esquema.
+ *   Os eventos são gravados nas partições de audit_events, que repetem essa estrutura
+ *   (veja com.auditcenter.repository.AuditPartitionCatalog).
  *
  * Anotações Lombok:
  * - @Data: Gera getters, setters, etc.
@@ -27,11 +34,23 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "audit_events")
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_events_timestamp", columnList = "timestamp DESC, id DESC"),
+        @Index(name = "idx_audit_events_user_email", columnList = "user_email, timestamp DESC, id DESC"),
+        @Index(name = "idx_audit_events_system_name", columnList = "system_name, timestamp DESC, id DESC"),
+        @Index(name = "idx_audit_events_action", columnList = "action, timestamp DESC, id DESC")
+})
 public class AuditEvent {
 
+    /**
+     * Identificador do evento, obtido da sequência 'audit_events_seq' em blocos de 50.
+     * - Ao contrário de IDENTITY, a sequência permite que o Hibernate conheça o ID antes do
+     *   INSERT, e portanto agrupe vários INSERTs em um único lote JDBC.
+     * - allocationSize deve ser igual ao INCREMENT BY da sequência (V3__audit_events_id_sequence.sql).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_events_seq")
+    @SequenceGenerator(name = "audit_events_seq", sequenceName = "audit_events_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -56,22 +75,49 @@ public class AuditEvent {
 
     /**
      * Carimbo de data e hora de quando o evento foi registrado.
-     * - @CreationTimestamp: Anotação do Hibernate que popula automaticamente
-     *   este campo com o timestamp atual no momento da criação da entidade.
+     * Preenchido pelo repositório no insert (AuditEventRepositoryImpl.batchInsert), antes de
+     * escolher a partição: é ele que decide em qual período o evento é gravado.
      */
-    @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
     /**
      * Metadados adicionais em formato JSON.
      * Armazena um JSON como uma String contendo detalhes extras sobre o evento.
-     * - @Lob: Especifica que este campo deve ser persistido como um Large Object (CLOB para String).
-     *   Isso é adequado para armazenar textos longos, como um payload JSON.
      * - @Column(columnDefinition = "TEXT"): Em muitos dialetos SQL, como PostgreSQL e H2,
      *   definir a coluna como 'TEXT' é uma forma mais explícita e comum de lidar com JSON como string.
+     *   Não usamos @Lob: no H2 e no PostgreSQL, TEXT é uma string de tamanho ilimitado lida
+     *   diretamente da linha, sem a indireção (e o custo) de um Large Object.
      */
-    @Lob
     @Column(columnDefinition = "TEXT")
     private String metadata;
-} 
\ No newline at end of file
+
+    /**
+     * SHA-256 do conteúdo do evento (instante, sistema, e-mail, ação e metadados), calculado pelo
+     * repositório no insert (ver com.auditcenter.repository.AuditEventHashes). É a base da árvore
+     * de Merkle que sela o intervalo do evento; nulo em eventos gravados antes da V9.
+     */
+    @Column(length = 64, updatable = false)
+    private String eventHash;
+
+    /**
+     * Atributos extraídos dos metadados na ingestão (ver MetadataAttributeExtractor), usados
+     * pelo filtro 'attributes' da consulta de eventos. Só são gravados: nenhuma leitura de
+     * eventos precisa carregá-los, por isso a coleção é LAZY e fica fora do toString/equals.
+     */
+    @ElementCollection
+    @CollectionTable(name = "audit_event_attributes", joinColumns = @JoinColumn(name = "event_id"))
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<AuditEventAttribute> attributes = new HashSet<>();
+
+    /**
+     * Chave de idempotência do evento (ver com.auditcenter.service.IdempotencyIndex), ou null.
+     * Não é uma coluna: o repositório a grava em 'audit_event_keys' junto com o evento.
+     */
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String idempotencyKey;
+}
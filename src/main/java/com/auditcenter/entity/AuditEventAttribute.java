@@ -0,0 +1,25 @@
+package com.auditcenter.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Um atributo extraído dos metadados de um evento: o caminho configurado em
+ * 'audit.metadata.indexed-attributes' (ex.: "customer.id") e o valor encontrado nele.
+ * Gravado na tabela 'audit_event_attributes', indexada por (attr_key, attr_value).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class AuditEventAttribute {
+
+    @Column(name = "attr_key", nullable = false, length = 100)
+    private String key;
+
+    @Column(name = "attr_value", nullable = false)
+    private String value;
+}
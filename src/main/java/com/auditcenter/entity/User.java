@@ -75,6 +75,16 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Role role;
 
+    /**
+     * Versão dos tokens JWT do usuário. Cada token leva a versão vigente na sua emissão,
+     * e só é aceito enquanto ela for igual à do banco. Incrementar este campo revoga
+     * todos os tokens emitidos até então.
+     * - @Builder.Default: Mantém o valor inicial 0 também em objetos criados pelo Builder.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer tokenVersion = 0;
+
     // Métodos da interface UserDetails implementados abaixo.
     // O Spring Security usa esses métodos para interagir com nosso modelo de usuário.
 
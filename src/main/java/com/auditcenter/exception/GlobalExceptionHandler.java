@@ -2,6 +2,7 @@ package com.auditcenter.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -69,6 +70,62 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Captura parâmetros de consulta inválidos enviados pelo cliente (ex: cursor de paginação malformado).
+     * Retorna uma resposta 400 Bad Request.
+     */
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidQueryException(InvalidQueryException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", System.currentTimeMillis());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Captura rejeições do pipeline de ingestão por falta de espaço na fila.
+     * Retorna uma resposta 429 Too Many Requests para que o sistema de origem tente novamente mais tarde.
+     */
+    @ExceptionHandler(IngestionRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestionRejectedException(IngestionRejectedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", System.currentTimeMillis());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Captura buscas textuais em uma instância com a busca desabilitada.
+     * Retorna uma resposta 503 Service Unavailable (a requisição é válida; o recurso é que não está disponível).
+     */
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleSearchUnavailableException(SearchUnavailableException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", System.currentTimeMillis());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Captura negações de acesso das regras @PreAuthorize.
+     * Retorna uma resposta 403 Forbidden (sem isso, cairiam na captura genérica como 500).
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, Object>> handleAccessDeniedException(AccessDeniedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", System.currentTimeMillis());
+        body.put("status", HttpStatus.FORBIDDEN.value());
+        body.put("error", "Forbidden");
+        body.put("message", "Acesso negado.");
+        return new ResponseEntity<>(body, HttpStatus.FORBIDDEN);
+    }
+
     /**
      * Captura genérica para quaisquer outras exceções não tratadas.
      * Retorna uma resposta 500 Internal Server Error.
@@ -0,0 +1,13 @@
+package com.auditcenter.exception;
+
+/**
+ * Lançada quando o pipeline de ingestão não consegue aceitar um evento
+ * porque a fila está cheia (backpressure).
+ * O GlobalExceptionHandler a converte em uma resposta 429 Too Many Requests.
+ */
+public class IngestionRejectedException extends RuntimeException {
+
+    public IngestionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.auditcenter.exception;
+
+/**
+ * Lançada quando os parâmetros de uma consulta enviados pelo cliente são inválidos
+ * (ex: cursor malformado, filtro de atributo fora do formato, período grande demais).
+ * O GlobalExceptionHandler a converte em uma resposta 400 Bad Request.
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+
+    public InvalidQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.auditcenter.exception;
+
+/**
+ * Lançada quando a busca textual está desabilitada nesta instância (audit.search.enabled=false).
+ * O GlobalExceptionHandler a converte em uma resposta 503 Service Unavailable.
+ */
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -48,25 +48,32 @@ public interface AuditEventMapper {
     /**
      * Converte um WebhookEventRequest (DTO de entrada) para uma entidade AuditEvent.
      *
-     * @Mapping(target = "metadata", expression = "java(request.getMetadataAsJsonString())")
-     * Esta anotação é necessária porque o tipo do campo 'metadata' é diferente entre
-     * o DTO (Map<String, Object>) e a entidade (String).
-     * Indicamos ao MapStruct para usar o resultado do método 'getMetadataAsJsonString()'
-     * do DTO de origem para preencher o campo 'metadata' da entidade de destino.
+     * O campo 'metadata' é copiado direto: o DTO já o traz como o texto JSON recebido
+     * (veja {@link com.auditcenter.dto.RawJsonObjectDeserializer}), no formato da coluna.
      *
      * @Mapping(target = "id", ignore = true)
      * Ignoramos o campo 'id' porque ele deve ser gerado pelo banco de dados na inserção,
      * não vindo da requisição.
      *
      * @Mapping(target = "timestamp", ignore = true)
-     * Ignoramos o campo 'timestamp' porque ele será preenchido automaticamente pela
-     * anotação @CreationTimestamp na entidade.
+     * Ignoramos o campo 'timestamp' porque ele é preenchido pelo repositório no insert.
+     *
+     * @Mapping(target = "attributes", ignore = true)
+     * Os atributos indexados são extraídos dos metadados pelo AuditEventService, na gravação.
+     *
+     * @Mapping(target = "eventHash", ignore = true)
+     * O hash do conteúdo é calculado pelo repositório no insert, depois do timestamp.
+     *
+     * @Mapping(target = "idempotencyKey", ignore = true)
+     * A chave de idempotência vem do pipeline de ingestão, e não do corpo da requisição.
      *
      * @param request O DTO de entrada a ser convertido.
      * @return A entidade AuditEvent correspondente.
      */
-    @Mapping(target = "metadata", expression = "java(request.getMetadataAsJsonString())")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "timestamp", ignore = true)
+    @Mapping(target = "attributes", ignore = true)
+    @Mapping(target = "eventHash", ignore = true)
+    @Mapping(target = "idempotencyKey", ignore = true)
     AuditEvent toEntity(WebhookEventRequest request);
 } 
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.entity.AuditEvent;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * Um bloco de um segmento do arquivo frio, já descompactado em colunas. Os eventos só viram
+ * entidades ({@link #toEvent}) depois de passar no filtro.
+ */
+final class ArchiveBlock {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ArchiveSegment segment;
+    private final int size;
+    private final long[] ids;
+    private final long[] micros;
+    private final int[] systems;
+    private final int[] actions;
+    private final int[] emails;
+    private final String[] metadata;
+    private final byte[][] hashes;
+    /** Atributos do evento i: posições [attributeStart[i], attributeStart[i + 1]). */
+    private final int[] attributeStart;
+    private final int[] attributeKeys;
+    private final String[] attributeValues;
+
+    ArchiveBlock(ArchiveSegment segment, ByteBuffer raw) {
+        this.segment = segment;
+        size = (int) ArchiveSegment.readVarLong(raw);
+        ids = new long[size];
+        long id = 0;
+        for (int i = 0; i < size; i++) {
+            long zigZag = ArchiveSegment.readVarLong(raw);
+            id += (zigZag >>> 1) ^ -(zigZag & 1);
+            ids[i] = id;
+        }
+        micros = new long[size];
+        long timestamp = 0;
+        for (int i = 0; i < size; i++) {
+            timestamp += ArchiveSegment.readVarLong(raw);
+            micros[i] = timestamp;
+        }
+        systems = readCodes(raw, size);
+        actions = readCodes(raw, size);
+        emails = readCodes(raw, size);
+        metadata = new String[size];
+        for (int i = 0; i < size; i++) {
+            metadata[i] = ArchiveSegment.readString(raw);
+        }
+        hashes = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            if (raw.get() == 1) {
+                hashes[i] = new byte[32];
+                raw.get(hashes[i]);
+            }
+        }
+        attributeStart = new int[size + 1];
+        int total = 0;
+        int mark = raw.position();
+        for (int i = 0; i < size; i++) {
+            int count = (int) ArchiveSegment.readVarLong(raw);
+            for (int j = 0; j < count; j++) {
+                ArchiveSegment.readVarLong(raw);
+                ArchiveSegment.readString(raw);
+            }
+            total += count;
+        }
+        raw.position(mark);
+        attributeKeys = new int[total];
+        attributeValues = new String[total];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            attributeStart[i] = next;
+            int count = (int) ArchiveSegment.readVarLong(raw);
+            for (int j = 0; j < count; j++, next++) {
+                attributeKeys[next] = (int) ArchiveSegment.readVarLong(raw);
+                attributeValues[next] = ArchiveSegment.readString(raw);
+            }
+        }
+        attributeStart[size] = next;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    long micros(int row) {
+        return micros[row];
+    }
+
+    /**
+     * Se o evento atende ao filtro (sistema, ação, e-mail, intervalo de tempo e atributos).
+     */
+    boolean matches(int row, ArchiveSegment.Match match) {
+        if (micros[row] < match.fromMicros || micros[row] >= match.toMicros
+                || (match.systemCode >= 0 && systems[row] != match.systemCode)
+                || (match.actionCode >= 0 && actions[row] != match.actionCode)
+                || (match.emailCode >= 0 && emails[row] != match.emailCode)) {
+            return false;
+        }
+        for (int i = 0; i < match.attributeKeys.length; i++) {
+            if (!hasAttribute(row, match.attributeKeys[i], match.attributeValues[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    AuditEvent toEvent(int row) {
+        return AuditEvent.builder()
+                .id(ids[row])
+                .timestamp(EventTimestamps.fromMicros(micros[row]))
+                .systemName(segment.value(ArchiveSegment.SYSTEMS, systems[row]))
+                .action(segment.value(ArchiveSegment.ACTIONS, actions[row]))
+                .userEmail(segment.value(ArchiveSegment.EMAILS, emails[row]))
+                .metadata(metadata[row])
+                .eventHash(hashes[row] == null ? null : HEX.formatHex(hashes[row]))
+                .build();
+    }
+
+    private boolean hasAttribute(int row, int key, String value) {
+        for (int i = attributeStart[row]; i < attributeStart[row + 1]; i++) {
+            if (attributeKeys[i] == key && attributeValues[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] readCodes(ByteBuffer raw, int size) {
+        int[] codes = new int[size];
+        for (int i = 0; i < size; i++) {
+            codes[i] = (int) ArchiveSegment.readVarLong(raw);
+        }
+        return codes;
+    }
+}
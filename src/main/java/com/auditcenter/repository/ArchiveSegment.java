@@ -0,0 +1,303 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEventAttribute;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Um segmento do arquivo frio de uma partição: um arquivo imutável, lido por mapeamento em
+ * memória (mmap), com eventos em ordem de (timestamp, id).
+ *
+ * Formato:
+ * <pre>
+ * [MAGIC]
+ * [bloco 0] [bloco 1] ...         cada bloco: até 'audit.archive.block-events' eventos, compactado (Deflate)
+ * [dicionários]                   compactado: sistemas, ações, e-mails e chaves de atributo
+ * [índice]                        uma entrada de tamanho fixo por bloco (ver BlockEntry)
+ * [rodapé]                        posições do índice e dos dicionários, contagens e MAGIC
+ * </pre>
+ *
+ * Dentro de um bloco os dados são colunares: todos os IDs (diferença para o anterior), todos os
+ * instantes (idem, em microssegundos), os códigos de sistema, de ação e de e-mail nos
+ * dicionários, os metadados, os hashes do conteúdo e os atributos. Colunas de valores parecidos
+ * ficam juntas, o que ajuda a compactação.
+ *
+ * O índice é esparso: uma entrada por bloco com o menor e o maior instante e ID. Uma consulta
+ * descarta por ele os blocos fora do intervalo, e por um dicionário os segmentos sem o sistema,
+ * a ação ou o e-mail pedido, sem descompactar nada.
+ */
+final class ArchiveSegment {
+
+    /** "AUDSEG01". */
+    static final long MAGIC = 0x4155445345473031L;
+    static final int FOOTER_BYTES = 48;
+    static final int DICTIONARIES = 4;
+    static final int SYSTEMS = 0;
+    static final int ACTIONS = 1;
+    static final int EMAILS = 2;
+    static final int ATTRIBUTE_KEYS = 3;
+
+    /**
+     * A entrada de um bloco no índice esparso.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class BlockEntry {
+
+        static final int BYTES = 56;
+
+        private final long offset;
+        private final int compressedLength;
+        private final int rawLength;
+        private final int count;
+        private final int crc;
+        private final long minMicros;
+        private final long maxMicros;
+        private final long minId;
+        private final long maxId;
+
+        static BlockEntry readFrom(ByteBuffer buffer) {
+            return new BlockEntry(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.putLong(offset).putInt(compressedLength).putInt(rawLength).putInt(count).putInt(crc)
+                    .putLong(minMicros).putLong(maxMicros).putLong(minId).putLong(maxId);
+        }
+    }
+
+    /**
+     * Um filtro de eventos traduzido para os códigos dos dicionários deste segmento.
+     */
+    static final class Match {
+
+        final int systemCode;
+        final int actionCode;
+        final int emailCode;
+        final int[] attributeKeys;
+        final String[] attributeValues;
+        final long fromMicros;
+        final long toMicros;
+
+        private Match(int systemCode, int actionCode, int emailCode, int[] attributeKeys, String[] attributeValues,
+                      long fromMicros, long toMicros) {
+            this.systemCode = systemCode;
+            this.actionCode = actionCode;
+            this.emailCode = emailCode;
+            this.attributeKeys = attributeKeys;
+            this.attributeValues = attributeValues;
+            this.fromMicros = fromMicros;
+            this.toMicros = toMicros;
+        }
+
+        /** Se o bloco pode ter eventos no intervalo de tempo do filtro. */
+        boolean overlaps(BlockEntry block) {
+            return block.getMaxMicros() >= fromMicros && block.getMinMicros() < toMicros;
+        }
+    }
+
+    @Getter
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final String[][] dictionaries;
+    private final List<Map<String, Integer>> codes;
+    private final BlockEntry[] blocks;
+    @Getter
+    private final long eventCount;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer, String[][] dictionaries, BlockEntry[] blocks,
+                           long eventCount) {
+        this.path = path;
+        this.buffer = buffer;
+        this.dictionaries = dictionaries;
+        this.blocks = blocks;
+        this.eventCount = eventCount;
+        List<Map<String, Integer>> byValue = new ArrayList<>(DICTIONARIES);
+        for (String[] values : dictionaries) {
+            Map<String, Integer> dictionary = new HashMap<>(values.length * 2);
+            for (int code = 0; code < values.length; code++) {
+                dictionary.put(values[code], code);
+            }
+            byValue.add(dictionary);
+        }
+        this.codes = byValue;
+    }
+
+    /**
+     * Abre e mapeia um segmento, conferindo o rodapé, o índice e os dicionários.
+     *
+     * @throws IOException se o arquivo não for um segmento completo.
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Segmento de arquivo inválido: " + path);
+            }
+            // O mapeamento continua válido depois que o canal é fechado.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer footer = buffer.slice((int) size - FOOTER_BYTES, FOOTER_BYTES);
+            long dictionaryOffset = footer.getLong();
+            int dictionaryLength = footer.getInt();
+            int dictionaryRawLength = footer.getInt();
+            int dictionaryCrc = footer.getInt();
+            long indexOffset = footer.getLong();
+            int blockCount = footer.getInt();
+            long eventCount = footer.getLong();
+            if (buffer.getLong(0) != MAGIC || footer.getLong() != MAGIC
+                    || indexOffset + (long) blockCount * BlockEntry.BYTES != size - FOOTER_BYTES) {
+                throw new IOException("Segmento de arquivo incompleto: " + path);
+            }
+
+            ByteBuffer index = buffer.slice((int) indexOffset, blockCount * BlockEntry.BYTES);
+            BlockEntry[] blocks = new BlockEntry[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blocks[i] = BlockEntry.readFrom(index);
+            }
+
+            ByteBuffer dictionary = ByteBuffer.wrap(inflate(buffer.slice((int) dictionaryOffset, dictionaryLength),
+                    dictionaryRawLength, dictionaryCrc, path));
+            String[][] dictionaries = new String[DICTIONARIES][];
+            for (int i = 0; i < DICTIONARIES; i++) {
+                dictionaries[i] = new String[(int) readVarLong(dictionary)];
+                for (int code = 0; code < dictionaries[i].length; code++) {
+                    dictionaries[i][code] = readString(dictionary);
+                }
+            }
+            return new ArchiveSegment(path, buffer, dictionaries, blocks, eventCount);
+        }
+    }
+
+    int blockCount() {
+        return blocks.length;
+    }
+
+    BlockEntry block(int index) {
+        return blocks[index];
+    }
+
+    String value(int dictionary, int code) {
+        return dictionaries[dictionary][code];
+    }
+
+    /** Os valores distintos de um dicionário (ex.: todos os sistemas com eventos no segmento). */
+    List<String> values(int dictionary) {
+        return List.of(dictionaries[dictionary]);
+    }
+
+    long firstMicros() {
+        return blocks.length == 0 ? Long.MAX_VALUE : blocks[0].getMinMicros();
+    }
+
+    long lastMicros() {
+        return blocks.length == 0 ? Long.MIN_VALUE : blocks[blocks.length - 1].getMaxMicros();
+    }
+
+    /**
+     * Traduz o filtro para os códigos deste segmento.
+     *
+     * @return O filtro traduzido, ou null se nenhum evento do segmento pode atendê-lo (um valor
+     *         pedido não está no dicionário).
+     */
+    Match match(AuditEventFilter filter) {
+        int systemCode = code(SYSTEMS, filter.getSystemName());
+        int actionCode = code(ACTIONS, filter.getAction());
+        int emailCode = code(EMAILS, filter.getUserEmail());
+        List<AuditEventAttribute> attributes = filter.attributeFilters();
+        int[] attributeKeys = new int[attributes.size()];
+        String[] attributeValues = new String[attributes.size()];
+        for (int i = 0; i < attributes.size(); i++) {
+            attributeKeys[i] = code(ATTRIBUTE_KEYS, attributes.get(i).getKey());
+            attributeValues[i] = attributes.get(i).getValue();
+            if (attributeKeys[i] == -2) {
+                return null;
+            }
+        }
+        if (systemCode == -2 || actionCode == -2 || emailCode == -2) {
+            return null;
+        }
+        return new Match(systemCode, actionCode, emailCode, attributeKeys, attributeValues,
+                filter.getFrom() == null ? Long.MIN_VALUE : EventTimestamps.toMicros(filter.getFrom()),
+                filter.getTo() == null ? Long.MAX_VALUE : EventTimestamps.toMicros(filter.getTo()));
+    }
+
+    /**
+     * Lê e descompacta um bloco, direto da região mapeada.
+     *
+     * @throws IOException se o bloco estiver corrompido (CRC32).
+     */
+    ArchiveBlock readBlock(int index) throws IOException {
+        BlockEntry block = blocks[index];
+        byte[] raw = inflate(buffer.slice((int) block.getOffset(), block.getCompressedLength()), block.getRawLength(),
+                block.getCrc(), path);
+        return new ArchiveBlock(this, ByteBuffer.wrap(raw));
+    }
+
+    /** -1 sem filtro; -2 se o valor não está no dicionário. */
+    private int code(int dictionary, String value) {
+        if (value == null) {
+            return -1;
+        }
+        return codes.get(dictionary).getOrDefault(value, -2);
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int rawLength, int expectedCrc, Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Bloco corrompido no segmento de arquivo " + path);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Bloco corrompido no segmento de arquivo " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
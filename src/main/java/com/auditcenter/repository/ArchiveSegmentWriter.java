@@ -0,0 +1,214 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.entity.AuditEventAttribute;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Escreve um segmento do arquivo frio ({@link ArchiveSegment}) com eventos já ordenados por
+ * (timestamp, id). O arquivo só é válido depois de {@link #finish}: o rodapé é a última coisa
+ * gravada, então um segmento interrompido no meio é recusado na abertura.
+ */
+final class ArchiveSegmentWriter implements AutoCloseable {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final FileChannel channel;
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private final List<List<String>> dictionaryValues = new ArrayList<>();
+    private final List<ArchiveSegment.BlockEntry> blocks = new ArrayList<>();
+    private final Deflater deflater = new Deflater();
+    private long position;
+    private long eventCount;
+
+    ArchiveSegmentWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        for (int i = 0; i < ArchiveSegment.DICTIONARIES; i++) {
+            dictionaries.add(new HashMap<>());
+            dictionaryValues.add(new ArrayList<>());
+        }
+        write(ByteBuffer.allocate(8).putLong(ArchiveSegment.MAGIC).flip());
+    }
+
+    /** Bytes já gravados no segmento. */
+    long size() {
+        return position;
+    }
+
+    /**
+     * Grava um bloco: as colunas dos eventos, uma depois da outra, compactadas juntas.
+     *
+     * @param events Os eventos do bloco, em ordem de (timestamp, id), depois dos blocos anteriores.
+     * @param attributes Os atributos de cada evento, pelo ID (eventos sem atributos podem faltar).
+     */
+    void writeBlock(List<AuditEvent> events, Map<Long, List<AuditEventAttribute>> attributes) throws IOException {
+        Encoder out = new Encoder();
+        out.varLong(events.size());
+        long previousId = 0;
+        long previousMicros = 0;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        // IDs: diferença para o anterior (com sinal; os IDs não seguem exatamente a ordem do tempo).
+        for (AuditEvent event : events) {
+            out.zigZag(event.getId() - previousId);
+            previousId = event.getId();
+            minId = Math.min(minId, event.getId());
+            maxId = Math.max(maxId, event.getId());
+        }
+        // Instantes: diferença para o anterior, em microssegundos (sempre >= 0).
+        for (AuditEvent event : events) {
+            long micros = EventTimestamps.toMicros(event.getTimestamp());
+            out.varLong(micros - previousMicros);
+            previousMicros = micros;
+        }
+        for (AuditEvent event : events) {
+            out.varLong(code(ArchiveSegment.SYSTEMS, event.getSystemName()));
+        }
+        for (AuditEvent event : events) {
+            out.varLong(code(ArchiveSegment.ACTIONS, event.getAction()));
+        }
+        for (AuditEvent event : events) {
+            out.varLong(code(ArchiveSegment.EMAILS, event.getUserEmail()));
+        }
+        for (AuditEvent event : events) {
+            out.nullableString(event.getMetadata());
+        }
+        for (AuditEvent event : events) {
+            if (event.getEventHash() == null) {
+                out.write(0);
+            } else {
+                out.write(1);
+                out.writeBytes(HEX.parseHex(event.getEventHash()));
+            }
+        }
+        for (AuditEvent event : events) {
+            List<AuditEventAttribute> eventAttributes = attributes.getOrDefault(event.getId(), List.of());
+            out.varLong(eventAttributes.size());
+            for (AuditEventAttribute attribute : eventAttributes) {
+                out.varLong(code(ArchiveSegment.ATTRIBUTE_KEYS, attribute.getKey()));
+                out.nullableString(attribute.getValue());
+            }
+        }
+
+        byte[] raw = out.toByteArray();
+        byte[] compressed = compress(raw);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        blocks.add(new ArchiveSegment.BlockEntry(position, compressed.length, raw.length, events.size(), (int) crc.getValue(),
+                EventTimestamps.toMicros(events.get(0).getTimestamp()), previousMicros, minId, maxId));
+        write(ByteBuffer.wrap(compressed));
+        eventCount += events.size();
+    }
+
+    /**
+     * Grava os dicionários, o índice esparso dos blocos e o rodapé, e leva o arquivo ao disco.
+     */
+    void finish() throws IOException {
+        Encoder out = new Encoder();
+        for (List<String> values : dictionaryValues) {
+            out.varLong(values.size());
+            values.forEach(out::nullableString);
+        }
+        byte[] raw = out.toByteArray();
+        byte[] compressed = compress(raw);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        long dictionaryOffset = position;
+        write(ByteBuffer.wrap(compressed));
+
+        long indexOffset = position;
+        ByteBuffer index = ByteBuffer.allocate(blocks.size() * ArchiveSegment.BlockEntry.BYTES);
+        blocks.forEach(block -> block.writeTo(index));
+        write(index.flip());
+
+        ByteBuffer footer = ByteBuffer.allocate(ArchiveSegment.FOOTER_BYTES)
+                .putLong(dictionaryOffset)
+                .putInt(compressed.length)
+                .putInt(raw.length)
+                .putInt((int) crc.getValue())
+                .putLong(indexOffset)
+                .putInt(blocks.size())
+                .putLong(eventCount)
+                .putLong(ArchiveSegment.MAGIC);
+        write(footer.flip());
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        channel.close();
+    }
+
+    private int code(int dictionary, String value) {
+        return dictionaries.get(dictionary).computeIfAbsent(value, key -> {
+            dictionaryValues.get(dictionary).add(key);
+            return dictionaryValues.get(dictionary).size() - 1;
+        });
+    }
+
+    private byte[] compress(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Buffer de bytes com inteiros de tamanho variável (7 bits por byte, como no protobuf).
+     */
+    private static final class Encoder extends ByteArrayOutputStream {
+
+        Encoder() {
+            super(64 * 1024);
+        }
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigZag(long value) {
+            varLong((value << 1) ^ (value >> 63));
+        }
+
+        /** Tamanho + 1 (0 para null) e os bytes em UTF-8. */
+        void nullableString(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.entity.AuditEventAttribute;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Arquivo frio das partições antigas: cada partição arquivada vira um diretório
+ * ('audit.archive.directory'/&lt;partição&gt;) com segmentos imutáveis ({@link ArchiveSegment}),
+ * e as suas tabelas são removidas do banco.
+ *
+ * A gravação lê a partição em ordem de (timestamp, id), bloco a bloco, e escreve os segmentos em
+ * um diretório temporário, que só é publicado (renomeado) depois de completo; a contagem dos
+ * segmentos publicados é conferida com a da tabela antes de a partição ser dada como arquivada.
+ *
+ * As consultas do repositório leem os segmentos mapeados em memória, com os mesmos filtros e a
+ * mesma ordem das tabelas. Os blocos descompactados mais usados ficam em um cache
+ * ('audit.archive.block-cache-size'), para que páginas seguidas não descompactem o mesmo bloco.
+ *
+ * Os segmentos são arquivos locais: com várias instâncias, o diretório precisa ser compartilhado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final RowMapper<AuditEvent> EVENT_MAPPER = (rs, rowNum) -> AuditEvent.builder()
+            .id(rs.getLong("id"))
+            .timestamp(rs.getObject("timestamp", LocalDateTime.class))
+            .action(rs.getString("action"))
+            .systemName(rs.getString("system_name"))
+            .userEmail(rs.getString("user_email"))
+            .metadata(rs.getString("metadata"))
+            .eventHash(rs.getString("event_hash"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.archive.directory:${java.io.tmpdir}/auditcenter/archive}")
+    private Path directory;
+
+    @Value("${audit.archive.block-events:4096}")
+    private int blockEvents;
+
+    @Value("${audit.archive.segment-bytes:268435456}")
+    private long segmentBytes;
+
+    @Value("${audit.archive.block-cache-size:64}")
+    private long blockCacheSize;
+
+    private final Map<String, List<ArchiveSegment>> segments = new ConcurrentHashMap<>();
+    private Cache<Map.Entry<ArchiveSegment, Integer>, ArchiveBlock> blockCache;
+
+    @PostConstruct
+    public void init() {
+        blockCache = Caffeine.newBuilder().maximumSize(blockCacheSize).build();
+    }
+
+    /**
+     * Grava os eventos (e os seus atributos) de uma partição no arquivo. As tabelas não são
+     * alteradas: quem chama as remove depois (AuditPartitionCatalog.markArchived).
+     *
+     * @return Quantos eventos foram arquivados.
+     * @throws IllegalStateException se os segmentos gravados não tiverem todos os eventos da tabela.
+     */
+    public long write(AuditPartition partition) {
+        Path target = directory.resolve(partition.getName());
+        Path temporary = directory.resolve(partition.getName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            // Sobras de uma tentativa interrompida (antes ou depois da publicação).
+            deleteRecursively(temporary);
+            deleteRecursively(target);
+            segments.remove(partition.getName());
+            Files.createDirectory(temporary);
+
+            long archived = 0;
+            int segmentNumber = 0;
+            ArchiveSegmentWriter writer = null;
+            try {
+                List<AuditEvent> block = readBlock(partition, null);
+                while (!block.isEmpty()) {
+                    if (writer == null) {
+                        writer = new ArchiveSegmentWriter(temporary.resolve(String.format("%06d", ++segmentNumber) + SEGMENT_SUFFIX));
+                    }
+                    writer.writeBlock(block, readAttributes(partition, block));
+                    archived += block.size();
+                    if (writer.size() >= segmentBytes) {
+                        writer.finish();
+                        writer.close();
+                        writer = null;
+                    }
+                    block = readBlock(partition, block.get(block.size() - 1));
+                }
+                if (writer != null) {
+                    writer.finish();
+                }
+            } finally {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(directory);
+
+            long stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition.getEventsTable(), Long.class);
+            long written = segments(partition).stream().mapToLong(ArchiveSegment::getEventCount).sum();
+            if (written != stored || written != archived) {
+                throw new IllegalStateException("Arquivo da partição " + partition.getName() + " incompleto: "
+                        + written + " de " + stored + " eventos.");
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao arquivar a partição " + partition.getName(), e);
+        }
+    }
+
+    /**
+     * Apaga o arquivo de uma partição (partição removida pela retenção).
+     */
+    public void delete(AuditPartition partition) {
+        segments.remove(partition.getName());
+        blockCache.invalidateAll();
+        try {
+            deleteRecursively(directory.resolve(partition.getName()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao apagar o arquivo da partição " + partition.getName(), e);
+        }
+    }
+
+    /**
+     * Tamanho em disco do arquivo de uma partição.
+     */
+    public long sizeInBytes(AuditPartition partition) {
+        long bytes = 0;
+        for (ArchiveSegment segment : segments(partition)) {
+            try {
+                bytes += Files.size(segment.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Os sistemas com eventos no arquivo de uma partição (lidos dos dicionários, sem descompactar blocos).
+     */
+    public Set<String> systemNames(AuditPartition partition) {
+        Set<String> systems = new LinkedHashSet<>();
+        segments(partition).forEach(segment -> systems.addAll(segment.values(ArchiveSegment.SYSTEMS)));
+        return systems;
+    }
+
+    /**
+     * O instante do primeiro e do último evento arquivado da partição em [from, to), ou null se
+     * não há nenhum. Só os blocos das pontas são descompactados.
+     *
+     * @param from Início do intervalo (inclusivo), ou null para sem limite.
+     * @param to Fim do intervalo (exclusivo), ou null para sem limite.
+     */
+    public LocalDateTime[] timeRange(AuditPartition partition, LocalDateTime from, LocalDateTime to) {
+        AuditEventFilter filter = AuditEventFilter.builder().from(from).to(to).build();
+        Iterator<AuditEvent> oldest = iterate(partition, filter);
+        if (!oldest.hasNext()) {
+            return null;
+        }
+        return new LocalDateTime[]{oldest.next().getTimestamp(),
+                findPage(partition, filter, null, null, 1).get(0).getTimestamp()};
+    }
+
+    /**
+     * Uma página de eventos arquivados, do mais recente para o mais antigo, a partir do cursor
+     * (mesma semântica de AuditEventRepositoryCustom.findPage).
+     */
+    public List<AuditEvent> findPage(AuditPartition partition, AuditEventFilter filter, LocalDateTime beforeTimestamp,
+                                     Long beforeId, int limit) {
+        boolean hasCursor = beforeTimestamp != null && beforeId != null;
+        long beforeMicros = hasCursor ? EventTimestamps.toMicros(beforeTimestamp) : Long.MAX_VALUE;
+        List<AuditEvent> page = new ArrayList<>();
+        List<ArchiveSegment> archived = segments(partition);
+        for (int s = archived.size() - 1; s >= 0 && page.size() < limit; s--) {
+            ArchiveSegment segment = archived.get(s);
+            ArchiveSegment.Match match = segment.match(filter);
+            if (match == null) {
+                continue;
+            }
+            for (int b = segment.blockCount() - 1; b >= 0 && page.size() < limit; b--) {
+                ArchiveSegment.BlockEntry entry = segment.block(b);
+                if (!match.overlaps(entry) || entry.getMinMicros() > beforeMicros) {
+                    continue;
+                }
+                ArchiveBlock block = block(segment, b);
+                for (int row = block.size() - 1; row >= 0 && page.size() < limit; row--) {
+                    long micros = block.micros(row);
+                    boolean beforeCursor = !hasCursor || micros < beforeMicros
+                            || (micros == beforeMicros && block.id(row) < beforeId);
+                    if (beforeCursor && block.matches(row, match)) {
+                        page.add(block.toEvent(row));
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Os eventos arquivados com ID maior que 'afterId', em ordem de ID (no máximo 'limit').
+     * Os blocos cujo maior ID não passa de 'afterId' são descartados pelo índice.
+     */
+    public List<AuditEvent> findAfterId(AuditPartition partition, AuditEventFilter filter, long afterId, int limit) {
+        // Os 'limit' menores IDs encontrados, com o maior no topo.
+        PriorityQueue<AuditEvent> smallest = new PriorityQueue<>(Comparator.comparing(AuditEvent::getId).reversed());
+        for (ArchiveSegment segment : segments(partition)) {
+            ArchiveSegment.Match match = segment.match(filter);
+            if (match == null) {
+                continue;
+            }
+            for (int b = 0; b < segment.blockCount(); b++) {
+                if (segment.block(b).getMaxId() <= afterId || !match.overlaps(segment.block(b))) {
+                    continue;
+                }
+                ArchiveBlock block = block(segment, b);
+                for (int row = 0; row < block.size(); row++) {
+                    if (block.id(row) > afterId && block.matches(row, match)
+                            && (smallest.size() < limit || block.id(row) < smallest.peek().getId())) {
+                        smallest.add(block.toEvent(row));
+                        if (smallest.size() > limit) {
+                            smallest.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<AuditEvent> events = new ArrayList<>(smallest);
+        events.sort(Comparator.comparing(AuditEvent::getId));
+        return events;
+    }
+
+    /**
+     * Os eventos arquivados com os IDs pedidos, com instante em [from, to). Só são descompactados
+     * os blocos que cruzam o intervalo e cuja faixa de IDs contém algum dos pedidos.
+     */
+    public List<AuditEvent> findByIds(AuditPartition partition, Set<Long> ids, LocalDateTime from, LocalDateTime to) {
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        AuditEventFilter filter = AuditEventFilter.builder().from(from).to(to).build();
+        List<AuditEvent> events = new ArrayList<>();
+        for (ArchiveSegment segment : segments(partition)) {
+            ArchiveSegment.Match match = segment.match(filter);
+            if (match == null) {
+                continue;
+            }
+            for (int b = 0; b < segment.blockCount(); b++) {
+                ArchiveSegment.BlockEntry entry = segment.block(b);
+                int first = Arrays.binarySearch(sorted, entry.getMinId());
+                first = first < 0 ? -first - 1 : first;
+                if (!match.overlaps(entry) || first == sorted.length || sorted[first] > entry.getMaxId()) {
+                    continue;
+                }
+                ArchiveBlock block = block(segment, b);
+                for (int row = 0; row < block.size(); row++) {
+                    if (ids.contains(block.id(row)) && block.matches(row, match)) {
+                        events.add(block.toEvent(row));
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Percorre os eventos arquivados que atendem ao filtro, em ordem de (timestamp, id),
+     * descompactando um bloco de cada vez.
+     */
+    public Iterator<AuditEvent> iterate(AuditPartition partition, AuditEventFilter filter) {
+        List<ArchiveSegment> archived = segments(partition);
+        return new Iterator<>() {
+            private int segmentIndex = -1;
+            private ArchiveSegment segment;
+            private ArchiveSegment.Match match;
+            private int blockIndex;
+            private ArchiveBlock block;
+            private int row;
+            private AuditEvent next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (block != null && row < block.size()) {
+                        if (block.matches(row, match)) {
+                            next = block.toEvent(row);
+                        }
+                        row++;
+                    } else if (segment != null && blockIndex < segment.blockCount()) {
+                        ArchiveSegment.BlockEntry entry = segment.block(blockIndex);
+                        if (entry.getMinMicros() >= match.toMicros) {
+                            // Os blocos seguintes são todos posteriores ao fim do filtro.
+                            blockIndex = segment.blockCount();
+                            segmentIndex = archived.size() - 1;
+                        } else if (match.overlaps(entry)) {
+                            block = block(segment, blockIndex);
+                            row = 0;
+                        }
+                        blockIndex++;
+                    } else if (segmentIndex + 1 < archived.size()) {
+                        segment = archived.get(++segmentIndex);
+                        match = segment.match(filter);
+                        blockIndex = match == null ? segment.blockCount() : 0;
+                        block = null;
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public AuditEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                AuditEvent event = next;
+                next = null;
+                return event;
+            }
+        };
+    }
+
+    private List<ArchiveSegment> segments(AuditPartition partition) {
+        return segments.computeIfAbsent(partition.getName(), name -> {
+            Path partitionDirectory = directory.resolve(name);
+            if (!Files.isDirectory(partitionDirectory)) {
+                throw new IllegalStateException("Arquivo da partição " + name + " não encontrado em " + partitionDirectory);
+            }
+            try (Stream<Path> files = Files.list(partitionDirectory)) {
+                List<ArchiveSegment> opened = new ArrayList<>();
+                for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                    opened.add(ArchiveSegment.open(file));
+                }
+                return List.copyOf(opened);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao abrir o arquivo da partição " + name, e);
+            }
+        });
+    }
+
+    private ArchiveBlock block(ArchiveSegment segment, int index) {
+        return blockCache.get(Map.entry(segment, index), key -> {
+            try {
+                return segment.readBlock(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * O próximo bloco da partição em ordem de (timestamp, id), depois de 'last' (ou o primeiro).
+     */
+    private List<AuditEvent> readBlock(AuditPartition partition, AuditEvent last) {
+        String select = "SELECT id, timestamp, action, system_name, user_email, metadata, event_hash FROM "
+                + partition.getEventsTable();
+        if (last == null) {
+            return jdbcTemplate.query(select + " ORDER BY timestamp, id LIMIT ?", EVENT_MAPPER, blockEvents);
+        }
+        Timestamp lastTimestamp = Timestamp.valueOf(last.getTimestamp());
+        // O limite redundante "timestamp >= t" posiciona a leitura do índice (como em findPage).
+        return jdbcTemplate.query(select + " WHERE timestamp >= ? AND (timestamp > ? OR id > ?) ORDER BY timestamp, id LIMIT ?",
+                EVENT_MAPPER, lastTimestamp, lastTimestamp, last.getId(), blockEvents);
+    }
+
+    /**
+     * Os atributos dos eventos de um bloco. Os IDs de um bloco ficam próximos, então a faixa
+     * [menor, maior] é lida pela chave primária e filtrada.
+     */
+    private Map<Long, List<AuditEventAttribute>> readAttributes(AuditPartition partition, List<AuditEvent> block) {
+        Set<Long> ids = new HashSet<>();
+        block.forEach(event -> ids.add(event.getId()));
+        Map<Long, List<AuditEventAttribute>> attributes = new HashMap<>();
+        jdbcTemplate.query("SELECT event_id, attr_key, attr_value FROM " + partition.getAttributesTable()
+                + " WHERE event_id BETWEEN ? AND ?", rs -> {
+            long eventId = rs.getLong("event_id");
+            if (ids.contains(eventId)) {
+                attributes.computeIfAbsent(eventId, key -> new ArrayList<>())
+                        .add(new AuditEventAttribute(rs.getString("attr_key"), rs.getString("attr_value")));
+            }
+        }, block.stream().mapToLong(AuditEvent::getId).min().orElseThrow(),
+                block.stream().mapToLong(AuditEvent::getId).max().orElseThrow());
+        return attributes;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void forceDirectory(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.auditcenter.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Os hashes (SHA-256) que tornam a alteração de eventos detectável:
+ *
+ * - contentHash: o conteúdo de um evento (instante, sistema, e-mail, ação e metadados), calculado
+ *   no insert e gravado na coluna 'event_hash';
+ * - leaf / node / merkleRoot: a árvore de Merkle dos eventos de um intervalo, folhas em ordem de ID;
+ * - chainHash: o selo de um intervalo encadeado ao selo anterior (tabela audit_event_seals).
+ *
+ * Folhas e nós internos levam prefixos diferentes (0x00 e 0x01, como no RFC 6962), para que um
+ * nó interno não possa se passar por uma folha. Cada campo de texto vai precedido do seu tamanho.
+ * As mesmas regras valem para a aplicação principal, a variante reativa e a verificação.
+ */
+public final class AuditEventHashes {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    });
+
+    private AuditEventHashes() {
+    }
+
+    /**
+     * O hash do conteúdo de um evento, em hexadecimal. O ID não entra: ele só é conhecido no
+     * insert, e é coberto pela folha da árvore ({@link #leaf}).
+     */
+    public static String contentHash(LocalDateTime timestamp, String systemName, String userEmail, String action,
+                                     String metadata) {
+        MessageDigest digest = SHA256.get();
+        digest.update(longBytes(toEpochMicros(timestamp)));
+        update(digest, systemName);
+        update(digest, userEmail);
+        update(digest, action);
+        update(digest, metadata);
+        return HEX.formatHex(digest.digest());
+    }
+
+    /**
+     * A folha da árvore de Merkle de um evento: o seu ID e o hash do seu conteúdo.
+     */
+    public static byte[] leaf(long id, String contentHash) {
+        MessageDigest digest = SHA256.get();
+        digest.update((byte) 0);
+        digest.update(longBytes(id));
+        digest.update(HEX.parseHex(contentHash));
+        return digest.digest();
+    }
+
+    /**
+     * Um nó interno da árvore de Merkle.
+     */
+    public static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = SHA256.get();
+        digest.update((byte) 1);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    /**
+     * A raiz da árvore de Merkle das folhas, em hexadecimal. Em um nível com quantidade ímpar
+     * de nós, o último sobe sem par.
+     *
+     * @param leaves As folhas, em ordem de ID do evento (não pode ser vazia).
+     */
+    public static String merkleRoot(List<byte[]> leaves) {
+        List<byte[]> level = leaves;
+        while (level.size() > 1) {
+            List<byte[]> parents = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                parents.add(node(level.get(i), level.get(i + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                parents.add(level.get(level.size() - 1));
+            }
+            level = parents;
+        }
+        return HEX.formatHex(level.get(0));
+    }
+
+    /**
+     * O hash do selo de um intervalo, encadeado ao selo anterior.
+     *
+     * @param previous O chainHash do selo anterior, ou null no primeiro selo.
+     */
+    public static String chainHash(String previous, long seq, String partitionName, LocalDateTime bucketStart,
+                                   int eventCount, String merkleRoot) {
+        MessageDigest digest = SHA256.get();
+        update(digest, previous);
+        digest.update(longBytes(seq));
+        update(digest, partitionName);
+        digest.update(longBytes(toEpochMicros(bucketStart)));
+        digest.update(longBytes(eventCount));
+        update(digest, merkleRoot);
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String field) {
+        byte[] bytes = field == null ? new byte[0] : field.getBytes(StandardCharsets.UTF_8);
+        // Campo nulo (-1) e vazio (0) não se confundem.
+        digest.update(ByteBuffer.allocate(4).putInt(field == null ? -1 : bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,91 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Operações customizadas do repositório de eventos de auditoria que não podem ser
+ * expressas como consultas derivadas do Spring Data.
+ *
+ * O Spring Data JPA combina automaticamente esta interface com a implementação
+ * {@link AuditEventRepositoryImpl} (convenção de sufixo "Impl").
+ */
+public interface AuditEventRepositoryCustom {
+
+    /**
+     * Insere vários eventos em lotes JDBC de 'hibernate.jdbc.batch_size' (uma ida ao banco
+     * por lote), preenchendo o 'id' e o 'timestamp' de cada entidade. Cada evento vai para a
+     * partição do seu período e da retenção do seu sistema, criada se ainda não existir.
+     * O hash do conteúdo de cada evento é calculado aqui ('event_hash'), e a chave de
+     * idempotência, se houver, é gravada na mesma transação.
+     *
+     * @param events Os eventos a serem inseridos.
+     * @return A mesma lista de eventos, agora com os IDs obtidos da sequência.
+     */
+    List<AuditEvent> batchInsert(List<AuditEvent> events);
+
+    /**
+     * Busca uma página de eventos ordenada do mais recente para o mais antigo,
+     * por (timestamp, id), usando paginação por cursor (keyset).
+     *
+     * Em vez de OFFSET, a consulta continua a partir da última posição lida
+     * ("timestamp < t OR (timestamp = t AND id < i)"), o que mantém o custo de cada
+     * página constante independentemente da profundidade. Todos os filtros são
+     * aplicados na própria consulta, e só as partições cujo período cruza o intervalo pedido
+     * (e o cursor) são lidas.
+     *
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param beforeTimestamp Timestamp do último evento da página anterior, ou null para a primeira página.
+     * @param beforeId ID do último evento da página anterior, ou null para a primeira página.
+     * @param limit Quantidade máxima de eventos retornados.
+     * @return Os eventos encontrados, na ordem da paginação.
+     */
+    List<AuditEvent> findPage(AuditEventFilter filter, LocalDateTime beforeTimestamp, Long beforeId, int limit);
+
+    /**
+     * Busca os eventos com ID maior que 'afterId', em ordem de ID, usando o índice da chave
+     * primária. Usado para reenviar ao streaming SSE os eventos que um cliente perdeu e que
+     * já não estão no buffer em memória.
+     *
+     * Os IDs são reservados em blocos da sequência por escritores que fazem commit de forma
+     * independente, então um evento com ID menor que 'afterId' pode ter sido gravado depois dele;
+     * esse evento não é devolvido.
+     *
+     * @param filter Filtros opcionais (sistema, ação e e-mail).
+     * @param afterId ID do último evento recebido pelo cliente.
+     * @param limit Quantidade máxima de eventos retornados.
+     * @return Os eventos encontrados, do mais antigo para o mais recente.
+     */
+    List<AuditEvent> findAfterId(AuditEventFilter filter, long afterId, int limit);
+
+    /**
+     * Percorre todos os eventos que atendem aos filtros, em ordem cronológica, com um
+     * cursor JDBC somente-avanço. As linhas são lidas do banco em blocos de 'fetchSize'
+     * e desanexadas do contexto de persistência, então o consumo de memória não depende
+     * da quantidade de linhas.
+     *
+     * Deve ser chamado dentro de uma transação, e o Stream deve ser fechado pelo chamador.
+     *
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param fetchSize Quantidade de linhas buscadas por ida ao banco.
+     * @return Um Stream com os eventos encontrados.
+     */
+    Stream<AuditEvent> streamAll(AuditEventFilter filter, int fetchSize);
+
+    /**
+     * Busca os eventos com os IDs informados. Como o ID não indica a partição, o intervalo
+     * [from, to] que contém os instantes dos eventos limita as partições consultadas; em cada uma,
+     * os eventos são lidos pela chave primária. IDs que não existem (mais) são ignorados.
+     *
+     * @param ids Os IDs procurados.
+     * @param from O menor instante entre os eventos procurados.
+     * @param to O maior instante entre os eventos procurados.
+     * @return Os eventos encontrados, sem ordem definida.
+     */
+    List<AuditEvent> findByIds(Collection<Long> ids, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,400 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.entity.AuditEventAttribute;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementação das operações customizadas de {@link AuditEventRepositoryCustom}.
+ *
+ * Os eventos ficam em partições por período e classe de retenção ({@link AuditPartitionCatalog}).
+ * Cada operação escolhe as partições envolvidas e executa nelas o mesmo SQL de antes, direcionado
+ * pelo {@link AuditPartitionRouter}:
+ * - inserts: agrupados por partição, cada grupo em lotes JDBC;
+ * - consultas: só as partições cujo período cruza o intervalo pedido são lidas, do período mais
+ *   recente para o mais antigo (ou o contrário na exportação), parando quando a página enche.
+ *
+ * Os inserts em lote usam o batching JDBC do próprio Hibernate: como o ID vem de uma
+ * sequência com alocação em blocos (e não de IDENTITY), o Hibernate não precisa executar
+ * cada INSERT isoladamente para descobrir a chave gerada.
+ *
+ * As chaves de idempotência dos eventos que as têm vão para 'audit_event_keys', na mesma
+ * transação; uma chave repetida desfaz o lote inteiro (DuplicateKeyException).
+ *
+ * Partições arquivadas (AuditPartitionCatalog.isArchived) são lidas do arquivo frio
+ * (AuditArchive), com os mesmos filtros e a mesma ordem.
+ */
+@RequiredArgsConstructor
+public class AuditEventRepositoryImpl implements AuditEventRepositoryCustom {
+
+    private static final Comparator<AuditEvent> NEWEST_FIRST = Comparator.comparing(AuditEvent::getTimestamp)
+            .thenComparing(AuditEvent::getId).reversed();
+    private static final Comparator<AuditEvent> OLDEST_FIRST = Comparator.comparing(AuditEvent::getTimestamp)
+            .thenComparing(AuditEvent::getId);
+
+    private final EntityManager entityManager;
+    private final AuditPartitionCatalog partitionCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditArchive archive;
+
+    /**
+     * Tamanho do lote JDBC configurado no Hibernate. O contexto de persistência é descarregado
+     * e limpo a cada lote, para que cada flush gere exatamente um 'executeBatch'.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int jdbcBatchSize;
+
+    @Override
+    @Transactional
+    public List<AuditEvent> batchInsert(List<AuditEvent> events) {
+        // Mesma precisão da coluna (TIMESTAMP(6)); o instante também decide a partição.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Map<AuditPartition, List<AuditEvent>> byPartition = new LinkedHashMap<>();
+        for (AuditEvent event : events) {
+            if (event.getTimestamp() == null) {
+                event.setTimestamp(now);
+            }
+            // Antes do persist: depois dele, a mudança viraria um UPDATE a mais no flush.
+            event.setEventHash(AuditEventHashes.contentHash(event.getTimestamp(), event.getSystemName(),
+                    event.getUserEmail(), event.getAction(), event.getMetadata()));
+            byPartition.computeIfAbsent(partitionCatalog.partitionFor(event.getTimestamp(), event.getSystemName()),
+                    partition -> new ArrayList<>()).add(event);
+        }
+        byPartition.forEach((partition, partitionEvents) -> AuditPartitionRouter.route(partition, () -> {
+            for (int i = 0; i < partitionEvents.size(); i++) {
+                entityManager.persist(partitionEvents.get(i));
+                if ((i + 1) % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            // O flush precisa acontecer dentro da partição: é nele que os INSERTs são preparados.
+            entityManager.flush();
+            // Os eventos não precisam continuar gerenciados depois do insert.
+            entityManager.clear();
+            return null;
+        }));
+        List<Object[]> keys = new ArrayList<>();
+        for (AuditEvent event : events) {
+            if (event.getIdempotencyKey() != null) {
+                keys.add(new Object[]{event.getIdempotencyKey(), event.getId(), event.getTimestamp()});
+            }
+        }
+        if (!keys.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO audit_event_keys (idempotency_key, event_id, created_at) VALUES (?, ?, ?)",
+                    keys);
+        }
+        return events;
+    }
+
+    @Override
+    public List<AuditEvent> findPage(AuditEventFilter filter, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        LocalDateTime upperBound = filter.getTo();
+        if (beforeTimestamp != null && beforeId != null) {
+            // O cursor inclui o próprio instante (empates são resolvidos pelo id).
+            LocalDateTime afterCursor = beforeTimestamp.plus(1, ChronoUnit.MICROS);
+            upperBound = upperBound == null || afterCursor.isBefore(upperBound) ? afterCursor : upperBound;
+        }
+
+        List<AuditEvent> page = new ArrayList<>(limit);
+        for (List<AuditPartition> group : AuditPartitionScheme.timeOrderedGroups(
+                partitionCatalog.partitionsOverlapping(filter.getFrom(), upperBound), true)) {
+            int remaining = limit - page.size();
+            // Cada partição do grupo devolve no máximo 'remaining' eventos; a página fica com os
+            // mais recentes entre todas elas.
+            List<AuditEvent> candidates = new ArrayList<>();
+            for (AuditPartition partition : group) {
+                candidates.addAll(partitionCatalog.isArchived(partition)
+                        ? archive.findPage(partition, filter, beforeTimestamp, beforeId, remaining)
+                        : AuditPartitionRouter.route(partition,
+                                () -> findPageInPartition(filter, beforeTimestamp, beforeId, remaining)));
+            }
+            candidates.sort(NEWEST_FIRST);
+            page.addAll(candidates.subList(0, Math.min(remaining, candidates.size())));
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<AuditEvent> findAfterId(AuditEventFilter filter, long afterId, int limit) {
+        // Os IDs vêm de blocos da sequência e não acompanham o período com exatidão,
+        // então todas as partições são consultadas (cada uma pela chave primária).
+        List<AuditEvent> candidates = new ArrayList<>();
+        for (AuditPartition partition : partitionCatalog.partitions()) {
+            candidates.addAll(partitionCatalog.isArchived(partition)
+                    ? archive.findAfterId(partition, filter, afterId, limit)
+                    : AuditPartitionRouter.route(partition, () -> findAfterIdInPartition(filter, afterId, limit)));
+        }
+        candidates.sort(Comparator.comparing(AuditEvent::getId));
+        return new ArrayList<>(candidates.subList(0, Math.min(limit, candidates.size())));
+    }
+
+    @Override
+    public Stream<AuditEvent> streamAll(AuditEventFilter filter, int fetchSize) {
+        Iterator<List<AuditPartition>> groups = AuditPartitionScheme.timeOrderedGroups(
+                partitionCatalog.partitionsOverlapping(filter.getFrom(), filter.getTo()), false).iterator();
+        List<Stream<AuditEvent>> open = new ArrayList<>();
+
+        // Os grupos são abertos um de cada vez, quando o anterior termina; dentro de um grupo,
+        // os cursores das partições são intercalados em ordem cronológica.
+        Iterator<AuditEvent> events = new Iterator<>() {
+            private Iterator<AuditEvent> current = List.<AuditEvent>of().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && groups.hasNext()) {
+                    open.forEach(Stream::close);
+                    open.clear();
+                    List<Iterator<AuditEvent>> cursors = new ArrayList<>();
+                    for (AuditPartition partition : groups.next()) {
+                        if (partitionCatalog.isArchived(partition)) {
+                            cursors.add(archive.iterate(partition, filter));
+                            continue;
+                        }
+                        cursors.add(AuditPartitionRouter.route(partition, () -> {
+                            Stream<AuditEvent> stream = streamPartition(filter, fetchSize);
+                            open.add(stream);
+                            Iterator<AuditEvent> cursor = stream.iterator();
+                            // O Hibernate só prepara o comando na primeira leitura, que precisa
+                            // acontecer dentro da partição.
+                            cursor.hasNext();
+                            return cursor;
+                        }));
+                    }
+                    current = mergeSorted(cursors, OLDEST_FIRST);
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public AuditEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(events, Spliterator.ORDERED), false)
+                .onClose(() -> open.forEach(Stream::close));
+    }
+
+    @Override
+    public List<AuditEvent> findByIds(Collection<Long> ids, LocalDateTime from, LocalDateTime to) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> wanted = new HashSet<>(ids);
+        LocalDateTime end = to.plus(1, ChronoUnit.MICROS);
+        List<AuditEvent> events = new ArrayList<>(wanted.size());
+        for (AuditPartition partition : partitionCatalog.partitionsOverlapping(from, end)) {
+            events.addAll(partitionCatalog.isArchived(partition)
+                    ? archive.findByIds(partition, wanted, from, end)
+                    : AuditPartitionRouter.route(partition, () -> findByIdsInPartition(wanted, from, end)));
+        }
+        return events;
+    }
+
+    private List<AuditEvent> findPageInPartition(AuditEventFilter filter, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEvent> query = cb.createQuery(AuditEvent.class);
+        Root<AuditEvent> root = query.from(AuditEvent.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        if (beforeTimestamp != null && beforeId != null) {
+            // O limite redundante "timestamp <= t" é o que permite ao banco posicionar a leitura
+            // do índice direto no cursor; o OR sozinho não é usado como faixa de busca.
+            predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), beforeTimestamp));
+            predicates.add(cb.or(
+                    cb.lessThan(root.get("timestamp"), beforeTimestamp),
+                    cb.and(
+                            cb.equal(root.get("timestamp"), beforeTimestamp),
+                            cb.lessThan(root.get("id"), beforeId)
+                    )
+            ));
+        }
+
+        List<Order> order = new ArrayList<>();
+        String indexColumn = leadingIndexColumn(filter);
+        if (indexColumn != null) {
+            // A coluna é constante por causa do filtro de igualdade, então não altera o resultado;
+            // mas o H2 só reconhece que o índice composto já entrega as linhas ordenadas
+            // (sem ordenar todas as linhas do filtro) quando ela aparece no ORDER BY.
+            order.add(cb.asc(root.get(indexColumn)));
+        }
+        order.add(cb.desc(root.get("timestamp")));
+        order.add(cb.desc(root.get("id")));
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(order);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<AuditEvent> findAfterIdInPartition(AuditEventFilter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEvent> query = cb.createQuery(AuditEvent.class);
+        Root<AuditEvent> root = query.from(AuditEvent.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<AuditEvent> findByIdsInPartition(Set<Long> ids, LocalDateTime from, LocalDateTime to) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEvent> query = cb.createQuery(AuditEvent.class);
+        Root<AuditEvent> root = query.from(AuditEvent.class);
+
+        query.select(root).where(
+                root.get("id").in(ids),
+                cb.greaterThanOrEqualTo(root.get("timestamp"), from),
+                cb.lessThan(root.get("timestamp"), to));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private Stream<AuditEvent> streamPartition(AuditEventFilter filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEvent> query = cb.createQuery(AuditEvent.class);
+        Root<AuditEvent> root = query.from(AuditEvent.class);
+
+        query.select(root)
+                .where(filterPredicates(cb, root, filter).toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("timestamp")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                // Cada linha sai do contexto de persistência logo após ser lida, mantendo a memória constante.
+                .peek(entityManager::detach);
+    }
+
+    /**
+     * Intercala iteradores já ordenados, mantendo a ordem (merge de k vias).
+     * Com um único iterador, devolve o próprio iterador.
+     */
+    private static Iterator<AuditEvent> mergeSorted(List<Iterator<AuditEvent>> sources, Comparator<AuditEvent> order) {
+        if (sources.size() == 1) {
+            return sources.get(0);
+        }
+        PriorityQueue<Map.Entry<AuditEvent, Iterator<AuditEvent>>> heads =
+                new PriorityQueue<>(Math.max(1, sources.size()), Map.Entry.comparingByKey(order));
+        for (Iterator<AuditEvent> source : sources) {
+            if (source.hasNext()) {
+                heads.add(Map.entry(source.next(), source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public AuditEvent next() {
+                Map.Entry<AuditEvent, Iterator<AuditEvent>> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.getValue().hasNext()) {
+                    heads.add(Map.entry(head.getValue().next(), head.getValue()));
+                }
+                return head.getKey();
+            }
+        };
+    }
+
+    /**
+     * Escolhe a coluna de igualdade cujo índice composto (coluna, timestamp DESC, id DESC)
+     * deve conduzir a consulta, da mais seletiva para a menos seletiva.
+     */
+    private String leadingIndexColumn(AuditEventFilter filter) {
+        if (filter.getUserEmail() != null) {
+            return "userEmail";
+        }
+        if (filter.getSystemName() != null) {
+            return "systemName";
+        }
+        if (filter.getAction() != null) {
+            return "action";
+        }
+        return null;
+    }
+
+    /**
+     * Converte os filtros informados em predicados. Apenas os filtros presentes viram
+     * predicados, para que o banco possa usar os índices adequados.
+     *
+     * Cada filtro de atributo é um join com 'audit_event_attributes' por (attr_key, attr_value),
+     * resolvido pelo índice dessas colunas. Como um evento tem no máximo uma linha para cada
+     * par, o join não repete eventos no resultado.
+     */
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<AuditEvent> root, AuditEventFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getSystemName() != null) {
+            predicates.add(cb.equal(root.get("systemName"), filter.getSystemName()));
+        }
+        if (filter.getAction() != null) {
+            predicates.add(cb.equal(root.get("action"), filter.getAction()));
+        }
+        if (filter.getUserEmail() != null) {
+            predicates.add(cb.equal(root.get("userEmail"), filter.getUserEmail()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(root.get("timestamp"), filter.getTo()));
+        }
+        for (AuditEventAttribute attribute : filter.attributeFilters()) {
+            Join<AuditEvent, AuditEventAttribute> join = root.join("attributes");
+            predicates.add(cb.equal(join.get("key"), attribute.getKey()));
+            predicates.add(cb.equal(join.get("value"), attribute.getValue()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,41 @@
+package com.auditcenter.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma partição de audit_events: o par de tabelas (eventos e atributos) que guarda os eventos
+ * de um período [periodStart, periodEnd) cujos sistemas de origem têm a mesma retenção.
+ *
+ * O nome combina o período e a classe de retenção (ex.: "202610_r365", ou "202610_r0" para
+ * eventos mantidos indefinidamente) e vira o sufixo das tabelas.
+ */
+@Data
+@AllArgsConstructor
+public class AuditPartition {
+
+    private final String name;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final int retentionDays;
+
+    public String getEventsTable() {
+        return "audit_events_" + name;
+    }
+
+    public String getAttributesTable() {
+        return "audit_event_attributes_" + name;
+    }
+
+    /**
+     * Indica se a partição pode conter eventos do intervalo [from, to).
+     *
+     * @param from Início do intervalo (inclusivo), ou null para sem limite.
+     * @param to Fim do intervalo (exclusivo), ou null para sem limite.
+     */
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (to == null || periodStart.isBefore(to)) && (from == null || periodEnd.isAfter(from));
+    }
+}
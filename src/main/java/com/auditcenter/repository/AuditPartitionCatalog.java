@@ -0,0 +1,208 @@
+package com.auditcenter.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catálogo das partições de audit_events (tabela audit_partitions), mantido em memória.
+ *
+ * Cria as partições sob demanda e antecipadamente (período atual e seguinte de cada classe
+ * de retenção), para que a virada do período não custe um DDL no caminho de um insert.
+ * O DDL roda sempre em uma transação própria: no H2, um CREATE TABLE confirmaria a transação
+ * em andamento de quem pediu a partição.
+ *
+ * Uma partição arquivada (AuditArchive) continua no catálogo, sem tabelas: as consultas a leem
+ * do arquivo (ver {@link #isArchived}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditPartitionCatalog {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final AuditPartitionScheme scheme;
+    private final AuditRetentionPolicy retentionPolicy;
+    private final AuditArchive archive;
+
+    private final Map<String, AuditPartition> partitions = new ConcurrentHashMap<>();
+    private final Set<String> archived = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        refresh();
+        // Partições arquivadas não têm tabelas a atualizar; um arquivamento interrompido depois do
+        // registro pode ter deixado as tabelas para trás.
+        partitions().forEach(partition -> execute(isArchived(partition)
+                ? scheme.archiveStatements(partition) : scheme.upgradeStatements(partition)));
+        ensurePartitions(LocalDateTime.now());
+        moveLegacyEvents();
+        log.info("Partições de eventos: {}", partitions.size());
+    }
+
+    /**
+     * Recarrega o catálogo do banco, incluindo partições criadas ou removidas por outras instâncias.
+     */
+    public void refresh() {
+        List<AuditPartition> stored = jdbcTemplate.query(
+                "SELECT name, period_start, period_end, retention_days, archived_at FROM audit_partitions",
+                (rs, rowNum) -> {
+                    if (rs.getTimestamp("archived_at") != null) {
+                        archived.add(rs.getString("name"));
+                    }
+                    return new AuditPartition(rs.getString("name"),
+                            rs.getTimestamp("period_start").toLocalDateTime(),
+                            rs.getTimestamp("period_end").toLocalDateTime(),
+                            rs.getInt("retention_days"));
+                });
+        List<String> names = stored.stream().map(AuditPartition::getName).toList();
+        partitions.keySet().retainAll(names);
+        archived.retainAll(names);
+        stored.forEach(partition -> partitions.putIfAbsent(partition.getName(), partition));
+    }
+
+    /**
+     * Todas as partições conhecidas, da mais antiga para a mais recente.
+     */
+    public List<AuditPartition> partitions() {
+        List<AuditPartition> all = new ArrayList<>(partitions.values());
+        all.sort(Comparator.comparing(AuditPartition::getPeriodStart).thenComparing(AuditPartition::getName));
+        return all;
+    }
+
+    /**
+     * As partições que podem conter eventos do intervalo [from, to) (poda por 'timestamp').
+     *
+     * @param from Início do intervalo (inclusivo), ou null para sem limite.
+     * @param to Fim do intervalo (exclusivo), ou null para sem limite.
+     */
+    public List<AuditPartition> partitionsOverlapping(LocalDateTime from, LocalDateTime to) {
+        return partitions().stream().filter(partition -> partition.overlaps(from, to)).toList();
+    }
+
+    /**
+     * A partição que recebe um evento do sistema gravado em 'timestamp', criada se ainda não existir.
+     */
+    public AuditPartition partitionFor(LocalDateTime timestamp, String systemName) {
+        AuditPartition partition = scheme.partitionFor(timestamp, retentionPolicy.retentionDaysFor(systemName));
+        AuditPartition known = partitions.get(partition.getName());
+        return known != null ? known : create(partition);
+    }
+
+    /**
+     * Garante as partições do período de 'now' e do seguinte para todas as classes de retenção.
+     */
+    public void ensurePartitions(LocalDateTime now) {
+        for (int retentionDays : retentionPolicy.retentionClasses()) {
+            for (LocalDateTime period : List.of(now, scheme.nextPeriod(now))) {
+                AuditPartition partition = scheme.partitionFor(period, retentionDays);
+                if (!partitions.containsKey(partition.getName())) {
+                    create(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Se os eventos da partição estão no arquivo frio (AuditArchive) em vez das tabelas.
+     */
+    public boolean isArchived(AuditPartition partition) {
+        return archived.contains(partition.getName());
+    }
+
+    /**
+     * Registra uma partição já gravada no arquivo frio e remove as suas tabelas. Ela passa a ser
+     * lida do arquivo antes do DROP, para que nenhuma consulta nova use as tabelas.
+     */
+    public void markArchived(AuditPartition partition) {
+        archived.add(partition.getName());
+        execute(scheme.archiveStatements(partition));
+        log.info("Partição {} arquivada.", partition.getName());
+    }
+
+    /**
+     * Remove uma partição inteira. Ela sai do catálogo em memória antes do DROP, para que
+     * nenhuma consulta nova a inclua.
+     */
+    public void drop(AuditPartition partition) {
+        partitions.remove(partition.getName());
+        execute(scheme.dropStatements(partition));
+        if (archived.remove(partition.getName())) {
+            archive.delete(partition);
+        }
+        log.info("Partição {} removida.", partition.getName());
+    }
+
+    private synchronized AuditPartition create(AuditPartition partition) {
+        AuditPartition known = partitions.get(partition.getName());
+        if (known != null) {
+            return known;
+        }
+        execute(scheme.createStatements(partition));
+        partitions.put(partition.getName(), partition);
+        log.info("Partição {} criada ({} a {}, retenção de {} dias).", partition.getName(),
+                partition.getPeriodStart(), partition.getPeriodEnd(), partition.getRetentionDays());
+        return partition;
+    }
+
+    private void execute(List<String> statements) {
+        newTransaction.executeWithoutResult(status -> statements.forEach(jdbcTemplate::execute));
+    }
+
+    /**
+     * Move para as partições os eventos gravados em audit_events antes do particionamento.
+     * Roda uma única vez: depois dela, audit_events fica vazia e só serve de modelo.
+     */
+    private void moveLegacyEvents() {
+        if (jdbcTemplate.queryForList("SELECT id FROM audit_events LIMIT 1", Long.class).isEmpty()) {
+            return;
+        }
+        // Os sistemas presentes em cada período da tabela antiga, agrupados pela partição de destino.
+        Map<AuditPartition, List<String>> systemsByPartition = new LinkedHashMap<>();
+        List<Map<String, Object>> periods = jdbcTemplate.queryForList("SELECT DISTINCT system_name, DATE_TRUNC('"
+                + scheme.getPeriod().name() + "', timestamp) AS period_start FROM audit_events");
+        for (Map<String, Object> row : periods) {
+            String systemName = (String) row.get("system_name");
+            AuditPartition partition = partitionFor(((Timestamp) row.get("period_start")).toLocalDateTime(), systemName);
+            systemsByPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(systemName);
+        }
+        String legacyEvents = " FROM audit_events WHERE system_name = ? AND timestamp >= ? AND timestamp < ?";
+        Integer moved = newTransaction.execute(status -> {
+            int count = 0;
+            for (Map.Entry<AuditPartition, List<String>> entry : systemsByPartition.entrySet()) {
+                AuditPartition partition = entry.getKey();
+                for (String systemName : entry.getValue()) {
+                    Object[] args = {systemName, Timestamp.valueOf(partition.getPeriodStart()), Timestamp.valueOf(partition.getPeriodEnd())};
+                    count += jdbcTemplate.update("INSERT INTO " + partition.getEventsTable()
+                            + " (id, timestamp, action, system_name, user_email, metadata)"
+                            + " SELECT id, timestamp, action, system_name, user_email, metadata" + legacyEvents, args);
+                    jdbcTemplate.update("INSERT INTO " + partition.getAttributesTable()
+                            + " SELECT event_id, attr_key, attr_value FROM audit_event_attributes WHERE event_id IN (SELECT id" + legacyEvents + ")", args);
+                }
+            }
+            jdbcTemplate.update("DELETE FROM audit_event_attributes");
+            jdbcTemplate.update("DELETE FROM audit_events");
+            return count;
+        });
+        log.info("{} eventos anteriores ao particionamento movidos para {} partições.", moved, systemsByPartition.size());
+    }
+}
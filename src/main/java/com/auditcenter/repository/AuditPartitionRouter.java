@@ -0,0 +1,59 @@
+package com.auditcenter.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Direciona para uma partição o SQL que o Hibernate gera para AuditEvent.
+ *
+ * A entidade continua mapeada para audit_events / audit_event_attributes; enquanto um trecho
+ * de código roda dentro de {@link #route}, este inspetor troca esses nomes pelas tabelas da
+ * partição em cada comando preparado na mesma thread. Assim, inserts em lote, consultas
+ * Criteria e joins dos atributos funcionam sem alteração em qualquer partição.
+ *
+ * Registrado em 'spring.jpa.properties.hibernate.session_factory.statement_inspector'.
+ * A sequência audit_events_seq não é afetada (o nome só é trocado como palavra inteira).
+ */
+public class AuditPartitionRouter implements StatementInspector {
+
+    private static final Pattern TABLES = Pattern.compile("\\b(audit_events|audit_event_attributes)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final ThreadLocal<AuditPartition> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Executa 'action' com os comandos da thread direcionados para a partição.
+     * Os comandos precisam ser preparados dentro da ação (ex.: o flush de um insert em lote).
+     */
+    public static <T> T route(AuditPartition partition, Supplier<T> action) {
+        AuditPartition previous = CURRENT.get();
+        CURRENT.set(partition);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AuditPartition partition = CURRENT.get();
+        if (partition == null) {
+            return sql;
+        }
+        Matcher matcher = TABLES.matcher(sql);
+        StringBuilder routed = new StringBuilder(sql.length() + 32);
+        while (matcher.find()) {
+            matcher.appendReplacement(routed, matcher.group(1).equalsIgnoreCase("audit_events")
+                    ? partition.getEventsTable()
+                    : partition.getAttributesTable());
+        }
+        return matcher.appendTail(routed).toString();
+    }
+}
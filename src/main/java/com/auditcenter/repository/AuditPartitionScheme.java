@@ -0,0 +1,144 @@
+package com.auditcenter.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Regras do particionamento de audit_events: a qual partição cada evento pertence, o DDL de
+ * uma partição nova e a ordem em que as partições são lidas. Não acessa o banco; é usada pelo
+ * {@link AuditPartitionCatalog} e pela variante reativa.
+ */
+@Component
+public class AuditPartitionScheme {
+
+    private static final DateTimeFormatter SQL_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Value("${audit.partition.period:MONTH}")
+    private PartitionPeriod period;
+
+    public PartitionPeriod getPeriod() {
+        return period;
+    }
+
+    /**
+     * A partição que recebe um evento gravado em 'timestamp' por um sistema com a retenção informada.
+     */
+    public AuditPartition partitionFor(LocalDateTime timestamp, int retentionDays) {
+        LocalDateTime start = period.startOf(timestamp);
+        return new AuditPartition(period.format(start) + "_r" + retentionDays, start, period.next(start), retentionDays);
+    }
+
+    /**
+     * O início do período seguinte ao que contém 'timestamp' (usado para criar partições antecipadamente).
+     */
+    public LocalDateTime nextPeriod(LocalDateTime timestamp) {
+        return period.next(period.startOf(timestamp));
+    }
+
+    /**
+     * Os comandos que criam a partição, com a mesma estrutura e os mesmos índices de
+     * audit_events e audit_event_attributes, e a registram em audit_partitions.
+     * Todos são idempotentes, então duas instâncias podem criar a mesma partição ao mesmo tempo.
+     */
+    public List<String> createStatements(AuditPartition partition) {
+        String name = partition.getName();
+        String events = partition.getEventsTable();
+        String attributes = partition.getAttributesTable();
+        String start = "TIMESTAMP '" + SQL_TIMESTAMP.format(partition.getPeriodStart()) + "'";
+        String end = "TIMESTAMP '" + SQL_TIMESTAMP.format(partition.getPeriodEnd()) + "'";
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS " + events + " ("
+                        + "id BIGINT NOT NULL, timestamp TIMESTAMP(6) NOT NULL, action VARCHAR(255) NOT NULL, "
+                        + "system_name VARCHAR(255) NOT NULL, user_email VARCHAR(255) NOT NULL, metadata TEXT, "
+                        + "event_hash VARCHAR(64), "
+                        + "PRIMARY KEY (id), "
+                        // Garante que nenhum evento fora do período entre na partição.
+                        + "CONSTRAINT ck_" + events + "_period CHECK (timestamp >= " + start + " AND timestamp < " + end + "))",
+                "CREATE INDEX IF NOT EXISTS idx_" + events + "_timestamp ON " + events + " (timestamp DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_" + events + "_user_email ON " + events + " (user_email, timestamp DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_" + events + "_system_name ON " + events + " (system_name, timestamp DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_" + events + "_action ON " + events + " (action, timestamp DESC, id DESC)",
+                "CREATE TABLE IF NOT EXISTS " + attributes + " ("
+                        + "event_id BIGINT NOT NULL, attr_key VARCHAR(100) NOT NULL, attr_value VARCHAR(255) NOT NULL, "
+                        + "PRIMARY KEY (event_id, attr_key, attr_value), "
+                        + "CONSTRAINT fk_" + attributes + "_event FOREIGN KEY (event_id) REFERENCES " + events + " (id) ON DELETE CASCADE)",
+                "CREATE INDEX IF NOT EXISTS idx_" + attributes + "_key_value ON " + attributes + " (attr_key, attr_value, event_id)",
+                "MERGE INTO audit_partitions (name, period_start, period_end, retention_days, created_at) KEY (name) "
+                        + "VALUES ('" + name + "', " + start + ", " + end + ", " + partition.getRetentionDays() + ", CURRENT_TIMESTAMP)"
+        );
+    }
+
+    /**
+     * Os comandos que levam uma partição criada por uma versão anterior à estrutura atual.
+     * São idempotentes e rodam em todas as partições na inicialização.
+     */
+    public List<String> upgradeStatements(AuditPartition partition) {
+        return List.of(
+                // V9: hash do conteúdo dos eventos.
+                "ALTER TABLE " + partition.getEventsTable() + " ADD COLUMN IF NOT EXISTS event_hash VARCHAR(64)"
+        );
+    }
+
+    /**
+     * Os comandos que marcam a partição como arquivada (AuditArchive) e removem as suas tabelas.
+     * O registro no catálogo continua.
+     */
+    public List<String> archiveStatements(AuditPartition partition) {
+        return List.of(
+                "UPDATE audit_partitions SET archived_at = CURRENT_TIMESTAMP(6) WHERE name = '" + partition.getName() + "'",
+                "DROP TABLE IF EXISTS " + partition.getAttributesTable(),
+                "DROP TABLE IF EXISTS " + partition.getEventsTable()
+        );
+    }
+
+    /**
+     * Os comandos que removem a partição inteira (tabelas e registro no catálogo).
+     */
+    public List<String> dropStatements(AuditPartition partition) {
+        return List.of(
+                "DROP TABLE IF EXISTS " + partition.getAttributesTable(),
+                "DROP TABLE IF EXISTS " + partition.getEventsTable(),
+                "DELETE FROM audit_partitions WHERE name = '" + partition.getName() + "'"
+        );
+    }
+
+    /**
+     * Agrupa as partições em intervalos de tempo disjuntos, na ordem de leitura.
+     *
+     * Partições do mesmo período (uma por classe de retenção) se sobrepõem e formam um grupo,
+     * cujos resultados precisam ser intercalados; grupos diferentes nunca se sobrepõem, então
+     * a leitura avança de um grupo para o outro e pode parar assim que tiver linhas suficientes.
+     *
+     * @param partitions As partições a ler, em qualquer ordem.
+     * @param descending true para ler do período mais recente para o mais antigo.
+     * @return Os grupos, na ordem de leitura.
+     */
+    public static List<List<AuditPartition>> timeOrderedGroups(List<AuditPartition> partitions, boolean descending) {
+        List<AuditPartition> sorted = new ArrayList<>(partitions);
+        sorted.sort(Comparator.comparing(AuditPartition::getPeriodStart).thenComparing(AuditPartition::getName));
+        List<List<AuditPartition>> groups = new ArrayList<>();
+        List<AuditPartition> current = null;
+        LocalDateTime currentEnd = null;
+        for (AuditPartition partition : sorted) {
+            if (current == null || !partition.getPeriodStart().isBefore(currentEnd)) {
+                current = new ArrayList<>();
+                groups.add(current);
+                currentEnd = partition.getPeriodEnd();
+            } else if (partition.getPeriodEnd().isAfter(currentEnd)) {
+                currentEnd = partition.getPeriodEnd();
+            }
+            current.add(partition);
+        }
+        if (descending) {
+            Collections.reverse(groups);
+        }
+        return groups;
+    }
+}
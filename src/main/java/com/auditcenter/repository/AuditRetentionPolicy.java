@@ -0,0 +1,69 @@
+package com.auditcenter.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Retenção dos eventos por sistema de origem, em dias ('audit.retention.*'); 0 mantém os
+ * eventos indefinidamente.
+ *
+ * Os eventos de sistemas com a mesma retenção (a mesma "classe") dividem as partições, então
+ * cada partição expira inteira e pode ser removida com DROP TABLE, sem DELETE linha a linha.
+ */
+@Component
+public class AuditRetentionPolicy {
+
+    @Value("${audit.retention.default-days:0}")
+    private int defaultDays;
+
+    @Value("${audit.retention.system-days:}")
+    private List<String> systemDays;
+
+    private Map<String, Integer> daysBySystem;
+
+    @PostConstruct
+    void init() {
+        if (defaultDays < 0) {
+            throw new IllegalStateException("audit.retention.default-days não pode ser negativo: " + defaultDays);
+        }
+        daysBySystem = new HashMap<>();
+        for (String entry : systemDays) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            try {
+                int days = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (separator <= 0 || days < 0) {
+                    throw new NumberFormatException();
+                }
+                daysBySystem.put(entry.substring(0, separator).trim(), days);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Retenção inválida em audit.retention.system-days (use 'sistema:dias'): " + entry);
+            }
+        }
+    }
+
+    /**
+     * Retenção, em dias, dos eventos do sistema (0 = indefinida).
+     */
+    public int retentionDaysFor(String systemName) {
+        return daysBySystem.getOrDefault(systemName, defaultDays);
+    }
+
+    /**
+     * As classes de retenção configuradas: a padrão e as de cada sistema listado.
+     */
+    public Set<Integer> retentionClasses() {
+        Set<Integer> classes = new TreeSet<>(daysBySystem.values());
+        classes.add(defaultDays);
+        return classes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.auditcenter.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Instantes dos eventos como microssegundos desde a época (UTC), a precisão da coluna 'timestamp'.
+ * Usados pelo arquivo frio (ArchiveSegment) e pelo índice da busca textual.
+ */
+public final class EventTimestamps {
+
+    private EventTimestamps() {
+    }
+
+    public static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,45 @@
+package com.auditcenter.repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Tamanho do intervalo de tempo coberto por cada partição de audit_events
+ * ('audit.partition.period').
+ *
+ * - DAY: uma partição por dia; a retenção é aplicada com granularidade de um dia.
+ * - MONTH: uma partição por mês; menos tabelas, mas um mês inteiro expira de uma vez.
+ */
+public enum PartitionPeriod {
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd")),
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final DateTimeFormatter nameFormat;
+
+    PartitionPeriod(DateTimeFormatter nameFormat) {
+        this.nameFormat = nameFormat;
+    }
+
+    /**
+     * Início do período que contém o instante.
+     */
+    public LocalDateTime startOf(LocalDateTime timestamp) {
+        LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return this == DAY ? day : day.withDayOfMonth(1);
+    }
+
+    /**
+     * Início do período seguinte ao que começa em 'start'.
+     */
+    public LocalDateTime next(LocalDateTime start) {
+        return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+    }
+
+    /**
+     * Parte do nome da partição que identifica o período (ex.: 202610 ou 20261017).
+     */
+    public String format(LocalDateTime start) {
+        return nameFormat.format(start);
+    }
+}
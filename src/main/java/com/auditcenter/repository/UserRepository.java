@@ -2,7 +2,11 @@ package com.auditcenter.repository;
 
 import com.auditcenter.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -34,4 +38,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
      *         Usar Optional é uma boa prática para evitar NullPointerExceptions.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Busca apenas a versão atual dos tokens do usuário, sem carregar a entidade inteira.
+     *
+     * @param id O ID do usuário.
+     * @return um Optional com a versão, ou vazio se o usuário não existir.
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * Incrementa a versão dos tokens do usuário, invalidando todos os tokens já emitidos.
+     *
+     * @param id O ID do usuário.
+     * @return a quantidade de linhas alteradas (0 se o usuário não existir).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 } 
\ No newline at end of file
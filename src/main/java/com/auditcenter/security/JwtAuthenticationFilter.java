@@ -1,20 +1,23 @@
 package com.auditcenter.security;
 
+import com.auditcenter.entity.User;
+import com.auditcenter.service.AuditMetrics;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filtro customizado que intercepta todas as requisições para processar o token JWT.
@@ -22,19 +25,27 @@ import java.io.IOException;
  *
  * Sua lógica é:
  * 1. Extrair o token JWT do cabeçalho "Authorization".
- * 2. Validar o token.
- * 3. Se válido, carregar os detalhes do usuário e configurar o contexto de segurança do Spring.
+ * 2. Validar o token (assinatura e vencimento), uma única vez.
+ * 3. Conferir se a versão do token ainda é a vigente para o usuário (revogação).
+ * 4. Se válido, montar o usuário a partir das claims e configurar o contexto de segurança do Spring.
  *
- * Isso garante que, para cada requisição com um token válido, o usuário seja
- * autenticado e suas permissões sejam carregadas para que o Spring Security
- * possa usá-las para autorizar o acesso aos endpoints.
+ * A autenticação é stateless: ID, e-mail e papel vêm do próprio token, e a única consulta
+ * ao usuário é a versão dos tokens, servida pelo {@link TokenVersionCache}.
+ *
+ * A duração de cada verificação vai para a métrica 'auditcenter.jwt.verification', e o papel do
+ * token fica no atributo {@link #ROLE_ATTRIBUTE} da requisição, usado nas métricas HTTP.
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /** Atributo da requisição com o papel do usuário autenticado pelo token. */
+    public static final String ROLE_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".role";
+
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersionCache;
+    private final AuditMetrics auditMetrics;
 
     @Override
     protected void doFilterInternal(
@@ -45,7 +56,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final VerifiedToken verified;
 
         // Se o cabeçalho de autorização não existir ou não começar com "Bearer ",
         // passamos a requisição para o próximo filtro na cadeia e retornamos.
@@ -56,20 +67,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Extrai o token do cabeçalho (removendo o prefixo "Bearer ").
         jwt = authHeader.substring(7);
-        userEmail = jwtTokenProvider.extractUsername(jwt);
 
-        // Se o e-mail foi extraído e o usuário ainda não está autenticado no contexto de segurança.
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Carrega os detalhes do usuário do banco de dados.
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        // Verifica assinatura e vencimento uma única vez por requisição (com cache entre requisições).
+        // Um token inválido apenas deixa a requisição sem autenticação; o Spring Security nega o acesso.
+        long start = System.nanoTime();
+        try {
+            verified = jwtTokenProvider.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token JWT rejeitado: {}", e.getMessage());
+            auditMetrics.recordJwtVerification("rejected", null, System.nanoTime() - start);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            final User user;
+            try {
+                user = jwtTokenProvider.toUser(verified);
+            } catch (IllegalArgumentException e) {
+                log.debug("Token JWT rejeitado: {}", e.getMessage());
+                auditMetrics.recordJwtVerification("rejected", null, System.nanoTime() - start);
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            // Se o token for válido...
-            if (jwtTokenProvider.validateToken(jwt, userDetails)) {
-                // ...cria um objeto de autenticação...
+            // Tokens de versões anteriores foram revogados (e usuários removidos não têm versão).
+            Optional<Integer> currentVersion = tokenVersionCache.currentVersion(user.getId());
+            if (currentVersion.isPresent() && currentVersion.get().equals(user.getTokenVersion())) {
+                // Cria um objeto de autenticação com o usuário descrito pelo token...
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        user,
                         null, // não precisamos das credenciais (senha) aqui
-                        userDetails.getAuthorities()
+                        user.getAuthorities()
                 );
                 // ...adiciona detalhes da requisição web ao token...
                 authToken.setDetails(
@@ -77,6 +106,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 );
                 // ...e atualiza o SecurityContextHolder. O Spring saberá que o usuário está autenticado.
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                request.setAttribute(ROLE_ATTRIBUTE, user.getRole().name());
+                auditMetrics.recordJwtVerification("accepted", user.getRole(), System.nanoTime() - start);
+            } else {
+                auditMetrics.recordJwtVerification("revoked", user.getRole(), System.nanoTime() - start);
             }
         }
         // Continua a execução da cadeia de filtros.
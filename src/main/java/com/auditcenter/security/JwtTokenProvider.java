@@ -1,19 +1,29 @@
 package com.auditcenter.security;
 
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Componente responsável por todas as operações relacionadas ao JWT:
@@ -21,12 +31,23 @@ import java.util.function.Function;
  * - Validação de tokens existentes.
  * - Extração de informações (claims) de tokens.
  *
+ * A chave de assinatura e o parser são construídos uma única vez na inicialização:
+ * ambos são imutáveis e seguros para uso concorrente. Tokens já verificados ficam em um
+ * cache limitado, indexado pelo hash SHA-256 do token, até o seu vencimento; assim um
+ * mesmo token só passa pela verificação HMAC na primeira requisição. O cache guarda uma cópia
+ * imutável das claims ({@link VerifiedToken}), compartilhada entre as requisições.
+ *
  * A anotação @Component faz desta classe um bean Spring, permitindo que seja
  * injetada em outras partes da aplicação (ex: nos serviços de autenticação).
  */
 @Component
 public class JwtTokenProvider {
 
+    // Nomes das claims customizadas do token.
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     // Injeta os valores de configuração do application.properties.
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -34,17 +55,93 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration-ms}")
     private long jwtExpirationMs;
 
+    // Quantidade máxima de tokens verificados mantidos em cache (0 desativa o cache).
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    /**
+     * Constrói a chave, o parser e o cache a partir das propriedades injetadas.
+     * Para o algoritmo HS256, a chave precisa ter um tamanho mínimo seguro.
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = cacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheMaxSize)
+                        .expireAfter(new UntilTokenExpiration())
+                        .build()
+                : null;
+    }
+
     /**
      * Gera um token JWT para um usuário.
-     * O "subject" do token será o e-mail do usuário.
-     * @param userDetails Detalhes do usuário fornecidos pelo Spring Security.
+     * O "subject" do token será o e-mail do usuário. As claims 'uid', 'role' e 'ver' levam o ID,
+     * o papel e a versão de tokens do usuário, para que as requisições seguintes sejam
+     * autenticadas sem carregar o usuário do banco.
+     * @param user O usuário autenticado.
      * @return Uma string com o token JWT.
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        // É possível adicionar claims customizadas ao token, como as roles do usuário.
-        // claims.put("roles", userDetails.getAuthorities());
-        return createToken(claims, userDetails.getUsername());
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return createToken(claims, user.getUsername());
+    }
+
+    /**
+     * Reconstrói o usuário autenticado a partir das claims de um token já verificado.
+     * O objeto não tem senha nem nome: serve apenas como principal da requisição.
+     *
+     * @param token O token verificado devolvido por {@link #parseToken(String)}.
+     * @return O usuário descrito pelo token.
+     * @throws IllegalArgumentException Se o token não tiver as claims de ID, papel e versão, ou se
+     *         o papel não existir.
+     */
+    public User toUser(VerifiedToken token) {
+        if (token.getUserId() == null || token.getRole() == null || token.getTokenVersion() == null) {
+            throw new IllegalArgumentException("Token sem as claims de usuário (uid, role, ver).");
+        }
+        return User.builder()
+                .id(token.getUserId())
+                .email(token.getEmail())
+                .role(Role.valueOf(token.getRole()))
+                .tokenVersion(token.getTokenVersion())
+                .build();
+    }
+
+    /**
+     * Verifica a assinatura e o vencimento do token e devolve suas claims, em uma única passada.
+     * O resultado fica em cache até o vencimento do token.
+     *
+     * @param token O token JWT.
+     * @return As claims do token, em um objeto imutável.
+     * @throws io.jsonwebtoken.JwtException Se o token for inválido, adulterado ou estiver expirado.
+     */
+    public VerifiedToken parseToken(String token) {
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+        String key = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified == null) {
+            // Tokens inválidos lançam exceção aqui e nunca entram no cache.
+            verified = verify(token);
+            verifiedTokens.put(key, verified);
+        } else if (verified.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            // O Caffeine remove a entrada vencida de forma preguiçosa; por garantia, revalida.
+            verifiedTokens.invalidate(key);
+            return verify(token);
+        }
+        return verified;
     }
 
     /**
@@ -54,23 +151,15 @@ public class JwtTokenProvider {
      * @return true se o token for válido, false caso contrário.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // O parser já rejeita tokens expirados, então basta comparar o usuário.
+        return parseToken(token).getEmail().equals(userDetails.getUsername());
     }
 
     /**
      * Extrai o nome de usuário (subject) do token.
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    /**
-     * Extrai um claim específico do token usando uma função resolver.
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return parseToken(token).getEmail();
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -82,30 +171,64 @@ public class JwtTokenProvider {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        // O parser do Jwts lida com a verificação da assinatura.
-        // Se for inválida, ele lança uma exceção que será tratada pelo Spring Security.
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private VerifiedToken verify(String token) {
+        // O parser do Jwts lida com a verificação da assinatura e do vencimento.
+        // Se for inválido, ele lança uma exceção que é tratada pelo filtro de autenticação.
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Number userId = claim(claims, CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claim(claims, CLAIM_TOKEN_VERSION, Number.class);
+        return new VerifiedToken(
+                userId == null ? null : userId.longValue(),
+                claims.getSubject(),
+                claim(claims, CLAIM_ROLE, String.class),
+                tokenVersion == null ? null : tokenVersion.intValue(),
+                claims.getExpiration().getTime());
+    }
+
+    /**
+     * Lê uma claim, ou null se ela não existir ou tiver outro tipo.
+     */
+    private static <T> T claim(Claims claims, String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    /**
+     * Chave do cache: o hash do token, para não manter tokens válidos em memória.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM é obrigada a oferecer SHA-256.
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
-     * Gera a chave de assinatura a partir da string secreta definida nas propriedades.
-     * Para o algoritmo HS256, a chave precisa ter um tamanho mínimo seguro.
+     * Mantém cada token em cache apenas até o seu vencimento ('exp').
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = this.jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static class UntilTokenExpiration implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long remainingMs = token.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
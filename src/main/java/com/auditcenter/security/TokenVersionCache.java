@@ -0,0 +1,94 @@
+package com.auditcenter.security;
+
+import com.auditcenter.repository.UserRepository;
+import com.auditcenter.service.AuditMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache da versão atual dos tokens de cada usuário (ID do usuário -> token_version).
+ *
+ * É a única informação do usuário que o filtro JWT ainda precisa consultar a cada
+ * requisição: papel, ID e e-mail vêm das claims do próprio token. Com o cache, a tabela
+ * 'users' só é lida uma vez por usuário a cada 'jwt.version-cache.ttl-seconds'.
+ *
+ * A revogação feita nesta instância invalida a entrada na hora; em outras instâncias ela
+ * vale no máximo após o TTL. Com TTL 0 o cache fica desativado e toda requisição consulta
+ * o banco (uma busca por chave primária que lê só a versão).
+ *
+ * Acertos e falhas do cache são publicados como 'cache.gets{cache=jwt.token-versions}', e cada
+ * leitura no banco em 'auditcenter.user.lookup{by=id}'.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final AuditMetrics auditMetrics;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.version-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${jwt.version-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<Long, Integer> versions;
+
+    @PostConstruct
+    public void init() {
+        this.versions = ttlSeconds > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                        .recordStats()
+                        .build()
+                : null;
+        if (versions != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.token-versions");
+        }
+    }
+
+    /**
+     * Retorna a versão vigente dos tokens do usuário.
+     *
+     * @param userId O ID do usuário.
+     * @return a versão atual, ou vazio se o usuário não existir mais.
+     */
+    public Optional<Integer> currentVersion(Long userId) {
+        if (versions == null) {
+            return loadVersion(userId);
+        }
+        // Usuários inexistentes não são guardados: o Caffeine não armazena valores nulos.
+        return Optional.ofNullable(versions.get(userId, id -> loadVersion(id).orElse(null)));
+    }
+
+    private Optional<Integer> loadVersion(Long userId) {
+        long start = System.nanoTime();
+        try {
+            return userRepository.findTokenVersionById(userId);
+        } finally {
+            auditMetrics.recordUserLookup(false, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Descarta a versão em cache do usuário, forçando a releitura no próximo acesso.
+     *
+     * @param userId O ID do usuário.
+     */
+    public void invalidate(Long userId) {
+        if (versions != null) {
+            versions.invalidate(userId);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.auditcenter.security;
 
 import com.auditcenter.repository.UserRepository;
+import com.auditcenter.service.AuditMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -27,6 +28,7 @@ import org.springframework.stereotype.Service;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final AuditMetrics auditMetrics;
 
     /**
      * Carrega um usuário pelo seu e-mail.
@@ -37,7 +39,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com o e-mail: " + username));
+        long start = System.nanoTime();
+        try {
+            return userRepository.findByEmail(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com o e-mail: " + username));
+        } finally {
+            auditMetrics.recordUserLookup(true, System.nanoTime() - start);
+        }
     }
 } 
\ No newline at end of file
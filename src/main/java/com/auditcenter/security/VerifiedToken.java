@@ -0,0 +1,32 @@
+package com.auditcenter.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * As claims de um token já verificado, copiadas para um objeto imutável.
+ *
+ * É o que o cache do {@link JwtTokenProvider} guarda e devolve: várias requisições com o mesmo
+ * token recebem a mesma instância, que por isso não pode ser alterada (as Claims do jjwt são um
+ * Map mutável). Claims ausentes ou de tipo inesperado ficam nulas e são recusadas em
+ * {@link JwtTokenProvider#toUser(VerifiedToken)}.
+ */
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+
+    /** Claim 'uid'. */
+    private final Long userId;
+
+    /** O 'subject' do token (e-mail do usuário). */
+    private final String email;
+
+    /** Claim 'role'. */
+    private final String role;
+
+    /** Claim 'ver'. */
+    private final Integer tokenVersion;
+
+    /** Vencimento do token ('exp'), em milissegundos desde a época. */
+    private final long expiresAtMillis;
+}
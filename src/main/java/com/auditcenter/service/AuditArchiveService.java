@@ -0,0 +1,67 @@
+package com.auditcenter.service;
+
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Move as partições antigas para o arquivo frio (AuditArchive): segmentos compactados em disco,
+ * lidos pelas mesmas consultas, no lugar das tabelas.
+ *
+ * Uma partição é arquivada quando o seu período terminou há mais de 'audit.archive.after-days'
+ * dias (0 desliga o arquivamento). Partições são arquivadas inteiras: a gravação lê a tabela,
+ * confere a contagem e só então a partição é registrada como arquivada e as tabelas são removidas.
+ * Uma falha no meio deixa a partição como estava, para a próxima execução.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditArchiveService {
+
+    private final AuditPartitionCatalog partitionCatalog;
+    private final AuditArchive archive;
+
+    @Value("${audit.archive.after-days:0}")
+    private int afterDays;
+
+    @Scheduled(fixedDelayString = "${audit.archive.check-interval-ms:3600000}",
+            initialDelayString = "${audit.archive.check-interval-ms:3600000}")
+    public void archiveOldPartitions() {
+        if (afterDays <= 0) {
+            return;
+        }
+        partitionCatalog.refresh();
+        int archived = archivePartitionsBefore(LocalDateTime.now().minusDays(afterDays));
+        if (archived > 0) {
+            log.info("Arquivo: {} partições arquivadas.", archived);
+        }
+    }
+
+    /**
+     * Arquiva as partições cujo período terminou até 'cutoff'.
+     *
+     * @return Quantas partições foram arquivadas.
+     */
+    public int archivePartitionsBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        for (AuditPartition partition : partitionCatalog.partitions()) {
+            if (partitionCatalog.isArchived(partition) || partition.getPeriodEnd().isAfter(cutoff)) {
+                continue;
+            }
+            long started = System.nanoTime();
+            long events = archive.write(partition);
+            partitionCatalog.markArchived(partition);
+            log.info("Partição {} arquivada: {} eventos, {} bytes, em {} ms.", partition.getName(), events,
+                    archive.sizeInBytes(partition), (System.nanoTime() - started) / 1_000_000);
+            archived++;
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,155 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serviço para exportação de eventos de auditoria em NDJSON ou CSV.
+ *
+ * As linhas são lidas do banco com um cursor somente-avanço e escritas diretamente na
+ * resposta HTTP, uma a uma. Nem a lista de entidades nem a lista de DTOs é montada em
+ * memória, então o consumo de memória é constante, seja qual for a quantidade de linhas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditEventExportService {
+
+    private static final String CSV_HEADER = "id,timestamp,systemName,userEmail,action,metadata";
+
+    private final AuditEventService auditEventService;
+    private final AuditEventRepository auditEventRepository;
+    private final AuditEventMapper auditEventMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${audit.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Prepara a exportação dos eventos visíveis para o usuário autenticado.
+     *
+     * As regras de visibilidade são resolvidas aqui, ainda na thread da requisição;
+     * a escrita acontece depois, quando o Spring MVC invocar o StreamingResponseBody.
+     *
+     * @param filter Filtros opcionais da exportação.
+     * @param format Formato de saída.
+     * @param gzip Se a saída deve ser compactada com gzip.
+     * @return O corpo da resposta, que escreve os eventos à medida que são lidos.
+     */
+    public StreamingResponseBody export(AuditEventFilter filter, ExportFormat format, boolean gzip) {
+        Optional<AuditEventFilter> scopedFilter = auditEventService.scopeToCurrentUser(filter);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        return outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : new BufferedOutputStream(outputStream, 64 * 1024);
+            long[] count = {0};
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    // Um ANALYST que pediu outro e-mail recebe um arquivo sem eventos.
+                    Stream<AuditEvent> events = scopedFilter
+                            .map(f -> auditEventRepository.streamAll(f, fetchSize))
+                            .orElseGet(Stream::empty);
+                    try (events) {
+                        count[0] = format == ExportFormat.CSV ? writeCsv(events.iterator(), out) : writeNdjson(events.iterator(), out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                out.close();
+            }
+            log.info("Exportação {} concluída: {} eventos.", format, count[0]);
+        };
+    }
+
+    private long writeNdjson(Iterator<AuditEvent> events, OutputStream out) throws IOException {
+        long count = 0;
+        // Sem flush a cada linha: quem decide quando enviar os bytes é o buffer da resposta.
+        ObjectWriter writer = objectMapper.writerFor(AuditEventDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // O gerador não deve fechar a resposta; isso fica a cargo do chamador.
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (events.hasNext()) {
+                writer.writeValue(generator, auditEventMapper.toDto(events.next()));
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<AuditEvent> events, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (events.hasNext()) {
+            AuditEvent event = events.next();
+            writer.write(String.valueOf(event.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(event.getTimestamp()));
+            writer.write(',');
+            writeCsvField(writer, event.getSystemName());
+            writer.write(',');
+            writeCsvField(writer, event.getUserEmail());
+            writer.write(',');
+            writeCsvField(writer, event.getAction());
+            writer.write(',');
+            writeCsvField(writer, event.getMetadata());
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Escreve um campo CSV, colocando-o entre aspas quando contém vírgula, aspas ou quebra de linha.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,21 +1,24 @@
 package com.auditcenter.service;
 
 import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.AuditEventPage;
 import com.auditcenter.dto.WebhookEventRequest;
 import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.entity.AuditEventAttribute;
 import com.auditcenter.entity.User;
+import com.auditcenter.exception.InvalidQueryException;
 import com.auditcenter.mapper.AuditEventMapper;
 import com.auditcenter.repository.AuditEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Optional;
 
 /**
  * Serviço para a lógica de negócio relacionada a eventos de auditoria.
@@ -27,23 +30,14 @@ public class AuditEventService {
 
     private final AuditEventRepository auditEventRepository;
     private final AuditEventMapper auditEventMapper;
+    private final SseBroadcaster sseBroadcaster;
+    private final MetadataAttributeExtractor metadataAttributeExtractor;
+    private final EventStatsService eventStatsService;
+    private final EventSearchIndex eventSearchIndex;
+    private final AuditMetrics auditMetrics;
 
-    // Lista thread-safe para armazenar os emissores SSE (conexões de clientes).
-    // CopyOnWriteArrayList é uma boa escolha para cenários com muitas leituras (envio de eventos)
-    // e poucas escritas (novas conexões/desconexões).
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
-
-    /**
-     * Adiciona um novo SseEmitter à lista de conexões ativas.
-     * @param emitter O SseEmitter que representa a conexão do cliente.
-     */
-    public void addEmitter(SseEmitter emitter) {
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError(err -> emitters.remove(emitter));
-        log.info("Novo cliente SSE conectado. Total de conexões: {}", emitters.size());
-    }
+    @Value("${audit.query.max-page-size:500}")
+    private int maxPageSize;
 
     /**
      * Salva um novo evento de auditoria vindo do webhook e o transmite via SSE.
@@ -53,58 +47,140 @@ public class AuditEventService {
      */
     public AuditEventDto saveEvent(WebhookEventRequest request) {
         // Mapeia o DTO de requisição para a entidade
+        long start = System.nanoTime();
         AuditEvent auditEvent = auditEventMapper.toEntity(request);
-        // Salva a entidade no banco de dados
-        AuditEvent savedEvent = auditEventRepository.save(auditEvent);
+        auditMetrics.recordMapping(true, System.nanoTime() - start);
+        auditEvent.setAttributes(metadataAttributeExtractor.extract(auditEvent.getMetadata()));
+        // Salva a entidade na partição do seu período
+        AuditEvent savedEvent = insert(List.of(auditEvent)).get(0);
         log.info("Novo evento de auditoria salvo: {}", savedEvent);
+        eventStatsService.record(List.of(savedEvent));
+        eventSearchIndex.record(List.of(savedEvent));
         // Mapeia a entidade salva para o DTO de resposta
+        start = System.nanoTime();
         AuditEventDto savedEventDto = auditEventMapper.toDto(savedEvent);
+        auditMetrics.recordMapping(false, System.nanoTime() - start);
 
         // Envia o evento para todos os clientes SSE conectados
-        sendEventToSseClients(savedEventDto);
+        sseBroadcaster.publish(savedEventDto);
 
         return savedEventDto;
     }
 
     /**
-     * Lista os eventos de auditoria com base na permissão do usuário autenticado.
+     * Salva um lote de eventos de auditoria com um único insert em lote JDBC
+     * e transmite cada evento salvo via SSE.
+     * Usado pelo pipeline de ingestão assíncrona ({@link EventIngestionService}).
+     *
+     * @param events As entidades a serem salvas.
+     * @return Os DTOs dos eventos salvos, na mesma ordem da entrada.
+     */
+    public List<AuditEventDto> saveBatch(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            event.setAttributes(metadataAttributeExtractor.extract(event.getMetadata()));
+        }
+        List<AuditEvent> savedEvents = insert(events);
+        log.info("Lote de {} eventos de auditoria salvo.", savedEvents.size());
+        eventStatsService.record(savedEvents);
+        eventSearchIndex.record(savedEvents);
+        long start = System.nanoTime();
+        List<AuditEventDto> savedEventDtos = auditEventMapper.toDtoList(savedEvents);
+        auditMetrics.recordMapping(false, System.nanoTime() - start);
+
+        // O envio acontece depois do commit do lote, para nunca transmitir eventos desfeitos.
+        savedEventDtos.forEach(sseBroadcaster::publish);
+
+        return savedEventDtos;
+    }
+
+    /**
+     * Lista os eventos de auditoria com base na permissão do usuário autenticado,
+     * uma página por vez (paginação por cursor sobre (timestamp, id)).
      * - ADMIN: vê todos os eventos.
-     * - ANALYST: vê apenas os eventos associados ao seu e-mail.
+     * - ANALYST: vê apenas os eventos associados ao seu e-mail. A restrição é aplicada
+     *   na própria consulta ao banco, junto com os demais filtros.
      *
-     * @return Uma lista de DTOs de eventos de auditoria.
+     * @param filter Filtros opcionais da consulta.
+     * @param cursor Cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param size Tamanho da página desejado (limitado a 'audit.query.max-page-size').
+     * @return A página de eventos e o cursor da próxima página.
      */
-    public List<AuditEventDto> listEvents() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = (User) authentication.getPrincipal();
+    public AuditEventPage listEvents(AuditEventFilter filter, String cursor, int size) {
+        Optional<AuditEventFilter> scoped = scopeToCurrentUser(filter);
+        if (scoped.isEmpty()) {
+            return AuditEventPage.builder().items(List.of()).build();
+        }
+        AuditEventFilter scopedFilter = scoped.get();
 
-        List<AuditEvent> events;
-        if (currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-            log.info("Usuário ADMIN {} listando todos os eventos.", currentUser.getEmail());
-            events = auditEventRepository.findAll();
-        } else { // ANALYST
-            log.info("Usuário ANALYST {} listando seus próprios eventos.", currentUser.getEmail());
-            events = auditEventRepository.findByUserEmail(currentUser.getEmail());
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        EventCursor position = cursor == null || cursor.isBlank() ? null : EventCursor.decode(cursor);
+
+        // Busca um evento a mais para saber se existe uma próxima página.
+        List<AuditEvent> events = auditEventRepository.findPage(
+                scopedFilter,
+                position == null ? null : position.getTimestamp(),
+                position == null ? null : position.getId(),
+                pageSize + 1
+        );
+
+        String nextCursor = null;
+        if (events.size() > pageSize) {
+            events = events.subList(0, pageSize);
+            AuditEvent last = events.get(pageSize - 1);
+            nextCursor = new EventCursor(last.getTimestamp(), last.getId()).encode();
         }
 
-        return auditEventMapper.toDtoList(events);
+        long start = System.nanoTime();
+        List<AuditEventDto> items = auditEventMapper.toDtoList(events);
+        auditMetrics.recordMapping(false, System.nanoTime() - start);
+        return AuditEventPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Grava os eventos em lote, medindo a duração em 'auditcenter.repository.save'.
+     */
+    private List<AuditEvent> insert(List<AuditEvent> events) {
+        long start = System.nanoTime();
+        List<AuditEvent> savedEvents = auditEventRepository.batchInsert(events);
+        auditMetrics.recordRepositorySave(events.size(), System.nanoTime() - start);
+        return savedEvents;
     }
 
     /**
-     * Envia um evento para todos os clientes SSE conectados.
-     * @param eventDto O evento a ser enviado.
+     * Aplica as regras de visibilidade do usuário autenticado a um filtro de consulta.
+     * - ADMIN: o filtro é usado como veio.
+     * - ANALYST: o filtro é restrito ao seu próprio e-mail.
+     *
+     * @param filter Os filtros pedidos pelo cliente (pode ser null).
+     * @return O filtro restrito, ou vazio se um ANALYST pediu eventos de outro e-mail
+     *         (nesse caso, nenhum evento é visível).
+     * @throws InvalidQueryException se o filtro usar um atributo que não está indexado.
      */
-    private void sendEventToSseClients(AuditEventDto eventDto) {
-        log.info("Enviando evento SSE para {} clientes.", emitters.size());
-        for (SseEmitter emitter : emitters) {
-            try {
-                // Envia o evento no formato SSE
-                emitter.send(SseEmitter.event().name("audit-event").data(eventDto));
-            } catch (IOException e) {
-                // Se a conexão estiver fechada/quebrada, o emitter será removido
-                // pela chamada onCompletion/onTimeout/onError.
-                log.warn("Erro ao enviar evento SSE para um cliente. Removendo-o da lista.", e);
-                emitters.remove(emitter);
+    public Optional<AuditEventFilter> scopeToCurrentUser(AuditEventFilter filter) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) authentication.getPrincipal();
+
+        AuditEventFilter scopedFilter = filter == null ? new AuditEventFilter() : filter.toBuilder().build();
+        // Um atributo fora da configuração nunca foi extraído: a consulta voltaria vazia.
+        for (AuditEventAttribute attribute : scopedFilter.attributeFilters()) {
+            if (!metadataAttributeExtractor.isIndexed(attribute.getKey())) {
+                throw new InvalidQueryException("Atributo não indexado: " + attribute.getKey()
+                        + ". Configure-o em 'audit.metadata.indexed-attributes'.");
+            }
+        }
+        if (currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            log.info("Usuário ADMIN {} consultando eventos.", currentUser.getEmail());
+        } else { // ANALYST
+            log.info("Usuário ANALYST {} consultando seus próprios eventos.", currentUser.getEmail());
+            if (scopedFilter.getUserEmail() != null && !scopedFilter.getUserEmail().equals(currentUser.getEmail())) {
+                // Um ANALYST nunca vê eventos de outro e-mail.
+                return Optional.empty();
             }
+            scopedFilter.setUserEmail(currentUser.getEmail());
         }
+        return Optional.of(scopedFilter);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,502 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.IntegrityReport;
+import com.auditcenter.dto.IntegrityReport.BrokenLink;
+import com.auditcenter.dto.IntegrityReport.Reason;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditEventHashes;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evidência de alteração dos eventos de auditoria: selagem em segundo plano e verificação paralela.
+ *
+ * No insert, cada evento recebe só o hash do próprio conteúdo ('event_hash', ver AuditEventHashes),
+ * sem depender de nenhum outro evento: as gravações concorrentes não disputam nenhuma trava.
+ * Depois que um intervalo de 'bucket-minutes' se encerra (mais 'seal-delay-ms', para as transações
+ * em andamento), esta classe o sela: para cada partição com eventos no intervalo, grava em
+ * audit_event_seals a quantidade de eventos e a raiz da árvore de Merkle dos seus hashes, e
+ * encadeia o selo ao anterior. Só a selagem é sequencial, e ela grava um selo por partição e
+ * intervalo, não um por evento.
+ *
+ * A verificação confere a cadeia de selos inteira e, no período pedido, recalcula o hash de cada
+ * evento e a raiz de cada intervalo. Os intervalos de cada partição são divididos em blocos de até
+ * 'verify-chunk-buckets' e conferidos em paralelo (fork/join, 'verify-parallelism' threads).
+ *
+ * Detecta: evento alterado, removido ou incluído em um intervalo já selado, e selo alterado ou
+ * removido. Não detecta a troca de toda a cadeia a partir de um ponto (quem pode reescrever o banco
+ * pode recalcular os selos seguintes): para isso, guarde fora do banco o 'chainHead' do relatório.
+ *
+ * Os eventos de partições arquivadas (AuditArchive) são lidos do arquivo frio, com os mesmos selos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditIntegrityService {
+
+    private static final Comparator<BrokenLink> EARLIEST = Comparator
+            .comparing(BrokenLink::getBucketStart)
+            .thenComparing(BrokenLink::getPartitionName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(BrokenLink::getReason);
+
+    private static final RowMapper<Seal> SEAL_MAPPER = (rs, rowNum) -> new Seal(rs.getLong("seq"),
+            rs.getString("partition_name"), rs.getObject("bucket_start", LocalDateTime.class),
+            rs.getInt("event_count"), rs.getString("merkle_root"), rs.getString("chain_hash"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final AuditPartitionCatalog partitionCatalog;
+    private final AuditArchive archive;
+    private final AuditMetrics auditMetrics;
+
+    @Value("${audit.integrity.bucket-minutes:1}")
+    private int bucketMinutes;
+
+    @Value("${audit.integrity.seal-delay-ms:60000}")
+    private long sealDelayMs;
+
+    @Value("${audit.integrity.verify-parallelism:4}")
+    private int verifyParallelism;
+
+    @Value("${audit.integrity.verify-chunk-buckets:60}")
+    private int chunkBuckets;
+
+    @Scheduled(fixedDelayString = "${audit.integrity.seal-interval-ms:60000}",
+            initialDelayString = "${audit.integrity.seal-interval-ms:60000}")
+    public void sealClosedBuckets() {
+        sealUpTo(LocalDateTime.now().minus(sealDelayMs, ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Sela os intervalos ainda não selados que terminam até 'until', em ordem de (início, partição).
+     * Os selos de cada bloco de intervalos são gravados em uma transação; se outra instância gravou
+     * os mesmos números de selo antes, esta desiste até a próxima execução.
+     *
+     * @return Quantos selos foram gravados.
+     */
+    public synchronized int sealUpTo(LocalDateTime until) {
+        long start = System.nanoTime();
+        LocalDateTime end = bucketStart(until);
+        List<Seal> stored = jdbcTemplate.query("SELECT * FROM audit_event_seals ORDER BY seq DESC LIMIT 1", SEAL_MAPPER);
+        Seal last = stored.isEmpty() ? null : stored.get(0);
+        // Sem selos, a primeira execução sela todos os eventos existentes.
+        LocalDateTime cursor = last == null ? null : last.getBucketStart().plus(bucketLength());
+        int sealed = 0;
+        LocalDateTime next;
+        while ((next = firstEventBucket(cursor, end)) != null) {
+            LocalDateTime windowEnd = min(next.plus(bucketLength().multipliedBy(chunkBuckets)), end);
+            List<Seal> seals = new ArrayList<>();
+            for (AuditPartition partition : partitionCatalog.partitionsOverlapping(next, windowEnd)) {
+                scanBuckets(partition, next, windowEnd, false).forEach((bucket, scan) -> seals.add(new Seal(0,
+                        partition.getName(), bucket, scan.getLeaves().size(),
+                        AuditEventHashes.merkleRoot(scan.getLeaves()), null)));
+            }
+            seals.sort(Comparator.comparing(Seal::getBucketStart).thenComparing(Seal::getPartitionName));
+            for (Seal seal : seals) {
+                seal.setSeq(last == null ? 1 : last.getSeq() + 1);
+                seal.setChainHash(AuditEventHashes.chainHash(last == null ? null : last.getChainHash(), seal.getSeq(),
+                        seal.getPartitionName(), seal.getBucketStart(), seal.getEventCount(), seal.getMerkleRoot()));
+                last = seal;
+            }
+            if (!insertSeals(seals)) {
+                break;
+            }
+            sealed += seals.size();
+            cursor = windowEnd;
+        }
+        if (sealed > 0) {
+            auditMetrics.recordIntegritySeal(System.nanoTime() - start);
+            log.info("Integridade: {} intervalos selados até {}.", sealed, end);
+        }
+        return sealed;
+    }
+
+    /**
+     * Verifica a cadeia de selos inteira e os eventos de [from, to).
+     *
+     * @param from Início do período (inclusivo), ou null para desde o primeiro evento.
+     * @param to Fim do período (exclusivo), ou null para até o último intervalo selado.
+     * @return O relatório, com o primeiro elo quebrado (o mais antigo) se houver.
+     */
+    public IntegrityReport verify(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        List<Seal> chain = jdbcTemplate.query("SELECT * FROM audit_event_seals ORDER BY seq", SEAL_MAPPER);
+        VerifyResult result = verifyChain(chain);
+
+        LocalDateTime sealedUpTo = chain.isEmpty() ? null
+                : chain.get(chain.size() - 1).getBucketStart().plus(bucketLength());
+        // Eventos depois do último selo ainda não foram selados: não há com o que comparar.
+        LocalDateTime end = sealedUpTo == null ? null : min(to == null ? sealedUpTo : bucketStart(to), sealedUpTo);
+        LocalDateTime begin = from == null ? null : bucketStart(from);
+
+        Map<String, AuditPartition> partitions = new HashMap<>();
+        partitionCatalog.partitions().forEach(partition -> partitions.put(partition.getName(), partition));
+        Map<AuditPartition, NavigableMap<LocalDateTime, Seal>> sealsByPartition = new HashMap<>();
+        long expired = 0;
+        long buckets = 0;
+        for (Seal seal : chain) {
+            AuditPartition partition = partitions.get(seal.getPartitionName());
+            if (partition == null) {
+                expired++;
+            } else if (end != null && (begin == null || !seal.getBucketStart().isBefore(begin))
+                    && seal.getBucketStart().isBefore(end)) {
+                sealsByPartition.computeIfAbsent(partition, key -> new TreeMap<>()).put(seal.getBucketStart(), seal);
+                buckets++;
+            }
+        }
+
+        if (end != null) {
+            List<RecursiveTask<VerifyResult>> tasks = new ArrayList<>();
+            for (AuditPartition partition : partitionCatalog.partitionsOverlapping(begin, end)) {
+                NavigableMap<LocalDateTime, Seal> seals = sealsByPartition.getOrDefault(partition, new TreeMap<>());
+                LocalDateTime[] range = checkedRange(partition, seals, begin, end);
+                if (range != null) {
+                    tasks.add(new VerifyTask(partition, seals, range[0], range[1]));
+                }
+            }
+            ForkJoinPool pool = new ForkJoinPool(verifyParallelism);
+            try {
+                result.merge(pool.invoke(new RecursiveTask<VerifyResult>() {
+                    @Override
+                    protected VerifyResult compute() {
+                        VerifyResult merged = new VerifyResult();
+                        invokeAll(tasks).forEach(task -> merged.merge(task.join()));
+                        return merged;
+                    }
+                }));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        long nanos = System.nanoTime() - start;
+        auditMetrics.recordIntegrityVerification(nanos);
+        if (result.getFirst() != null) {
+            log.warn("Integridade: {} elos quebrados; o primeiro: {}.", result.getBrokenLinks(), result.getFirst());
+        }
+        return IntegrityReport.builder()
+                .valid(result.getFirst() == null)
+                .from(from)
+                .to(to)
+                .sealedUpTo(sealedUpTo)
+                .sealsChecked(chain.size())
+                .expiredSeals(expired)
+                .bucketsChecked(buckets)
+                .eventsChecked(result.getEvents())
+                .brokenLinks(result.getBrokenLinks())
+                .firstBrokenLink(result.getFirst())
+                .chainHead(chain.isEmpty() ? null : chain.get(chain.size() - 1).getChainHash())
+                .elapsedMillis(Duration.ofNanos(nanos).toMillis())
+                .build();
+    }
+
+    /**
+     * Confere a sequência e o hash de cada selo. Cada selo é conferido contra o hash gravado do
+     * anterior, para que um selo alterado não quebre todos os seguintes no relatório.
+     */
+    private static VerifyResult verifyChain(List<Seal> chain) {
+        VerifyResult result = new VerifyResult();
+        String previous = null;
+        long expectedSeq = 1;
+        for (Seal seal : chain) {
+            if (seal.getSeq() != expectedSeq) {
+                result.add(new BrokenLink(Reason.SEAL_MISSING, expectedSeq, seal.getPartitionName(),
+                        seal.getBucketStart(), null));
+            } else if (!AuditEventHashes.chainHash(previous, seal.getSeq(), seal.getPartitionName(),
+                    seal.getBucketStart(), seal.getEventCount(), seal.getMerkleRoot()).equals(seal.getChainHash())) {
+                result.add(new BrokenLink(Reason.CHAIN_HASH_MISMATCH, seal.getSeq(), seal.getPartitionName(),
+                        seal.getBucketStart(), null));
+            }
+            previous = seal.getChainHash();
+            expectedSeq = seal.getSeq() + 1;
+        }
+        return result;
+    }
+
+    /**
+     * O trecho da partição a conferir: do primeiro ao último intervalo com eventos ou com selo,
+     * dentro de [begin, end). Null se não houver nenhum dos dois.
+     */
+    private LocalDateTime[] checkedRange(AuditPartition partition, NavigableMap<LocalDateTime, Seal> seals,
+                                         LocalDateTime begin, LocalDateTime end) {
+        LocalDateTime[] range;
+        if (partitionCatalog.isArchived(partition)) {
+            range = archive.timeRange(partition, begin, end);
+        } else {
+            List<Object> args = new ArrayList<>();
+            String sql = "SELECT MIN(timestamp), MAX(timestamp) FROM " + partition.getEventsTable()
+                    + " WHERE " + timeRange(begin, end, args);
+            range = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new LocalDateTime[]{
+                    rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class)}, args.toArray());
+        }
+        LocalDateTime first = range == null || range[0] == null ? null : bucketStart(range[0]);
+        LocalDateTime last = range == null || range[1] == null ? null : bucketStart(range[1]);
+        if (!seals.isEmpty()) {
+            first = first == null ? seals.firstKey() : min(first, seals.firstKey());
+            last = last == null || seals.lastKey().isAfter(last) ? seals.lastKey() : last;
+        }
+        return first == null ? null : new LocalDateTime[]{first, last.plus(bucketLength())};
+    }
+
+    /**
+     * Confere um trecho [from, to) de uma partição; trechos com mais de 'verify-chunk-buckets'
+     * intervalos são divididos ao meio e conferidos em paralelo.
+     */
+    private class VerifyTask extends RecursiveTask<VerifyResult> {
+
+        private final AuditPartition partition;
+        private final NavigableMap<LocalDateTime, Seal> seals;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        VerifyTask(AuditPartition partition, NavigableMap<LocalDateTime, Seal> seals, LocalDateTime from,
+                   LocalDateTime to) {
+            this.partition = partition;
+            this.seals = seals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected VerifyResult compute() {
+            long bucketCount = Duration.between(from, to).toMinutes() / bucketMinutes;
+            if (bucketCount > chunkBuckets) {
+                LocalDateTime middle = from.plus(bucketLength().multipliedBy(bucketCount / 2));
+                VerifyTask left = new VerifyTask(partition, seals, from, middle);
+                left.fork();
+                VerifyResult result = new VerifyTask(partition, seals, middle, to).compute();
+                result.merge(left.join());
+                return result;
+            }
+            return verifyChunk();
+        }
+
+        private VerifyResult verifyChunk() {
+            VerifyResult result = new VerifyResult();
+            NavigableMap<LocalDateTime, BucketScan> scans = scanBuckets(partition, from, to, true);
+            for (Map.Entry<LocalDateTime, BucketScan> entry : scans.entrySet()) {
+                LocalDateTime bucket = entry.getKey();
+                BucketScan scan = entry.getValue();
+                Seal seal = seals.get(bucket);
+                result.addEvents(scan.getLeaves().size());
+                if (seal == null) {
+                    result.add(new BrokenLink(Reason.UNSEALED_EVENT, null, partition.getName(), bucket,
+                            scan.getFirstEventId()));
+                } else if (scan.getAlteredEvents() > 0) {
+                    result.add(new BrokenLink(Reason.EVENT_ALTERED, seal.getSeq(), partition.getName(), bucket,
+                            scan.getFirstAlteredId()), scan.getAlteredEvents());
+                } else if (scan.getLeaves().size() != seal.getEventCount()) {
+                    result.add(new BrokenLink(Reason.EVENT_COUNT_MISMATCH, seal.getSeq(), partition.getName(), bucket,
+                            null));
+                } else if (!AuditEventHashes.merkleRoot(scan.getLeaves()).equals(seal.getMerkleRoot())) {
+                    result.add(new BrokenLink(Reason.MERKLE_ROOT_MISMATCH, seal.getSeq(), partition.getName(), bucket,
+                            null));
+                }
+            }
+            // Intervalos selados que ficaram sem nenhum evento.
+            for (Seal seal : seals.subMap(from, true, to, false).values()) {
+                if (!scans.containsKey(seal.getBucketStart())) {
+                    result.add(new BrokenLink(Reason.EVENT_COUNT_MISMATCH, seal.getSeq(), partition.getName(),
+                            seal.getBucketStart(), null));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Lê os eventos de [from, to) de uma partição, agrupados por intervalo, com as folhas da árvore
+     * de Merkle em ordem de ID.
+     *
+     * @param recompute Se o hash do conteúdo deve ser recalculado (verificação) em vez de lido da
+     *                  coluna 'event_hash' (selagem). Eventos anteriores à coluna são sempre recalculados.
+     *                  Em uma partição arquivada, o hash gravado é o que foi copiado para o arquivo.
+     */
+    private NavigableMap<LocalDateTime, BucketScan> scanBuckets(AuditPartition partition, LocalDateTime from,
+                                                                LocalDateTime to, boolean recompute) {
+        NavigableMap<LocalDateTime, BucketScan> scans = new TreeMap<>();
+        if (partitionCatalog.isArchived(partition)) {
+            // O arquivo está em ordem de (timestamp, id); as folhas precisam da ordem de ID.
+            List<AuditEvent> events = new ArrayList<>();
+            archive.iterate(partition, AuditEventFilter.builder().from(from).to(to).build()).forEachRemaining(events::add);
+            events.sort(Comparator.comparing(AuditEvent::getId));
+            events.forEach(event -> addLeaf(scans, event.getId(), event.getTimestamp(), event.getSystemName(),
+                    event.getUserEmail(), event.getAction(), event.getMetadata(), event.getEventHash(), recompute));
+            return scans;
+        }
+        jdbcTemplate.query("SELECT id, timestamp, system_name, user_email, action, metadata, event_hash FROM "
+                + partition.getEventsTable() + " WHERE timestamp >= ? AND timestamp < ? ORDER BY id", rs -> {
+            addLeaf(scans, rs.getLong("id"), rs.getObject("timestamp", LocalDateTime.class), rs.getString("system_name"),
+                    rs.getString("user_email"), rs.getString("action"), rs.getString("metadata"),
+                    rs.getString("event_hash"), recompute);
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return scans;
+    }
+
+    private void addLeaf(NavigableMap<LocalDateTime, BucketScan> scans, long id, LocalDateTime timestamp,
+                         String systemName, String userEmail, String action, String metadata, String stored,
+                         boolean recompute) {
+        String hash = stored;
+        if (recompute || stored == null) {
+            hash = AuditEventHashes.contentHash(timestamp, systemName, userEmail, action, metadata);
+        }
+        BucketScan scan = scans.computeIfAbsent(bucketStart(timestamp), key -> new BucketScan(id));
+        if (stored != null && !stored.equals(hash)) {
+            scan.altered(id);
+        }
+        scan.getLeaves().add(AuditEventHashes.leaf(id, hash));
+    }
+
+    /**
+     * O início do primeiro intervalo com eventos em [from, end), entre todas as partições.
+     */
+    private LocalDateTime firstEventBucket(LocalDateTime from, LocalDateTime end) {
+        LocalDateTime first = null;
+        for (AuditPartition partition : partitionCatalog.partitionsOverlapping(from, end)) {
+            LocalDateTime timestamp;
+            if (partitionCatalog.isArchived(partition)) {
+                LocalDateTime[] range = archive.timeRange(partition, from, end);
+                timestamp = range == null ? null : range[0];
+            } else {
+                List<Object> args = new ArrayList<>();
+                timestamp = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM " + partition.getEventsTable()
+                        + " WHERE " + timeRange(from, end, args), LocalDateTime.class, args.toArray());
+            }
+            if (timestamp != null && (first == null || timestamp.isBefore(first))) {
+                first = timestamp;
+            }
+        }
+        return first == null ? null : bucketStart(first);
+    }
+
+    private boolean insertSeals(List<Seal> seals) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = seals.stream().map(seal -> new Object[]{seal.getSeq(), seal.getPartitionName(),
+                Timestamp.valueOf(seal.getBucketStart()), seal.getEventCount(), seal.getMerkleRoot(),
+                seal.getChainHash(), Timestamp.valueOf(now)}).toList();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO audit_event_seals (seq, partition_name, bucket_start, event_count, merkle_root, "
+                            + "chain_hash, sealed_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.info("Integridade: intervalos já selados por outra instância.");
+            return false;
+        }
+    }
+
+    private static String timeRange(LocalDateTime from, LocalDateTime to, List<Object> args) {
+        args.add(Timestamp.valueOf(to));
+        if (from == null) {
+            return "timestamp < ?";
+        }
+        args.add(0, Timestamp.valueOf(from));
+        return "timestamp >= ? AND timestamp < ?";
+    }
+
+    private LocalDateTime bucketStart(LocalDateTime timestamp) {
+        long minutes = Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60);
+        return LocalDateTime.ofEpochSecond((minutes - Math.floorMod(minutes, bucketMinutes)) * 60, 0, ZoneOffset.UTC);
+    }
+
+    private Duration bucketLength() {
+        return Duration.ofMinutes(bucketMinutes);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Uma linha de audit_event_seals.
+     */
+    @Data
+    @AllArgsConstructor
+    private static class Seal {
+        private long seq;
+        private String partitionName;
+        private LocalDateTime bucketStart;
+        private int eventCount;
+        private String merkleRoot;
+        private String chainHash;
+    }
+
+    /**
+     * Os eventos de um intervalo lidos de uma partição.
+     */
+    @Data
+    private static class BucketScan {
+        private final long firstEventId;
+        private final List<byte[]> leaves = new ArrayList<>();
+        private long alteredEvents;
+        private Long firstAlteredId;
+
+        void altered(long id) {
+            if (firstAlteredId == null) {
+                firstAlteredId = id;
+            }
+            alteredEvents++;
+        }
+    }
+
+    /**
+     * Resultado parcial de uma verificação: o elo quebrado mais antigo e os contadores.
+     */
+    @Data
+    private static class VerifyResult {
+        private BrokenLink first;
+        private long brokenLinks;
+        private long events;
+
+        void add(BrokenLink link) {
+            add(link, 1);
+        }
+
+        void add(BrokenLink link, long count) {
+            if (first == null || EARLIEST.compare(link, first) < 0) {
+                first = link;
+            }
+            brokenLinks += count;
+        }
+
+        void addEvents(long count) {
+            events += count;
+        }
+
+        void merge(VerifyResult other) {
+            if (other.first != null) {
+                add(other.first, other.brokenLinks);
+            }
+            events += other.events;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.auditcenter.service;
+
+import com.auditcenter.entity.Role;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas dos caminhos quentes da aplicação, publicadas pelo Micrometer (/actuator/prometheus).
+ *
+ * Os medidores são registrados uma única vez e reaproveitados: cada medição custa só a leitura
+ * do relógio e o registro no medidor. Com 'management.metrics.enable.auditcenter=false' o
+ * registro devolve medidores vazios e as medições não fazem nada.
+ *
+ * Os histogramas de percentis são ligados pela configuração
+ * ('management.metrics.distribution.percentiles-histogram.auditcenter').
+ */
+@Component
+public class AuditMetrics {
+
+    /** Papel usado nas métricas quando não há usuário autenticado. */
+    public static final String NO_ROLE = "none";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> jwtVerification = new ConcurrentHashMap<>();
+    private final Map<String, Timer> idempotencyChecks = new ConcurrentHashMap<>();
+    private final Timer userLookupById;
+    private final Timer userLookupByEmail;
+    private final Timer mappingToEntity;
+    private final Timer mappingToDto;
+    private final Timer repositorySave;
+    private final DistributionSummary repositorySaveBatchSize;
+    private final Timer walAppend;
+    private final Timer integritySeal;
+    private final Timer integrityVerification;
+    private final Timer sseFanOut;
+    private final Timer searchQuery;
+    private final Counter sseSendFailures;
+
+    public AuditMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.userLookupById = userLookup(registry, "id");
+        this.userLookupByEmail = userLookup(registry, "email");
+        this.mappingToEntity = mapping(registry, "to_entity");
+        this.mappingToDto = mapping(registry, "to_dto");
+        this.repositorySave = Timer.builder("auditcenter.repository.save")
+                .description("Gravação de um lote de eventos no banco (todas as partições do lote)")
+                .register(registry);
+        this.repositorySaveBatchSize = DistributionSummary.builder("auditcenter.repository.save.batch.size")
+                .description("Eventos por lote gravado")
+                .baseUnit("events")
+                .register(registry);
+        this.walAppend = Timer.builder("auditcenter.ingestion.wal.append")
+                .description("Gravação de um evento no log de ingestão em disco, até o fsync")
+                .register(registry);
+        this.integritySeal = Timer.builder("auditcenter.integrity.seal")
+                .description("Selagem dos intervalos encerrados (árvores de Merkle e cadeia de selos)")
+                .register(registry);
+        this.integrityVerification = Timer.builder("auditcenter.integrity.verify")
+                .description("Verificação de integridade dos eventos e da cadeia de selos")
+                .register(registry);
+        this.sseFanOut = Timer.builder("auditcenter.sse.fanout")
+                .description("Distribuição de um lote de eventos aos buffers dos clientes SSE")
+                .register(registry);
+        this.searchQuery = Timer.builder("auditcenter.search.query")
+                .description("Busca textual: consulta ao índice e leitura dos eventos encontrados")
+                .register(registry);
+        this.sseSendFailures = Counter.builder("auditcenter.sse.send.failures")
+                .description("Envios SSE que falharam (a conexão é encerrada)")
+                .register(registry);
+    }
+
+    /**
+     * Registra a verificação de um token JWT pelo filtro.
+     *
+     * @param outcome accepted, rejected (assinatura, vencimento ou claims inválidos) ou revoked.
+     * @param role O papel do token, ou null se ele não pôde ser lido.
+     * @param nanos A duração da verificação.
+     */
+    public void recordJwtVerification(String outcome, Role role, long nanos) {
+        String roleTag = role == null ? NO_ROLE : role.name();
+        jwtVerification.computeIfAbsent(outcome + ':' + roleTag, key -> Timer.builder("auditcenter.jwt.verification")
+                        .description("Verificação do token JWT (assinatura, claims e versão) por requisição")
+                        .tag("outcome", outcome)
+                        .tag("role", roleTag)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra uma busca de usuário no banco: por ID (versão dos tokens, no filtro JWT) ou por e-mail (login).
+     */
+    public void recordUserLookup(boolean byEmail, long nanos) {
+        (byEmail ? userLookupByEmail : userLookupById).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra uma conversão do mapper (requisição para entidade ou entidades para DTOs).
+     */
+    public void recordMapping(boolean toEntity, long nanos) {
+        (toEntity ? mappingToEntity : mappingToDto).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a gravação de um lote de eventos no repositório.
+     */
+    public void recordRepositorySave(int events, long nanos) {
+        repositorySave.record(nanos, TimeUnit.NANOSECONDS);
+        repositorySaveBatchSize.record(events);
+    }
+
+    /**
+     * Registra a gravação de um evento no log de ingestão em disco (incluindo a espera pelo fsync).
+     */
+    public void recordWalAppend(long nanos) {
+        walAppend.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a verificação de idempotência de um evento do webhook.
+     *
+     * @param outcome new (filtro de Bloom, sem banco), recent (cache de chaves recentes),
+     *        stored (encontrada no banco) ou false_positive (consulta ao banco sem encontrar a chave).
+     * @param nanos A duração da verificação.
+     */
+    public void recordIdempotencyCheck(String outcome, long nanos) {
+        idempotencyChecks.computeIfAbsent(outcome, key -> Timer.builder("auditcenter.ingestion.idempotency")
+                        .description("Verificação da chave de idempotência de um evento do webhook")
+                        .tag("outcome", outcome)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra uma execução da selagem que gravou ao menos um selo.
+     */
+    public void recordIntegritySeal(long nanos) {
+        integritySeal.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra uma verificação de integridade.
+     */
+    public void recordIntegrityVerification(long nanos) {
+        integrityVerification.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a distribuição de um lote de eventos aos clientes SSE.
+     */
+    public void recordSseFanOut(long nanos) {
+        sseFanOut.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Conta um envio SSE que falhou.
+     */
+    public void recordSseSendFailure() {
+        sseSendFailures.increment();
+    }
+
+    /**
+     * Publica a quantidade de clientes SSE conectados.
+     */
+    public void gaugeSseEmitters(Map<?, ?> subscribers) {
+        Gauge.builder("auditcenter.sse.emitters", subscribers, Map::size)
+                .description("Clientes SSE conectados")
+                .register(registry);
+    }
+
+    /**
+     * Registra uma busca textual (/events/search).
+     */
+    public void recordSearchQuery(long nanos) {
+        searchQuery.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publica a quantidade de eventos no índice da busca textual.
+     */
+    public <T> void gaugeSearchDocuments(T index, ToDoubleFunction<T> documents) {
+        Gauge.builder("auditcenter.search.documents", index, documents)
+                .description("Eventos no índice da busca textual")
+                .register(registry);
+    }
+
+    private static Timer userLookup(MeterRegistry registry, String by) {
+        return Timer.builder("auditcenter.user.lookup")
+                .description("Busca de usuário no banco")
+                .tag("by", by)
+                .register(registry);
+    }
+
+    private static Timer mapping(MeterRegistry registry, String direction) {
+        return Timer.builder("auditcenter.mapper.conversion")
+                .description("Conversão do mapper de eventos")
+                .tag("direction", direction)
+                .register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.auditcenter.service;
+
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import com.auditcenter.repository.AuditRetentionPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Aplica a retenção dos eventos de auditoria removendo partições inteiras (DROP TABLE),
+ * sem DELETE linha a linha, e cria antecipadamente as partições do próximo período.
+ *
+ * Uma partição expira quando o seu último instante fica mais velho que a retenção de todos os
+ * sistemas com eventos nela. A retenção é relida da configuração atual (e não da classe com
+ * que a partição foi criada), então uma mudança de retenção vale também para as partições
+ * antigas; um sistema sem retenção (0) impede a remoção da partição. Partições arquivadas
+ * (AuditArchive) seguem a mesma regra, e o seu arquivo é apagado junto.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRetentionService {
+
+    private final AuditPartitionCatalog partitionCatalog;
+    private final AuditRetentionPolicy retentionPolicy;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditArchive archive;
+
+    @Scheduled(fixedDelayString = "${audit.retention.check-interval-ms:3600000}",
+            initialDelayString = "${audit.retention.check-interval-ms:3600000}")
+    public void enforce() {
+        LocalDateTime now = LocalDateTime.now();
+        partitionCatalog.refresh();
+        partitionCatalog.ensurePartitions(now);
+        int dropped = dropExpiredPartitions(now);
+        if (dropped > 0) {
+            log.info("Retenção: {} partições expiradas removidas.", dropped);
+        }
+    }
+
+    /**
+     * Remove as partições cujos eventos já passaram da retenção.
+     *
+     * @param now O instante de referência.
+     * @return Quantas partições foram removidas.
+     */
+    public int dropExpiredPartitions(LocalDateTime now) {
+        int dropped = 0;
+        for (AuditPartition partition : partitionCatalog.partitions()) {
+            // Uma partição que ainda recebe eventos nunca expira.
+            if (!partition.getPeriodEnd().isBefore(now)) {
+                continue;
+            }
+            int retentionDays = effectiveRetentionDays(partition);
+            if (retentionDays > 0 && !partition.getPeriodEnd().plusDays(retentionDays).isAfter(now)) {
+                partitionCatalog.drop(partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * A maior retenção vigente entre os sistemas com eventos na partição (0 = indefinida).
+     * Uma partição vazia usa a retenção com que foi criada.
+     */
+    private int effectiveRetentionDays(AuditPartition partition) {
+        Collection<String> systems = partitionCatalog.isArchived(partition)
+                ? archive.systemNames(partition)
+                : jdbcTemplate.queryForList("SELECT DISTINCT system_name FROM " + partition.getEventsTable(), String.class);
+        int retentionDays = systems.isEmpty() ? partition.getRetentionDays() : 1;
+        for (String systemName : systems) {
+            int systemDays = retentionPolicy.retentionDaysFor(systemName);
+            if (systemDays == 0) {
+                return 0;
+            }
+            retentionDays = Math.max(retentionDays, systemDays);
+        }
+        return retentionDays;
+    }
+}
@@ -6,7 +6,9 @@ import com.auditcenter.dto.RegisterRequest;
 import com.auditcenter.entity.User;
 import com.auditcenter.repository.UserRepository;
 import com.auditcenter.security.JwtTokenProvider;
+import com.auditcenter.security.TokenVersionCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +18,7 @@ import org.springframework.stereotype.Service;
  * Serviço responsável pela lógica de negócio de autenticação.
  * Lida com o registro e login de usuários.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -24,6 +27,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final TokenVersionCache tokenVersionCache;
 
     /**
      * Registra um novo usuário no sistema.
@@ -83,4 +87,21 @@ public class AuthService {
         // Retorna a resposta com o token
         return AuthResponse.builder().accessToken(jwtToken).build();
     }
+
+    /**
+     * Revoga todos os tokens já emitidos para um usuário, incrementando a sua versão de tokens.
+     * Os tokens antigos deixam de ser aceitos imediatamente nesta instância (e, nas demais,
+     * após o TTL do cache de versões); um novo login emite um token com a versão nova.
+     *
+     * @param userId O ID do usuário.
+     * @return false se o usuário não existir.
+     */
+    public boolean revokeTokens(Long userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            return false;
+        }
+        tokenVersionCache.invalidate(userId);
+        log.info("Tokens do usuário {} revogados.", userId);
+        return true;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.auditcenter.service;
+
+/**
+ * Política aplicada pelo pipeline de ingestão quando a fila em memória está cheia.
+ *
+ * - BLOCK: a requisição espera (até um tempo limite) por espaço na fila; se não houver, é rejeitada.
+ * - REJECT: a requisição é rejeitada imediatamente com HTTP 429 (Too Many Requests).
+ * - SPILL: o evento é gravado em um arquivo local de transbordo e reprocessado quando a fila esvaziar.
+ */
+public enum BackpressurePolicy {
+    BLOCK,
+    REJECT,
+    SPILL
+}
@@ -0,0 +1,57 @@
+package com.auditcenter.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de tamanho fixo, seguro para várias threads sem travas.
+ *
+ * Responde "com certeza nunca visto" ou "talvez visto": nunca dá falso negativo, e a taxa de
+ * falsos positivos fica perto de 'fpp' enquanto o número de inserções não passar de
+ * 'expectedInsertions'. Os bits ficam em um AtomicLongArray e cada inserção liga os seus bits
+ * com uma operação atômica, então leituras e inserções concorrentes não se bloqueiam.
+ *
+ * As posições vêm de dois hashes de 64 bits (h1 + i * h2, de Kirsch e Mitzenmacher); quem chama
+ * fornece os hashes, já que as chaves de idempotência são digests SHA-256.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        // m = -n ln(p) / (ln 2)^2 e k = m/n ln 2: o dimensionamento ótimo para a taxa pedida.
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(long hash1, long hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, add) -> current | add);
+            }
+        }
+    }
+
+    boolean mightContain(long hash1, long hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Tamanho do filtro em bytes. */
+    long sizeInBytes() {
+        return bitCount / 8;
+    }
+}
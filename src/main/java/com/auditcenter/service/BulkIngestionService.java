@@ -0,0 +1,173 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.BulkIngestionResponse;
+import com.auditcenter.dto.BulkIngestionResponse.ItemResult;
+import com.auditcenter.dto.BulkIngestionResponse.ItemStatus;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço para ingestão em lote de eventos de auditoria.
+ *
+ * Aceita um array JSON ou um fluxo NDJSON (um objeto por linha) e lê o corpo de forma
+ * incremental com o parser de streaming do Jackson: apenas um evento é materializado por vez,
+ * e os eventos válidos são gravados em blocos de 'bulk-chunk-size' com insert em lote JDBC.
+ * Assim, um lote de 100 mil eventos custa uma requisição (e uma validação de JWT), não 100 mil.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkIngestionService {
+
+    private final AuditEventService auditEventService;
+    private final AuditEventMapper auditEventMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${audit.ingestion.bulk-chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Lê, valida e persiste os eventos do corpo da requisição.
+     *
+     * @param body O corpo da requisição (array JSON ou NDJSON).
+     * @return O resultado por item e os totais.
+     * @throws IOException se a leitura do corpo falhar.
+     */
+    public BulkIngestionResponse ingest(InputStream body) throws IOException {
+        List<ItemResult> results = new ArrayList<>();
+        List<ItemResult> chunkResults = new ArrayList<>(chunkSize);
+        List<WebhookEventRequest> chunk = new ArrayList<>(chunkSize);
+        boolean aborted = false;
+        long index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            // Um array JSON é desembrulhado; sem ele, os objetos na raiz são lidos em sequência (NDJSON).
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                // O resultado entra na lista já na ordem de leitura; o bloco o completa ao gravar.
+                ItemResult result = ItemResult.builder().index(index++).build();
+                results.add(result);
+                try {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        reject(result, "Cada evento deve ser um objeto JSON.");
+                    } else {
+                        WebhookEventRequest request = readItem(parser);
+                        String violations = validate(request);
+                        if (violations != null) {
+                            reject(result, violations);
+                        } else {
+                            chunk.add(request);
+                            chunkResults.add(result);
+                            if (chunk.size() >= chunkSize) {
+                                flush(chunk, chunkResults);
+                            }
+                        }
+                    }
+                } catch (JsonParseException e) {
+                    // Erro de sintaxe: não é possível localizar com segurança o início do próximo item.
+                    reject(result, "JSON malformado: " + e.getOriginalMessage());
+                    aborted = true;
+                    break;
+                } catch (JsonProcessingException e) {
+                    reject(result, "Evento inválido: " + e.getOriginalMessage());
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonParseException e) {
+            // Corpo vazio ou malformado antes do primeiro item.
+            aborted = true;
+        }
+        flush(chunk, chunkResults);
+
+        long persisted = results.stream().filter(r -> r.getStatus() == ItemStatus.PERSISTED).count();
+        log.info("Lote recebido via webhook: {} eventos lidos, {} persistidos.", results.size(), persisted);
+        return BulkIngestionResponse.builder()
+                .total(results.size())
+                .persisted(persisted)
+                .rejected(results.size() - persisted)
+                .aborted(aborted)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Lê o próximo item do parser. Cada item é lido como árvore, de forma que um erro de
+     * tipo (ex: 'metadata' não ser um objeto) invalida apenas esse item e o parser
+     * continua posicionado no fim dele.
+     */
+    private WebhookEventRequest readItem(JsonParser parser) throws IOException {
+        JsonNode node = objectMapper.readTree(parser);
+        return objectMapper.treeToValue(node, WebhookEventRequest.class);
+    }
+
+    private void reject(ItemResult result, String error) {
+        result.setStatus(ItemStatus.INVALID);
+        result.setError(error);
+    }
+
+    private String validate(WebhookEventRequest request) {
+        Set<ConstraintViolation<WebhookEventRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Grava o bloco atual com um único insert em lote e registra o resultado de cada item.
+     */
+    private void flush(List<WebhookEventRequest> chunk, List<ItemResult> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<AuditEvent> entities = new ArrayList<>(chunk.size());
+            for (WebhookEventRequest request : chunk) {
+                entities.add(auditEventMapper.toEntity(request));
+            }
+            List<AuditEventDto> saved = auditEventService.saveBatch(entities);
+            for (int i = 0; i < chunkResults.size(); i++) {
+                chunkResults.get(i).setStatus(ItemStatus.PERSISTED);
+                chunkResults.get(i).setEventId(saved.get(i).getId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar bloco de {} eventos do lote.", chunk.size(), e);
+            for (ItemResult result : chunkResults) {
+                result.setStatus(ItemStatus.FAILED);
+                result.setError("Falha ao gravar o evento no banco de dados.");
+            }
+        }
+        chunk.clear();
+        chunkResults.clear();
+    }
+}
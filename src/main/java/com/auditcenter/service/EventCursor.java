@@ -0,0 +1,52 @@
+package com.auditcenter.service;
+
+import com.auditcenter.exception.InvalidQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Posição de um evento na ordenação (timestamp, id) usada pela paginação por cursor.
+ *
+ * O cursor é exposto aos clientes como uma string opaca (Base64 URL-safe), para que
+ * o formato interno possa mudar sem quebrar quem o consome.
+ */
+@Data
+@AllArgsConstructor
+public class EventCursor {
+
+    private LocalDateTime timestamp;
+    private Long id;
+
+    /**
+     * Codifica a posição como cursor opaco.
+     */
+    public String encode() {
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        String raw = epochSecond + "." + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     *
+     * @throws InvalidQueryException se o cursor for inválido.
+     */
+    public static EventCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            long epochSecond = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, colon));
+            long id = Long.parseLong(raw.substring(colon + 1));
+            return new EventCursor(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new InvalidQueryException("Cursor inválido.", e);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.IngestionStats;
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.IngestionRejectedException;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline de ingestão assíncrona dos eventos recebidos pelo webhook.
+ *
+ * Em vez de um insert (e um commit) por requisição HTTP, os eventos aceitos entram
+ * em uma fila limitada em memória. Uma thread escritora dedicada agrupa os eventos
+ * em lotes, por tamanho ('batch-size') ou por idade ('max-batch-delay-ms'), e os grava
+ * com um único insert em lote JDBC via {@link AuditEventService#saveBatch(List)}.
+ *
+ * Quando a fila está cheia, a {@link BackpressurePolicy} configurada decide se a
+ * requisição espera, é rejeitada com 429 ou é transbordada para um arquivo local.
+ * Se o banco falhar, o lote é refeito com espera crescente até ser gravado (ver {@link #flush}).
+ *
+ * Com 'audit.ingestion.wal.enabled=true' a fila em memória dá lugar a um log local em disco
+ * ({@link WriteAheadLog}): o webhook responde assim que o evento está no log (com fsync), e a
+ * thread escritora grava o log no banco em lotes. Se o banco estiver lento ou fora do ar, os
+ * eventos esperam no log (e sobrevivem a um reinício) e o lote é refeito até dar certo; o tempo
+ * de resposta do webhook passa a depender do disco, e não do banco.
+ *
+ * Eventos com chave de idempotência passam antes pelo {@link IdempotencyIndex}: um reenvio recebe
+ * o ticket do evento original e não entra no pipeline. Se um repetido chegar ao banco mesmo
+ * assim, a chave única o recusa e o seu ticket passa a apontar para o evento original.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventIngestionService {
+
+    private final AuditEventService auditEventService;
+    private final AuditEventMapper auditEventMapper;
+    private final ObjectMapper objectMapper;
+    private final AuditMetrics auditMetrics;
+    private final IdempotencyIndex idempotencyIndex;
+
+    @Value("${audit.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${audit.ingestion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.ingestion.max-batch-delay-ms:50}")
+    private long maxBatchDelayMs;
+
+    @Value("${audit.ingestion.backpressure:BLOCK}")
+    private BackpressurePolicy backpressurePolicy;
+
+    @Value("${audit.ingestion.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${audit.ingestion.spill-directory:${java.io.tmpdir}/auditcenter/spill}")
+    private Path spillDirectory;
+
+    @Value("${audit.ingestion.retry-max-delay-ms:5000}")
+    private long retryMaxDelayMs;
+
+    @Value("${audit.ingestion.ticket-capacity:100000}")
+    private int ticketCapacity;
+
+    @Value("${audit.ingestion.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${audit.ingestion.wal.directory:${java.io.tmpdir}/auditcenter/wal}")
+    private Path walDirectory;
+
+    @Value("${audit.ingestion.wal.segment-bytes:67108864}")
+    private long walSegmentBytes;
+
+    @Value("${audit.ingestion.wal.max-pending-bytes:1073741824}")
+    private long walMaxPendingBytes;
+
+    @Value("${audit.ingestion.wal.retry-max-delay-ms:5000}")
+    private long walRetryMaxDelayMs;
+
+    private BlockingQueue<PendingEvent> queue;
+    private SpillFileStore spillStore;
+    private WriteAheadLog wal;
+    private Map<String, IngestionTicket> tickets;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // Contadores expostos em /events/ingestion/stats.
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    /**
+     * Evento aguardando na fila, junto com o ticket que o identifica.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class PendingEvent {
+        private String ticketId;
+        private String idempotencyKey;
+        private WebhookEventRequest request;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Mapa LRU limitado: apenas os tickets mais recentes ficam disponíveis para consulta.
+        tickets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestionTicket> eldest) {
+                return size() > ticketCapacity;
+            }
+        });
+        if (walEnabled) {
+            wal = new WriteAheadLog(walDirectory, walSegmentBytes);
+        } else if (backpressurePolicy == BackpressurePolicy.SPILL) {
+            spillStore = new SpillFileStore(spillDirectory, objectMapper);
+        }
+        running = true;
+        writerThread = new Thread(walEnabled ? this::runWalWriter : this::runWriter, "audit-ingestion-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        if (walEnabled) {
+            log.info("Pipeline de ingestão iniciado com log em disco (diretório={}, lote={}).", walDirectory, batchSize);
+        } else {
+            log.info("Pipeline de ingestão iniciado (capacidade={}, lote={}, atraso máximo={}ms, backpressure={}).",
+                    queueCapacity, batchSize, maxBatchDelayMs, backpressurePolicy);
+        }
+    }
+
+    /**
+     * Interrompe a aceitação e grava o que ainda estiver na fila antes de o contexto fechar.
+     * Com o log em disco, o que não foi gravado fica no log para a próxima inicialização.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (spillStore != null) {
+            spillStore.close();
+        }
+        if (wal != null) {
+            wal.close();
+        }
+        log.info("Pipeline de ingestão finalizado. Eventos restantes na fila: {}.", queue.size());
+    }
+
+    /**
+     * Aceita um evento para gravação assíncrona, sem chave de idempotência informada.
+     *
+     * @see #submit(WebhookEventRequest, String)
+     */
+    public IngestionTicket submit(WebhookEventRequest request) {
+        return submit(request, null);
+    }
+
+    /**
+     * Aceita um evento para gravação assíncrona.
+     *
+     * @param request O evento recebido pelo webhook.
+     * @param idempotencyKey O cabeçalho 'Idempotency-Key', ou null.
+     * @return O ticket que identifica o evento no pipeline; para um evento repetido, o ticket do
+     *         original, com 'duplicate' verdadeiro.
+     * @throws IngestionRejectedException se a fila estiver cheia e a política não permitir esperar ou
+     *         transbordar, ou se o log em disco estiver cheio ou indisponível.
+     */
+    public IngestionTicket submit(WebhookEventRequest request, String idempotencyKey) {
+        String ticketId = UUID.randomUUID().toString();
+        IngestionTicket ticket = IngestionTicket.builder()
+                .ticketId(ticketId)
+                .status(IngestionTicket.Status.QUEUED)
+                .acceptedAt(Instant.now())
+                .build();
+        String key = idempotencyIndex.keyFor(request, idempotencyKey);
+        if (key != null) {
+            IngestionTicket original = idempotencyIndex.claim(key, ticket);
+            if (original != null) {
+                if (original == ticket) {
+                    // O original já estava no banco: este ticket passa a representá-lo.
+                    tickets.put(ticketId, ticket);
+                }
+                duplicates.incrementAndGet();
+                IngestionTicket response = copyOf(original);
+                response.setDuplicate(true);
+                return response;
+            }
+        }
+        // O ticket é registrado antes de entrar na fila para que o escritor sempre o encontre.
+        tickets.put(ticketId, ticket);
+
+        try {
+            if (wal != null) {
+                appendToLog(new PendingEvent(ticketId, key, request));
+            } else {
+                enqueue(new PendingEvent(ticketId, key, request), ticket);
+            }
+        } catch (RuntimeException e) {
+            tickets.remove(ticketId);
+            if (key != null) {
+                idempotencyIndex.release(key, ticket);
+            }
+            rejected.incrementAndGet();
+            throw e;
+        }
+        accepted.incrementAndGet();
+        return copyOf(ticket);
+    }
+
+    /**
+     * Consulta um ticket de ingestão recente.
+     */
+    public Optional<IngestionTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId)).map(this::copyOf);
+    }
+
+    /**
+     * Retorna um retrato das métricas do pipeline (profundidade da fila e latência de gravação).
+     */
+    public IngestionStats getStats() {
+        long flushCount = flushes.get();
+        long walSyncs = wal == null ? 0 : wal.syncs();
+        return IngestionStats.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .spilledPending(spillStore == null ? 0 : spillStore.pending())
+                .walPendingBytes(wal == null ? 0 : wal.pendingBytes())
+                .walSyncs(walSyncs)
+                .walRecordsPerSync(walSyncs == 0 ? 0 : (double) wal.syncedRecords() / walSyncs)
+                .accepted(accepted.get())
+                .rejected(rejected.get())
+                .duplicates(duplicates.get())
+                .persisted(persisted.get())
+                .failed(failed.get())
+                .flushes(flushCount)
+                .lastFlushMillis(toMillis(lastFlushNanos))
+                .avgFlushMillis(flushCount == 0 ? 0 : toMillis(totalFlushNanos.get() / flushCount))
+                .maxFlushMillis(toMillis(maxFlushNanos.get()))
+                .build();
+    }
+
+    private void appendToLog(PendingEvent event) {
+        if (wal.pendingBytes() >= walMaxPendingBytes) {
+            throw new IngestionRejectedException("Log de ingestão cheio. Tente novamente mais tarde.");
+        }
+        long start = System.nanoTime();
+        try {
+            wal.append(objectMapper.writeValueAsBytes(event));
+        } catch (IOException e) {
+            log.error("Falha ao gravar evento no log de ingestão.", e);
+            throw new IngestionRejectedException("Log de ingestão indisponível. Tente novamente mais tarde.");
+        }
+        auditMetrics.recordWalAppend(System.nanoTime() - start);
+    }
+
+    private void enqueue(PendingEvent event, IngestionTicket ticket) {
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (backpressurePolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IngestionRejectedException("Fila de ingestão cheia. Tente novamente mais tarde.");
+            }
+            case SPILL -> {
+                // O estado é atualizado antes da gravação, pois o escritor pode ler o evento logo em seguida.
+                ticket.setStatus(IngestionTicket.Status.SPILLED);
+                try {
+                    spillStore.append(new SpillFileStore.SpilledEvent(event.getTicketId(),
+                            event.getIdempotencyKey(), event.getRequest()));
+                } catch (IOException e) {
+                    log.error("Falha ao gravar evento no arquivo de spill.", e);
+                    throw new IngestionRejectedException("Fila de ingestão cheia e spill indisponível.");
+                }
+            }
+            default -> throw new IngestionRejectedException("Fila de ingestão cheia. Tente novamente mais tarde.");
+        }
+    }
+
+    /**
+     * Laço da thread escritora: monta lotes por tamanho ou idade e os grava.
+     * Ao parar, continua até esvaziar a fila.
+     */
+    private void runWriter() {
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMs);
+        while (running || !queue.isEmpty()) {
+            List<PendingEvent> batch = new ArrayList<>(batchSize);
+            boolean fromSpill = false;
+            try {
+                PendingEvent first = queue.poll(maxBatchDelayMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        PendingEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                // Com folga na fila, aproveita o lote para drenar o arquivo de spill.
+                if (spillStore != null && batch.size() < batchSize && queue.isEmpty()) {
+                    for (SpillFileStore.SpilledEvent spilled : spillStore.poll(batchSize - batch.size())) {
+                        batch.add(new PendingEvent(spilled.getTicketId(), spilled.getIdempotencyKey(), spilled.getRequest()));
+                        fromSpill = true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException e) {
+                log.error("Falha ao ler eventos do arquivo de spill.", e);
+            }
+            if (!batch.isEmpty() && flush(batch) && fromSpill) {
+                // Só agora os eventos lidos do spill saem do arquivo; sem a confirmação, são lidos de novo.
+                try {
+                    spillStore.acknowledge();
+                } catch (IOException e) {
+                    log.error("Falha ao confirmar eventos do arquivo de spill; eles serão gravados de novo.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava um lote da fila. Os eventos já foram confirmados ao cliente (202), então uma falha do
+     * banco não os descarta: o lote é refeito com espera crescente (até 'retry-max-delay-ms') enquanto
+     * a aplicação estiver rodando. Um evento só fica FAILED se o banco o recusar (violação de
+     * restrição), quando o lote é gravado evento a evento.
+     *
+     * @return false se a aplicação parou antes de o lote ser gravado.
+     */
+    private boolean flush(List<PendingEvent> batch) {
+        try {
+            return persistRetrying(batch);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lote de {} eventos recusado pelo banco; gravando um a um.", batch.size(), e);
+            for (PendingEvent pending : batch) {
+                try {
+                    if (!persistRetrying(List.of(pending))) {
+                        return false;
+                    }
+                } catch (DataIntegrityViolationException eventFailure) {
+                    reject(pending, eventFailure);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Grava um lote, refazendo-o com espera crescente se o banco falhar. A violação de restrição
+     * sobe para quem chamou: refazer não adiantaria.
+     *
+     * @return false se a aplicação parou antes de o lote ser gravado (os tickets ficam FAILED).
+     */
+    private boolean persistRetrying(List<PendingEvent> batch) {
+        long retryDelayMs = 0;
+        while (true) {
+            try {
+                persist(batch);
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Falha ao gravar lote de {} eventos de auditoria durante a parada; eventos perdidos.",
+                            batch.size(), e);
+                    for (PendingEvent pending : batch) {
+                        updateTicket(pending.getTicketId(), IngestionTicket.Status.FAILED, null);
+                    }
+                    failed.addAndGet(batch.size());
+                    return false;
+                }
+                retryDelayMs = Math.min(Math.max(100, retryDelayMs * 2), retryMaxDelayMs);
+                log.warn("Falha ao gravar lote de {} eventos de auditoria; nova tentativa em {} ms.",
+                        batch.size(), retryDelayMs, e);
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Laço da thread escritora com o log em disco: lê os eventos a partir do checkpoint, grava-os
+     * no banco e avança o checkpoint. Se a gravação falhar, o lote continua no log e é refeito
+     * com espera crescente (até 'wal.retry-max-delay-ms'). Ao parar, o que falta fica no log.
+     */
+    private void runWalWriter() {
+        long retryDelayMs = 0;
+        while (running) {
+            try {
+                if (!wal.awaitRecords(maxBatchDelayMs)) {
+                    continue;
+                }
+                flushLogged(wal.read(batchSize));
+                retryDelayMs = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                retryDelayMs = Math.min(Math.max(100, retryDelayMs * 2), walRetryMaxDelayMs);
+                log.warn("Falha ao gravar eventos do log de ingestão no banco; nova tentativa em {} ms.", retryDelayMs, e);
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava um lote lido do log e avança o checkpoint.
+     *
+     * Um evento que o banco recusa (violação de restrição, ex.: texto maior que a coluna ou chave de
+     * idempotência repetida) falharia para sempre e travaria o log; nesse caso o lote é gravado
+     * evento a evento, e só os recusados são descartados. Qualquer outra falha sobe para o laço,
+     * que refaz o lote.
+     */
+    private void flushLogged(List<WriteAheadLog.Record> records) throws IOException {
+        List<PendingEvent> batch = new ArrayList<>(records.size());
+        List<Long> endOffsets = new ArrayList<>(records.size());
+        for (WriteAheadLog.Record record : records) {
+            try {
+                batch.add(objectMapper.readValue(record.getPayload(), PendingEvent.class));
+                endOffsets.add(record.getEndOffset());
+            } catch (IOException e) {
+                log.error("Registro ilegível no log de ingestão descartado.", e);
+                failed.incrementAndGet();
+            }
+        }
+        try {
+            if (!batch.isEmpty()) {
+                persist(batch);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lote de {} eventos do log recusado pelo banco; gravando um a um.", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                persistOrReject(batch.get(i));
+                wal.commit(endOffsets.get(i));
+            }
+        }
+        wal.commit(records.get(records.size() - 1).getEndOffset());
+    }
+
+    /**
+     * Grava um evento sozinho. Se o banco o recusar, o evento é descartado: um repetido (a sua chave
+     * de idempotência já está gravada) passa a apontar para o original; os demais ficam FAILED.
+     * Outras falhas sobem para quem chamou.
+     */
+    private void persistOrReject(PendingEvent pending) {
+        try {
+            persist(List.of(pending));
+        } catch (DataIntegrityViolationException e) {
+            reject(pending, e);
+        }
+    }
+
+    /**
+     * Descarta um evento recusado pelo banco: um repetido passa a apontar para o original; os
+     * demais ficam FAILED.
+     */
+    private void reject(PendingEvent pending, DataIntegrityViolationException e) {
+        Long originalId = pending.getIdempotencyKey() == null ? null
+                : idempotencyIndex.findEventId(pending.getIdempotencyKey());
+        if (originalId != null) {
+            log.info("Evento {} repetido (chave de idempotência já gravada no evento {}).",
+                    pending.getTicketId(), originalId);
+            IngestionTicket ticket = tickets.get(pending.getTicketId());
+            if (ticket != null) {
+                ticket.setDuplicate(true);
+            }
+            updateTicket(pending.getTicketId(), IngestionTicket.Status.PERSISTED, originalId);
+            duplicates.incrementAndGet();
+        } else {
+            log.error("Evento {} recusado pelo banco e descartado.", pending.getTicketId(), e);
+            updateTicket(pending.getTicketId(), IngestionTicket.Status.FAILED, null);
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Converte e grava um lote, atualizando os tickets. Falhas sobem para quem chamou.
+     */
+    private void persist(List<PendingEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            List<AuditEvent> entities = new ArrayList<>(batch.size());
+            for (PendingEvent pending : batch) {
+                AuditEvent entity = auditEventMapper.toEntity(pending.getRequest());
+                entity.setIdempotencyKey(pending.getIdempotencyKey());
+                entities.add(entity);
+            }
+            auditMetrics.recordMapping(true, System.nanoTime() - start);
+            List<AuditEventDto> saved = auditEventService.saveBatch(entities);
+            for (int i = 0; i < batch.size(); i++) {
+                updateTicket(batch.get(i).getTicketId(), IngestionTicket.Status.PERSISTED, saved.get(i).getId());
+            }
+            persisted.addAndGet(batch.size());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastFlushNanos = elapsed;
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            flushes.incrementAndGet();
+        }
+    }
+
+    private void updateTicket(String ticketId, IngestionTicket.Status status, Long eventId) {
+        IngestionTicket ticket = tickets.get(ticketId);
+        if (ticket != null) {
+            // O estado por último: quem lê o estado primeiro (copyOf) já vê o ID do evento.
+            ticket.setEventId(eventId);
+            ticket.setStatus(status);
+        }
+    }
+
+    private IngestionTicket copyOf(IngestionTicket ticket) {
+        // O estado é lido primeiro (ver updateTicket).
+        return IngestionTicket.builder()
+                .ticketId(ticket.getTicketId())
+                .status(ticket.getStatus())
+                .eventId(ticket.getEventId())
+                .acceptedAt(ticket.getAcceptedAt())
+                .duplicate(ticket.isDuplicate())
+                .build();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,247 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.AuditEventRepository;
+import com.auditcenter.repository.EventTimestamps;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * O índice da busca textual ({@link InvertedIndex}), mantido em memória por esta instância.
+ *
+ * Os eventos gravados entram no índice logo depois do commit (AuditEventService): são separados em
+ * termos na thread de quem grava e colocados em uma fila, aplicada ao índice quando a trava de
+ * escrita está livre ou antes da próxima busca. A gravação nunca espera por buscas.
+ *
+ * Na inicialização (e em POST /events/search/rebuild) o índice é reconstruído a partir do banco,
+ * incluindo as partições arquivadas, em uma thread separada; enquanto isso as buscas usam o índice
+ * anterior (vazio na inicialização, o que é indicado em 'indexComplete'). Os eventos gravados durante
+ * a reconstrução também são guardados à parte e somados ao índice novo antes da troca.
+ *
+ * Eventos removidos pela retenção continuam no índice até aparecerem em uma busca, quando são
+ * descartados (ver {@link #delete}). Com várias instâncias, cada uma só vê de imediato os eventos
+ * que ela mesma gravou; os das outras entram na próxima reconstrução.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventSearchIndex {
+
+    /**
+     * Eventos gravados até esse tempo antes do início da reconstrução podem aparecer tanto na
+     * leitura do banco quanto na fila de eventos novos; os demais só em uma delas.
+     */
+    private static final long OVERLAP_MINUTES = 5;
+
+    private final AuditEventRepository auditEventRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final AuditMetrics auditMetrics;
+
+    @Value("${audit.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.search.max-terms-per-event:256}")
+    private int maxTermsPerEvent;
+
+    @Value("${audit.search.rebuild-fetch-size:1000}")
+    private int rebuildFetchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<InvertedIndex.Document> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Protegidos pela trava.
+    private InvertedIndex index = new InvertedIndex();
+    /** Eventos gravados durante a reconstrução em andamento (null fora dela). */
+    private List<InvertedIndex.Document> captured;
+
+    private volatile int documents;
+    private volatile boolean complete;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Busca textual desabilitada (audit.search.enabled=false).");
+            return;
+        }
+        auditMetrics.gaugeSearchDocuments(this, EventSearchIndex::size);
+        startRebuild();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Se o índice já contém todos os eventos do banco (a primeira reconstrução terminou). */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** Eventos no índice. */
+    public int size() {
+        return documents;
+    }
+
+    /**
+     * Acrescenta eventos já gravados ao índice.
+     */
+    public void record(List<AuditEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        for (AuditEvent event : events) {
+            pending.add(new InvertedIndex.Document(event, maxTermsPerEvent));
+        }
+        // Se a trava está ocupada, quem a tem (ou a próxima busca) aplica a fila.
+        if (lock.writeLock().tryLock()) {
+            try {
+                applyPending();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Executa uma busca no índice atual, depois de aplicar os eventos ainda na fila.
+     */
+    InvertedIndex.Result search(InvertedIndex.Query query) {
+        lock.writeLock().lock();
+        try {
+            applyPending();
+            // Rebaixa para a trava de leitura: buscas simultâneas não se bloqueiam.
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return index.search(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta do índice eventos que não existem mais no banco. Só vale se o índice consultado
+     * ainda é o atual (uma reconstrução pode tê-lo trocado).
+     */
+    void delete(InvertedIndex.Result result, List<InvertedIndex.Hit> hits) {
+        lock.writeLock().lock();
+        try {
+            if (result.getSource() == index) {
+                hits.forEach(hit -> index.delete(hit.getDocument()));
+                documents = index.size();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inicia a reconstrução do índice a partir do banco, em segundo plano.
+     *
+     * @return false se uma reconstrução já está em andamento (ou a busca está desabilitada).
+     */
+    public boolean startRebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Falha ao reconstruir o índice da busca textual.", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            applyPending();
+            captured = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex fresh = new InvertedIndex();
+        Set<Long> recent = new HashSet<>();
+        long recentFrom = EventTimestamps.toMicros(LocalDateTime.now().minusMinutes(OVERLAP_MINUTES));
+        try {
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AuditEvent> events = auditEventRepository.streamAll(new AuditEventFilter(), rebuildFetchSize)) {
+                    events.forEach(event -> {
+                        InvertedIndex.Document document = new InvertedIndex.Document(event, maxTermsPerEvent);
+                        fresh.add(document);
+                        if (document.getMicros() >= recentFrom) {
+                            recent.add(document.getId());
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                captured = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            applyPending();
+            for (InvertedIndex.Document document : captured) {
+                if (!recent.contains(document.getId())) {
+                    fresh.add(document);
+                }
+            }
+            captured = null;
+            index = fresh;
+            documents = fresh.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        complete = true;
+        log.info("Índice da busca textual reconstruído: {} eventos, {} termos, em {} ms.", fresh.size(),
+                fresh.termCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Aplica a fila ao índice atual. Chamado com a trava de escrita. */
+    private void applyPending() {
+        InvertedIndex.Document document;
+        while ((document = pending.poll()) != null) {
+            index.add(document);
+            if (captured != null) {
+                captured.add(document);
+            }
+        }
+        documents = index.size();
+    }
+}
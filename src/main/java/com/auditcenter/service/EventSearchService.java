@@ -0,0 +1,229 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.EventSearchPage;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.InvalidQueryException;
+import com.auditcenter.exception.SearchUnavailableException;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import com.auditcenter.repository.EventTimestamps;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Busca textual nos eventos de auditoria (ação e metadados), sobre o índice em memória
+ * ({@link EventSearchIndex}).
+ *
+ * O índice devolve os IDs dos eventos na ordem pedida; os eventos são então lidos do banco pela
+ * chave primária, só nas partições do período dos resultados. Um resultado que não está mais no
+ * banco (partição removida pela retenção) é descartado do índice e a página é completada com os
+ * seguintes.
+ *
+ * Na ordem por relevância, o cursor leva as estatísticas do BM25 da primeira página (o peso de cada
+ * termo e o tamanho médio dos eventos) e as páginas seguintes pontuam com elas: eventos gravados ou
+ * removidos entre uma página e outra não mudam a ordem dos que já estavam no índice, e nenhum
+ * resultado é pulado ou repetido por isso.
+ *
+ * As regras de visibilidade são as da listagem (AuditEventService.scopeToCurrentUser): um ANALYST
+ * só encontra os próprios eventos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventSearchService {
+
+    /** Mais termos que isso tornam a busca cara e raramente são intencionais. */
+    static final int MAX_QUERY_TERMS = 16;
+    /** Rodadas de leitura do banco para completar uma página com resultados descartados. */
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final AuditEventService auditEventService;
+    private final EventSearchIndex eventSearchIndex;
+    private final AuditEventRepository auditEventRepository;
+    private final AuditEventMapper auditEventMapper;
+    private final AuditMetrics auditMetrics;
+
+    @Value("${audit.query.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Busca os eventos que contêm todos os termos de 'q', uma página por vez.
+     *
+     * @param filter Filtros opcionais (sistema, ação, e-mail e intervalo de tempo).
+     * @param q O texto buscado.
+     * @param order A ordem dos resultados.
+     * @param cursor Cursor devolvido pela página anterior (da mesma busca), ou null para a primeira página.
+     * @param size Tamanho da página desejado (limitado a 'audit.query.max-page-size').
+     * @return A página de resultados e o cursor da próxima página.
+     * @throws InvalidQueryException se a busca não tiver termos, tiver termos demais, usar filtro de
+     *         atributos ou o cursor for inválido.
+     * @throws SearchUnavailableException se a busca textual estiver desabilitada.
+     */
+    public EventSearchPage search(AuditEventFilter filter, String q, SearchOrder order, String cursor, int size) {
+        if (!eventSearchIndex.isEnabled()) {
+            throw new SearchUnavailableException("Busca textual desabilitada.");
+        }
+        Set<String> terms = InvertedIndex.queryTerms(q);
+        if (terms.isEmpty()) {
+            throw new InvalidQueryException("Informe ao menos um termo de busca (letras ou dígitos).");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new InvalidQueryException("A busca aceita no máximo " + MAX_QUERY_TERMS + " termos.");
+        }
+        if (!filter.attributeFilters().isEmpty()) {
+            throw new InvalidQueryException("A busca textual não aceita filtros de atributo; inclua os valores no texto buscado.");
+        }
+        Optional<AuditEventFilter> scoped = auditEventService.scopeToCurrentUser(filter);
+        if (scoped.isEmpty()) {
+            return EventSearchPage.builder().items(List.of()).indexComplete(eventSearchIndex.isComplete()).build();
+        }
+        AuditEventFilter scopedFilter = scoped.get();
+
+        long start = System.nanoTime();
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        InvertedIndex.Hit after = null;
+        InvertedIndex.Statistics statistics = null;
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = decodeCursor(cursor, order, terms);
+            after = position.getAfter();
+            statistics = position.getStatistics();
+        }
+        List<InvertedIndex.Hit> hits = new ArrayList<>();
+        List<AuditEvent> events = new ArrayList<>();
+        long matches = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && hits.size() <= pageSize; attempt++) {
+            // Um resultado a mais para saber se existe uma próxima página.
+            InvertedIndex.Result result = eventSearchIndex.search(new InvertedIndex.Query(terms,
+                    scopedFilter.getSystemName(), scopedFilter.getAction(), scopedFilter.getUserEmail(),
+                    scopedFilter.getFrom() == null ? Long.MIN_VALUE : EventTimestamps.toMicros(scopedFilter.getFrom()),
+                    scopedFilter.getTo() == null ? Long.MAX_VALUE : EventTimestamps.toMicros(scopedFilter.getTo()),
+                    order, after, pageSize + 1 - hits.size(), statistics));
+            matches = result.getMatches();
+            // As rodadas seguintes (e a próxima página) pontuam com as mesmas estatísticas.
+            statistics = result.getStatistics();
+            if (result.getHits().isEmpty()) {
+                break;
+            }
+            Map<Long, AuditEvent> found = load(result.getHits());
+            List<InvertedIndex.Hit> missing = new ArrayList<>();
+            for (InvertedIndex.Hit hit : result.getHits()) {
+                AuditEvent event = found.get(hit.getId());
+                if (event == null) {
+                    missing.add(hit);
+                } else {
+                    hits.add(hit);
+                    events.add(event);
+                }
+            }
+            if (missing.isEmpty()) {
+                break;
+            }
+            log.info("Busca textual: {} eventos que não existem mais removidos do índice.", missing.size());
+            eventSearchIndex.delete(result, missing);
+            matches -= missing.size();
+            after = result.getHits().get(result.getHits().size() - 1);
+        }
+
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            events = events.subList(0, pageSize);
+            nextCursor = encodeCursor(order, hits.get(pageSize - 1), terms, statistics);
+        }
+        List<AuditEventDto> dtos = auditEventMapper.toDtoList(events);
+        List<EventSearchPage.Hit> items = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            items.add(new EventSearchPage.Hit(dtos.get(i), order == SearchOrder.RELEVANCE ? hits.get(i).getScore() : null));
+        }
+        auditMetrics.recordSearchQuery(System.nanoTime() - start);
+        return EventSearchPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .totalMatches(matches)
+                .indexComplete(eventSearchIndex.isComplete())
+                .build();
+    }
+
+    /**
+     * Lê do banco os eventos dos resultados, por ID, só nas partições do período que eles ocupam.
+     */
+    private Map<Long, AuditEvent> load(List<InvertedIndex.Hit> hits) {
+        long from = hits.stream().mapToLong(InvertedIndex.Hit::getMicros).min().orElseThrow();
+        long to = hits.stream().mapToLong(InvertedIndex.Hit::getMicros).max().orElseThrow();
+        return auditEventRepository.findByIds(hits.stream().map(InvertedIndex.Hit::getId).toList(),
+                        EventTimestamps.fromMicros(from), EventTimestamps.fromMicros(to)).stream()
+                .collect(Collectors.toMap(AuditEvent::getId, Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * O cursor é a posição do último resultado na ordem da busca: "ordem:relevância:instante:id",
+     * em Base64 URL-safe. Na ordem por relevância, seguem o tamanho médio dos eventos e o peso de
+     * cada termo, na ordem dos termos da busca: ":tamanho:peso1,peso2,...".
+     */
+    private static String encodeCursor(SearchOrder order, InvertedIndex.Hit last, Set<String> terms,
+                                       InvertedIndex.Statistics statistics) {
+        String raw = order.name() + ":" + Double.doubleToLongBits(last.getScore()) + ":" + last.getMicros() + ":" + last.getId();
+        if (statistics != null) {
+            raw += ":" + Double.doubleToLongBits(statistics.getAverageLength()) + ":" + terms.stream()
+                    .map(term -> Long.toString(Double.doubleToLongBits(statistics.getIdf().get(term))))
+                    .collect(Collectors.joining(","));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor, SearchOrder order, Set<String> terms) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            int expected = order == SearchOrder.RELEVANCE ? 6 : 4;
+            if (parts.length == expected && parts[0].equals(order.name())) {
+                InvertedIndex.Hit after = new InvertedIndex.Hit(-1, Long.parseLong(parts[3]), Long.parseLong(parts[2]),
+                        Double.longBitsToDouble(Long.parseLong(parts[1])));
+                if (order != SearchOrder.RELEVANCE) {
+                    return new Cursor(after, null);
+                }
+                String[] weights = parts[5].split(",");
+                // Um cursor de outra busca (outros termos) não serve.
+                if (weights.length == terms.size()) {
+                    Map<String, Double> idf = new LinkedHashMap<>();
+                    int i = 0;
+                    for (String term : terms) {
+                        idf.put(term, Double.longBitsToDouble(Long.parseLong(weights[i++])));
+                    }
+                    return new Cursor(after, new InvertedIndex.Statistics(idf,
+                            Double.longBitsToDouble(Long.parseLong(parts[4]))));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidQueryException("Cursor inválido.", e);
+        }
+        throw new InvalidQueryException("Cursor inválido.");
+    }
+
+    /**
+     * Um cursor lido: a posição do último resultado e, na ordem por relevância, as estatísticas da busca.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class Cursor {
+
+        private final InvertedIndex.Hit after;
+        private final InvertedIndex.Statistics statistics;
+    }
+}
@@ -0,0 +1,95 @@
+package com.auditcenter.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória de eventos gravados por (sistema, ação, minuto), ainda não consolidados
+ * na tabela audit_event_stats.
+ *
+ * Cada contador é um {@link LongAdder}: threads que gravam ao mesmo tempo incrementam células
+ * diferentes, sem disputar uma única variável. A consolidação lê e zera os contadores
+ * ({@link #drain}); um incremento concorrente entra na leitura atual ou na próxima, nunca se perde.
+ *
+ * Usado pelo {@link EventStatsService} e pela variante reativa.
+ */
+public class EventStatsAccumulator {
+
+    /**
+     * Minutos que um contador continua no mapa depois do seu minuto. Os eventos recebem o
+     * timestamp no momento do insert e são contados logo depois, então nenhum incremento chega
+     * a um minuto tão antigo; depois disso o contador pode ser removido sem perder contagens.
+     */
+    private static final long EVICT_AFTER_MINUTES = 5;
+
+    private final Map<BucketKey, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Conta um evento gravado.
+     */
+    public void record(String systemName, String action, LocalDateTime timestamp) {
+        counters.computeIfAbsent(new BucketKey(timestamp.truncatedTo(ChronoUnit.MINUTES), systemName, action),
+                key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Lê e zera os contadores, removendo os de minutos que não recebem mais eventos.
+     *
+     * @param now O instante de referência para a remoção.
+     * @return As contagens desde a última leitura (apenas as maiores que zero).
+     */
+    public Map<BucketKey, Long> drain(LocalDateTime now) {
+        LocalDateTime evictBefore = now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(EVICT_AFTER_MINUTES);
+        Map<BucketKey, Long> drained = new LinkedHashMap<>();
+        for (Map.Entry<BucketKey, LongAdder> entry : counters.entrySet()) {
+            if (entry.getKey().getBucketStart().isBefore(evictBefore)) {
+                counters.remove(entry.getKey());
+            }
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                drained.put(entry.getKey(), count);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Devolve contagens lidas por {@link #drain} que não puderam ser gravadas, para a próxima tentativa.
+     */
+    public void restore(Map<BucketKey, Long> counts) {
+        counts.forEach((key, count) -> counters.computeIfAbsent(key, k -> new LongAdder()).add(count));
+    }
+
+    /**
+     * As contagens ainda não consolidadas, sem zerá-las.
+     */
+    public Map<BucketKey, Long> snapshot() {
+        Map<BucketKey, Long> snapshot = new LinkedHashMap<>();
+        counters.forEach((key, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                snapshot.put(key, count);
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Um intervalo de contagem: o início do intervalo, o sistema e a ação.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class BucketKey {
+
+        private final LocalDateTime bucketStart;
+        private final String systemName;
+        private final String action;
+    }
+}
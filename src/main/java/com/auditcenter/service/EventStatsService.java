@@ -0,0 +1,212 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.EventStats;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.InvalidQueryException;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contagem de eventos por sistema, ação e intervalo de tempo, para painéis (/events/stats).
+ *
+ * Cada evento gravado incrementa um contador em memória ({@link EventStatsAccumulator}); a cada
+ * 'audit.stats.flush-interval-ms' os contadores são somados na tabela audit_event_stats, uma linha
+ * por (minuto, sistema, ação). A consulta lê essa tabela e soma as contagens ainda em memória,
+ * então o seu custo depende do número de intervalos, e não do número de eventos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventStatsService {
+
+    /** Soma as contagens de um lote de parâmetros (intervalo, sistema, ação, contagem) na tabela. */
+    private static final String MERGE_COUNT = mergeCounts(
+            "VALUES (CAST(? AS TIMESTAMP(6)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))");
+
+    /** Período consultado quando o cliente não informa 'from'. */
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final AuditPartitionCatalog partitionCatalog;
+    private final AuditArchive archive;
+
+    private final EventStatsAccumulator accumulator = new EventStatsAccumulator();
+    private TransactionTemplate transaction;
+
+    @Value("${audit.stats.max-buckets:10000}")
+    private int maxBuckets;
+
+    /**
+     * Na primeira execução (tabela vazia), conta os eventos já gravados nas partições.
+     */
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        if (!jdbcTemplate.queryForList("SELECT event_count FROM audit_event_stats LIMIT 1", Long.class).isEmpty()) {
+            return;
+        }
+        List<AuditPartition> partitions = partitionCatalog.partitions();
+        transaction.executeWithoutResult(status -> {
+            for (AuditPartition partition : partitions) {
+                if (partitionCatalog.isArchived(partition)) {
+                    mergeArchivedCounts(partition);
+                    continue;
+                }
+                jdbcTemplate.update(mergeCounts("SELECT DATE_TRUNC('MINUTE', timestamp), system_name, action, COUNT(*) FROM "
+                        + partition.getEventsTable() + " GROUP BY DATE_TRUNC('MINUTE', timestamp), system_name, action"));
+            }
+        });
+        log.info("Estatísticas de eventos calculadas a partir de {} partições.", partitions.size());
+    }
+
+    /**
+     * Conta os eventos de uma partição arquivada, lendo o arquivo frio bloco a bloco.
+     */
+    private void mergeArchivedCounts(AuditPartition partition) {
+        EventStatsAccumulator counter = new EventStatsAccumulator();
+        archive.iterate(partition, new AuditEventFilter())
+                .forEachRemaining(event -> counter.record(event.getSystemName(), event.getAction(), event.getTimestamp()));
+        List<Object[]> rows = new ArrayList<>();
+        counter.snapshot().forEach((key, count) -> rows.add(new Object[]{
+                Timestamp.valueOf(key.getBucketStart()), key.getSystemName(), key.getAction(), count}));
+        jdbcTemplate.batchUpdate(MERGE_COUNT, rows);
+    }
+
+    /**
+     * Um MERGE que soma as contagens de 'source' às já gravadas (várias instâncias podem somar no mesmo intervalo).
+     */
+    private static String mergeCounts(String source) {
+        return "MERGE INTO audit_event_stats t USING (" + source + ") s (bucket_start, system_name, action, event_count) "
+                + "ON t.bucket_start = s.bucket_start AND t.system_name = s.system_name AND t.action = s.action "
+                + "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count "
+                + "WHEN NOT MATCHED THEN INSERT (bucket_start, system_name, action, event_count) "
+                + "VALUES (s.bucket_start, s.system_name, s.action, s.event_count)";
+    }
+
+    /**
+     * Conta eventos recém-gravados. Deve ser chamado depois do commit, para nunca contar eventos desfeitos.
+     */
+    public void record(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            accumulator.record(event.getSystemName(), event.getAction(), event.getTimestamp());
+        }
+    }
+
+    /**
+     * Soma na tabela audit_event_stats as contagens acumuladas desde a última consolidação.
+     * Se a gravação falhar, as contagens voltam para a memória e entram na próxima tentativa.
+     */
+    @Scheduled(fixedDelayString = "${audit.stats.flush-interval-ms:10000}",
+            initialDelayString = "${audit.stats.flush-interval-ms:10000}")
+    @PreDestroy
+    public void flush() {
+        Map<EventStatsAccumulator.BucketKey, Long> counts = accumulator.drain(LocalDateTime.now());
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> rows.add(new Object[]{
+                Timestamp.valueOf(key.getBucketStart()), key.getSystemName(), key.getAction(), count}));
+        try {
+            // Tudo ou nada: contagens devolvidas à memória não podem ter sido somadas em parte.
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(MERGE_COUNT, rows));
+        } catch (RuntimeException e) {
+            accumulator.restore(counts);
+            log.warn("Falha ao consolidar {} contagens de eventos; nova tentativa na próxima execução.", counts.size(), e);
+        }
+    }
+
+    /**
+     * Conta os eventos por intervalo, sistema e ação.
+     *
+     * @param from Início do período (inclusivo); padrão: 24 horas antes de 'to'.
+     * @param to Fim do período (exclusivo); padrão: agora.
+     * @param granularity Tamanho dos intervalos.
+     * @param systemName Filtro opcional pelo sistema.
+     * @param action Filtro opcional pela ação.
+     * @return As contagens, em ordem cronológica.
+     * @throws InvalidQueryException se o período for vazio ou tiver mais de 'audit.stats.max-buckets' intervalos.
+     */
+    public EventStats getStats(LocalDateTime from, LocalDateTime to, StatsGranularity granularity,
+                               String systemName, String action) {
+        LocalDateTime end = granularity.ceil(to == null ? LocalDateTime.now() : to);
+        LocalDateTime start = granularity.floor(from == null ? end.minus(DEFAULT_RANGE) : from);
+        if (!start.isBefore(end)) {
+            throw new InvalidQueryException("O início do período precisa ser anterior ao fim.");
+        }
+        long buckets = granularity.getUnit().between(start, end);
+        if (buckets > maxBuckets) {
+            throw new InvalidQueryException("O período tem " + buckets + " intervalos de " + granularity
+                    + "; o máximo é " + maxBuckets + ". Reduza o período ou aumente a granularidade.");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT DATE_TRUNC('").append(granularity.name())
+                .append("', bucket_start) AS bucket, system_name, action, SUM(event_count) AS event_count"
+                        + " FROM audit_event_stats WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> params = new ArrayList<>(List.of(Timestamp.valueOf(start), Timestamp.valueOf(end)));
+        if (systemName != null) {
+            sql.append(" AND system_name = ?");
+            params.add(systemName);
+        }
+        if (action != null) {
+            sql.append(" AND action = ?");
+            params.add(action);
+        }
+        sql.append(" GROUP BY DATE_TRUNC('").append(granularity.name()).append("', bucket_start), system_name, action");
+
+        Map<EventStatsAccumulator.BucketKey, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            counts.put(new EventStatsAccumulator.BucketKey(rs.getTimestamp("bucket").toLocalDateTime(),
+                    rs.getString("system_name"), rs.getString("action")), rs.getLong("event_count"));
+        }, params.toArray());
+        // As contagens desta instância que ainda não foram consolidadas.
+        accumulator.snapshot().forEach((key, count) -> {
+            if (!key.getBucketStart().isBefore(start) && key.getBucketStart().isBefore(end)
+                    && (systemName == null || systemName.equals(key.getSystemName()))
+                    && (action == null || action.equals(key.getAction()))) {
+                counts.merge(new EventStatsAccumulator.BucketKey(granularity.floor(key.getBucketStart()),
+                        key.getSystemName(), key.getAction()), count, Long::sum);
+            }
+        });
+
+        List<EventStats.Bucket> result = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> result.add(EventStats.Bucket.builder()
+                .bucketStart(key.getBucketStart())
+                .systemName(key.getSystemName())
+                .action(key.getAction())
+                .count(count)
+                .build()));
+        result.sort(Comparator.comparing(EventStats.Bucket::getBucketStart)
+                .thenComparing(EventStats.Bucket::getSystemName)
+                .thenComparing(EventStats.Bucket::getAction));
+        return EventStats.builder()
+                .from(start)
+                .to(end)
+                .granularity(granularity)
+                .total(result.stream().mapToLong(EventStats.Bucket::getCount).sum())
+                .buckets(result)
+                .build();
+    }
+}
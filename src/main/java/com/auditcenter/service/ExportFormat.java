@@ -0,0 +1,28 @@
+package com.auditcenter.service;
+
+/**
+ * Formatos suportados pela exportação de eventos de auditoria.
+ *
+ * - NDJSON: um evento JSON por linha.
+ * - CSV: uma linha de cabeçalho seguida de um evento por linha (RFC 4180).
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,227 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detecção de eventos repetidos no webhook (reenvios do sistema de origem), sem ida ao banco
+ * no caso comum.
+ *
+ * Cada evento com chave de idempotência ({@link IdempotencyMode}) passa por três níveis:
+ * - as chaves recentes, em um cache limitado (Caffeine) que guarda o ticket do evento original:
+ *   um reenvio logo após o envio recebe o mesmo ticket, mesmo antes de o evento ser gravado;
+ * - um filtro de Bloom com as chaves já vistas: "nunca vista" (o caso comum) dispensa o banco;
+ * - a tabela 'audit_event_keys', consultada só quando o filtro diz "talvez" (chave antiga que saiu
+ *   do cache, ou falso positivo). A chave primária dessa tabela é a garantia final: a chave é
+ *   gravada na mesma transação que o evento, e um repetido que escapar da memória (outra
+ *   instância, reinício) é recusado pelo banco.
+ *
+ * O filtro tem duas gerações: quando a atual recebe 'bloom-expected-keys' chaves, ela vira a
+ * anterior e a mais antiga é descartada. A memória fica fixa, e as chaves das gerações
+ * descartadas voltam a depender só do banco. Na inicialização, o filtro é preenchido com as
+ * chaves mais recentes da tabela.
+ *
+ * As chaves são digests SHA-256 (64 caracteres hexadecimais). A chave de um cabeçalho é combinada
+ * com o sistema de origem, para que sistemas diferentes não colidam.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditMetrics auditMetrics;
+
+    @Value("${audit.ingestion.idempotency.mode:HEADER}")
+    private IdempotencyMode mode;
+
+    @Value("${audit.ingestion.idempotency.recent-keys:100000}")
+    private long recentKeys;
+
+    @Value("${audit.ingestion.idempotency.bloom-expected-keys:1000000}")
+    private long bloomExpectedKeys;
+
+    @Value("${audit.ingestion.idempotency.bloom-fpp:0.01}")
+    private double bloomFpp;
+
+    @Value("${audit.ingestion.idempotency.key-retention-days:7}")
+    private int keyRetentionDays;
+
+    private Cache<String, IngestionTicket> recent;
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private final AtomicLong currentInsertions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (mode == IdempotencyMode.OFF) {
+            return;
+        }
+        // Cada evento novo é uma escrita no cache; a manutenção (despejo) roda na própria thread, em
+        // vez de agendar uma tarefa no pool comum a cada escrita.
+        recent = Caffeine.newBuilder().maximumSize(recentKeys).executor(Runnable::run).build();
+        current = new BloomFilter(bloomExpectedKeys, bloomFpp);
+        previous = new BloomFilter(1, bloomFpp);
+        // Os 'bloom-expected-keys' mais recentes cabem na geração atual sem passar da taxa configurada.
+        List<String> stored = jdbcTemplate.queryForList(
+                "SELECT idempotency_key FROM audit_event_keys ORDER BY created_at DESC LIMIT ?", String.class,
+                bloomExpectedKeys);
+        stored.forEach(this::add);
+        log.info("Idempotência do webhook: modo {}, filtro de {} KiB com {} chaves do banco.",
+                mode, current.sizeInBytes() / 1024, stored.size());
+    }
+
+    /**
+     * Calcula a chave de idempotência de um evento, conforme o modo configurado.
+     *
+     * @param request O evento recebido.
+     * @param headerKey O valor do cabeçalho 'Idempotency-Key', ou null.
+     * @return A chave, ou null se o evento não deve ser verificado.
+     */
+    public String keyFor(WebhookEventRequest request, String headerKey) {
+        if (mode == IdempotencyMode.OFF) {
+            return null;
+        }
+        if (headerKey != null && !headerKey.isBlank()) {
+            return digest("header", request.getSystemName(), headerKey);
+        }
+        if (mode == IdempotencyMode.CONTENT) {
+            return digest("content", request.getSystemName(), request.getUserEmail(), request.getAction(),
+                    request.getMetadata());
+        }
+        return null;
+    }
+
+    /**
+     * Reserva uma chave para um evento novo.
+     *
+     * @param key A chave do evento.
+     * @param ticket O ticket do evento novo.
+     * @return null se a chave é nova (e agora pertence a 'ticket'); senão, o ticket do evento
+     *         original. Se o original já estava gravado, 'ticket' é o devolvido, já PERSISTED e
+     *         apontando para ele.
+     */
+    public IngestionTicket claim(String key, IngestionTicket ticket) {
+        long start = System.nanoTime();
+        String outcome = "new";
+        try {
+            ConcurrentMap<String, IngestionTicket> recentMap = recent.asMap();
+            IngestionTicket existing = recentMap.putIfAbsent(key, ticket);
+            while (existing != null) {
+                // Um evento cuja gravação falhou pode ser reenviado.
+                if (existing.getStatus() != IngestionTicket.Status.FAILED) {
+                    outcome = "recent";
+                    return existing;
+                }
+                existing = recentMap.replace(key, existing, ticket) ? null : recentMap.putIfAbsent(key, ticket);
+            }
+
+            long hash1 = HexFormat.fromHexDigitsToLong(key, 0, 16);
+            long hash2 = HexFormat.fromHexDigitsToLong(key, 16, 32);
+            if (current.mightContain(hash1, hash2) || previous.mightContain(hash1, hash2)) {
+                Long eventId = findEventId(key);
+                if (eventId != null) {
+                    outcome = "stored";
+                    // O ticket já está no cache: quem o recebeu como original passa a vê-lo gravado.
+                    ticket.setEventId(eventId);
+                    ticket.setDuplicate(true);
+                    ticket.setStatus(IngestionTicket.Status.PERSISTED);
+                    return ticket;
+                }
+                outcome = "false_positive";
+            }
+            add(hash1, hash2);
+            return null;
+        } finally {
+            auditMetrics.recordIdempotencyCheck(outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Libera uma chave reservada por um evento que não chegou a ser aceito (ex.: 429).
+     */
+    public void release(String key, IngestionTicket ticket) {
+        recent.asMap().remove(key, ticket);
+    }
+
+    /**
+     * Busca o evento gravado com a chave, na tabela 'audit_event_keys'.
+     *
+     * @return O ID do evento, ou null se a chave não foi gravada.
+     */
+    public Long findEventId(String key) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT event_id FROM audit_event_keys WHERE idempotency_key = ?", Long.class, key);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Remove as chaves mais velhas que 'key-retention-days' (0 = nunca). Um reenvio depois disso
+     * é gravado como um evento novo.
+     */
+    @Scheduled(fixedDelayString = "${audit.retention.check-interval-ms:3600000}",
+            initialDelayString = "${audit.retention.check-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        if (keyRetentionDays <= 0) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM audit_event_keys WHERE created_at < ?",
+                LocalDateTime.now().minusDays(keyRetentionDays));
+        if (deleted > 0) {
+            log.info("Idempotência: {} chaves expiradas removidas.", deleted);
+        }
+    }
+
+    private void add(String key) {
+        add(HexFormat.fromHexDigitsToLong(key, 0, 16), HexFormat.fromHexDigitsToLong(key, 16, 32));
+    }
+
+    private void add(long hash1, long hash2) {
+        current.put(hash1, hash2);
+        if (currentInsertions.incrementAndGet() == bloomExpectedKeys) {
+            rotate();
+        }
+    }
+
+    private synchronized void rotate() {
+        previous = current;
+        current = new BloomFilter(bloomExpectedKeys, bloomFpp);
+        currentInsertions.set(0);
+    }
+
+    private static String digest(String kind, String... fields) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+        sha256.update(kind.getBytes(StandardCharsets.US_ASCII));
+        for (String field : fields) {
+            byte[] bytes = (field == null ? "" : field).getBytes(StandardCharsets.UTF_8);
+            // O tamanho antes de cada campo evita que ("ab", "c") e ("a", "bc") tenham o mesmo hash.
+            sha256.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+            sha256.update(bytes);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+}
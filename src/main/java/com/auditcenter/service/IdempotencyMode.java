@@ -0,0 +1,15 @@
+package com.auditcenter.service;
+
+/**
+ * De onde vem a chave de idempotência de um evento recebido pelo webhook.
+ *
+ * - OFF: nenhuma verificação; todo evento recebido é gravado.
+ * - HEADER: só eventos com o cabeçalho 'Idempotency-Key' são verificados.
+ * - CONTENT: o cabeçalho, se houver; senão, um hash de sistema, e-mail, ação e metadados.
+ *   Dois eventos com exatamente o mesmo conteúdo passam a ser o mesmo evento.
+ */
+public enum IdempotencyMode {
+    OFF,
+    HEADER,
+    CONTENT
+}
@@ -0,0 +1,383 @@
+package com.auditcenter.service;
+
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.EventTimestamps;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Índice invertido dos eventos de auditoria em memória: para cada termo da ação e dos metadados,
+ * a lista dos eventos que o contêm. Não é seguro para várias threads (ver {@link EventSearchIndex}).
+ *
+ * Cada evento indexado recebe um número sequencial (documento). As colunas dos documentos (ID,
+ * instante e os códigos de sistema, ação e e-mail) ficam em arrays, para filtrar sem ir ao banco;
+ * as listas de cada termo guardam os documentos em ordem crescente, com a frequência do termo.
+ *
+ * Termos: sequências de letras e dígitos, em minúsculas e sem acentos ("Não" e "nao" são o mesmo
+ * termo). Em um JSON, chaves e valores viram termos ({"invoice":12345} tem "invoice" e "12345").
+ *
+ * Uma busca exige todos os termos. A relevância é a do BM25: termos raros valem mais, e repetições
+ * valem menos a cada vez e em eventos longos. Documentos removidos são só marcados.
+ *
+ * O peso de cada termo e o tamanho médio dos eventos mudam a cada evento indexado ou removido, e
+ * com eles a pontuação de todos os eventos. Para paginar por relevância, a busca devolve essas
+ * estatísticas ({@link Statistics}) e as páginas seguintes pontuam com as mesmas.
+ */
+class InvertedIndex {
+
+    /** Termos mais longos que isso são ignorados (hashes, base64, ...). */
+    static final int MAX_TERM_LENGTH = 64;
+    /** Parâmetros usuais do BM25: saturação da frequência e peso do tamanho do evento. */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Dictionary systems = new Dictionary();
+    private final Dictionary actions = new Dictionary();
+    private final Dictionary emails = new Dictionary();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] ids = new long[1024];
+    private long[] micros = new long[1024];
+    private int[] systemCodes = new int[1024];
+    private int[] actionCodes = new int[1024];
+    private int[] emailCodes = new int[1024];
+    private int[] lengths = new int[1024];
+    private int documents;
+    private long totalLength;
+
+    /**
+     * Um evento já separado em termos, pronto para entrar no índice. A separação acontece fora da
+     * trava do índice.
+     */
+    @Getter
+    static final class Document {
+
+        private final long id;
+        private final long micros;
+        private final String systemName;
+        private final String action;
+        private final String userEmail;
+        private final Map<String, Integer> frequencies;
+        private final int length;
+
+        Document(AuditEvent event, int maxTerms) {
+            this.id = event.getId();
+            this.micros = EventTimestamps.toMicros(event.getTimestamp());
+            this.systemName = event.getSystemName();
+            this.action = event.getAction();
+            this.userEmail = event.getUserEmail();
+            List<String> terms = terms(event.getAction(), maxTerms);
+            if (event.getMetadata() != null && terms.size() < maxTerms) {
+                terms.addAll(terms(event.getMetadata(), maxTerms - terms.size()));
+            }
+            this.frequencies = new LinkedHashMap<>();
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            this.length = terms.size();
+        }
+    }
+
+    /**
+     * A busca: termos obrigatórios, filtros e a posição de onde continuar.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Query {
+
+        private final Set<String> terms;
+        private final String systemName;
+        private final String action;
+        private final String userEmail;
+        /** Intervalo [from, to) em microssegundos. */
+        private final long fromMicros;
+        private final long toMicros;
+        private final SearchOrder order;
+        /** O último resultado da página anterior (só os seguintes a ele são devolvidos), ou null. */
+        private final Hit after;
+        private final int limit;
+        /** Estatísticas da primeira página, na ordem por relevância; null usa as atuais do índice. */
+        private final Statistics statistics;
+    }
+
+    /**
+     * As estatísticas do BM25 usadas em uma busca: o peso (IDF) de cada termo e o tamanho médio
+     * dos eventos.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Statistics {
+
+        private final Map<String, Double> idf;
+        private final double averageLength;
+    }
+
+    /**
+     * Um evento encontrado. 'score' é zero na ordem por tempo.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Hit {
+
+        private final int document;
+        private final long id;
+        private final long micros;
+        private final double score;
+    }
+
+    /**
+     * Os melhores resultados, na ordem pedida, e quantos eventos atendem à busca. 'source' é o
+     * índice consultado: os números de documento dos resultados só valem nele.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class Result {
+
+        private final InvertedIndex source;
+        private final List<Hit> hits;
+        private final long matches;
+        /** As estatísticas usadas na pontuação; null na ordem por tempo. */
+        private final Statistics statistics;
+    }
+
+    void add(Document document) {
+        int doc = documents;
+        if (doc == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            micros = Arrays.copyOf(micros, capacity);
+            systemCodes = Arrays.copyOf(systemCodes, capacity);
+            actionCodes = Arrays.copyOf(actionCodes, capacity);
+            emailCodes = Arrays.copyOf(emailCodes, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        ids[doc] = document.getId();
+        micros[doc] = document.getMicros();
+        systemCodes[doc] = systems.code(document.getSystemName());
+        actionCodes[doc] = actions.code(document.getAction());
+        emailCodes[doc] = emails.code(document.getUserEmail());
+        lengths[doc] = document.getLength();
+        document.getFrequencies().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new Postings()).add(doc, frequency));
+        documents++;
+        totalLength += document.getLength();
+    }
+
+    /**
+     * Marca um documento como removido (evento que já não existe no banco).
+     */
+    void delete(int document) {
+        deleted.set(document);
+    }
+
+    /** Documentos indexados, sem os removidos. */
+    int size() {
+        return documents - deleted.cardinality();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    Result search(Query query) {
+        List<String> terms = new ArrayList<>(query.getTerms());
+        for (String term : terms) {
+            if (!postings.containsKey(term)) {
+                return new Result(this, List.of(), 0, query.getStatistics());
+            }
+        }
+        // Um filtro por um valor nunca indexado não encontra nada.
+        int system = systems.filter(query.getSystemName());
+        int action = actions.filter(query.getAction());
+        int email = emails.filter(query.getUserEmail());
+        if (system == Dictionary.UNKNOWN || action == Dictionary.UNKNOWN || email == Dictionary.UNKNOWN) {
+            return new Result(this, List.of(), 0, query.getStatistics());
+        }
+        Statistics statistics = null;
+        if (query.getOrder() == SearchOrder.RELEVANCE) {
+            statistics = query.getStatistics() != null ? query.getStatistics() : statistics(terms);
+        }
+        // A lista mais curta conduz; as outras só são consultadas (busca binária a partir da última posição).
+        terms.sort(Comparator.comparingInt(term -> postings.get(term).size));
+        List<Postings> lists = terms.stream().map(postings::get).toList();
+        double[] idf = new double[lists.size()];
+        double averageLength = statistics == null ? 1 : statistics.getAverageLength();
+        for (int i = 0; i < lists.size() && statistics != null; i++) {
+            idf[i] = statistics.getIdf().getOrDefault(terms.get(i), 0.0);
+        }
+
+        Comparator<Hit> order = comparator(query.getOrder());
+        // Os 'limit' melhores até aqui, com o pior no topo.
+        PriorityQueue<Hit> best = new PriorityQueue<>(query.getLimit() + 1, order.reversed());
+        int[] positions = new int[lists.size()];
+        long matches = 0;
+        Postings lead = lists.get(0);
+        candidates:
+        for (int p = 0; p < lead.size; p++) {
+            int doc = lead.documents[p];
+            if (deleted.get(doc) || micros[doc] < query.getFromMicros() || micros[doc] >= query.getToMicros()
+                    || (system >= 0 && systemCodes[doc] != system)
+                    || (action >= 0 && actionCodes[doc] != action)
+                    || (email >= 0 && emailCodes[doc] != email)) {
+                continue;
+            }
+            for (int i = 1; i < lists.size(); i++) {
+                Postings list = lists.get(i);
+                int found = Arrays.binarySearch(list.documents, positions[i], list.size, doc);
+                if (found < 0) {
+                    positions[i] = -found - 1;
+                    if (positions[i] == list.size) {
+                        break candidates;
+                    }
+                    continue candidates;
+                }
+                positions[i] = found;
+            }
+            matches++;
+            double score = 0;
+            if (query.getOrder() == SearchOrder.RELEVANCE) {
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                score += idf[0] * bm25(lead.frequency(p), norm);
+                for (int i = 1; i < lists.size(); i++) {
+                    score += idf[i] * bm25(lists.get(i).frequency(positions[i]), norm);
+                }
+            }
+            Hit hit = new Hit(doc, ids[doc], micros[doc], score);
+            if (query.getAfter() != null && order.compare(hit, query.getAfter()) <= 0) {
+                continue;
+            }
+            if (best.size() < query.getLimit() || order.compare(hit, best.peek()) < 0) {
+                best.add(hit);
+                if (best.size() > query.getLimit()) {
+                    best.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(order);
+        return new Result(this, hits, matches, statistics);
+    }
+
+    /**
+     * As estatísticas atuais do índice para os termos de uma busca (todos indexados).
+     */
+    private Statistics statistics(List<String> terms) {
+        double live = Math.max(1, size());
+        Map<String, Double> idf = new LinkedHashMap<>();
+        for (String term : terms) {
+            int frequency = postings.get(term).size;
+            idf.put(term, Math.log(1 + (live - frequency + 0.5) / (frequency + 0.5)));
+        }
+        double averageLength = documents == 0 ? 1 : Math.max(1, (double) totalLength / documents);
+        return new Statistics(idf, averageLength);
+    }
+
+    /**
+     * Os termos de uma busca, na mesma normalização do índice, sem repetições.
+     */
+    static Set<String> queryTerms(String text) {
+        return new LinkedHashSet<>(terms(text, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Separa um texto em termos: letras e dígitos, em minúsculas e sem acentos.
+     */
+    static List<String> terms(String text, int maxTerms) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length() && terms.size() < maxTerms; i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                addTerm(terms, term);
+            }
+        }
+        if (terms.size() < maxTerms) {
+            addTerm(terms, term);
+        }
+        return terms;
+    }
+
+    /**
+     * A ordem dos resultados: relevância (e os mais recentes no empate) ou do mais recente para o mais antigo.
+     */
+    static Comparator<Hit> comparator(SearchOrder order) {
+        Comparator<Hit> newestFirst = Comparator.comparingLong(Hit::getMicros).thenComparingLong(Hit::getId).reversed();
+        return order == SearchOrder.RELEVANCE
+                ? Comparator.comparingDouble(Hit::getScore).reversed().thenComparing(newestFirst)
+                : newestFirst;
+    }
+
+    private static double bm25(int frequency, double norm) {
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder term) {
+        if (term.length() > 0 && term.length() <= MAX_TERM_LENGTH) {
+            terms.add(term.toString());
+        }
+        term.setLength(0);
+    }
+
+    /**
+     * Os documentos de um termo, em ordem crescente, com a frequência do termo em cada um
+     * (limitada a 255, o que já satura o BM25).
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[2];
+        private byte[] frequencies = new byte[2];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = (byte) Math.min(frequency, 255);
+            size++;
+        }
+
+        int frequency(int position) {
+            return frequencies[position] & 0xFF;
+        }
+    }
+
+    /**
+     * Códigos dos valores de uma coluna (sistema, ação ou e-mail).
+     */
+    private static final class Dictionary {
+
+        static final int ANY = -1;
+        static final int UNKNOWN = -2;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            return codes.computeIfAbsent(value, key -> codes.size());
+        }
+
+        /** O código do filtro: ANY sem filtro, UNKNOWN para um valor nunca indexado. */
+        int filter(String value) {
+            return value == null ? ANY : codes.getOrDefault(value, UNKNOWN);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.auditcenter.service;
+
+import com.auditcenter.entity.AuditEventAttribute;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extrai dos metadados JSON de um evento os valores dos caminhos configurados em
+ * 'audit.metadata.indexed-attributes' (ex.: "orderId", "customer.id"). Os valores vão para a
+ * tabela indexada 'audit_event_attributes', e a consulta por eles deixa de depender do JSON.
+ *
+ * A leitura é feita com o parser de streaming do Jackson, sem montar a árvore do documento:
+ * objetos e arrays fora dos caminhos configurados são pulados sem serem interpretados.
+ * - Cada caminho usa nomes de campos separados por ponto; arrays no meio do caminho são
+ *   percorridos, então "items.sku" extrai o 'sku' de cada item (um atributo por valor).
+ * - Só valores escalares são extraídos (strings, números como escritos e booleanos);
+ *   null, objetos e valores com mais de 255 caracteres são ignorados.
+ * - Cada evento gera no máximo 'audit.metadata.max-attribute-values' atributos.
+ */
+@Component
+@Slf4j
+public class MetadataAttributeExtractor {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_VALUE_LENGTH = 255;
+
+    // Só cria parsers; é imutável e seguro para uso concorrente.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Value("${audit.metadata.indexed-attributes:}")
+    private List<String> indexedAttributes;
+
+    @Value("${audit.metadata.max-attribute-values:100}")
+    private int maxValuesPerEvent;
+
+    private Set<String> paths;
+    // Caminhos que levam a algum caminho configurado ("customer" para "customer.id").
+    private Set<String> prefixes;
+
+    @PostConstruct
+    void init() {
+        paths = new HashSet<>();
+        prefixes = new HashSet<>();
+        for (String attribute : indexedAttributes) {
+            String path = attribute.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            if (path.length() > MAX_KEY_LENGTH) {
+                throw new IllegalStateException("Atributo indexado com mais de " + MAX_KEY_LENGTH + " caracteres: " + path);
+            }
+            paths.add(path);
+            for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+                prefixes.add(path.substring(0, dot));
+            }
+        }
+        if (!paths.isEmpty()) {
+            log.info("Atributos dos metadados indexados: {}", paths);
+        }
+    }
+
+    /**
+     * Indica se o caminho está configurado em 'audit.metadata.indexed-attributes', ou seja,
+     * se pode ser usado no filtro de atributos da consulta de eventos.
+     */
+    public boolean isIndexed(String key) {
+        return paths.contains(key);
+    }
+
+    /**
+     * Extrai os atributos configurados de um JSON de metadados.
+     *
+     * @param metadata O objeto JSON de metadados do evento (pode ser null).
+     * @return Os atributos encontrados; vazio se nenhum caminho estiver configurado ou o JSON for inválido.
+     */
+    public Set<AuditEventAttribute> extract(String metadata) {
+        Set<AuditEventAttribute> attributes = new LinkedHashSet<>();
+        if (paths.isEmpty() || metadata == null || metadata.isEmpty()) {
+            return attributes;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(metadata)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readObject(parser, null, attributes);
+            }
+        } catch (IOException e) {
+            // Os metadados são validados na entrada; aqui o evento só fica sem atributos.
+            log.warn("Metadados inválidos; nenhum atributo extraído: {}", e.getMessage());
+            attributes.clear();
+        }
+        return attributes;
+    }
+
+    private void readObject(JsonParser parser, String prefix, Set<AuditEventAttribute> attributes) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = prefix == null ? parser.currentName() : prefix + '.' + parser.currentName();
+            parser.nextToken();
+            readValue(parser, path, attributes);
+        }
+    }
+
+    private void readValue(JsonParser parser, String path, Set<AuditEventAttribute> attributes) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            if (prefixes.contains(path)) {
+                readObject(parser, path, attributes);
+            } else {
+                parser.skipChildren();
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            if (paths.contains(path) || prefixes.contains(path)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    readValue(parser, path, attributes);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL && paths.contains(path)) {
+            String value = parser.getText();
+            if (value.length() <= MAX_VALUE_LENGTH && attributes.size() < maxValuesPerEvent) {
+                attributes.add(new AuditEventAttribute(path, value));
+            }
+        }
+    }
+}
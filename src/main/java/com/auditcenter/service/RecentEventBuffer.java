@@ -0,0 +1,105 @@
+package com.auditcenter.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular com os quadros SSE dos eventos publicados mais recentemente, usado para
+ * reenviar a um cliente que reconecta (com o cabeçalho Last-Event-ID) o que ele perdeu.
+ *
+ * Os quadros são guardados na ordem de publicação, que não é a ordem dos IDs: o pipeline de
+ * ingestão e os lotes de POST /events/webhook/bulk reservam blocos da mesma sequência e fazem
+ * commit de forma independente. Por isso a retomada reenvia o que foi publicado depois do evento
+ * 'Last-Event-ID', e não os eventos com ID maior que ele.
+ *
+ * Apenas a thread de despacho escreve; as threads das requisições leem. O buffer sabe a partir
+ * de qual posição ele está completo ('completeFrom'): se o último evento do cliente não está no
+ * buffer (foi sobrescrito ou é anterior ao início da aplicação) ou é anterior a um evento que não
+ * entrou nele, os eventos que faltam precisam vir do banco.
+ */
+class RecentEventBuffer {
+
+    /** Um quadro e a sua posição na ordem de publicação. */
+    @Getter
+    @AllArgsConstructor
+    private static class Entry {
+        private final long position;
+        private final SseFrame frame;
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private volatile long writeCount;
+    // O buffer contém todos os eventos publicados a partir desta posição.
+    private volatile long completeFrom;
+
+    RecentEventBuffer(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    int size() {
+        return (int) Math.min(writeCount, slots.length());
+    }
+
+    /**
+     * Guarda o quadro de um evento, sobrescrevendo o mais antigo quando o buffer está cheio.
+     * Deve ser chamado apenas pela thread de despacho.
+     */
+    void add(SseFrame frame) {
+        if (slots.length() == 0) {
+            return;
+        }
+        long position = writeCount;
+        slots.set((int) (position % slots.length()), new Entry(position, frame));
+        writeCount = position + 1;
+    }
+
+    /**
+     * Descarta a garantia de completude, por exemplo quando eventos deixaram de entrar no buffer
+     * porque a fila de despacho estava cheia. Ela volta a valer depois dos próximos 'pending'
+     * eventos (os que já estavam na fila quando o evento se perdeu).
+     */
+    void reset(int pending) {
+        completeFrom = writeCount + pending;
+    }
+
+    /**
+     * Retorna os quadros dos eventos publicados depois do evento 'lastEventId', na ordem de publicação.
+     *
+     * @return Os quadros, ou vazio se o buffer não tem todos os eventos publicados depois de 'lastEventId'.
+     */
+    Optional<List<SseFrame>> after(long lastEventId) {
+        Entry last = null;
+        for (int i = 0; i < slots.length() && last == null; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.getFrame().getEventId() == lastEventId) {
+                last = entry;
+            }
+        }
+        if (last == null || last.getPosition() < completeFrom) {
+            return Optional.empty();
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.getPosition() > last.getPosition()) {
+                entries.add(entry);
+            }
+        }
+        // Se algo posterior a 'lastEventId' foi sobrescrito durante a leitura, a lista está incompleta.
+        if (last.getPosition() < writeCount - slots.length()) {
+            return Optional.empty();
+        }
+        entries.sort(Comparator.comparingLong(Entry::getPosition));
+        return Optional.of(entries.stream().map(Entry::getFrame).toList());
+    }
+}
@@ -0,0 +1,12 @@
+package com.auditcenter.service;
+
+/**
+ * Ordem dos resultados da busca textual.
+ *
+ * - RELEVANCE: os eventos em que os termos pesam mais primeiro (BM25), e os mais recentes no empate.
+ * - TIME: do mais recente para o mais antigo.
+ */
+public enum SearchOrder {
+    RELEVANCE,
+    TIME
+}
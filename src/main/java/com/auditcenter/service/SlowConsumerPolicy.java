@@ -0,0 +1,13 @@
+package com.auditcenter.service;
+
+/**
+ * Política aplicada pelo {@link SseBroadcaster} quando o buffer de um cliente SSE enche,
+ * ou seja, quando o cliente lê mais devagar do que os eventos chegam.
+ *
+ * - DROP_OLDEST: descarta o evento mais antigo do buffer do cliente e mantém a conexão.
+ * - DISCONNECT: encerra a conexão do cliente; ele pode reconectar e consultar o que perdeu.
+ */
+public enum SlowConsumerPolicy {
+    DROP_OLDEST,
+    DISCONNECT
+}
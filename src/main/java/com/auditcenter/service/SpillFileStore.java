@@ -0,0 +1,294 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.WebhookEventRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arquivo local de transbordo (spill) usado pela política {@link BackpressurePolicy#SPILL}.
+ *
+ * Os eventos que não cabem na fila em memória são anexados, um por linha (NDJSON), ao
+ * arquivo "ativo". Quando o escritor do pipeline tem folga, o arquivo ativo é renomeado
+ * para "drenando" e lido em lotes.
+ *
+ * Um lote lido só sai do arquivo quando o escritor confirma que ele foi gravado no banco
+ * ({@link #acknowledge}): a posição confirmada fica em um arquivo ao lado, e o arquivo de drenagem
+ * só é apagado depois da confirmação do seu último lote. Um lote não confirmado é lido de novo na
+ * próxima chamada de {@link #poll}, ou na próxima inicialização. Uma parada entre a gravação no
+ * banco e a confirmação faz esse lote ser gravado de novo.
+ * Arquivos que sobraram de uma execução anterior são recuperados na inicialização.
+ *
+ * Uma linha que não pode ser lida (ex: cortada por uma parada no meio da gravação) vai para o
+ * arquivo de rejeitados e a leitura segue com as próximas; depois de uma nova inicialização, ela
+ * pode ser copiada para lá de novo. Na inicialização, uma última linha sem '\n' é terminada antes
+ * de novas gravações, para não se juntar ao próximo evento.
+ */
+@Slf4j
+class SpillFileStore {
+
+    /**
+     * Linha gravada no arquivo de transbordo.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class SpilledEvent {
+        private String ticketId;
+        private String idempotencyKey;
+        private WebhookEventRequest request;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path activeFile;
+    private final Path drainingFile;
+    private final Path offsetFile;
+    private final Path rejectedFile;
+
+    private BufferedWriter writer;
+    private BufferedReader reader;
+    /** Eventos ainda não confirmados (inclusive os lidos e não confirmados). */
+    private long pending;
+    /** Posição (em bytes) do arquivo de drenagem até a qual os eventos foram confirmados. */
+    private long confirmedOffset;
+    /** Posição até a qual o arquivo de drenagem foi lido. */
+    private long readOffset;
+    /** Eventos devolvidos pelo último poll e ainda não confirmados. */
+    private int inFlight;
+    /** Se o último poll chegou ao fim do arquivo de drenagem. */
+    private boolean reachedEnd;
+    /** Posição até a qual as linhas ilegíveis do arquivo de drenagem já foram rejeitadas. */
+    private long rejectedOffset;
+
+    SpillFileStore(Path directory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.activeFile = directory.resolve("spill-active.ndjson");
+        this.drainingFile = directory.resolve("spill-draining.ndjson");
+        this.offsetFile = directory.resolve("spill-draining.offset");
+        this.rejectedFile = directory.resolve("spill-rejected.ndjson");
+        try {
+            Files.createDirectories(directory);
+            terminatePartialLine(activeFile);
+            if (Files.exists(drainingFile) && Files.exists(offsetFile)) {
+                confirmedOffset = Long.parseLong(Files.readString(offsetFile, StandardCharsets.UTF_8).trim());
+            }
+            this.pending = countLines(activeFile, 0) + countLines(drainingFile, confirmedOffset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível preparar o diretório de spill: " + directory, e);
+        }
+        if (pending > 0) {
+            log.warn("Recuperados {} eventos pendentes no arquivo de spill em {}.", pending, directory);
+        }
+    }
+
+    /**
+     * Anexa um evento ao arquivo de transbordo.
+     */
+    synchronized void append(SpilledEvent event) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(activeFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(objectMapper.writeValueAsString(event));
+        // Sempre '\n': as posições de leitura contam os bytes de cada linha mais um.
+        writer.write('\n');
+        writer.flush();
+        pending++;
+    }
+
+    /**
+     * Lê até 'max' eventos do arquivo de transbordo, na ordem em que foram gravados. Se o lote
+     * anterior não foi confirmado, ele é devolvido de novo. Se a leitura falhar, o próximo poll
+     * recomeça da posição confirmada.
+     */
+    synchronized List<SpilledEvent> poll(int max) throws IOException {
+        if (inFlight > 0) {
+            rewind();
+        }
+        List<SpilledEvent> events = new ArrayList<>();
+        try {
+            while (events.size() < max) {
+                if (reader == null && !openDraining()) {
+                    break;
+                }
+                String line = reader.readLine();
+                if (line == null) {
+                    if (events.isEmpty()) {
+                        // Arquivo de drenagem já confirmado até o fim: passa para o arquivo ativo.
+                        finishDraining();
+                        continue;
+                    }
+                    reachedEnd = true;
+                    break;
+                }
+                readOffset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    events.add(objectMapper.readValue(line, SpilledEvent.class));
+                } catch (JsonProcessingException e) {
+                    reject(line, e);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Os eventos já lidos nesta chamada não foram entregues: não podem ser confirmados depois.
+            rewind();
+            throw e;
+        }
+        inFlight = events.size();
+        return events;
+    }
+
+    /**
+     * Confirma que os eventos do último poll foram gravados: eles saem do arquivo.
+     */
+    synchronized void acknowledge() throws IOException {
+        if (inFlight == 0) {
+            return;
+        }
+        pending -= inFlight;
+        inFlight = 0;
+        confirmedOffset = readOffset;
+        if (reachedEnd) {
+            finishDraining();
+        } else {
+            Path temporary = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+            Files.writeString(temporary, Long.toString(confirmedOffset), StandardCharsets.UTF_8);
+            Files.move(temporary, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    synchronized long pending() {
+        return pending;
+    }
+
+    synchronized void close() throws IOException {
+        closeWriter();
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    /**
+     * Abre o arquivo de drenagem na posição confirmada; se ele não existe, o arquivo ativo passa a
+     * ser o de drenagem (novas gravações vão para um novo arquivo ativo).
+     *
+     * @return false se não há nada para drenar.
+     */
+    private boolean openDraining() throws IOException {
+        if (!Files.exists(drainingFile)) {
+            if (pending == 0) {
+                return false;
+            }
+            closeWriter();
+            if (!Files.exists(activeFile)) {
+                pending = 0;
+                return false;
+            }
+            Files.move(activeFile, drainingFile, StandardCopyOption.ATOMIC_MOVE);
+            confirmedOffset = 0;
+        }
+        InputStream in = Files.newInputStream(drainingFile);
+        in.skipNBytes(confirmedOffset);
+        reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        readOffset = confirmedOffset;
+        return true;
+    }
+
+    /**
+     * Copia uma linha ilegível para o arquivo de rejeitados; ela deixa de contar como pendente e sai
+     * do arquivo de drenagem com a próxima confirmação. Uma linha relida (lote não confirmado) não é
+     * copiada de novo.
+     */
+    private void reject(String line, JsonProcessingException cause) throws IOException {
+        if (readOffset <= rejectedOffset) {
+            return;
+        }
+        log.error("Linha ilegível no arquivo de spill movida para {}: {}", rejectedFile, cause.getOriginalMessage());
+        Files.writeString(rejectedFile, line + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        rejectedOffset = readOffset;
+        pending--;
+    }
+
+    /** Volta a leitura para a posição confirmada (o último lote será lido de novo). */
+    private void rewind() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        inFlight = 0;
+        reachedEnd = false;
+    }
+
+    /** Apaga o arquivo de drenagem, já todo confirmado. */
+    private void finishDraining() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        Files.deleteIfExists(drainingFile);
+        Files.deleteIfExists(offsetFile);
+        confirmedOffset = 0;
+        readOffset = 0;
+        rejectedOffset = 0;
+        reachedEnd = false;
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Termina com '\n' uma última linha cortada (parada no meio de uma gravação), para que ela não se
+     * junte ao próximo evento anexado; sozinha, ela é rejeitada na leitura.
+     */
+    private static void terminatePartialLine(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            if (last.get(0) != '\n') {
+                log.warn("Última linha do arquivo de spill {} cortada; ela será rejeitada na leitura.", file);
+                channel.write(ByteBuffer.wrap(new byte[] {'\n'}), channel.size());
+            }
+        }
+    }
+
+    private static long countLines(Path file, long fromOffset) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(fromOffset);
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines()
+                    .filter(line -> !line.isBlank()).count();
+        }
+    }
+}
@@ -0,0 +1,617 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.StreamStats;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de distribuição (fan-out) dos eventos para os clientes de /events/stream.
+ *
+ * - Cada conexão assina um filtro (sistema, ação, e-mail). Os destinatários de um evento são
+ *   encontrados pelo {@link SubscriptionIndex}, então o custo de distribuir um evento depende
+ *   de quantos clientes o recebem, e não do total de conexões.
+ * - Cada evento é serializado uma única vez (e só se alguém o recebe): o JSON em bytes e o
+ *   quadro SSE completo são compartilhados por todos os clientes.
+ * - Publicar custa O(1) para quem grava o evento: o evento entra em uma fila de despacho e a
+ *   thread 'sse-dispatcher' o serializa e o distribui para o buffer limitado de cada cliente,
+ *   em lotes (um agendamento de escrita por cliente por lote, e não por evento).
+ * - Quem escreve nos sockets são as threads 'sse-writer', então um cliente lento nunca
+ *   segura a thread que gravou o evento (nem os demais clientes). Com virtual threads
+ *   ('spring.threads.virtual.enabled' em Java 21+), cada envio ganha a sua própria thread
+ *   virtual, em vez de disputar um pool fixo.
+ * - Quando o buffer de um cliente enche, a {@link SlowConsumerPolicy} decide entre descartar
+ *   o evento mais antigo ou desconectar o cliente.
+ * - Cada evento leva o seu ID ("id:" do SSE). Um cliente que reconecta com o cabeçalho
+ *   Last-Event-ID recebe primeiro o que perdeu: do {@link RecentEventBuffer} com os eventos
+ *   mais recentes (o que foi publicado depois do último evento recebido) ou, se a lacuna for
+ *   maior que ele, de uma consulta ao banco pelos IDs maiores que o último recebido.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SseBroadcaster {
+
+    private static final String EVENT_NAME = "audit-event";
+    private static final String REPLAY_TRUNCATED_EVENT_NAME = "replay-truncated";
+
+    // Máximo de quadros enviados a um cliente antes de ceder a thread para os demais.
+    private static final int MAX_FRAMES_PER_DRAIN = 64;
+
+    // Máximo de eventos distribuídos de uma vez pelo despachante.
+    private static final int MAX_DISPATCH_BATCH = 256;
+
+    private final ObjectMapper objectMapper;
+    private final AuditEventRepository auditEventRepository;
+    private final AuditEventMapper auditEventMapper;
+    private final AuditMetrics auditMetrics;
+
+    @Value("${audit.stream.subscriber-buffer-size:256}")
+    private int subscriberBufferSize;
+
+    @Value("${audit.stream.slow-consumer-policy:DROP_OLDEST}")
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    @Value("${audit.stream.writer-threads:4}")
+    private int writerThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${audit.stream.dispatch-queue-capacity:10000}")
+    private int dispatchQueueCapacity;
+
+    @Value("${audit.stream.replay-buffer-size:10000}")
+    private int replayBufferSize;
+
+    @Value("${audit.stream.replay-max-events:10000}")
+    private int replayMaxEvents;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final SubscriptionIndex<Subscriber> subscriptionIndex = new SubscriptionIndex<>();
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+    private BlockingQueue<AuditEventDto> dispatchQueue;
+    private RecentEventBuffer recentEvents;
+    // Sinaliza ao despachante que algum evento não entrou no buffer de retomada.
+    private final AtomicBoolean recentEventsIncomplete = new AtomicBoolean();
+    private Thread dispatcherThread;
+    // Número do lote em distribuição; separa os lotes anteriores e posteriores a uma retomada.
+    private volatile long dispatchRound;
+    private volatile boolean running;
+    private ExecutorService writers;
+
+    // Contadores expostos em /events/stream/stats.
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong dispatchOverflows = new AtomicLong();
+    private final AtomicLong replaysFromBuffer = new AtomicLong();
+    private final AtomicLong replaysFromDatabase = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong slowConsumersDisconnected = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        boolean virtualWriters = virtualThreadsEnabled && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+        if (virtualWriters) {
+            // Uma thread virtual por envio: um socket bloqueado segura apenas a sua própria thread.
+            writers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    new VirtualThreadTaskExecutor("sse-writer-").getVirtualThreadFactory());
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "sse-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            writers = Executors.newFixedThreadPool(writerThreads, threadFactory);
+        }
+        dispatchQueue = new ArrayBlockingQueue<>(dispatchQueueCapacity);
+        recentEvents = new RecentEventBuffer(replayBufferSize);
+        running = true;
+        auditMetrics.gaugeSseEmitters(subscribers);
+        dispatcherThread = new Thread(this::runDispatcher, "sse-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        log.info("Streaming SSE iniciado (fila de despacho={}, buffer por cliente={}, política={}, threads de escrita={}, buffer de retomada={}).",
+                dispatchQueueCapacity, subscriberBufferSize, slowConsumerPolicy,
+                virtualWriters ? "virtuais" : writerThreads, replayBufferSize);
+    }
+
+    /**
+     * Encerra as conexões abertas antes de o contexto fechar.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcherThread.interrupt();
+        dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        writers.shutdown();
+        writers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registra uma nova conexão SSE para receber os eventos publicados que passam no filtro.
+     * As regras de visibilidade (ANALYST só vê o próprio e-mail) já devem estar aplicadas ao filtro.
+     *
+     * Com 'lastEventId', a conexão recebe antes os eventos posteriores a ele que passam no
+     * filtro (no máximo 'audit.stream.replay-max-events' quando vêm do banco; se houver mais,
+     * um evento 'replay-truncated' avisa o cliente para buscar o restante em GET /events).
+     *
+     * @param emitter O SseEmitter que representa a conexão do cliente.
+     * @param principal O usuário autenticado da conexão (usado nas métricas).
+     * @param filter O filtro da assinatura (null recebe todos os eventos).
+     * @param lastEventId ID do último evento recebido pelo cliente, ou null em uma conexão nova.
+     * @return O mesmo emitter, para ser devolvido pelo controller.
+     */
+    public SseEmitter register(SseEmitter emitter, String principal, AuditEventFilter filter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(nextSubscriberId.incrementAndGet(), principal, emitter,
+                new ArrayBlockingQueue<>(subscriberBufferSize));
+        // Com retomada, os eventos ao vivo ficam guardados, sem limite, até o histórico ser montado:
+        // o buffer limitado do cliente não enche (nem descarta eventos) enquanto o banco é lido.
+        if (lastEventId != null) {
+            subscriber.held = new ArrayList<>();
+        }
+        subscriber.ready = lastEventId == null;
+        // A assinatura entra no índice antes da leitura do histórico, para que nenhum evento
+        // publicado entre as duas coisas se perca (os repetidos são descartados).
+        subscriber.filter = subscriptionIndex.add(subscriber, filter);
+        subscribers.put(subscriber.id, subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(err -> remove(subscriber));
+        log.info("Novo cliente SSE conectado ({}, filtro={}, Last-Event-ID={}). Total de conexões: {}",
+                principal, subscriber.filter, lastEventId, subscribers.size());
+
+        if (lastEventId != null) {
+            try {
+                subscriber.resume(loadBacklog(subscriber.filter, lastEventId), dispatchRound);
+            } catch (RuntimeException e) {
+                remove(subscriber);
+                throw e;
+            }
+            schedule(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publica um evento para todos os clientes conectados. Nunca bloqueia: a distribuição
+     * acontece na thread de despacho e o envio, nas threads de escrita. Se a fila de despacho
+     * estiver cheia, o evento não é transmitido (ele continua gravado no banco).
+     *
+     * @param eventDto O evento a ser enviado.
+     */
+    public void publish(AuditEventDto eventDto) {
+        published.incrementAndGet();
+        // Sem clientes, o evento ainda precisa entrar no buffer de retomada.
+        if (subscribers.isEmpty() && replayBufferSize == 0) {
+            return;
+        }
+        if (!dispatchQueue.offer(eventDto)) {
+            dispatchOverflows.incrementAndGet();
+            recentEventsIncomplete.set(true);
+        }
+    }
+
+    /**
+     * Retorna um retrato das métricas do streaming, incluindo o atraso de cada cliente.
+     */
+    public StreamStats getStats() {
+        List<StreamStats.SubscriberStats> subscriberStats = new ArrayList<>(subscribers.size());
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriberStats.add(StreamStats.SubscriberStats.builder()
+                    .id(subscriber.id)
+                    .principal(subscriber.principal)
+                    .filter(subscriber.filter)
+                    .connectedAt(subscriber.connectedAt)
+                    .queued(subscriber.queue.size())
+                    .delivered(subscriber.delivered.get())
+                    .dropped(subscriber.dropped.get())
+                    .replayed(subscriber.replayed.get())
+                    .lastLagMillis(subscriber.lastLagNanos / 1_000_000.0)
+                    .maxLagMillis(subscriber.maxLagNanos / 1_000_000.0)
+                    .build());
+        }
+        return StreamStats.builder()
+                .subscribers(subscriberStats.size())
+                .published(published.get())
+                .dispatched(dispatched.get())
+                .deliveries(deliveries.get())
+                .dispatchQueueDepth(dispatchQueue.size())
+                .dispatchOverflows(dispatchOverflows.get())
+                .replayBufferEvents(recentEvents.size())
+                .replaysFromBuffer(replaysFromBuffer.get())
+                .replaysFromDatabase(replaysFromDatabase.get())
+                .dropped(dropped.get())
+                .slowConsumersDisconnected(slowConsumersDisconnected.get())
+                .subscriberStats(subscriberStats)
+                .build();
+    }
+
+    /**
+     * Monta o quadro SSE ("id: 42" + "event: audit-event" + "data: {json}") uma única vez por evento.
+     * O JSON vai como byte[], que é escrito sem nova conversão para cada cliente.
+     */
+    private SseFrame toFrame(AuditEventDto eventDto) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(eventDto);
+            Set<ResponseBodyEmitter.DataWithMediaType> data = SseEmitter.event()
+                    .id(String.valueOf(eventDto.getId()))
+                    .name(EVENT_NAME)
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build();
+            // O buffer de retomada guarda só os campos de roteamento, não os metadados.
+            AuditEventDto routing = new AuditEventDto(eventDto.getId(), eventDto.getSystemName(),
+                    eventDto.getUserEmail(), eventDto.getAction(), eventDto.getTimestamp(), null);
+            return new SseFrame(eventDto.getId(), routing, data, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            log.error("Falha ao serializar o evento {} para o streaming SSE.", eventDto.getId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Monta a lista de eventos que um cliente perdeu desde 'lastEventId': do buffer de eventos
+     * recentes quando ele ainda cobre a lacuna, senão do banco (consulta pela chave primária).
+     *
+     * A consulta ao banco é aproximada: os IDs não seguem a ordem de commit (o pipeline de
+     * ingestão e os lotes de POST /events/webhook/bulk usam blocos da mesma sequência), então um
+     * evento com ID menor que 'lastEventId' que foi gravado depois dele não é reenviado. O buffer
+     * não tem esse problema, porque guarda os eventos na ordem de publicação. Pelo banco, um evento
+     * gravado antes da consulta e publicado só depois de a retomada terminar chega duas vezes
+     * (o cliente o reconhece pelo mesmo ID).
+     */
+    private List<SseFrame> loadBacklog(AuditEventFilter filter, long lastEventId) {
+        Optional<List<SseFrame>> recent = recentEvents.after(lastEventId);
+        if (recent.isPresent()) {
+            replaysFromBuffer.incrementAndGet();
+            List<SseFrame> backlog = new ArrayList<>();
+            for (SseFrame frame : recent.get()) {
+                if (SubscriptionIndex.matches(filter, frame.getRouting())) {
+                    backlog.add(frame);
+                }
+            }
+            return backlog;
+        }
+
+        replaysFromDatabase.incrementAndGet();
+        List<AuditEvent> missed = auditEventRepository.findAfterId(filter, lastEventId, replayMaxEvents);
+        List<SseFrame> backlog = new ArrayList<>(missed.size() + 1);
+        for (AuditEventDto eventDto : auditEventMapper.toDtoList(missed)) {
+            SseFrame frame = toFrame(eventDto);
+            if (frame != null) {
+                backlog.add(frame);
+            }
+        }
+        if (missed.size() == replayMaxEvents) {
+            log.warn("Retomada SSE após o evento {} limitada a {} eventos.", lastEventId, replayMaxEvents);
+            backlog.add(replayTruncatedFrame(missed.get(missed.size() - 1).getId()));
+        }
+        return backlog;
+    }
+
+    /**
+     * Aviso de que a retomada parou antes de alcançar os eventos ao vivo: o cliente deve buscar
+     * em GET /events o que houver depois de 'lastReplayedId'. Não tem "id:", para não alterar
+     * o Last-Event-ID do cliente.
+     */
+    private SseFrame replayTruncatedFrame(long lastReplayedId) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> data = SseEmitter.event()
+                    .name(REPLAY_TRUNCATED_EVENT_NAME)
+                    .data(objectMapper.writeValueAsBytes(Map.of("lastReplayedId", lastReplayedId)), MediaType.APPLICATION_JSON)
+                    .build();
+            return new SseFrame(-1, null, data, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Laço da thread de despacho: retira os eventos em lotes, encontra os destinatários de cada
+     * um no índice, serializa os que têm destinatário uma única vez e coloca no buffer de cada
+     * cliente os quadros do lote que ele deve receber.
+     */
+    private void runDispatcher() {
+        List<AuditEventDto> batch = new ArrayList<>(MAX_DISPATCH_BATCH);
+        List<Subscriber> recipients = new ArrayList<>();
+        Map<Subscriber, List<SseFrame>> framesBySubscriber = new LinkedHashMap<>();
+        while (running) {
+            try {
+                batch.add(dispatchQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            dispatchQueue.drainTo(batch, MAX_DISPATCH_BATCH - 1);
+            dispatchRound++;
+            if (recentEventsIncomplete.getAndSet(false)) {
+                // Os eventos publicados antes do que se perdeu estão neste lote ou ainda na fila.
+                recentEvents.reset(batch.size() + dispatchQueue.size());
+            }
+            long start = System.nanoTime();
+            try {
+                for (AuditEventDto eventDto : batch) {
+                    SseFrame frame = toFrame(eventDto);
+                    if (frame == null) {
+                        continue;
+                    }
+                    // Entra no buffer de retomada antes de ir para os clientes: quem estiver montando
+                    // o histórico agora o recebe por um dos dois caminhos (ou pelos dois, sem repetir).
+                    recentEvents.add(frame);
+                    subscriptionIndex.forEachMatch(eventDto, recipients::add);
+                    if (!recipients.isEmpty()) {
+                        for (Subscriber subscriber : recipients) {
+                            framesBySubscriber.computeIfAbsent(subscriber, key -> new ArrayList<>()).add(frame);
+                        }
+                        deliveries.addAndGet(recipients.size());
+                    }
+                    recipients.clear();
+                }
+                framesBySubscriber.forEach(this::enqueue);
+            } catch (Exception e) {
+                log.error("Falha ao distribuir eventos para o streaming SSE.", e);
+            }
+            auditMetrics.recordSseFanOut(System.nanoTime() - start);
+            dispatched.addAndGet(batch.size());
+            batch.clear();
+            recipients.clear();
+            framesBySubscriber.clear();
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, List<SseFrame> frames) {
+        if (subscriber.hold(frames, dispatchRound)) {
+            return;
+        }
+        for (SseFrame frame : frames) {
+            if (subscriber.closed) {
+                return;
+            }
+            if (subscriber.alreadyReplayed(frame)) {
+                continue;
+            }
+            if (!subscriber.queue.offer(frame)) {
+                if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) {
+                    slowConsumersDisconnected.incrementAndGet();
+                    log.warn("Cliente SSE {} ({}) desconectado por lentidão.", subscriber.id, subscriber.principal);
+                    disconnect(subscriber);
+                    return;
+                }
+                // DROP_OLDEST: abre espaço descartando o evento mais antigo ainda não enviado.
+                while (!subscriber.queue.offer(frame)) {
+                    if (subscriber.queue.poll() != null) {
+                        subscriber.dropped.incrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * Agenda o envio do buffer do cliente, garantindo no máximo uma escrita por cliente por vez.
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready && subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Encerramento da aplicação em andamento.
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            int sent = 0;
+            while (sent < MAX_FRAMES_PER_DRAIN && !subscriber.closed) {
+                // O histórico da retomada (e o que chegou ao vivo enquanto ele era montado) vai antes
+                // dos eventos ao vivo.
+                boolean replay = subscriber.replaying();
+                SseFrame frame = subscriber.nextBacklogFrame();
+                if (frame == null) {
+                    frame = subscriber.queue.poll();
+                    if (frame == null) {
+                        break;
+                    }
+                }
+                subscriber.emitter.send(frame.getData());
+                sent++;
+                subscriber.delivered.incrementAndGet();
+                if (replay) {
+                    subscriber.replayed.incrementAndGet();
+                    continue;
+                }
+                long lag = System.nanoTime() - frame.getPublishedAtNanos();
+                subscriber.lastLagNanos = lag;
+                if (lag > subscriber.maxLagNanos) {
+                    subscriber.maxLagNanos = lag;
+                }
+            }
+        } catch (Exception e) {
+            // Conexão fechada/quebrada: o emitter não aceita mais envios.
+            log.debug("Erro ao enviar evento SSE para o cliente {}. Removendo-o.", subscriber.id, e);
+            auditMetrics.recordSseSendFailure();
+            subscriber.closed = true;
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Eventos que chegaram durante o envio (ou que passaram do limite por rodada).
+        if (!subscriber.closed && (!subscriber.queue.isEmpty() || subscriber.backlog != null)) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Encerra a conexão de um cliente fora da thread que publicou o evento,
+     * já que 'complete' espera uma escrita em andamento terminar.
+     */
+    private void disconnect(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        remove(subscriber);
+        try {
+            writers.execute(subscriber.emitter::complete);
+        } catch (RejectedExecutionException e) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) != null) {
+            subscriptionIndex.remove(subscriber, subscriber.filter);
+            log.info("Cliente SSE desconectado ({}). Total de conexões: {}", subscriber.principal, subscribers.size());
+        }
+    }
+
+    /**
+     * Uma conexão SSE com o seu buffer limitado de eventos pendentes e as suas métricas.
+     */
+    private static class Subscriber {
+        private final long id;
+        private final String principal;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseFrame> queue;
+        private final Instant connectedAt = Instant.now();
+        private AuditEventFilter filter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private volatile boolean closed;
+        private volatile boolean ready;
+        // Eventos ao vivo recebidos enquanto o histórico da retomada é montado (null fora disso).
+        // Protegido pelo monitor do cliente.
+        private List<SseFrame> held;
+        // IDs enviados pelo histórico e o último lote do despachante que ainda pode repeti-los.
+        // Usados pela thread de despacho, depois da retomada.
+        private Set<Long> replayedIds;
+        private long dedupRound;
+        // Histórico e quantos quadros do começo dele são eventos reenviados (os demais chegaram ao
+        // vivo). Usados apenas pela thread que está enviando para este cliente.
+        private volatile Iterator<SseFrame> backlog;
+        private int backlogReplays;
+        // Escritos apenas pela thread que está enviando para este cliente.
+        private volatile long lastLagNanos;
+        private volatile long maxLagNanos;
+
+        Subscriber(long id, String principal, SseEmitter emitter, BlockingQueue<SseFrame> queue) {
+            this.id = id;
+            this.principal = principal;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        /**
+         * Guarda os quadros ao vivo se a retomada ainda está em andamento.
+         *
+         * @return false se o cliente já está pronto (os quadros vão para o buffer normal).
+         */
+        synchronized boolean hold(List<SseFrame> frames, long round) {
+            if (held != null) {
+                held.addAll(frames);
+                return true;
+            }
+            if (replayedIds != null && round > dedupRound) {
+                // Este lote começou depois da retomada: os seus eventos não estavam no histórico.
+                replayedIds = null;
+            }
+            return false;
+        }
+
+        /**
+         * Conclui a retomada: o histórico é enviado primeiro e, depois dele, os eventos guardados
+         * sem os que o histórico já contém. Os lotes até 'round' ainda podem trazer eventos do
+         * histórico; os seguintes, não.
+         */
+        synchronized void resume(List<SseFrame> frames, long round) {
+            Set<Long> ids = new HashSet<>();
+            frames.forEach(frame -> ids.add(frame.getEventId()));
+            List<SseFrame> all = new ArrayList<>(frames.size() + held.size());
+            all.addAll(frames);
+            for (SseFrame frame : held) {
+                if (!ids.contains(frame.getEventId())) {
+                    all.add(frame);
+                }
+            }
+            held = null;
+            replayedIds = ids;
+            dedupRound = round;
+            backlogReplays = frames.size();
+            backlog = all.iterator();
+            ready = true;
+        }
+
+        /** Indica se o próximo quadro do histórico é um evento reenviado (e não um guardado ao vivo). */
+        boolean replaying() {
+            return backlog != null && backlogReplays > 0;
+        }
+
+        SseFrame nextBacklogFrame() {
+            Iterator<SseFrame> frames = backlog;
+            if (frames == null) {
+                return null;
+            }
+            if (frames.hasNext()) {
+                backlogReplays--;
+                return frames.next();
+            }
+            backlog = null;
+            return null;
+        }
+
+        /**
+         * Indica se um evento ao vivo já foi enviado pelo histórico (só até o fim do lote do
+         * despachante em andamento na retomada; ver {@link #hold}).
+         */
+        synchronized boolean alreadyReplayed(SseFrame frame) {
+            return replayedIds != null && replayedIds.contains(frame.getEventId());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.Set;
+
+/**
+ * Evento já serializado no formato SSE ("id", "event" e "data"), compartilhado por todos os
+ * clientes que o recebem e guardado no {@link RecentEventBuffer} para a retomada do fluxo.
+ */
+@Getter
+@AllArgsConstructor
+class SseFrame {
+
+    /** ID do evento de auditoria (enviado como "id:" do SSE), ou -1 para avisos sem evento. */
+    private final long eventId;
+
+    /** Campos usados no roteamento (sistema, e-mail e ação), sem os metadados. */
+    private final AuditEventDto routing;
+
+    private final Set<ResponseBodyEmitter.DataWithMediaType> data;
+
+    private final long publishedAtNanos;
+}
@@ -0,0 +1,39 @@
+package com.auditcenter.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Tamanho dos intervalos devolvidos por /events/stats. As contagens são guardadas por minuto
+ * e somadas no tamanho pedido.
+ */
+public enum StatsGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    StatsGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * O início do intervalo que contém 'timestamp'.
+     */
+    public LocalDateTime floor(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    /**
+     * O início do primeiro intervalo que começa em ou depois de 'timestamp'.
+     */
+    public LocalDateTime ceil(LocalDateTime timestamp) {
+        LocalDateTime floor = floor(timestamp);
+        return floor.equals(timestamp) ? floor : floor.plus(1, unit);
+    }
+}
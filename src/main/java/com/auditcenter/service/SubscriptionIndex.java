@@ -0,0 +1,143 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice das assinaturas do streaming SSE, usado para encontrar quem deve receber um evento
+ * sem percorrer todas as conexões.
+ *
+ * Cada assinatura fica em um único balde, escolhido pelo seu campo mais seletivo:
+ * e-mail do usuário, depois sistema, depois ação; assinaturas sem filtro ficam no balde geral.
+ * Para um evento, só são consultados o balde do seu e-mail, o do seu sistema, o da sua ação
+ * e o geral, e cada candidato ainda é conferido contra o filtro completo. O custo depende,
+ * portanto, do número de assinaturas candidatas, e não do total de conexões.
+ *
+ * Os filtros de intervalo de tempo (from/to) e de atributos dos metadados não se aplicam ao
+ * streaming e são ignorados.
+ *
+ * @param <S> O tipo do assinante.
+ */
+public class SubscriptionIndex<S> {
+
+    private final Map<String, Map<S, AuditEventFilter>> byUserEmail = new ConcurrentHashMap<>();
+    private final Map<String, Map<S, AuditEventFilter>> bySystemName = new ConcurrentHashMap<>();
+    private final Map<String, Map<S, AuditEventFilter>> byAction = new ConcurrentHashMap<>();
+    private final Map<S, AuditEventFilter> unfiltered = new ConcurrentHashMap<>();
+
+    /**
+     * Registra uma assinatura.
+     *
+     * @param subscriber O assinante.
+     * @param filter O filtro da assinatura (null recebe todos os eventos).
+     * @return O filtro normalizado (campos em branco viram null, from/to são descartados).
+     */
+    public AuditEventFilter add(S subscriber, AuditEventFilter filter) {
+        AuditEventFilter normalized = normalize(filter);
+        Map<String, Map<S, AuditEventFilter>> buckets = bucketsFor(normalized);
+        if (buckets == null) {
+            unfiltered.put(subscriber, normalized);
+        } else {
+            buckets.compute(keyFor(normalized), (key, bucket) -> {
+                Map<S, AuditEventFilter> target = bucket == null ? new ConcurrentHashMap<>() : bucket;
+                target.put(subscriber, normalized);
+                return target;
+            });
+        }
+        return normalized;
+    }
+
+    /**
+     * Remove uma assinatura. O filtro deve ser o devolvido por {@link #add}.
+     */
+    public void remove(S subscriber, AuditEventFilter filter) {
+        Map<String, Map<S, AuditEventFilter>> buckets = bucketsFor(filter);
+        if (buckets == null) {
+            unfiltered.remove(subscriber);
+        } else {
+            // Baldes vazios são descartados para o índice não crescer com e-mails que já saíram.
+            buckets.computeIfPresent(keyFor(filter), (key, bucket) -> {
+                bucket.remove(subscriber);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    /**
+     * Entrega ao consumidor cada assinante cujo filtro aceita o evento (no máximo uma vez cada).
+     *
+     * @return O número de assinantes encontrados.
+     */
+    public int forEachMatch(AuditEventDto event, Consumer<S> consumer) {
+        int matches = 0;
+        if (event.getUserEmail() != null) {
+            matches += visit(byUserEmail.get(event.getUserEmail()), event, consumer);
+        }
+        if (event.getSystemName() != null) {
+            matches += visit(bySystemName.get(event.getSystemName()), event, consumer);
+        }
+        if (event.getAction() != null) {
+            matches += visit(byAction.get(event.getAction()), event, consumer);
+        }
+        return matches + visit(unfiltered, event, consumer);
+    }
+
+    /**
+     * Indica se um filtro (já normalizado) aceita o evento.
+     */
+    public static boolean matches(AuditEventFilter filter, AuditEventDto event) {
+        return (filter.getUserEmail() == null || filter.getUserEmail().equals(event.getUserEmail()))
+                && (filter.getSystemName() == null || filter.getSystemName().equals(event.getSystemName()))
+                && (filter.getAction() == null || filter.getAction().equals(event.getAction()));
+    }
+
+    private int visit(Map<S, AuditEventFilter> bucket, AuditEventDto event, Consumer<S> consumer) {
+        if (bucket == null) {
+            return 0;
+        }
+        int matches = 0;
+        for (Map.Entry<S, AuditEventFilter> entry : bucket.entrySet()) {
+            if (matches(entry.getValue(), event)) {
+                consumer.accept(entry.getKey());
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private Map<String, Map<S, AuditEventFilter>> bucketsFor(AuditEventFilter filter) {
+        if (filter.getUserEmail() != null) {
+            return byUserEmail;
+        }
+        if (filter.getSystemName() != null) {
+            return bySystemName;
+        }
+        if (filter.getAction() != null) {
+            return byAction;
+        }
+        return null;
+    }
+
+    private static String keyFor(AuditEventFilter filter) {
+        if (filter.getUserEmail() != null) {
+            return filter.getUserEmail();
+        }
+        return filter.getSystemName() != null ? filter.getSystemName() : filter.getAction();
+    }
+
+    private static AuditEventFilter normalize(AuditEventFilter filter) {
+        if (filter == null) {
+            return new AuditEventFilter();
+        }
+        return AuditEventFilter.builder()
+                .userEmail(StringUtils.hasText(filter.getUserEmail()) ? filter.getUserEmail() : null)
+                .systemName(StringUtils.hasText(filter.getSystemName()) ? filter.getSystemName() : null)
+                .action(StringUtils.hasText(filter.getAction()) ? filter.getAction() : null)
+                .build();
+    }
+}
@@ -0,0 +1,460 @@
+package com.auditcenter.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log local de escrita antecipada (write-ahead log) do pipeline de ingestão, usado quando
+ * 'audit.ingestion.wal.enabled=true'.
+ *
+ * O log é uma sequência de segmentos ('wal-&lt;offset&gt;.log', onde o offset é a posição global do
+ * primeiro byte do segmento). Cada registro é [tamanho][CRC32][bytes]; um registro nunca é
+ * dividido entre dois segmentos. Um segmento novo começa quando o atual chegaria a 'segmentBytes'.
+ *
+ * Group commit: {@link #append} escreve o registro e espera ele estar no disco. A primeira thread
+ * que encontra o fsync livre faz o fsync de tudo o que já foi escrito; as que chegam enquanto
+ * ele roda esperam e são cobertas pelo próximo. Com N gravações simultâneas há bem menos que N fsyncs.
+ *
+ * O leitor (um só: a thread que drena o log para o banco) lê a partir do checkpoint e só enxerga
+ * registros que já estão no disco; {@link #commit} avança o checkpoint (arquivo 'checkpoint') e
+ * apaga os segmentos já lidos por inteiro. Na abertura, um registro incompleto no fim do último
+ * segmento (queda no meio de uma gravação, nunca confirmada ao cliente) é descartado.
+ *
+ * Uma thread interrompida durante a escrita ou o fsync fecha o canal do segmento (comportamento do
+ * FileChannel). O segmento é então reaberto, sem o que a escrita interrompida deixou, e a thread
+ * recebe a exceção; as demais continuam gravando.
+ */
+@Slf4j
+class WriteAheadLog implements AutoCloseable {
+
+    /** Tamanho (int) e CRC32 (int) antes de cada registro. */
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Um registro lido do log e a posição logo depois dele (o valor a passar para {@link #commit}).
+     */
+    @Data
+    @AllArgsConstructor
+    static class Record {
+        private byte[] payload;
+        private long endOffset;
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Path checkpointFile;
+    private final FileChannel lockChannel;
+    private final FileLock directoryLock;
+
+    /** Segmentos existentes, pelo offset inicial. */
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    // Escrita: protegida por 'writeLock'.
+    private final Object writeLock = new Object();
+    private FileChannel writeChannel;
+    private long writeSegmentStart;
+    private volatile long writtenOffset;
+    private long appendedRecords;
+    private boolean closed;
+
+    // Group commit: protegido por 'syncLock'.
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private boolean syncing;
+    private volatile long durableOffset;
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong syncedRecords = new AtomicLong();
+
+    // Leitura: usada apenas pela thread que drena o log.
+    private FileChannel readChannel;
+    private long readSegmentStart = -1;
+    private volatile long checkpoint;
+
+    WriteAheadLog(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.checkpointFile = directory.resolve("checkpoint");
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve("lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.directoryLock = tryLock(lockChannel);
+            if (directoryLock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("O diretório do log de ingestão já está em uso por outro processo: " + directory);
+            }
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o log de ingestão em " + directory, e);
+        }
+        long pending = writtenOffset - checkpoint;
+        if (pending > 0) {
+            log.warn("Log de ingestão em {}: {} bytes de eventos ainda não gravados no banco serão reprocessados.",
+                    directory, pending);
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // O diretório já está aberto nesta mesma JVM.
+            return null;
+        }
+    }
+
+    /**
+     * Lê o checkpoint e os segmentos existentes e descarta um registro incompleto no fim do log.
+     */
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())), file);
+                    });
+        }
+        checkpoint = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim())
+                : 0;
+
+        if (segments.isEmpty()) {
+            openSegment(checkpoint);
+            writtenOffset = checkpoint;
+        } else {
+            // Segmentos anteriores ao checkpoint já foram apagados; o log começa no primeiro que sobrou.
+            checkpoint = Math.max(checkpoint, segments.firstKey());
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            writeSegmentStart = last.getKey();
+            writeChannel = FileChannel.open(last.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validEnd = scanValidEnd(writeChannel);
+            if (validEnd < writeChannel.size()) {
+                log.warn("Descartados {} bytes de um registro incompleto no fim de {}.",
+                        writeChannel.size() - validEnd, last.getValue());
+                writeChannel.truncate(validEnd);
+                writeChannel.force(true);
+            }
+            writeChannel.position(validEnd);
+            writtenOffset = writeSegmentStart + validEnd;
+        }
+        durableOffset = writtenOffset;
+    }
+
+    /**
+     * Percorre um segmento e devolve a posição logo depois do último registro íntegro.
+     */
+    private long scanValidEnd(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (crc(payload.array()) != crc) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Anexa um registro e retorna quando ele (e tudo o que foi anexado antes) está no disco.
+     */
+    void append(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(recordBytes);
+        buffer.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        long end;
+        synchronized (writeLock) {
+            try {
+                long segmentPosition = writtenOffset - writeSegmentStart;
+                if (segmentPosition > 0 && segmentPosition + recordBytes > segmentBytes) {
+                    rollSegment();
+                }
+                while (buffer.hasRemaining()) {
+                    writeChannel.write(buffer);
+                }
+            } catch (ClosedChannelException e) {
+                // Interrompida no meio da escrita (ou do fsync da troca de segmento).
+                reopenSegment();
+                throw e;
+            }
+            writtenOffset += recordBytes;
+            appendedRecords++;
+            end = writtenOffset;
+        }
+        awaitDurable(end);
+    }
+
+    /**
+     * Fecha o segmento atual (com fsync) e abre um novo a partir da posição atual. Chamado com 'writeLock'.
+     */
+    private void rollSegment() throws IOException {
+        writeChannel.force(false);
+        writeChannel.close();
+        markDurable(writtenOffset, appendedRecords);
+        openSegment(writtenOffset);
+    }
+
+    /**
+     * Reabre o segmento atual depois de uma interrupção fechar o seu canal, descartando o que uma
+     * escrita interrompida deixou depois de 'writtenOffset'. Chamado com 'writeLock'.
+     */
+    private void reopenSegment() throws IOException {
+        if (closed || writeChannel.isOpen()) {
+            return;
+        }
+        // Com a interrupção pendente, as operações no novo canal também o fechariam.
+        boolean interrupted = Thread.interrupted();
+        try {
+            FileChannel channel = FileChannel.open(segments.get(writeSegmentStart),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end = writtenOffset - writeSegmentStart;
+            channel.truncate(end);
+            channel.position(end);
+            writeChannel = channel;
+            log.warn("Log de ingestão: segmento {} reaberto depois de uma gravação interrompida.",
+                    segments.get(writeSegmentStart));
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void openSegment(long start) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+        writeChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeSegmentStart = start;
+        segments.put(start, file);
+    }
+
+    /**
+     * Espera até 'offset' estar no disco, fazendo o fsync se nenhuma outra thread estiver fazendo.
+     */
+    private void awaitDurable(long offset) throws IOException {
+        syncLock.lock();
+        try {
+            while (durableOffset < offset) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                syncLock.unlock();
+                long target;
+                long records;
+                try {
+                    FileChannel channel;
+                    long segmentStart;
+                    synchronized (writeLock) {
+                        target = writtenOffset;
+                        records = appendedRecords;
+                        channel = writeChannel;
+                        segmentStart = writeSegmentStart;
+                    }
+                    while (true) {
+                        try {
+                            channel.force(false);
+                            break;
+                        } catch (ClosedChannelException e) {
+                            synchronized (writeLock) {
+                                if (writeSegmentStart != segmentStart) {
+                                    // O segmento foi trocado: a troca já fez o fsync dele.
+                                    break;
+                                }
+                                // Canal fechado por uma interrupção (desta ou de outra thread): nada
+                                // garante que 'target' está no disco.
+                                reopenSegment();
+                                if (closed || e instanceof ClosedByInterruptException) {
+                                    throw e;
+                                }
+                                channel = writeChannel;
+                            }
+                        }
+                    }
+                    syncs.incrementAndGet();
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    synced.signalAll();
+                }
+                markDurable(target, records);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void markDurable(long offset, long records) {
+        syncLock.lock();
+        try {
+            if (offset > durableOffset) {
+                durableOffset = offset;
+                syncedRecords.set(records);
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Espera até haver registros depois do checkpoint, por no máximo 'timeoutMs'.
+     *
+     * @return true se houver registros para ler.
+     */
+    boolean awaitRecords(long timeoutMs) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        syncLock.lock();
+        try {
+            while (durableOffset <= checkpoint && remaining > 0) {
+                remaining = synced.awaitNanos(remaining);
+            }
+            return durableOffset > checkpoint;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Lê até 'max' registros a partir do checkpoint, na ordem em que foram anexados.
+     * Sem {@link #commit}, a próxima leitura devolve os mesmos registros.
+     */
+    List<Record> read(int max) throws IOException {
+        List<Record> records = new ArrayList<>();
+        long position = checkpoint;
+        long limit = durableOffset;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (records.size() < max && position < limit) {
+            long segmentStart = segments.floorKey(position);
+            if (segmentStart != readSegmentStart) {
+                closeReader();
+                readChannel = FileChannel.open(segments.get(segmentStart), StandardOpenOption.READ);
+                readSegmentStart = segmentStart;
+            }
+            header.clear();
+            readFully(header, position - segmentStart);
+            int length = header.getInt();
+            int crc = header.getInt();
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position - segmentStart + HEADER_BYTES);
+            if (crc(payload.array()) != crc) {
+                throw new IOException("Registro corrompido no log de ingestão na posição " + position);
+            }
+            position += HEADER_BYTES + length;
+            records.add(new Record(payload.array(), position));
+        }
+        return records;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (readChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fim inesperado do segmento " + segments.get(readSegmentStart));
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Marca como gravados no banco os registros até 'offset' e apaga os segmentos que ficaram para trás.
+     */
+    void commit(long offset) throws IOException {
+        Path temp = directory.resolve("checkpoint.tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = offset;
+
+        // Um segmento pode ser apagado quando o seguinte já começa antes do checkpoint.
+        Long next;
+        while ((next = segments.higherKey(segments.firstKey())) != null && next <= offset) {
+            long start = segments.firstKey();
+            if (start == readSegmentStart) {
+                closeReader();
+            }
+            Files.deleteIfExists(segments.remove(start));
+        }
+    }
+
+    /**
+     * Bytes anexados que ainda não foram gravados no banco.
+     */
+    long pendingBytes() {
+        return writtenOffset - checkpoint;
+    }
+
+    long syncs() {
+        return syncs.get();
+    }
+
+    long syncedRecords() {
+        return syncedRecords.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            closed = true;
+            writeChannel.force(false);
+            writeChannel.close();
+        }
+        closeReader();
+        directoryLock.release();
+        lockChannel.close();
+    }
+
+    private void closeReader() throws IOException {
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+            readSegmentStart = -1;
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,6 @@
+-- Arquivo frio das partições antigas (AuditArchive).
+--
+-- Uma partição arquivada tem os eventos em segmentos compactados fora do banco e as suas
+-- tabelas removidas; o registro continua em audit_partitions, com o instante do arquivamento,
+-- para que as consultas e a retenção continuem a encontrá-la.
+ALTER TABLE audit_partitions ADD COLUMN archived_at TIMESTAMP(6);
@@ -0,0 +1,20 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update.
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email    VARCHAR(255) NOT NULL UNIQUE,
+    name     VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     ENUM ('ADMIN', 'ANALYST') NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE audit_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    timestamp   TIMESTAMP(6) NOT NULL,
+    action      VARCHAR(255) NOT NULL,
+    system_name VARCHAR(255) NOT NULL,
+    user_email  VARCHAR(255) NOT NULL,
+    metadata    TEXT,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,19 @@
+-- Índices secundários de audit_events.
+--
+-- Todas as consultas de GET /events ordenam por (timestamp, id) e filtram por igualdade em
+-- no máximo uma coluna "de alta seletividade". Cada índice composto começa pela coluna de
+-- igualdade e termina em (timestamp DESC, id DESC), então o banco encontra o início da página
+-- por busca no índice e lê apenas as linhas da página, já ordenadas, sem varrer a tabela.
+-- As colunas são DESC porque o H2 não percorre índices em ordem reversa.
+
+-- Listagem sem filtros (ADMIN) e intervalos de tempo.
+CREATE INDEX idx_audit_events_timestamp ON audit_events (timestamp DESC, id DESC);
+
+-- Eventos de um usuário (restrição do ANALYST e filtro userEmail).
+CREATE INDEX idx_audit_events_user_email ON audit_events (user_email, timestamp DESC, id DESC);
+
+-- Filtro por sistema de origem.
+CREATE INDEX idx_audit_events_system_name ON audit_events (system_name, timestamp DESC, id DESC);
+
+-- Filtro por ação.
+CREATE INDEX idx_audit_events_action ON audit_events (action, timestamp DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Troca a coluna IDENTITY de audit_events por uma sequência com alocação em blocos.
+--
+-- Com IDENTITY o Hibernate precisa executar cada INSERT sozinho para ler a chave gerada,
+-- o que desativa o batching JDBC. Com a sequência, o Hibernate reserva 50 IDs por chamada
+-- (otimizador "pooled") e agrupa os INSERTs em lotes de 'hibernate.jdbc.batch_size'.
+--
+-- O INCREMENT BY precisa ser igual ao 'allocationSize' do @SequenceGenerator de AuditEvent.
+
+ALTER TABLE audit_events ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE audit_events_seq START WITH 1 INCREMENT BY 50;
+
+-- O otimizador "pooled" trata o valor da sequência como o fim do bloco reservado,
+-- então o primeiro bloco precisa terminar 50 posições depois do maior ID existente.
+ALTER SEQUENCE audit_events_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM audit_events);
@@ -0,0 +1,3 @@
+-- Versão dos tokens de cada usuário. Todo token carrega a versão vigente na emissão
+-- (claim "ver"); incrementar a coluna revoga de uma vez todos os tokens já emitidos.
+ALTER TABLE users ADD COLUMN token_version INT DEFAULT 0 NOT NULL;
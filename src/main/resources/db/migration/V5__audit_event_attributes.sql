@@ -0,0 +1,15 @@
+-- Atributos extraídos dos metadados de cada evento (audit.metadata.indexed-attributes).
+--
+-- Uma linha por valor: um caminho que aponta para um array gera uma linha por elemento.
+-- O índice começa por (attr_key, attr_value), então a busca por um identificador de negócio
+-- (ex.: orderId = 12345) lê só as entradas desse valor e chega aos eventos pela chave primária,
+-- sem ler nem interpretar o JSON de nenhuma outra linha.
+CREATE TABLE audit_event_attributes (
+    event_id BIGINT NOT NULL,
+    attr_key VARCHAR(100) NOT NULL,
+    attr_value VARCHAR(255) NOT NULL,
+    PRIMARY KEY (event_id, attr_key, attr_value),
+    CONSTRAINT fk_audit_event_attributes_event FOREIGN KEY (event_id) REFERENCES audit_events (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_audit_event_attributes_key_value ON audit_event_attributes (attr_key, attr_value, event_id);
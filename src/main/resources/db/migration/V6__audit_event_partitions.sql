@@ -0,0 +1,20 @@
+-- Catálogo das partições de audit_events.
+--
+-- O H2 não tem particionamento nativo, então os eventos são gravados em uma tabela por
+-- período (dia ou mês, 'audit.partition.period') e por classe de retenção (os dias de
+-- 'audit.retention.*' do sistema de origem), criadas pela aplicação com a mesma estrutura,
+-- índices e atributos de audit_events / audit_event_attributes (V1, V2, V3, V5). Essas duas
+-- tabelas continuam como o modelo validado pelo Hibernate e não recebem mais eventos.
+--
+-- Cada linha descreve uma partição: as consultas só leem as partições cujo intervalo cruza o
+-- período pedido, e a retenção remove uma partição inteira com DROP TABLE.
+CREATE TABLE audit_partitions (
+    name           VARCHAR(64) NOT NULL,
+    period_start   TIMESTAMP(6) NOT NULL,
+    period_end     TIMESTAMP(6) NOT NULL,
+    retention_days INT NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+CREATE INDEX idx_audit_partitions_period ON audit_partitions (period_start, period_end);
@@ -0,0 +1,13 @@
+-- Contagem de eventos por (minuto, sistema, ação), consolidada periodicamente a partir dos
+-- contadores em memória (EventStatsService). Os painéis leem esta tabela em /events/stats:
+-- o custo da consulta depende do número de intervalos, e não do número de eventos.
+--
+-- Cada instância soma as suas contagens (event_count = event_count + n), então várias
+-- instâncias podem consolidar o mesmo intervalo. A tabela não passa pela retenção dos eventos.
+CREATE TABLE audit_event_stats (
+    bucket_start TIMESTAMP(6) NOT NULL,
+    system_name VARCHAR(255) NOT NULL,
+    action VARCHAR(255) NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, system_name, action)
+);
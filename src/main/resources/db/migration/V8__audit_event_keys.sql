@@ -0,0 +1,15 @@
+-- Chaves de idempotência dos eventos recebidos pelo webhook (IdempotencyIndex).
+--
+-- A chave (SHA-256 em hexadecimal) é gravada na mesma transação que o evento. A chave primária
+-- garante a unicidade em todas as partições de audit_events: um reenvio que a verificação em
+-- memória não reconhecer (outra instância, reinício) é recusado aqui. A tabela não tem chave
+-- estrangeira para o evento, que vive em uma partição; as chaves são removidas pela idade
+-- ('audit.ingestion.idempotency.key-retention-days'), independentemente da retenção dos eventos.
+CREATE TABLE audit_event_keys (
+    idempotency_key VARCHAR(64) NOT NULL,
+    event_id        BIGINT NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_audit_event_keys_created_at ON audit_event_keys (created_at);
@@ -0,0 +1,24 @@
+-- Evidência de alteração dos eventos (AuditIntegrityService).
+--
+-- event_hash é o SHA-256 do conteúdo do evento, calculado no insert (AuditEventHashes). As
+-- partições já existentes recebem a coluna na inicialização (AuditPartitionScheme.upgradeStatements);
+-- eventos gravados antes dela ficam com NULL e são cobertos a partir do primeiro selo.
+ALTER TABLE audit_events ADD COLUMN event_hash VARCHAR(64);
+
+-- Um selo por partição e intervalo de tempo fechado: a quantidade de eventos e a raiz da árvore
+-- de Merkle dos seus hashes (em ordem de ID). Os selos formam uma cadeia na ordem de 'seq':
+-- chain_hash cobre o selo e o chain_hash do anterior, então alterar, remover ou incluir um
+-- selo quebra todos os elos seguintes. Os selos não passam pela retenção dos eventos.
+CREATE TABLE audit_event_seals (
+    seq            BIGINT NOT NULL,
+    partition_name VARCHAR(64) NOT NULL,
+    bucket_start   TIMESTAMP(6) NOT NULL,
+    event_count    INT NOT NULL,
+    merkle_root    VARCHAR(64) NOT NULL,
+    chain_hash     VARCHAR(64) NOT NULL,
+    sealed_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (seq),
+    CONSTRAINT uk_audit_event_seals_bucket UNIQUE (partition_name, bucket_start)
+);
+
+CREATE INDEX idx_audit_event_seals_bucket_start ON audit_event_seals (bucket_start);
@@ -0,0 +1,53 @@
+package com.auditcenter.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reserva IDs de eventos da sequência 'audit_events_seq' em blocos, como o otimizador
+ * "pooled" do Hibernate na aplicação principal: cada valor lido da sequência é o fim de um
+ * bloco de {@link #BLOCK_SIZE} IDs exclusivo de quem o leu. Assim as duas aplicações podem
+ * gravar no mesmo banco sem colisão, e só um INSERT a cada 50 paga uma ida extra à sequência.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class AuditEventIdAllocator {
+
+    /** Deve ser igual ao INCREMENT BY da sequência (V3__audit_events_id_sequence.sql). */
+    static final int BLOCK_SIZE = 50;
+
+    private final ReactiveAuditEventRepository repository;
+
+    // Próximo ID livre e último ID do bloco atual (next > last: sem bloco).
+    private long next = 1;
+    private long last = 0;
+
+    /**
+     * Reserva o próximo ID. Só consulta o banco quando o bloco atual acaba.
+     */
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Long id = takeFromCurrentBlock();
+            if (id != null) {
+                return Mono.just(id);
+            }
+            // Requisições concorrentes podem buscar blocos ao mesmo tempo; o último a chegar
+            // substitui o bloco atual e o restante do anterior é descartado (sem repetir IDs).
+            return repository.nextSequenceValue().map(this::startBlock);
+        });
+    }
+
+    private synchronized Long takeFromCurrentBlock() {
+        return next <= last ? next++ : null;
+    }
+
+    private synchronized long startBlock(long blockEnd) {
+        long first = blockEnd - BLOCK_SIZE + 1;
+        next = first + 1;
+        last = blockEnd;
+        return first;
+    }
+}
@@ -0,0 +1,58 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.repository.AuditPartitionScheme;
+import com.auditcenter.repository.AuditRetentionPolicy;
+import com.auditcenter.security.JwtTokenProvider;
+import com.auditcenter.service.MetadataAttributeExtractor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Variante reativa (WebFlux + R2DBC) da API de eventos: GET /events, GET /events/stream e
+ * POST /events/webhook, com backpressure guiada pela demanda do cliente.
+ *
+ * Compilada apenas com o perfil Maven 'reactive' e executada como aplicação separada, sobre o
+ * mesmo banco e o mesmo 'jwt.secret' da aplicação principal (que continua emitindo os tokens
+ * em /auth). As configurações ficam em application-reactive.properties.
+ *
+ * Só os componentes de com.auditcenter.reactive são carregados (além do {@link JwtTokenProvider},
+ * do {@link MetadataAttributeExtractor} e das regras de particionamento e retenção);
+ * como eles também estão dentro do pacote varrido pela aplicação principal, todos são
+ * condicionados a uma aplicação web reativa.
+ */
+@SpringBootApplication(
+        scanBasePackages = "com.auditcenter.reactive",
+        exclude = {
+                HibernateJpaAutoConfiguration.class,
+                JpaRepositoriesAutoConfiguration.class,
+                ReactiveUserDetailsServiceAutoConfiguration.class
+        })
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({JwtTokenProvider.class, MetadataAttributeExtractor.class, AuditPartitionScheme.class, AuditRetentionPolicy.class})
+public class ReactiveAuditCenterApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveAuditCenterApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(args);
+    }
+
+    /**
+     * Usa o Netty como servidor. O Tomcat da aplicação principal também está no classpath e
+     * seria escolhido primeiro; com o Netty, a demanda do fluxo segue direto a capacidade de
+     * escrita do socket.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
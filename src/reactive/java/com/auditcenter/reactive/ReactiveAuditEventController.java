@@ -0,0 +1,94 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.AuditEventPage;
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller reativo dos eventos de auditoria, com as mesmas rotas e permissões do
+ * AuditEventController. Cada resposta é um Mono/Flux consumido pelo servidor conforme o
+ * cliente lê: nenhuma requisição ocupa uma thread enquanto espera o banco ou o socket.
+ */
+@RestController
+@RequestMapping("/events")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveAuditEventController {
+
+    private final ReactiveAuditEventService auditEventService;
+
+    /**
+     * Endpoint de webhook para receber eventos de sistemas externos.
+     * @param request O payload do evento.
+     * @return O ticket de ingestão, já com o evento persistido (HTTP 202 Accepted).
+     */
+    @PostMapping("/webhook")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public Mono<ResponseEntity<IngestionTicket>> receiveWebhookEvent(@Valid @RequestBody WebhookEventRequest request) {
+        return auditEventService.saveEvent(request)
+                .map(ticket -> ResponseEntity.accepted().body(ticket));
+    }
+
+    /**
+     * Lista uma página de eventos, do mais recente para o mais antigo, com paginação por cursor.
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param cursor Cursor devolvido pela página anterior.
+     * @param size Tamanho da página.
+     * @return Uma página de eventos de auditoria e o cursor da próxima página.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public Mono<AuditEventPage> listEvents(
+            @ModelAttribute AuditEventFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return auditEventService.listEvents(filter, cursor, size);
+    }
+
+    /**
+     * Lista todos os eventos do filtro como NDJSON (Accept: application/x-ndjson), um por linha,
+     * lidos do banco à medida que o cliente consome a resposta.
+     * @param filter Filtros opcionais (sistema, ação, e-mail, intervalo de tempo e atributos dos metadados).
+     * @param cursor Cursor de onde começar (opcional).
+     * @return Os eventos, do mais recente para o mais antigo.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public Flux<AuditEventDto> streamEventList(
+            @ModelAttribute AuditEventFilter filter,
+            @RequestParam(required = false) String cursor
+    ) {
+        return auditEventService.streamEvents(filter, cursor);
+    }
+
+    /**
+     * Abre um fluxo de Server-Sent Events (SSE) com os eventos que passam no filtro.
+     * Para ANALYSTs, o filtro é sempre restrito ao próprio e-mail (403 se pedirem outro).
+     * @param filter Filtros opcionais (sistema, ação e e-mail; o intervalo de tempo e os atributos são ignorados).
+     * @return O fluxo de eventos.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    public Flux<ServerSentEvent<String>> streamEvents(@ModelAttribute AuditEventFilter filter) {
+        return auditEventService.subscribe(filter);
+    }
+}
@@ -0,0 +1,267 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEventAttribute;
+import com.auditcenter.repository.AuditEventHashes;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionScheme;
+import com.auditcenter.repository.AuditRetentionPolicy;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acesso reativo (R2DBC) aos eventos, com o mesmo SQL que o Hibernate gera para a aplicação
+ * principal: paginação por cursor sobre (timestamp, id) e os mesmos índices.
+ *
+ * Os eventos ficam nas mesmas partições da aplicação principal ({@link AuditPartitionScheme}):
+ * as partições são lidas do catálogo audit_partitions e as consultas leem só as que cruzam o
+ * intervalo pedido, um período de cada vez. Partições arquivadas (AuditArchive) não são lidas:
+ * o arquivo frio só é acessível pela aplicação principal.
+ *
+ * As consultas devolvem um {@link Flux} lido do banco conforme a demanda do assinante:
+ * nenhuma delas materializa o resultado inteiro.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveAuditEventRepository {
+
+    private static final String COLUMNS = "id, timestamp, action, system_name, user_email, metadata";
+
+    private static final Comparator<AuditEventDto> NEWEST_FIRST = Comparator.comparing(AuditEventDto::getTimestamp)
+            .thenComparing(AuditEventDto::getId).reversed();
+
+    private final DatabaseClient databaseClient;
+    private final AuditPartitionScheme partitionScheme;
+    private final AuditRetentionPolicy retentionPolicy;
+
+    /** Partições que esta instância já sabe existirem (criadas por ela ou por outra). */
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Busca os eventos do filtro, do mais recente para o mais antigo, a partir de um cursor.
+     *
+     * @param filter Os filtros (já restritos ao usuário).
+     * @param beforeTimestamp Timestamp do cursor, ou null para começar do mais recente.
+     * @param beforeId ID do cursor, ou null para começar do mais recente.
+     * @param limit Quantidade máxima de eventos, ou null para todos.
+     */
+    @SuppressWarnings("unchecked")
+    public Flux<AuditEventDto> findPage(AuditEventFilter filter, LocalDateTime beforeTimestamp, Long beforeId, Integer limit) {
+        LocalDateTime upperBound = filter.getTo();
+        if (beforeTimestamp != null && beforeId != null) {
+            // O cursor inclui o próprio instante (empates são resolvidos pelo id).
+            LocalDateTime afterCursor = beforeTimestamp.plus(1, ChronoUnit.MICROS);
+            upperBound = upperBound == null || afterCursor.isBefore(upperBound) ? afterCursor : upperBound;
+        }
+        Flux<AuditEventDto> events = findPartitionsOverlapping(filter.getFrom(), upperBound)
+                .flatMapMany(partitions -> Flux.fromIterable(AuditPartitionScheme.timeOrderedGroups(partitions, true)))
+                // Um grupo (mesmo período) só é lido quando o anterior termina; dentro dele,
+                // as partições são intercaladas do mais recente para o mais antigo.
+                .concatMap(group -> Flux.mergeComparing(NEWEST_FIRST, group.stream()
+                        .map(partition -> findPageInPartition(partition, filter, beforeTimestamp, beforeId, limit))
+                        .toArray(Flux[]::new)));
+        return limit == null ? events : events.take(limit);
+    }
+
+    private Flux<AuditEventDto> findPageInPartition(AuditPartition partition, AuditEventFilter filter,
+                                                    LocalDateTime beforeTimestamp, Long beforeId, Integer limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        List<String> predicates = filterPredicates(partition, filter, params);
+        if (beforeTimestamp != null && beforeId != null) {
+            // Mesmo limite redundante da consulta JPA: é ele que posiciona a leitura do índice no cursor.
+            predicates.add("timestamp <= :beforeTimestamp");
+            predicates.add("(timestamp < :beforeTimestamp OR (timestamp = :beforeTimestamp AND id < :beforeId))");
+            params.put("beforeTimestamp", beforeTimestamp);
+            params.put("beforeId", beforeId);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(partition.getEventsTable());
+        appendWhere(sql, predicates);
+        sql.append(" ORDER BY ");
+        String indexColumn = leadingIndexColumn(filter);
+        if (indexColumn != null) {
+            // A coluna é constante pelo filtro de igualdade; ela só faz o H2 usar a ordem do índice composto.
+            sql.append(indexColumn).append(", ");
+        }
+        sql.append("timestamp DESC, id DESC");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            params.put("limit", limit);
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(ReactiveAuditEventRepository::toDto).all();
+    }
+
+    /**
+     * As partições do catálogo que podem conter eventos do intervalo [from, to).
+     */
+    private Mono<List<AuditPartition>> findPartitionsOverlapping(LocalDateTime from, LocalDateTime to) {
+        return databaseClient.sql("SELECT name, period_start, period_end, retention_days FROM audit_partitions"
+                        + " WHERE archived_at IS NULL")
+                .map(row -> new AuditPartition(row.get("name", String.class),
+                        row.get("period_start", LocalDateTime.class),
+                        row.get("period_end", LocalDateTime.class),
+                        row.get("retention_days", Integer.class)))
+                .all()
+                .filter(partition -> partition.overlaps(from, to))
+                .collectList();
+    }
+
+    /**
+     * A partição que recebe o evento, criada se ainda não existir. O DDL roda fora da transação
+     * do insert (no H2, ele confirmaria a transação em andamento) e é idempotente, então pode
+     * concorrer com a aplicação principal criando a mesma partição.
+     */
+    public Mono<AuditPartition> partitionFor(AuditEventDto event) {
+        AuditPartition partition = partitionScheme.partitionFor(event.getTimestamp(),
+                retentionPolicy.retentionDaysFor(event.getSystemName()));
+        if (knownPartitions.contains(partition.getName())) {
+            return Mono.just(partition);
+        }
+        return Flux.fromIterable(partitionScheme.createStatements(partition))
+                .concatMap(statement -> databaseClient.sql(statement).then())
+                .then(Mono.fromRunnable(() -> knownPartitions.add(partition.getName())))
+                .thenReturn(partition);
+    }
+
+    /**
+     * Insere um evento com ID já reservado (veja {@link AuditEventIdAllocator}) na sua partição.
+     */
+    public Mono<Void> insert(AuditPartition partition, AuditEventDto event) {
+        return databaseClient.sql("INSERT INTO " + partition.getEventsTable() + " (" + COLUMNS + ", event_hash) "
+                        + "VALUES (:id, :timestamp, :action, :systemName, :userEmail, :metadata, :eventHash)")
+                .bind("id", event.getId())
+                .bind("timestamp", event.getTimestamp())
+                .bind("action", event.getAction())
+                .bind("systemName", event.getSystemName())
+                .bind("userEmail", event.getUserEmail())
+                .bind("metadata", event.getMetadata())
+                .bind("eventHash", AuditEventHashes.contentHash(event.getTimestamp(), event.getSystemName(),
+                        event.getUserEmail(), event.getAction(), event.getMetadata()))
+                .then();
+    }
+
+    /**
+     * Insere os atributos extraídos dos metadados de um evento (tabela de atributos da partição).
+     */
+    public Mono<Void> insertAttributes(AuditPartition partition, Long eventId, Set<AuditEventAttribute> attributes) {
+        return Flux.fromIterable(attributes)
+                .concatMap(attribute -> databaseClient.sql("INSERT INTO " + partition.getAttributesTable() + " (event_id, attr_key, attr_value) "
+                                + "VALUES (:eventId, :key, :value)")
+                        .bind("eventId", eventId)
+                        .bind("key", attribute.getKey())
+                        .bind("value", attribute.getValue())
+                        .then())
+                .then();
+    }
+
+    /**
+     * Avança a sequência 'audit_events_seq' e devolve o novo valor (o fim de um bloco de IDs).
+     */
+    public Mono<Long> nextSequenceValue() {
+        return databaseClient.sql("SELECT NEXT VALUE FOR audit_events_seq")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Lê a versão vigente dos tokens de um usuário (vazio se ele não existir).
+     */
+    public Mono<Integer> findTokenVersionByUserId(Long userId) {
+        return databaseClient.sql("SELECT token_version FROM users WHERE id = :id")
+                .bind("id", userId)
+                .map(row -> row.get(0, Integer.class))
+                .one();
+    }
+
+    private static AuditEventDto toDto(Readable row) {
+        return AuditEventDto.builder()
+                .id(row.get("id", Long.class))
+                .timestamp(row.get("timestamp", LocalDateTime.class))
+                .action(row.get("action", String.class))
+                .systemName(row.get("system_name", String.class))
+                .userEmail(row.get("user_email", String.class))
+                .metadata(row.get("metadata", String.class))
+                .build();
+    }
+
+    /**
+     * Escolhe a coluna cujo índice composto (coluna, timestamp DESC, id DESC) conduz a consulta.
+     */
+    private static String leadingIndexColumn(AuditEventFilter filter) {
+        if (filter.getUserEmail() != null) {
+            return "user_email";
+        }
+        if (filter.getSystemName() != null) {
+            return "system_name";
+        }
+        if (filter.getAction() != null) {
+            return "action";
+        }
+        return null;
+    }
+
+    /**
+     * Converte os filtros informados em predicados com parâmetros nomeados.
+     * Cada filtro de atributo é um EXISTS resolvido pelo índice (attr_key, attr_value, event_id).
+     */
+    private static List<String> filterPredicates(AuditPartition partition, AuditEventFilter filter, Map<String, Object> params) {
+        List<String> predicates = new ArrayList<>();
+        if (filter.getSystemName() != null) {
+            predicates.add("system_name = :systemName");
+            params.put("systemName", filter.getSystemName());
+        }
+        if (filter.getAction() != null) {
+            predicates.add("action = :action");
+            params.put("action", filter.getAction());
+        }
+        if (filter.getUserEmail() != null) {
+            predicates.add("user_email = :userEmail");
+            params.put("userEmail", filter.getUserEmail());
+        }
+        if (filter.getFrom() != null) {
+            predicates.add("timestamp >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            predicates.add("timestamp < :to");
+            params.put("to", filter.getTo());
+        }
+        List<AuditEventAttribute> attributes = filter.attributeFilters();
+        for (int i = 0; i < attributes.size(); i++) {
+            predicates.add("EXISTS (SELECT 1 FROM " + partition.getAttributesTable() + " a WHERE a.event_id = "
+                    + partition.getEventsTable() + ".id"
+                    + " AND a.attr_key = :attrKey" + i + " AND a.attr_value = :attrValue" + i + ")");
+            params.put("attrKey" + i, attributes.get(i).getKey());
+            params.put("attrValue" + i, attributes.get(i).getValue());
+        }
+        return predicates;
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> predicates) {
+        if (!predicates.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+    }
+}
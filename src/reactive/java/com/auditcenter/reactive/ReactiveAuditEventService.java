@@ -0,0 +1,201 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.AuditEventPage;
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEventAttribute;
+import com.auditcenter.entity.User;
+import com.auditcenter.exception.InvalidQueryException;
+import com.auditcenter.service.EventCursor;
+import com.auditcenter.service.MetadataAttributeExtractor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Regras de negócio da variante reativa da API de eventos, as mesmas do AuditEventService:
+ * - ADMIN: vê todos os eventos.
+ * - ANALYST: vê apenas os eventos associados ao seu e-mail, restrição aplicada na própria consulta.
+ *
+ * Nenhum método bloqueia: o usuário vem do contexto reativo e o banco é acessado por R2DBC.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveAuditEventService {
+
+    private final ReactiveAuditEventRepository repository;
+    private final AuditEventIdAllocator idAllocator;
+    private final ReactiveEventBroadcaster broadcaster;
+    private final ReactiveEventStatsRecorder statsRecorder;
+    private final MetadataAttributeExtractor attributeExtractor;
+    private final TransactionalOperator transactionalOperator;
+
+    @Value("${audit.query.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${audit.reactive.list.fetch-size:256}")
+    private int fetchSize;
+
+    /**
+     * Grava um evento vindo do webhook e o transmite via SSE.
+     * Sem fila intermediária: o INSERT não ocupa nenhuma thread enquanto espera o banco,
+     * então o ticket já volta com o evento persistido.
+     *
+     * @param request O DTO com os dados do evento.
+     * @return O ticket de ingestão, com status PERSISTED e o ID do evento.
+     */
+    public Mono<IngestionTicket> saveEvent(WebhookEventRequest request) {
+        Instant acceptedAt = Instant.now();
+        return idAllocator.nextId()
+                .map(id -> AuditEventDto.builder()
+                        .id(id)
+                        .systemName(request.getSystemName())
+                        .userEmail(request.getUserEmail())
+                        .action(request.getAction())
+                        // Mesma precisão da coluna (TIMESTAMP(6)), para o evento transmitido ser igual ao gravado.
+                        .timestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                        .metadata(request.getMetadata())
+                        .build())
+                // A partição é garantida antes; o evento e os seus atributos indexados são
+                // gravados nela na mesma transação.
+                .flatMap(event -> repository.partitionFor(event)
+                        .flatMap(partition -> repository.insert(partition, event)
+                                .then(repository.insertAttributes(partition, event.getId(), attributeExtractor.extract(event.getMetadata())))
+                                .as(transactionalOperator::transactional))
+                        .thenReturn(event))
+                .doOnNext(event -> {
+                    log.info("Novo evento de auditoria salvo: {}", event.getId());
+                    statsRecorder.record(event);
+                    // O envio acontece depois do INSERT, para nunca transmitir eventos não gravados.
+                    broadcaster.publish(event);
+                })
+                .map(event -> IngestionTicket.builder()
+                        .ticketId(UUID.randomUUID().toString())
+                        .status(IngestionTicket.Status.PERSISTED)
+                        .eventId(event.getId())
+                        .acceptedAt(acceptedAt)
+                        .build());
+    }
+
+    /**
+     * Lista uma página de eventos, do mais recente para o mais antigo (paginação por cursor).
+     *
+     * @param filter Filtros opcionais da consulta.
+     * @param cursor Cursor devolvido pela página anterior, ou null para a primeira página.
+     * @param size Tamanho da página desejado (limitado a 'audit.query.max-page-size').
+     * @return A página de eventos e o cursor da próxima página.
+     */
+    public Mono<AuditEventPage> listEvents(AuditEventFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        return scopeToCurrentUser(filter)
+                .flatMap(scopedFilter -> {
+                    EventCursor position = decode(cursor);
+                    // Busca um evento a mais para saber se existe uma próxima página.
+                    return repository.findPage(scopedFilter,
+                                    position == null ? null : position.getTimestamp(),
+                                    position == null ? null : position.getId(),
+                                    pageSize + 1)
+                            .collectList();
+                })
+                .map(events -> {
+                    String nextCursor = null;
+                    if (events.size() > pageSize) {
+                        events = events.subList(0, pageSize);
+                        AuditEventDto last = events.get(pageSize - 1);
+                        nextCursor = new EventCursor(last.getTimestamp(), last.getId()).encode();
+                    }
+                    return AuditEventPage.builder().items(events).nextCursor(nextCursor).build();
+                })
+                .defaultIfEmpty(AuditEventPage.builder().items(List.of()).build());
+    }
+
+    /**
+     * Lista todos os eventos do filtro (a partir do cursor, se houver), do mais recente para o
+     * mais antigo, sem limite de página. As linhas são lidas do banco em blocos de
+     * 'audit.reactive.list.fetch-size' conforme o cliente consome a resposta: um cliente lento
+     * apenas atrasa a leitura, sem acumular o resultado em memória.
+     *
+     * @param filter Filtros opcionais da consulta.
+     * @param cursor Cursor de onde começar, ou null para começar do mais recente.
+     * @return Os eventos, emitidos sob demanda.
+     */
+    public Flux<AuditEventDto> streamEvents(AuditEventFilter filter, String cursor) {
+        return scopeToCurrentUser(filter)
+                .flatMapMany(scopedFilter -> {
+                    EventCursor position = decode(cursor);
+                    return repository.findPage(scopedFilter,
+                            position == null ? null : position.getTimestamp(),
+                            position == null ? null : position.getId(),
+                            null);
+                })
+                .limitRate(fetchSize);
+    }
+
+    /**
+     * Abre o fluxo SSE de eventos em tempo real do usuário autenticado.
+     *
+     * @param filter Filtros opcionais (sistema, ação e e-mail; o intervalo de tempo e os atributos são ignorados).
+     * @return Os eventos aceitos pelo filtro; erro de acesso se um ANALYST pedir outro e-mail.
+     */
+    public Flux<ServerSentEvent<String>> subscribe(AuditEventFilter filter) {
+        return currentUser()
+                .zipWhen(user -> scopeToCurrentUser(filter)
+                        .switchIfEmpty(Mono.error(new AccessDeniedException("ANALYSTs só podem assinar os próprios eventos."))))
+                .flatMapMany(userAndFilter -> broadcaster.subscribe(userAndFilter.getT1().getEmail(), userAndFilter.getT2()));
+    }
+
+    /**
+     * Aplica as regras de visibilidade do usuário autenticado a um filtro de consulta.
+     *
+     * @param filter Os filtros pedidos pelo cliente (pode ser null).
+     * @return O filtro restrito, ou vazio se um ANALYST pediu eventos de outro e-mail;
+     *         erro se o filtro usar um atributo que não está indexado.
+     */
+    public Mono<AuditEventFilter> scopeToCurrentUser(AuditEventFilter filter) {
+        return currentUser().flatMap(currentUser -> {
+            AuditEventFilter scopedFilter = filter == null ? new AuditEventFilter() : filter.toBuilder().build();
+            for (AuditEventAttribute attribute : scopedFilter.attributeFilters()) {
+                if (!attributeExtractor.isIndexed(attribute.getKey())) {
+                    return Mono.error(new InvalidQueryException("Atributo não indexado: " + attribute.getKey()
+                            + ". Configure-o em 'audit.metadata.indexed-attributes'."));
+                }
+            }
+            if (currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+                return Mono.just(scopedFilter);
+            }
+            // ANALYST: nunca vê eventos de outro e-mail.
+            if (scopedFilter.getUserEmail() != null && !scopedFilter.getUserEmail().equals(currentUser.getEmail())) {
+                return Mono.empty();
+            }
+            scopedFilter.setUserEmail(currentUser.getEmail());
+            return Mono.just(scopedFilter);
+        });
+    }
+
+    private Mono<User> currentUser() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> (User) context.getAuthentication().getPrincipal());
+    }
+
+    private static EventCursor decode(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : EventCursor.decode(cursor);
+    }
+}
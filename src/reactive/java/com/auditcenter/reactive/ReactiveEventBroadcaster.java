@@ -0,0 +1,106 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.service.SlowConsumerPolicy;
+import com.auditcenter.service.SubscriptionIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Distribui os eventos publicados aos fluxos SSE reativos (GET /events/stream).
+ *
+ * Cada evento é serializado uma única vez e entregue apenas às assinaturas cujo filtro o aceita,
+ * encontradas pelo mesmo {@link SubscriptionIndex} da aplicação principal.
+ *
+ * Não há threads de escrita: cada assinante tem um buffer limitado
+ * ('audit.stream.subscriber-buffer-size') entre o publicador e a conexão, e o servidor só pede
+ * ao buffer novos eventos quando o socket aceita mais dados. Um cliente lento enche apenas o
+ * próprio buffer, e a 'audit.stream.slow-consumer-policy' decide o que acontece:
+ * - DROP_OLDEST: descarta os eventos mais antigos do buffer e mantém a conexão.
+ * - DISCONNECT: encerra o fluxo do cliente.
+ *
+ * Diferente do SseBroadcaster, não há retomada com Last-Event-ID.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveEventBroadcaster {
+
+    private static final String EVENT_NAME = "audit-event";
+
+    private final ObjectMapper objectMapper;
+
+    private final SubscriptionIndex<Sinks.Many<ServerSentEvent<String>>> subscriptions = new SubscriptionIndex<>();
+
+    @Value("${audit.stream.subscriber-buffer-size:256}")
+    private int subscriberBufferSize;
+
+    @Value("${audit.stream.slow-consumer-policy:DROP_OLDEST}")
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    /**
+     * Abre o fluxo de eventos de uma assinatura.
+     *
+     * @param subscriber Identificação do cliente (e-mail do usuário), para os logs.
+     * @param filter O filtro da assinatura, já restrito ao usuário.
+     * @return Os eventos aceitos pelo filtro, a partir do momento da assinatura.
+     */
+    public Flux<ServerSentEvent<String>> subscribe(String subscriber, AuditEventFilter filter) {
+        return Flux.defer(() -> {
+            // Sem buffer próprio: o buffer limitado logo abaixo sempre tem demanda, e é ele que
+            // absorve a diferença de ritmo entre o publicador e o socket do cliente.
+            Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().multicast().directBestEffort();
+            BufferOverflowStrategy overflowStrategy = slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT
+                    ? BufferOverflowStrategy.ERROR
+                    : BufferOverflowStrategy.DROP_OLDEST;
+            // O Flux.defer roda no momento da assinatura, logo antes de o sink ganhar o seu assinante.
+            AuditEventFilter normalized = subscriptions.add(sink, filter);
+            log.info("Cliente SSE reativo {} conectado.", subscriber);
+            return sink.asFlux()
+                    .onBackpressureBuffer(subscriberBufferSize,
+                            dropped -> log.debug("Evento {} descartado para o cliente SSE lento {}.", dropped.id(), subscriber),
+                            overflowStrategy)
+                    .onErrorResume(Exceptions::isOverflow, e -> {
+                        log.warn("Cliente SSE reativo {} desconectado por não acompanhar o ritmo dos eventos.", subscriber);
+                        return Flux.empty();
+                    })
+                    .doFinally(signal -> {
+                        subscriptions.remove(sink, normalized);
+                        log.info("Cliente SSE reativo {} desconectado ({}).", subscriber, signal);
+                    });
+        });
+    }
+
+    /**
+     * Envia um evento às assinaturas que o aceitam.
+     */
+    public void publish(AuditEventDto event) {
+        ServerSentEvent<String> frame;
+        try {
+            frame = ServerSentEvent.builder(objectMapper.writeValueAsString(event))
+                    .id(String.valueOf(event.getId()))
+                    .event(EVENT_NAME)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Falha ao serializar o evento {} para o streaming reativo.", event.getId(), e);
+            return;
+        }
+        // Um sink não aceita emissões concorrentes. Dentro do bloco sincronizado o trabalho é só
+        // colocar o evento já serializado no buffer de cada destinatário.
+        synchronized (subscriptions) {
+            subscriptions.forEachMatch(event, sink -> sink.tryEmitNext(frame));
+        }
+    }
+}
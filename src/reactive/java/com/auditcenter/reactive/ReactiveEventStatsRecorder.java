@@ -0,0 +1,95 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.service.EventStatsAccumulator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Conta os eventos gravados pela variante reativa na mesma tabela audit_event_stats da aplicação
+ * principal (que serve /events/stats), com os mesmos contadores em memória e a mesma soma
+ * periódica ('audit.stats.flush-interval-ms').
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveEventStatsRecorder {
+
+    private static final String MERGE_COUNT = "MERGE INTO audit_event_stats t USING (VALUES ("
+            + "CAST(:bucketStart AS TIMESTAMP(6)), CAST(:systemName AS VARCHAR(255)), CAST(:action AS VARCHAR(255)), "
+            + "CAST(:eventCount AS BIGINT))) s (bucket_start, system_name, action, event_count) "
+            + "ON t.bucket_start = s.bucket_start AND t.system_name = s.system_name AND t.action = s.action "
+            + "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.event_count "
+            + "WHEN NOT MATCHED THEN INSERT (bucket_start, system_name, action, event_count) "
+            + "VALUES (s.bucket_start, s.system_name, s.action, s.event_count)";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    private final EventStatsAccumulator accumulator = new EventStatsAccumulator();
+
+    @Value("${audit.stats.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    private Disposable schedule;
+
+    @PostConstruct
+    void start() {
+        schedule = Flux.interval(Duration.ofMillis(flushIntervalMs))
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        schedule.dispose();
+        flush().block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Conta um evento já gravado.
+     */
+    public void record(AuditEventDto event) {
+        accumulator.record(event.getSystemName(), event.getAction(), event.getTimestamp());
+    }
+
+    /**
+     * Soma na tabela as contagens acumuladas; se a gravação falhar, elas voltam para a memória.
+     */
+    private Mono<Void> flush() {
+        return Mono.defer(() -> {
+            Map<EventStatsAccumulator.BucketKey, Long> counts = accumulator.drain(LocalDateTime.now());
+            return Flux.fromIterable(counts.entrySet())
+                    .concatMap(entry -> databaseClient.sql(MERGE_COUNT)
+                            .bind("bucketStart", entry.getKey().getBucketStart())
+                            .bind("systemName", entry.getKey().getSystemName())
+                            .bind("action", entry.getKey().getAction())
+                            .bind("eventCount", entry.getValue())
+                            .then())
+                    // Tudo ou nada: contagens devolvidas à memória não podem ter sido somadas em parte.
+                    .as(transactionalOperator::transactional)
+                    .then()
+                    .onErrorResume(e -> {
+                        accumulator.restore(counts);
+                        log.warn("Falha ao consolidar {} contagens de eventos; nova tentativa na próxima execução.", counts.size(), e);
+                        return Mono.empty();
+                    });
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.entity.User;
+import com.auditcenter.security.JwtTokenProvider;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Equivalente reativo do {@link com.auditcenter.security.JwtAuthenticationFilter}, com as
+ * mesmas regras:
+ * 1. Extrair o token JWT do cabeçalho "Authorization".
+ * 2. Validar o token (assinatura e vencimento) com o mesmo {@link JwtTokenProvider}.
+ * 3. Conferir se a versão do token ainda é a vigente para o usuário (revogação).
+ * 4. Se válido, montar o usuário a partir das claims e publicá-lo no contexto reativo.
+ *
+ * O usuário autenticado não fica em uma ThreadLocal: ele segue a requisição pelo contexto do
+ * Reactor ({@link ReactiveSecurityContextHolder}), qualquer que seja a thread que a processe.
+ *
+ * Não é um bean: o WebFlux aplicaria todo WebFilter registrado a todas as requisições, fora
+ * da cadeia de segurança. Ele é criado pelo {@link ReactiveSecurityConfig}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ReactiveTokenVersionCache tokenVersionCache;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        // Um token inválido apenas deixa a requisição sem autenticação; o Spring Security nega o acesso.
+        User user;
+        try {
+            user = jwtTokenProvider.toUser(jwtTokenProvider.parseToken(authHeader.substring(7)));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token JWT rejeitado: {}", e.getMessage());
+            return chain.filter(exchange);
+        }
+
+        // Tokens de versões anteriores foram revogados (e usuários removidos não têm versão).
+        return tokenVersionCache.currentVersion(user.getId())
+                .filter(currentVersion -> currentVersion.equals(user.getTokenVersion()))
+                .map(currentVersion -> true)
+                .defaultIfEmpty(false)
+                .flatMap(valid -> {
+                    if (!valid) {
+                        return chain.filter(exchange);
+                    }
+                    Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    return chain.filter(exchange)
+                            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.security.JwtTokenProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Configuração do Spring Security para a variante reativa, equivalente à do
+ * {@link com.auditcenter.config.SecurityConfig}: sem CSRF, sem sessão e com o filtro JWT
+ * no lugar da autenticação padrão.
+ *
+ * - @EnableWebFluxSecurity: cadeia de filtros de segurança do WebFlux.
+ * - @EnableReactiveMethodSecurity: @PreAuthorize em métodos que devolvem Mono/Flux.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ReactiveTokenVersionCache tokenVersionCache;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                // Não é necessário para APIs REST stateless que usam tokens.
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                // Stateless: o contexto de segurança nunca é guardado entre requisições.
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges.anyExchange().authenticated())
+                // Sem login por formulário ou Basic, uma requisição sem token válido recebe 403, como na aplicação principal.
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .addFilterAt(new ReactiveJwtAuthenticationFilter(jwtTokenProvider, tokenVersionCache), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.auditcenter.reactive;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Versão reativa do {@link com.auditcenter.security.TokenVersionCache}: mesma política
+ * ('jwt.version-cache.*'), mas a consulta é feita por R2DBC e o cache guarda a leitura em
+ * andamento, então requisições simultâneas do mesmo usuário disparam uma única consulta.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveTokenVersionCache {
+
+    private final ReactiveAuditEventRepository repository;
+
+    @Value("${jwt.version-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${jwt.version-cache.max-size:10000}")
+    private long maxSize;
+
+    private AsyncCache<Long, Integer> versions;
+
+    @PostConstruct
+    public void init() {
+        this.versions = ttlSeconds > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                        .buildAsync()
+                : null;
+    }
+
+    /**
+     * Retorna a versão vigente dos tokens do usuário, ou vazio se o usuário não existir mais.
+     */
+    public Mono<Integer> currentVersion(Long userId) {
+        if (versions == null) {
+            return repository.findTokenVersionByUserId(userId);
+        }
+        // Uma consulta vazia completa o futuro com null, e o Caffeine não guarda a entrada.
+        return Mono.fromFuture(versions.get(userId, (id, executor) -> repository.findTokenVersionByUserId(id).toFuture()));
+    }
+}
@@ -0,0 +1,201 @@
+package com.auditcenter.reactive;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.auditcenter.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o controller reativo de eventos (ReactiveAuditEventController), com a
+ * cadeia de segurança da variante reativa (JWT e revogação) e o banco simulado.
+ */
+@WebFluxTest(controllers = ReactiveAuditEventController.class, properties = {
+        // Sem cache de versões: cada requisição confere a versão vigente no "banco".
+        "jwt.version-cache.ttl-seconds=0",
+        "audit.reactive.list.fetch-size=4"
+})
+@ContextConfiguration(classes = ReactiveAuditCenterApplication.class)
+@Import({ReactiveSecurityConfig.class, ReactiveTokenVersionCache.class, ReactiveAuditEventService.class})
+class ReactiveAuditEventControllerTest {
+
+    private static final String ANALYST_EMAIL = "analyst@test.com";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private ReactiveAuditEventRepository repository;
+
+    @MockBean
+    private ReactiveEventBroadcaster broadcaster;
+
+    @MockBean
+    private AuditEventIdAllocator idAllocator;
+
+    @MockBean
+    private ReactiveEventStatsRecorder statsRecorder;
+
+    @MockBean
+    private TransactionalOperator transactionalOperator;
+
+    @Test
+    void testListEvents_WithoutValidToken_ShouldReturnForbidden() {
+        // Act & Assert
+        webTestClient.get().uri("/events").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/events").header(HttpHeaders.AUTHORIZATION, "Bearer nao.e.um-token")
+                .exchange().expectStatus().isForbidden();
+        verify(repository, never()).findPage(any(), any(), any(), any());
+    }
+
+    @Test
+    void testListEvents_WithRevokedTokenVersion_ShouldRejectOldTokenAndAcceptNewOne() {
+        // Arrange: a versão vigente já foi incrementada pela revogação na aplicação principal.
+        when(repository.findTokenVersionByUserId(7L)).thenReturn(Mono.just(1));
+        when(repository.findPage(any(), any(), any(), any())).thenReturn(Flux.empty());
+
+        // Act & Assert
+        get("/events", token(7L, ANALYST_EMAIL, Role.ANALYST, 0)).expectStatus().isForbidden();
+        get("/events", token(7L, ANALYST_EMAIL, Role.ANALYST, 1)).expectStatus().isOk();
+    }
+
+    @Test
+    void testListEvents_WithDeletedUser_ShouldReturnForbidden() {
+        // Arrange: usuário removido, sem versão vigente.
+        when(repository.findTokenVersionByUserId(7L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        get("/events", token(7L, ANALYST_EMAIL, Role.ANALYST, 0)).expectStatus().isForbidden();
+        verify(repository, never()).findPage(any(), any(), any(), any());
+    }
+
+    @Test
+    void testListEvents_AsAnalyst_ShouldScopeQueryToOwnEmail() {
+        // Arrange
+        String token = analystToken();
+        when(repository.findPage(any(), any(), any(), any())).thenReturn(Flux.just(event(1L)));
+
+        // Act & Assert: sem filtro de e-mail, a consulta é restrita ao próprio e-mail.
+        get("/events", token).expectStatus().isOk().expectBody().jsonPath("$.items[0].id").isEqualTo(1);
+        ArgumentCaptor<AuditEventFilter> filter = ArgumentCaptor.forClass(AuditEventFilter.class);
+        verify(repository).findPage(filter.capture(), any(), any(), eq(51));
+        assertEquals(ANALYST_EMAIL, filter.getValue().getUserEmail());
+
+        // Act & Assert: pedindo outro e-mail, a página vem vazia e o banco não é consultado de novo.
+        get("/events?userEmail=other@test.com", token).expectStatus().isOk()
+                .expectBody().jsonPath("$.items").isEmpty();
+        verify(repository).findPage(any(), any(), any(), any());
+    }
+
+    @Test
+    void testStreamEvents_AsAnalyst_ShouldSubscribeOnlyToOwnEmail() {
+        // Arrange
+        String token = analystToken();
+        when(broadcaster.subscribe(eq(ANALYST_EMAIL), any()))
+                .thenReturn(Flux.just(ServerSentEvent.builder("{\"id\":1}").id("1").event("audit-event").build()));
+
+        // Act & Assert
+        String body = webTestClient.get().uri("/events/stream?systemName=billing")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertTrue(body.contains("id:1"), body);
+        ArgumentCaptor<AuditEventFilter> filter = ArgumentCaptor.forClass(AuditEventFilter.class);
+        verify(broadcaster).subscribe(eq(ANALYST_EMAIL), filter.capture());
+        assertEquals(ANALYST_EMAIL, filter.getValue().getUserEmail());
+        assertEquals("billing", filter.getValue().getSystemName());
+    }
+
+    @Test
+    void testStreamEvents_AsAnalystAskingOtherEmail_ShouldReturnForbidden() {
+        // Act & Assert
+        webTestClient.get().uri("/events/stream?userEmail=other@test.com")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + analystToken())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isForbidden();
+        verify(broadcaster, never()).subscribe(any(), any());
+    }
+
+    @Test
+    void testStreamEventList_Ndjson_ShouldReadRowsOnDemand() {
+        // Arrange: registra cada pedido de linhas feito ao "banco".
+        when(repository.findTokenVersionByUserId(1L)).thenReturn(Mono.just(0));
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        when(repository.findPage(any(), any(), any(), any())).thenReturn(Flux.range(1, 10)
+                .map(id -> event((long) id))
+                .doOnRequest(requests::add));
+
+        // Act
+        List<AuditEventDto> events = webTestClient.get().uri("/events")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(1L, "admin@test.com", Role.ADMIN, 0))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(AuditEventDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Assert: todas as linhas chegam, lidas em blocos de 'fetch-size' e nunca com demanda ilimitada.
+        assertEquals(10, events.size());
+        assertEquals(1L, events.get(0).getId());
+        assertFalse(requests.isEmpty());
+        assertEquals(4L, requests.get(0));
+        assertTrue(requests.stream().allMatch(n -> n <= 4), requests.toString());
+    }
+
+    private WebTestClient.ResponseSpec get(String uri, String token) {
+        return webTestClient.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange();
+    }
+
+    private String analystToken() {
+        when(repository.findTokenVersionByUserId(7L)).thenReturn(Mono.just(0));
+        return token(7L, ANALYST_EMAIL, Role.ANALYST, 0);
+    }
+
+    private String token(Long id, String email, Role role, int tokenVersion) {
+        return jwtTokenProvider.generateToken(User.builder().id(id).email(email).role(role).tokenVersion(tokenVersion).build());
+    }
+
+    private static AuditEventDto event(Long id) {
+        return AuditEventDto.builder().id(id).systemName("billing").userEmail(ANALYST_EMAIL).action("USER_LOGIN")
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 0)).metadata("{}").build();
+    }
+}
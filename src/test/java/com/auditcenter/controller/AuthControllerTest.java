@@ -0,0 +1,115 @@
+package com.auditcenter.controller;
+
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.auditcenter.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para as regras de acesso da revogação de tokens (AuthController), com a
+ * segurança em nível de método (@PreAuthorize) habilitada.
+ */
+@SpringJUnitConfig(AuthControllerTest.Config.class)
+class AuthControllerTest {
+
+    @Configuration
+    @EnableMethodSecurity
+    static class Config {
+
+        @Bean
+        AuthService authService() {
+            return Mockito.mock(AuthService.class);
+        }
+
+        @Bean
+        AuthController authController(AuthService authService) {
+            return new AuthController(authService);
+        }
+    }
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(authService);
+        when(authService.revokeTokens(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRevokeTokens_ByAnalystForOtherUser_ShouldDenyAccess() {
+        // Arrange
+        authenticateAs(7L, Role.ANALYST);
+
+        // Act & Assert: 403 (AccessDeniedException), sem tocar nos tokens do outro usuário.
+        assertThrows(AccessDeniedException.class, () -> authController.revokeTokens(8L));
+        verify(authService, never()).revokeTokens(anyLong());
+    }
+
+    @Test
+    void testRevokeTokens_ByAnalystForSelf_ShouldRevoke() {
+        // Arrange
+        authenticateAs(7L, Role.ANALYST);
+
+        // Act & Assert
+        assertEquals(HttpStatus.NO_CONTENT, authController.revokeTokens(7L).getStatusCode());
+        verify(authService).revokeTokens(7L);
+    }
+
+    @Test
+    void testRevokeTokens_ByAdminForOtherUser_ShouldRevoke() {
+        // Arrange
+        authenticateAs(1L, Role.ADMIN);
+
+        // Act & Assert
+        assertEquals(HttpStatus.NO_CONTENT, authController.revokeTokens(8L).getStatusCode());
+        verify(authService).revokeTokens(8L);
+    }
+
+    @Test
+    void testRevokeTokens_ByAdminForUnknownUser_ShouldReturnNotFound() {
+        // Arrange
+        authenticateAs(1L, Role.ADMIN);
+        when(authService.revokeTokens(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertEquals(HttpStatus.NOT_FOUND, authController.revokeTokens(99L).getStatusCode());
+    }
+
+    /**
+     * Autentica a thread com um usuário montado como o filtro JWT faz (a partir das claims).
+     */
+    private static void authenticateAs(Long id, Role role) {
+        User user = User.builder().id(id).email(role.name().toLowerCase() + "@test.com").role(role).tokenVersion(0).build();
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+    }
+}
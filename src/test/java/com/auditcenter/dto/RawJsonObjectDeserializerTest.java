@@ -0,0 +1,95 @@
+package com.auditcenter.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes unitários para a leitura dos metadados como texto JSON (RawJsonObjectDeserializer),
+ * pelo campo 'metadata' de WebhookEventRequest.
+ */
+class RawJsonObjectDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testDeserialize_WithNestedObjectsAndArrays_ShouldCopyCompactText() throws Exception {
+        // Act: os espaços entre os tokens são descartados; o campo seguinte continua sendo lido.
+        WebhookEventRequest request = read("""
+                { "cliente" : { "id" : 7, "tags" : [ "a", { "b" : null } , [ ] ] },
+                  "ativo" : true, "vazio" : { } }""");
+
+        // Assert
+        assertEquals("{\"cliente\":{\"id\":7,\"tags\":[\"a\",{\"b\":null},[]]},\"ativo\":true,\"vazio\":{}}",
+                request.getMetadata());
+        assertEquals("LOGIN", request.getAction());
+    }
+
+    @Test
+    void testDeserialize_WithDecimalsAndBigIntegers_ShouldKeepOriginalNumberText() throws Exception {
+        // Act
+        WebhookEventRequest request = read("""
+                {"totalPrice": 150.00, "grande": 123456789012345678901234567890, "negativo": -0.10, "exp": 1.5E+3}""");
+
+        // Assert: nenhum número passa por double ou long.
+        assertEquals("{\"totalPrice\":150.00,\"grande\":123456789012345678901234567890,\"negativo\":-0.10,\"exp\":1.5E+3}",
+                request.getMetadata());
+    }
+
+    @Test
+    void testDeserialize_WithEscapedStrings_ShouldKeepValidEscapedJson() throws Exception {
+        // Act: aspas, barra invertida, quebra de linha, Unicode escapado e um nome de campo com aspas.
+        WebhookEventRequest request = read("""
+                {"texto": "aspas \\" barra \\\\ linha\\nfim \\u00e9", "a\\"b": "\\t"}""");
+
+        // Assert: os escapes obrigatórios são mantidos e o resto vira o próprio caractere.
+        assertEquals("{\"texto\":\"aspas \\\" barra \\\\ linha\\nfim é\",\"a\\\"b\":\"\\t\"}", request.getMetadata());
+        assertEquals("aspas \" barra \\ linha\nfim é", objectMapper.readTree(request.getMetadata()).get("texto").asText());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"texto\"", "42", "1.5", "true", "[1, 2]", "[]"})
+    void testDeserialize_WithNonObjectMetadata_ShouldReject(String metadata) {
+        // Act & Assert: mesmo comportamento de um campo declarado como Map.
+        assertThrows(MismatchedInputException.class, () -> read(metadata));
+    }
+
+    @Test
+    void testDeserialize_WithMalformedObject_ShouldReject() {
+        // Act & Assert: a sintaxe é validada durante a cópia.
+        assertThrows(JsonProcessingException.class, () -> read("{\"a\": 1,, \"b\": 2}"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"a\": [1, 2}"));
+    }
+
+    @Test
+    void testDeserialize_WithNullMetadata_ShouldLeaveFieldNull() throws Exception {
+        // Act & Assert: quem recusa o null é a validação (@NotNull).
+        assertNull(read("null").getMetadata());
+    }
+
+    @Test
+    void testSerialize_ShouldWriteMetadataBackAsObject() throws Exception {
+        // Arrange
+        WebhookEventRequest request = read("{\"totalPrice\": 150.00, \"itens\": [{\"id\": 1}]}");
+
+        // Act
+        String json = objectMapper.writeValueAsString(request);
+
+        // Assert: @JsonRawValue escreve o texto como objeto, e a releitura devolve o mesmo texto.
+        assertEquals("{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\",\"action\":\"LOGIN\","
+                + "\"metadata\":{\"totalPrice\":150.00,\"itens\":[{\"id\":1}]}}", json);
+        assertEquals(request, objectMapper.readValue(json, WebhookEventRequest.class));
+    }
+
+    private WebhookEventRequest read(String metadata) throws Exception {
+        return objectMapper.readValue("{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\",\"metadata\":"
+                + metadata + ",\"action\":\"LOGIN\"}", WebhookEventRequest.class);
+    }
+}
@@ -0,0 +1,197 @@
+package com.auditcenter.repository;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.entity.AuditEventAttribute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do repositório particionado de eventos (AuditEventRepositoryImpl, AuditPartitionRouter e
+ * AuditPartitionCatalog) sobre um banco H2 com as migrações do Flyway.
+ *
+ * Os sistemas "Vendas" (retenção indefinida) e "Curto" (30 dias) formam duas classes de retenção,
+ * então cada mês tem duas partições. Os testes não abrem transação própria: o repositório e o
+ * catálogo fazem commit como na aplicação.
+ */
+@DataJpaTest(properties = {
+        "audit.partition.period=MONTH",
+        "audit.retention.system-days=Curto:30",
+        "audit.archive.directory=${java.io.tmpdir}/auditcenter-test/archive"
+})
+@Import({AuditPartitionCatalog.class, AuditPartitionScheme.class, AuditRetentionPolicy.class, AuditArchive.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditEventRepositoryImplTest {
+
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private AuditPartitionCatalog partitionCatalog;
+
+    @Autowired
+    private AuditPartitionScheme partitionScheme;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        // Os eventos dos testes são de 2024; as partições do período atual continuam.
+        partitionCatalog.partitions().stream()
+                .filter(partition -> partition.getPeriodStart().getYear() == 2024)
+                .forEach(partitionCatalog::drop);
+    }
+
+    @Test
+    void testBatchInsert_ShouldWriteEachEventToPartitionOfItsPeriodAndRetention() {
+        // Arrange
+        AuditEvent sale = event("Vendas", LocalDateTime.of(2024, 1, 15, 10, 0));
+        sale.getAttributes().add(new AuditEventAttribute("pedido", "42"));
+        AuditEvent lastMicro = event("Curto", LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_000));
+        AuditEvent nextMonth = event("Vendas", LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        // Act
+        auditEventRepository.batchInsert(List.of(sale, lastMicro, nextMonth));
+
+        // Assert: um evento em cada partição (período e classe de retenção), nenhum na tabela modelo.
+        assertEquals(List.of(sale.getId()), idsIn(partitionFor(sale)));
+        assertEquals(List.of(lastMicro.getId()), idsIn(partitionFor(lastMicro)));
+        assertEquals(List.of(nextMonth.getId()), idsIn(partitionFor(nextMonth)));
+        assertEquals("202401_r30", partitionFor(lastMicro).getName());
+        assertEquals(0, count("audit_events"));
+        // Os atributos vão para a tabela de atributos da mesma partição.
+        assertEquals(List.of(sale.getId()), jdbcTemplate.queryForList(
+                "SELECT event_id FROM " + partitionFor(sale).getAttributesTable() + " WHERE attr_key = 'pedido'", Long.class));
+        assertEquals(0, count("audit_event_attributes"));
+    }
+
+    @Test
+    void testFindPage_ShouldWalkPeriodsAndRetentionClassesInKeysetOrder() {
+        // Arrange: dois meses, duas classes de retenção e um empate de instante entre as classes.
+        LocalDateTime tie = LocalDateTime.of(2024, 1, 12, 9, 0);
+        List<AuditEvent> events = auditEventRepository.batchInsert(List.of(
+                event("Curto", LocalDateTime.of(2024, 2, 3, 8, 0)),
+                event("Vendas", LocalDateTime.of(2024, 1, 10, 10, 0)),
+                event("Curto", tie),
+                event("Vendas", LocalDateTime.of(2024, 2, 5, 12, 0)),
+                event("Vendas", tie),
+                event("Curto", LocalDateTime.of(2024, 1, 31, 23, 0))));
+        AuditEventFilter filter = AuditEventFilter.builder().userEmail("user@test.com").build();
+
+        // Act: páginas de 2, cada uma a partir do último evento da anterior.
+        List<Long> ids = new ArrayList<>();
+        List<AuditEvent> page;
+        LocalDateTime beforeTimestamp = null;
+        Long beforeId = null;
+        do {
+            page = auditEventRepository.findPage(filter, beforeTimestamp, beforeId, 2);
+            page.forEach(event -> ids.add(event.getId()));
+            if (!page.isEmpty()) {
+                beforeTimestamp = page.get(page.size() - 1).getTimestamp();
+                beforeId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        // Assert: todos os eventos, uma única vez, do mais recente para o mais antigo (empates pelo id).
+        assertEquals(sortedIds(events, Comparator.comparing(AuditEvent::getTimestamp)
+                .thenComparing(AuditEvent::getId).reversed()), ids);
+    }
+
+    @Test
+    void testStreamAll_ShouldMergePartitionsInChronologicalOrder() {
+        // Arrange
+        List<AuditEvent> events = auditEventRepository.batchInsert(List.of(
+                event("Vendas", LocalDateTime.of(2024, 3, 20, 8, 0)),
+                event("Curto", LocalDateTime.of(2024, 3, 2, 8, 0)),
+                event("Vendas", LocalDateTime.of(2024, 2, 28, 23, 59)),
+                event("Curto", LocalDateTime.of(2024, 3, 20, 8, 0)),
+                event("Vendas", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                event("Curto", LocalDateTime.of(2024, 2, 1, 0, 0))));
+
+        // Act: a exportação lê dentro de uma transação somente leitura, como o AuditEventExportService.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Long> ids = readOnly.execute(status -> {
+            try (Stream<AuditEvent> stream = auditEventRepository.streamAll(new AuditEventFilter(), 2)) {
+                return stream.map(AuditEvent::getId).toList();
+            }
+        });
+
+        // Assert
+        assertEquals(sortedIds(events, Comparator.comparing(AuditEvent::getTimestamp).thenComparing(AuditEvent::getId)), ids);
+    }
+
+    @Test
+    void testInit_WithLegacyRows_ShouldMoveThemToPartitionsOnce() {
+        // Arrange: eventos gravados em audit_events antes do particionamento.
+        jdbcTemplate.update("INSERT INTO audit_events (id, timestamp, action, system_name, user_email, metadata) VALUES "
+                + "(900001, TIMESTAMP '2024-05-05 10:00:00', 'LOGIN', 'Vendas', 'user@test.com', '{\"pedido\":9}'), "
+                + "(900002, TIMESTAMP '2024-05-20 11:00:00', 'LOGIN', 'Curto', 'user@test.com', '{}'), "
+                + "(900003, TIMESTAMP '2024-06-01 00:00:00', 'LOGOUT', 'Vendas', 'user@test.com', '{}')");
+        jdbcTemplate.update("INSERT INTO audit_event_attributes (event_id, attr_key, attr_value) VALUES (900001, 'pedido', '9')");
+
+        // Act: a inicialização do catálogo move os eventos; uma segunda não encontra mais nada.
+        partitionCatalog.init();
+        partitionCatalog.init();
+
+        // Assert
+        assertEquals(0, count("audit_events"));
+        assertEquals(0, count("audit_event_attributes"));
+        assertEquals(List.of(900001L), idsIn(partitionScheme.partitionFor(LocalDateTime.of(2024, 5, 1, 0, 0), 0)));
+        assertEquals(List.of(900002L), idsIn(partitionScheme.partitionFor(LocalDateTime.of(2024, 5, 1, 0, 0), 30)));
+        assertEquals(List.of(900003L), idsIn(partitionScheme.partitionFor(LocalDateTime.of(2024, 6, 1, 0, 0), 0)));
+        assertEquals(1, count(partitionScheme.partitionFor(LocalDateTime.of(2024, 5, 1, 0, 0), 0).getAttributesTable()));
+        List<AuditEvent> moved = auditEventRepository.findByIds(Set.of(900001L, 900002L, 900003L),
+                LocalDateTime.of(2024, 5, 1, 0, 0), LocalDateTime.of(2024, 6, 1, 0, 0));
+        assertEquals(3, moved.size());
+        assertTrue(moved.stream().anyMatch(event -> "{\"pedido\":9}".equals(event.getMetadata())));
+    }
+
+    private AuditPartition partitionFor(AuditEvent event) {
+        return partitionScheme.partitionFor(event.getTimestamp(), "Curto".equals(event.getSystemName()) ? 30 : 0);
+    }
+
+    private List<Long> idsIn(AuditPartition partition) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + partition.getEventsTable() + " ORDER BY id", Long.class);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static List<Long> sortedIds(List<AuditEvent> events, Comparator<AuditEvent> order) {
+        return events.stream().sorted(order).map(AuditEvent::getId).toList();
+    }
+
+    private static AuditEvent event(String systemName, LocalDateTime timestamp) {
+        return AuditEvent.builder()
+                .systemName(systemName)
+                .userEmail("user@test.com")
+                .action("LOGIN")
+                .timestamp(timestamp)
+                .metadata("{}")
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.auditcenter.security;
+
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.auditcenter.repository.UserRepository;
+import com.auditcenter.service.AuditMetrics;
+import com.auditcenter.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para a autenticação por token e a revogação (JwtAuthenticationFilter e
+ * TokenVersionCache).
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "segredo-de-teste-com-pelo-menos-trinta-e-dois-bytes-0123456789";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenVersionCache tokenVersionCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxSize", 100L);
+        jwtTokenProvider.init();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditMetrics auditMetrics = new AuditMetrics(registry);
+        tokenVersionCache = new TokenVersionCache(userRepository, auditMetrics, registry);
+        ReflectionTestUtils.setField(tokenVersionCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(tokenVersionCache, "maxSize", 100L);
+        tokenVersionCache.init();
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, tokenVersionCache, auditMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilter_WithCurrentVersion_ShouldAuthenticateFromClaims() throws Exception {
+        // Arrange
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0));
+
+        // Act
+        Authentication authentication = authenticate(jwtTokenProvider.generateToken(newUser(0)));
+
+        // Assert: o usuário vem do token, sem carregar a entidade do banco.
+        assertNotNull(authentication);
+        User principal = (User) authentication.getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals("analyst@test.com", principal.getEmail());
+        assertEquals(Role.ANALYST, principal.getRole());
+    }
+
+    @Test
+    void testFilter_AfterRevoke_ShouldRejectOldVersionAndAcceptNewToken() throws Exception {
+        // Arrange: o token antigo é aceito (e a versão fica em cache) antes da revogação.
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(0));
+        String oldToken = jwtTokenProvider.generateToken(newUser(0));
+        assertNotNull(authenticate(oldToken));
+
+        // Act: a revogação incrementa a versão no banco e descarta a versão em cache.
+        when(userRepository.incrementTokenVersion(42L)).thenReturn(1);
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(1));
+        AuthService authService = new AuthService(userRepository, null, jwtTokenProvider, null, tokenVersionCache);
+        authService.revokeTokens(42L);
+
+        // Assert: o token antigo é recusado na hora; um token novo (novo login) é aceito.
+        assertNull(authenticate(oldToken));
+        assertNotNull(authenticate(jwtTokenProvider.generateToken(newUser(1))));
+    }
+
+    @Test
+    void testFilter_WithDeletedUser_ShouldReject() throws Exception {
+        // Arrange: o usuário foi removido, então não há versão vigente.
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(authenticate(jwtTokenProvider.generateToken(newUser(0))));
+    }
+
+    @Test
+    void testFilter_WithInvalidToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        // Act & Assert: o filtro não responde; quem nega o acesso é a cadeia de segurança.
+        assertNull(authenticate("nao.e.um-token"));
+    }
+
+    /**
+     * Passa uma requisição com o token pelo filtro e devolve a autenticação resultante.
+     */
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest(), "O filtro deve sempre continuar a cadeia.");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static User newUser(int tokenVersion) {
+        return User.builder().id(42L).email("analyst@test.com").role(Role.ANALYST).tokenVersion(tokenVersion).build();
+    }
+}
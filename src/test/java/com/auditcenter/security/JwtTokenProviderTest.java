@@ -0,0 +1,175 @@
+package com.auditcenter.security;
+
+import com.auditcenter.entity.Role;
+import com.auditcenter.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes unitários para a verificação de tokens, o seu cache e a leitura das claims (JwtTokenProvider).
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "segredo-de-teste-com-pelo-menos-trinta-e-dois-bytes-0123456789";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = newProvider(3_600_000L);
+        user = User.builder().id(42L).email("admin@test.com").role(Role.ADMIN).tokenVersion(3).build();
+    }
+
+    @Test
+    void testParseToken_ShouldReturnImmutableProjectionFromCache() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(user);
+
+        // Act
+        VerifiedToken first = jwtTokenProvider.parseToken(token);
+        VerifiedToken second = jwtTokenProvider.parseToken(token);
+
+        // Assert: a segunda chamada vem do cache, com as claims copiadas na verificação.
+        assertSame(first, second);
+        assertEquals(42L, first.getUserId());
+        assertEquals("admin@test.com", first.getEmail());
+        assertEquals("ADMIN", first.getRole());
+        assertEquals(3, first.getTokenVersion());
+        User parsed = jwtTokenProvider.toUser(first);
+        assertEquals(42L, parsed.getId());
+        assertEquals(Role.ADMIN, parsed.getRole());
+    }
+
+    @Test
+    void testParseToken_WithTamperedTokenWhileOriginalIsCached_ShouldReject() {
+        // Arrange: o token original já está no cache.
+        String token = jwtTokenProvider.generateToken(user);
+        jwtTokenProvider.parseToken(token);
+        String[] parts = token.split("\\.");
+        // Outra versão de tokens ('ver') com a assinatura original, e a assinatura alterada.
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String otherVersion = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("\"ver\":3", "\"ver\":4").getBytes(StandardCharsets.UTF_8));
+        String tamperedPayload = parts[0] + "." + otherVersion + "." + parts[2];
+        String tamperedSignature = parts[0] + "." + parts[1] + "." + flipFirstChar(parts[2]);
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(tamperedPayload));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(tamperedSignature));
+    }
+
+    @Test
+    void testParseToken_WhenCachedTokenExpires_ShouldRejectAndDropEntry() throws Exception {
+        // Arrange: token de 2 segundos ('exp' tem precisão de segundos), verificado e em cache.
+        JwtTokenProvider shortLived = newProvider(2_000L);
+        String token = shortLived.generateToken(user);
+        shortLived.parseToken(token);
+        Cache<String, VerifiedToken> cache = verifiedTokens(shortLived);
+        assertEquals(1, cache.estimatedSize());
+
+        // Act
+        Thread.sleep(2_100);
+
+        // Assert: o token é recusado e a entrada vence junto com ele.
+        assertThrows(ExpiredJwtException.class, () -> shortLived.parseToken(token));
+        cache.cleanUp();
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void testParseToken_WithExpiredEntryStillInCache_ShouldVerifyAgain() {
+        // Arrange: uma entrada vencida que o Caffeine ainda não removeu.
+        String token = jwtTokenProvider.generateToken(user);
+        VerifiedToken cached = jwtTokenProvider.parseToken(token);
+        VerifiedToken expired = new VerifiedToken(cached.getUserId(), cached.getEmail(), cached.getRole(),
+                cached.getTokenVersion(), System.currentTimeMillis() - 1_000);
+        Cache<String, VerifiedToken> cache = verifiedTokens(jwtTokenProvider);
+        String key = cache.asMap().keySet().iterator().next();
+        cache.asMap().put(key, expired);
+
+        // Act
+        VerifiedToken result = jwtTokenProvider.parseToken(token);
+
+        // Assert: o token é verificado de novo (aqui ainda é válido) em vez de usar a entrada vencida.
+        assertEquals(cached.getExpiresAtMillis(), result.getExpiresAtMillis());
+    }
+
+    @Test
+    void testToUser_WithMissingOrMalformedClaims_ShouldReject() {
+        // Tokens assinados corretamente, mas sem 'uid', com 'ver' de outro tipo ou com papel inexistente.
+        Map<String, Object> valid = Map.of(JwtTokenProvider.CLAIM_USER_ID, 42, JwtTokenProvider.CLAIM_ROLE, "ADMIN",
+                JwtTokenProvider.CLAIM_TOKEN_VERSION, 3);
+        List<Map<String, Object>> invalid = List.of(
+                without(valid, JwtTokenProvider.CLAIM_USER_ID),
+                without(valid, JwtTokenProvider.CLAIM_ROLE),
+                without(valid, JwtTokenProvider.CLAIM_TOKEN_VERSION),
+                with(valid, JwtTokenProvider.CLAIM_USER_ID, "quarenta-e-dois"),
+                with(valid, JwtTokenProvider.CLAIM_ROLE, 1),
+                with(valid, JwtTokenProvider.CLAIM_TOKEN_VERSION, "3"),
+                with(valid, JwtTokenProvider.CLAIM_ROLE, "ROOT"));
+
+        assertEquals(42L, jwtTokenProvider.toUser(jwtTokenProvider.parseToken(sign(valid))).getId());
+        for (Map<String, Object> claims : invalid) {
+            VerifiedToken token = jwtTokenProvider.parseToken(sign(claims));
+            assertThrows(IllegalArgumentException.class, () -> jwtTokenProvider.toUser(token), claims.toString());
+        }
+    }
+
+    private static String sign(Map<String, Object> claims) {
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject("admin@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static Map<String, Object> without(Map<String, Object> claims, String name) {
+        Map<String, Object> copy = new HashMap<>(claims);
+        copy.remove(name);
+        return copy;
+    }
+
+    private static Map<String, Object> with(Map<String, Object> claims, String name, Object value) {
+        Map<String, Object> copy = new HashMap<>(claims);
+        copy.put(name, value);
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, VerifiedToken> verifiedTokens(JwtTokenProvider provider) {
+        return (Cache<String, VerifiedToken>) ReflectionTestUtils.getField(provider, "verifiedTokens");
+    }
+
+    private static JwtTokenProvider newProvider(long expirationMs) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "cacheMaxSize", 100L);
+        provider.init();
+        return provider;
+    }
+
+    private static String flipFirstChar(String value) {
+        return (value.charAt(0) == 'A' ? 'B' : 'A') + value.substring(1);
+    }
+}
@@ -0,0 +1,156 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes para o arquivamento de partições (AuditArchiveService) e a leitura do arquivo frio
+ * (AuditArchive), sobre um banco H2 em memória com uma partição.
+ */
+class AuditArchiveServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 8, 1, 0, 0);
+    private static final int EVENTS = 100;
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditPartition partition;
+    private AuditPartitionCatalog partitionCatalog;
+    private AuditArchive archive;
+    private AuditArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE audit_events_202608_r0 (id BIGINT PRIMARY KEY, timestamp TIMESTAMP(6), "
+                + "action VARCHAR(255), system_name VARCHAR(255), user_email VARCHAR(255), metadata TEXT, event_hash VARCHAR(64))");
+        jdbcTemplate.execute("CREATE TABLE audit_event_attributes_202608_r0 (event_id BIGINT, attr_key VARCHAR(255), "
+                + "attr_value VARCHAR(255), PRIMARY KEY (event_id, attr_key, attr_value))");
+        // Dois eventos por instante, com os IDs fora da ordem do tempo dentro de cada par.
+        for (long id = 1; id <= EVENTS; id++) {
+            LocalDateTime timestamp = START.plusMinutes((id - 1) / 2).plusNanos(123_456_000L);
+            long storedId = id % 2 == 0 ? id - 1 : id + 1;
+            jdbcTemplate.update("INSERT INTO audit_events_202608_r0 VALUES (?, ?, ?, ?, ?, ?, ?)", storedId,
+                    Timestamp.valueOf(timestamp), "ACTION_" + id % 3, "system-" + id % 2, "user" + id % 5 + "@example.com",
+                    id % 10 == 0 ? null : "{\"orderId\":" + id + "}", id % 7 == 0 ? null : String.format("%064x", id));
+            jdbcTemplate.update("INSERT INTO audit_event_attributes_202608_r0 VALUES (?, 'orderId', ?)", storedId, String.valueOf(id));
+        }
+
+        partition = new AuditPartition("202608_r0", START, START.plusMonths(1), 0);
+        partitionCatalog = mock(AuditPartitionCatalog.class);
+        when(partitionCatalog.partitions()).thenReturn(List.of(partition));
+
+        archive = new AuditArchive(jdbcTemplate);
+        ReflectionTestUtils.setField(archive, "directory", directory);
+        // Blocos e segmentos pequenos, para que a leitura atravesse vários de cada.
+        ReflectionTestUtils.setField(archive, "blockEvents", 8);
+        ReflectionTestUtils.setField(archive, "segmentBytes", 400L);
+        ReflectionTestUtils.setField(archive, "blockCacheSize", 4L);
+        archive.init();
+        archiveService = new AuditArchiveService(partitionCatalog, archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testArchivePartitionsBefore_WhenPeriodIsRecent_ShouldKeepPartition() {
+        assertEquals(0, archiveService.archivePartitionsBefore(START.plusDays(20)));
+
+        verify(partitionCatalog, never()).markArchived(partition);
+        assertTrue(Files.notExists(directory.resolve(partition.getName())));
+    }
+
+    @Test
+    void testFindPage_WhenPartitionIsArchived_ShouldReturnSameEventsAsTable() throws Exception {
+        assertEquals(1, archiveService.archivePartitionsBefore(START.plusMonths(2)));
+        verify(partitionCatalog).markArchived(partition);
+        try (Stream<Path> segments = Files.list(directory.resolve(partition.getName()))) {
+            assertTrue(segments.count() > 1);
+        }
+
+        // Todas as páginas, seguindo o cursor, na mesma ordem (e com o mesmo conteúdo) da tabela.
+        List<AuditEvent> expected = jdbcTemplate.query("SELECT * FROM audit_events_202608_r0 ORDER BY timestamp DESC, id DESC",
+                (rs, rowNum) -> AuditEvent.builder().id(rs.getLong("id")).timestamp(rs.getObject("timestamp", LocalDateTime.class))
+                        .action(rs.getString("action")).systemName(rs.getString("system_name"))
+                        .userEmail(rs.getString("user_email")).metadata(rs.getString("metadata"))
+                        .eventHash(rs.getString("event_hash")).build());
+        List<AuditEvent> archived = new ArrayList<>();
+        List<AuditEvent> page = archive.findPage(partition, new AuditEventFilter(), null, null, 30);
+        while (!page.isEmpty()) {
+            archived.addAll(page);
+            AuditEvent last = page.get(page.size() - 1);
+            page = archive.findPage(partition, new AuditEventFilter(), last.getTimestamp(), last.getId(), 30);
+        }
+        assertEquals(expected, archived);
+
+        // Filtros por sistema, e-mail, atributo e intervalo de tempo.
+        AuditEventFilter filter = AuditEventFilter.builder().systemName("system-1").userEmail("user1@example.com")
+                .from(START.plusMinutes(10)).to(START.plusMinutes(40)).build();
+        assertEquals(List.of(72L, 62L, 52L, 42L, 32L, 22L), archive.findPage(partition, filter, null, null, 10).stream()
+                .map(AuditEvent::getId).toList());
+        AuditEventFilter byAttribute = AuditEventFilter.builder().attributes(List.of("orderId:57")).build();
+        assertEquals(List.of(58L), archive.findPage(partition, byAttribute, null, null, 10).stream()
+                .map(AuditEvent::getId).toList());
+        // Um valor que não está em nenhum dicionário descarta os segmentos sem ler blocos.
+        AuditEventFilter unknown = AuditEventFilter.builder().action("UNKNOWN").build();
+        assertTrue(archive.findPage(partition, unknown, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void testIterateAndFindAfterId_WhenPartitionIsArchived_ShouldFollowTheirOrder() {
+        archiveService.archivePartitionsBefore(START.plusMonths(2));
+
+        AuditEventFilter filter = AuditEventFilter.builder().from(START.plusMinutes(5)).to(START.plusMinutes(8)).build();
+        List<Long> ids = new ArrayList<>();
+        archive.iterate(partition, filter).forEachRemaining(event -> ids.add(event.getId()));
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L, 16L), ids);
+
+        List<AuditEvent> afterId = archive.findAfterId(partition, new AuditEventFilter(), 95, 3);
+        assertEquals(List.of(96L, 97L, 98L), afterId.stream().map(AuditEvent::getId).toList());
+        assertNull(afterId.get(1).getEventHash());
+        assertEquals(List.of(11L, 96L), archive.findByIds(partition, Set.of(11L, 96L, 500L), START, START.plusMonths(1))
+                .stream().map(AuditEvent::getId).toList());
+
+        Iterator<AuditEvent> all = archive.iterate(partition, new AuditEventFilter());
+        int count = 0;
+        for (; all.hasNext(); all.next()) {
+            count++;
+        }
+        assertEquals(EVENTS, count);
+        assertEquals(List.of("system-0", "system-1"), List.copyOf(archive.systemNames(partition)));
+        assertEquals(START.plusMinutes(49).plusNanos(123_456_000L), archive.timeRange(partition, null, null)[1]);
+    }
+}
@@ -0,0 +1,177 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para a exportação de eventos (AuditEventExportService).
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditEventExportServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+
+    @Mock
+    private AuditEventService auditEventService;
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditEventMapper auditEventMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private AuditEventExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new AuditEventExportService(auditEventService, auditEventRepository, auditEventMapper,
+                objectMapper, transactionManager);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 100);
+        lenient().when(auditEventMapper.toDto(any())).thenAnswer(inv -> {
+            AuditEvent event = inv.getArgument(0);
+            return AuditEventDto.builder().id(event.getId()).systemName(event.getSystemName())
+                    .userEmail(event.getUserEmail()).action(event.getAction())
+                    .timestamp(event.getTimestamp()).metadata(event.getMetadata()).build();
+        });
+    }
+
+    @Test
+    void testExport_Ndjson_ShouldWriteOneEventPerLine() throws Exception {
+        // Arrange
+        AuditEventFilter filter = new AuditEventFilter();
+        when(auditEventService.scopeToCurrentUser(filter)).thenReturn(Optional.of(filter));
+        when(auditEventRepository.streamAll(filter, 100)).thenReturn(Stream.of(
+                newEvent(1L, "LOGIN", "{\"ip\":\"10.0.0.1\"}"), newEvent(2L, "LOGOUT", "{}")));
+
+        // Act
+        String[] lines = write(exportService.export(filter, ExportFormat.NDJSON, false)).split("\n");
+
+        // Assert
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("LOGIN", first.get("action").asText());
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void testExport_Csv_ShouldWriteHeaderAndEscapeFields() throws Exception {
+        // Arrange: vírgula, aspas e quebra de linha precisam de aspas; o resto não.
+        AuditEventFilter filter = new AuditEventFilter();
+        when(auditEventService.scopeToCurrentUser(filter)).thenReturn(Optional.of(filter));
+        AuditEvent event = newEvent(7L, "EDITAR,CLIENTE", "{\"nome\":\"Ana \\\"A\\\"\"}");
+        event.setSystemName("Linha1\nLinha2");
+        when(auditEventRepository.streamAll(filter, 100)).thenReturn(Stream.of(event));
+
+        // Act
+        String csv = write(exportService.export(filter, ExportFormat.CSV, false));
+
+        // Assert
+        assertEquals("id,timestamp,systemName,userEmail,action,metadata\r\n"
+                + "7," + NOW + ",\"Linha1\nLinha2\",user@test.com,\"EDITAR,CLIENTE\",\"{\"\"nome\"\":\"\"Ana \\\"\"A\\\"\"\"\"}\"\r\n", csv);
+    }
+
+    @Test
+    void testExport_WithGzip_ShouldCompressOutput() throws Exception {
+        // Arrange
+        AuditEventFilter filter = new AuditEventFilter();
+        when(auditEventService.scopeToCurrentUser(filter)).thenReturn(Optional.of(filter));
+        when(auditEventRepository.streamAll(filter, 100)).thenReturn(Stream.of(newEvent(1L, "LOGIN", "{}")));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(filter, ExportFormat.CSV, true).writeTo(out);
+
+        // Assert: a saída é gzip e descompacta no mesmo CSV.
+        byte[] compressed = out.toByteArray();
+        assertEquals((byte) 0x1f, compressed[0]);
+        assertEquals((byte) 0x8b, compressed[1]);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(csv.startsWith("id,timestamp,systemName,userEmail,action,metadata\r\n1,"), csv);
+        }
+    }
+
+    @Test
+    void testExport_ForAnalyst_ShouldReadOnlyWithScopedFilter() throws Exception {
+        // Arrange: o filtro do ANALYST é restrito ao próprio e-mail.
+        AuditEventFilter requested = new AuditEventFilter();
+        AuditEventFilter scoped = AuditEventFilter.builder().userEmail("analyst@test.com").build();
+        when(auditEventService.scopeToCurrentUser(requested)).thenReturn(Optional.of(scoped));
+        when(auditEventRepository.streamAll(scoped, 100)).thenReturn(Stream.of(newEvent(3L, "LOGIN", "{}")));
+
+        // Act
+        String ndjson = write(exportService.export(requested, ExportFormat.NDJSON, false));
+
+        // Assert
+        assertEquals(3L, objectMapper.readTree(ndjson).get("id").asLong());
+        verify(auditEventRepository, never()).streamAll(eq(requested), anyInt());
+    }
+
+    @Test
+    void testExport_ForAnalystAskingOtherEmail_ShouldWriteEmptyFile() throws Exception {
+        // Arrange: um ANALYST pediu os eventos de outro e-mail.
+        AuditEventFilter requested = AuditEventFilter.builder().userEmail("other@test.com").build();
+        when(auditEventService.scopeToCurrentUser(requested)).thenReturn(Optional.empty());
+
+        // Act
+        String csv = write(exportService.export(requested, ExportFormat.CSV, false));
+
+        // Assert: só o cabeçalho, sem consultar o banco.
+        assertEquals("id,timestamp,systemName,userEmail,action,metadata\r\n", csv);
+        verify(auditEventRepository, never()).streamAll(any(), anyInt());
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static AuditEvent newEvent(Long id, String action, String metadata) {
+        AuditEvent event = new AuditEvent();
+        event.setId(id);
+        event.setSystemName("Vendas");
+        event.setUserEmail("user@test.com");
+        event.setAction(action);
+        event.setTimestamp(NOW);
+        event.setMetadata(metadata);
+        return event;
+    }
+}
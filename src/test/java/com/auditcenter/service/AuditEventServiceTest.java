@@ -1,14 +1,18 @@
 package com.auditcenter.service;
 
 import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.AuditEventPage;
 import com.auditcenter.entity.AuditEvent;
 import com.auditcenter.entity.Role;
 import com.auditcenter.entity.User;
+import com.auditcenter.exception.InvalidQueryException;
 import com.auditcenter.mapper.AuditEventMapper;
 import com.auditcenter.repository.AuditEventRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,12 +21,20 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +52,15 @@ class AuditEventServiceTest {
     @Mock
     private AuditEventMapper auditEventMapper;
 
+    @Mock
+    private SseBroadcaster sseBroadcaster;
+
+    @Mock
+    private MetadataAttributeExtractor metadataAttributeExtractor;
+
+    @Mock
+    private AuditMetrics auditMetrics;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -65,6 +86,9 @@ class AuditEventServiceTest {
 
         adminUser = User.builder().id(1L).name("Admin").email("admin@test.com").role(Role.ADMIN).build();
         analystUser = User.builder().id(2L).name("Analyst").email("analyst@test.com").role(Role.ANALYST).build();
+
+        // Simula o valor de 'audit.query.max-page-size' injetado pelo Spring.
+        ReflectionTestUtils.setField(auditEventService, "maxPageSize", 500);
     }
 
     @Test
@@ -72,45 +96,105 @@ class AuditEventServiceTest {
         // Arrange (Organizar)
         // 1. Simula o usuário autenticado como ADMIN
         when(authentication.getPrincipal()).thenReturn(adminUser);
-        // 2. Simula as permissões do usuário para o teste - REMOVIDO POR SER DESNECESSÁRIO
-        // doReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).when(authentication).getAuthorities();
 
-        // 3. Define o comportamento esperado dos mocks
+        // 2. Define o comportamento esperado dos mocks
         List<AuditEvent> mockEvents = List.of(new AuditEvent(), new AuditEvent());
-        when(auditEventRepository.findAll()).thenReturn(mockEvents);
+        when(auditEventRepository.findPage(any(AuditEventFilter.class), isNull(), isNull(), eq(51))).thenReturn(mockEvents);
 
         List<AuditEventDto> mockDtos = List.of(new AuditEventDto(), new AuditEventDto());
         when(auditEventMapper.toDtoList(mockEvents)).thenReturn(mockDtos);
 
         // Act (Agir)
-        // 4. Executa o método a ser testado
-        List<AuditEventDto> result = auditEventService.listEvents();
+        // 3. Executa o método a ser testado
+        AuditEventPage result = auditEventService.listEvents(new AuditEventFilter(), null, 50);
 
         // Assert (Afirmar)
-        // 5. Verifica se o resultado é o esperado
-        assertEquals(2, result.size(), "O admin deveria ver 2 eventos.");
-        verify(auditEventRepository, times(1)).findAll();
-        verify(auditEventRepository, never()).findByUserEmail(anyString());
+        // 4. Verifica se o resultado é o esperado: sem filtro de e-mail e sem próxima página
+        assertEquals(2, result.getItems().size(), "O admin deveria ver 2 eventos.");
+        assertNull(result.getNextCursor());
+        ArgumentCaptor<AuditEventFilter> filterCaptor = ArgumentCaptor.forClass(AuditEventFilter.class);
+        verify(auditEventRepository, times(1)).findPage(filterCaptor.capture(), isNull(), isNull(), eq(51));
+        assertNull(filterCaptor.getValue().getUserEmail());
     }
 
     @Test
     void testListEvents_AsAnalyst_ShouldReturnOnlyOwnEvents() {
         // Arrange
         when(authentication.getPrincipal()).thenReturn(analystUser);
-        // doReturn(List.of(new SimpleGrantedAuthority("ROLE_ANALYST"))).when(authentication).getAuthorities();
 
         List<AuditEvent> mockEvents = List.of(new AuditEvent());
-        when(auditEventRepository.findByUserEmail(analystUser.getEmail())).thenReturn(mockEvents);
+        when(auditEventRepository.findPage(any(AuditEventFilter.class), isNull(), isNull(), eq(51))).thenReturn(mockEvents);
 
         List<AuditEventDto> mockDtos = List.of(new AuditEventDto());
         when(auditEventMapper.toDtoList(mockEvents)).thenReturn(mockDtos);
 
         // Act
-        List<AuditEventDto> result = auditEventService.listEvents();
+        AuditEventPage result = auditEventService.listEvents(new AuditEventFilter(), null, 50);
+
+        // Assert: a restrição por e-mail vai para a consulta do repositório
+        assertEquals(1, result.getItems().size(), "O analista deveria ver 1 evento.");
+        ArgumentCaptor<AuditEventFilter> filterCaptor = ArgumentCaptor.forClass(AuditEventFilter.class);
+        verify(auditEventRepository, times(1)).findPage(filterCaptor.capture(), isNull(), isNull(), eq(51));
+        assertEquals(analystUser.getEmail(), filterCaptor.getValue().getUserEmail());
+    }
+
+    @Test
+    void testListEvents_AsAnalystFilteringAnotherEmail_ShouldReturnEmptyPage() {
+        // Arrange
+        when(authentication.getPrincipal()).thenReturn(analystUser);
+        AuditEventFilter filter = AuditEventFilter.builder().userEmail("admin@test.com").build();
+
+        // Act
+        AuditEventPage result = auditEventService.listEvents(filter, null, 50);
 
         // Assert
-        assertEquals(1, result.size(), "O analista deveria ver 1 evento.");
-        verify(auditEventRepository, times(1)).findByUserEmail(analystUser.getEmail());
-        verify(auditEventRepository, never()).findAll();
+        assertTrue(result.getItems().isEmpty());
+        verify(auditEventRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testListEvents_WithMoreEventsThanPageSize_ShouldReturnNextCursor() {
+        // Arrange: o repositório devolve um evento a mais que o tamanho da página
+        when(authentication.getPrincipal()).thenReturn(adminUser);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        AuditEvent first = AuditEvent.builder().id(3L).timestamp(now).build();
+        AuditEvent second = AuditEvent.builder().id(2L).timestamp(now).build();
+        AuditEvent extra = AuditEvent.builder().id(1L).timestamp(now.minusMinutes(1)).build();
+        when(auditEventRepository.findPage(any(AuditEventFilter.class), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(first, second, extra));
+        when(auditEventMapper.toDtoList(List.of(first, second))).thenReturn(List.of(new AuditEventDto(), new AuditEventDto()));
+
+        // Act
+        AuditEventPage result = auditEventService.listEvents(new AuditEventFilter(), null, 2);
+
+        // Assert: o cursor aponta para o último evento da página
+        assertEquals(2, result.getItems().size());
+        EventCursor cursor = EventCursor.decode(result.getNextCursor());
+        assertEquals(now, cursor.getTimestamp());
+        assertEquals(2L, cursor.getId());
+    }
+
+    @Test
+    void testListEvents_WithUnindexedAttribute_ShouldBeRejected() {
+        // Arrange: 'orderId' não está em 'audit.metadata.indexed-attributes'
+        when(authentication.getPrincipal()).thenReturn(adminUser);
+        when(metadataAttributeExtractor.isIndexed("orderId")).thenReturn(false);
+        AuditEventFilter filter = AuditEventFilter.builder().attributes(List.of("orderId:12345")).build();
+
+        // Act & Assert: o filtro é recusado antes de qualquer consulta
+        assertThrows(InvalidQueryException.class, () -> auditEventService.listEvents(filter, null, 50));
+        verify(auditEventRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testListEvents_WithMalformedCursorOrAttribute_ShouldThrowInvalidQuery() {
+        // Arrange
+        when(authentication.getPrincipal()).thenReturn(adminUser);
+        AuditEventFilter malformedAttribute = AuditEventFilter.builder().attributes(List.of("semSeparador")).build();
+
+        // Act & Assert: erros do cliente usam a exceção própria (400), e não IllegalArgumentException.
+        assertThrows(InvalidQueryException.class, () -> auditEventService.listEvents(new AuditEventFilter(), "não-é-cursor", 50));
+        assertThrows(InvalidQueryException.class, () -> auditEventService.listEvents(malformedAttribute, null, 50));
+        verify(auditEventRepository, never()).findPage(any(), any(), any(), anyInt());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.IntegrityReport;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditEventHashes;
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes para a selagem e a verificação de integridade (AuditIntegrityService), sobre um banco H2
+ * em memória com uma partição.
+ */
+class AuditIntegrityServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditIntegrityService integrityService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:integrity;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE audit_events_202610_r0 (id BIGINT PRIMARY KEY, timestamp TIMESTAMP(6), "
+                + "action VARCHAR(255), system_name VARCHAR(255), user_email VARCHAR(255), metadata TEXT, event_hash VARCHAR(64))");
+        jdbcTemplate.execute("CREATE TABLE audit_event_seals (seq BIGINT PRIMARY KEY, partition_name VARCHAR(64), "
+                + "bucket_start TIMESTAMP(6), event_count INT, merkle_root VARCHAR(64), chain_hash VARCHAR(64), "
+                + "sealed_at TIMESTAMP(6), UNIQUE (partition_name, bucket_start))");
+        // Três minutos com três eventos cada.
+        for (long id = 1; id <= 9; id++) {
+            insertEvent(id, START.plusSeconds((id - 1) * 20));
+        }
+
+        AuditPartition partition = new AuditPartition("202610_r0", START.withDayOfMonth(1).withHour(0),
+                START.withDayOfMonth(1).withHour(0).plusMonths(1), 0);
+        AuditPartitionCatalog partitionCatalog = mock(AuditPartitionCatalog.class);
+        when(partitionCatalog.partitions()).thenReturn(List.of(partition));
+        when(partitionCatalog.partitionsOverlapping(any(), any())).thenReturn(List.of(partition));
+
+        integrityService = new AuditIntegrityService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                partitionCatalog, mock(AuditArchive.class), new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(integrityService, "bucketMinutes", 1);
+        ReflectionTestUtils.setField(integrityService, "verifyParallelism", 2);
+        ReflectionTestUtils.setField(integrityService, "chunkBuckets", 1);
+        assertEquals(3, integrityService.sealUpTo(START.plusMinutes(10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testVerify_WhenNothingChanged_ShouldBeValid() {
+        // Nenhum evento novo: a próxima selagem não grava nada.
+        assertEquals(0, integrityService.sealUpTo(START.plusMinutes(20)));
+
+        IntegrityReport report = integrityService.verify(null, null);
+
+        assertTrue(report.isValid());
+        assertEquals(3, report.getSealsChecked());
+        assertEquals(9, report.getEventsChecked());
+        assertEquals(START.plusMinutes(3), report.getSealedUpTo());
+    }
+
+    @Test
+    void testVerify_WhenEventsAreAlteredOrRemoved_ShouldReportTheEarliest() {
+        jdbcTemplate.update("DELETE FROM audit_events_202610_r0 WHERE id = 8");
+        jdbcTemplate.update("UPDATE audit_events_202610_r0 SET metadata = '{\"amount\":1}' WHERE id = 5");
+
+        IntegrityReport report = integrityService.verify(null, null);
+
+        assertFalse(report.isValid());
+        assertEquals(2, report.getBrokenLinks());
+        assertEquals(IntegrityReport.Reason.EVENT_ALTERED, report.getFirstBrokenLink().getReason());
+        assertEquals(5L, report.getFirstBrokenLink().getEventId());
+        assertEquals(START.plusMinutes(1), report.getFirstBrokenLink().getBucketStart());
+        assertEquals(2L, report.getFirstBrokenLink().getSeq());
+    }
+
+    @Test
+    void testVerify_WhenSealIsAlteredOrEventIsAddedToSealedBucket_ShouldReportBoth() {
+        jdbcTemplate.update("UPDATE audit_event_seals SET event_count = 2 WHERE seq = 3");
+        insertEvent(100, START.plusSeconds(30));
+
+        IntegrityReport report = integrityService.verify(null, null);
+
+        assertFalse(report.isValid());
+        // O evento incluído muda a raiz do primeiro minuto; o selo alterado quebra o terceiro elo.
+        assertEquals(IntegrityReport.Reason.EVENT_COUNT_MISMATCH, report.getFirstBrokenLink().getReason());
+        assertEquals(1L, report.getFirstBrokenLink().getSeq());
+        assertEquals(3, report.getBrokenLinks());
+
+        // Fora do período pedido, só a cadeia é conferida.
+        IntegrityReport lastMinute = integrityService.verify(START.plusMinutes(2), null);
+        assertEquals(IntegrityReport.Reason.CHAIN_HASH_MISMATCH, lastMinute.getFirstBrokenLink().getReason());
+        assertEquals(3L, lastMinute.getFirstBrokenLink().getSeq());
+    }
+
+    private void insertEvent(long id, LocalDateTime timestamp) {
+        String metadata = "{\"orderId\":" + id + "}";
+        jdbcTemplate.update("INSERT INTO audit_events_202610_r0 VALUES (?, ?, ?, ?, ?, ?, ?)", id,
+                Timestamp.valueOf(timestamp), "PEDIDO_CRIADO", "Financeiro", "user@example.com", metadata,
+                AuditEventHashes.contentHash(timestamp, "Financeiro", "user@example.com", "PEDIDO_CRIADO", metadata));
+    }
+}
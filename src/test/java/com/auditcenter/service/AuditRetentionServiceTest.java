@@ -0,0 +1,78 @@
+package com.auditcenter.service;
+
+import com.auditcenter.repository.AuditPartition;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import com.auditcenter.repository.AuditRetentionPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para a retenção por partição (AuditRetentionService).
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditRetentionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    @Mock
+    private AuditPartitionCatalog partitionCatalog;
+
+    @Mock
+    private AuditRetentionPolicy retentionPolicy;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AuditRetentionService retentionService;
+
+    @Test
+    void testDropExpiredPartitions_ShouldDropOnlyExpiredPartitions() {
+        AuditPartition expired = partition("202608_r30", 8);
+        AuditPartition retained = partition("202609_r30", 9);
+        AuditPartition current = partition("202610_r30", 10);
+        when(partitionCatalog.partitions()).thenReturn(List.of(expired, retained, current));
+        when(jdbcTemplate.queryForList(eq("SELECT DISTINCT system_name FROM " + expired.getEventsTable()), eq(String.class)))
+                .thenReturn(List.of("Billing"));
+        when(jdbcTemplate.queryForList(eq("SELECT DISTINCT system_name FROM " + retained.getEventsTable()), eq(String.class)))
+                .thenReturn(List.of());
+        when(retentionPolicy.retentionDaysFor("Billing")).thenReturn(30);
+
+        assertEquals(1, retentionService.dropExpiredPartitions(NOW));
+        verify(partitionCatalog).drop(expired);
+        verify(partitionCatalog, never()).drop(retained);
+        verify(partitionCatalog, never()).drop(current);
+    }
+
+    @Test
+    void testDropExpiredPartitions_SystemWithoutRetention_ShouldKeepPartition() {
+        AuditPartition partition = partition("202601_r30", 1);
+        when(partitionCatalog.partitions()).thenReturn(List.of(partition));
+        when(jdbcTemplate.queryForList(eq("SELECT DISTINCT system_name FROM " + partition.getEventsTable()), eq(String.class)))
+                .thenReturn(List.of("Billing", "Ledger"));
+        when(retentionPolicy.retentionDaysFor("Billing")).thenReturn(30);
+        // A retenção do Ledger passou a ser indefinida depois que a partição foi criada.
+        when(retentionPolicy.retentionDaysFor("Ledger")).thenReturn(0);
+
+        assertEquals(0, retentionService.dropExpiredPartitions(NOW));
+        verify(partitionCatalog, never()).drop(partition);
+    }
+
+    private static AuditPartition partition(String name, int month) {
+        LocalDateTime start = LocalDateTime.of(2026, month, 1, 0, 0);
+        return new AuditPartition(name, start, start.plusMonths(1), 30);
+    }
+}
@@ -0,0 +1,155 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.BulkIngestionResponse;
+import com.auditcenter.dto.BulkIngestionResponse.ItemStatus;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes unitários para a ingestão em lote (BulkIngestionService), com o corpo em array JSON
+ * e em NDJSON.
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkIngestionServiceTest {
+
+    private static final String VALID = "{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\","
+            + "\"action\":\"VENDA_REALIZADA\",\"metadata\":{\"pedido\":1}}";
+
+    @Mock
+    private AuditEventService auditEventService;
+
+    @Mock
+    private AuditEventMapper auditEventMapper;
+
+    private BulkIngestionService bulkIngestionService;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        bulkIngestionService = new BulkIngestionService(auditEventService, auditEventMapper, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(bulkIngestionService, "chunkSize", 2);
+        lenient().when(auditEventMapper.toEntity(any())).thenAnswer(inv -> new AuditEvent());
+        // O "banco" devolve IDs sequenciais entre os blocos.
+        lenient().when(auditEventService.saveBatch(anyList())).thenAnswer(inv -> {
+            List<AuditEventDto> saved = new ArrayList<>();
+            for (Object ignored : (List<?>) inv.getArgument(0)) {
+                saved.add(AuditEventDto.builder().id(nextId.getAndIncrement()).build());
+            }
+            return saved;
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testIngest_ShouldPersistInChunksAndKeepReadingOrder(boolean array) throws Exception {
+        // Act: cinco eventos com blocos de dois.
+        BulkIngestionResponse response = ingest(array, VALID, VALID, VALID, VALID, VALID);
+
+        // Assert: três inserts em lote (2, 2 e 1) e os IDs de cada item na ordem de leitura.
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditEvent>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(auditEventService, times(3)).saveBatch(chunks.capture());
+        assertEquals(List.of(2, 2, 1), chunks.getAllValues().stream().map(List::size).toList());
+        assertEquals(5, response.getTotal());
+        assertEquals(5, response.getPersisted());
+        assertFalse(response.isAborted());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, response.getResults().get(i).getIndex());
+            assertEquals(ItemStatus.PERSISTED, response.getResults().get(i).getStatus());
+            assertEquals(i + 1L, response.getResults().get(i).getEventId());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testIngest_WithInvalidItems_ShouldRejectOnlyThoseItems(boolean array) throws Exception {
+        // Arrange: sem 'action', 'metadata' que não é objeto e um item que não é objeto.
+        String missingAction = "{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\",\"metadata\":{}}";
+        String textMetadata = "{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\","
+                + "\"action\":\"LOGIN\",\"metadata\":\"texto\"}";
+
+        // Act
+        BulkIngestionResponse response = ingest(array, VALID, missingAction, textMetadata, "42", VALID);
+
+        // Assert: os válidos dos dois lados são gravados juntos no mesmo bloco.
+        assertEquals(5, response.getTotal());
+        assertEquals(2, response.getPersisted());
+        assertEquals(3, response.getRejected());
+        assertFalse(response.isAborted());
+        List<BulkIngestionResponse.ItemResult> results = response.getResults();
+        assertEquals(ItemStatus.PERSISTED, results.get(0).getStatus());
+        assertEquals(ItemStatus.INVALID, results.get(1).getStatus());
+        assertTrue(results.get(1).getError().startsWith("action:"), results.get(1).getError());
+        assertNull(results.get(1).getEventId());
+        assertEquals(ItemStatus.INVALID, results.get(2).getStatus());
+        assertTrue(results.get(2).getError().startsWith("Evento inválido"), results.get(2).getError());
+        assertEquals(ItemStatus.INVALID, results.get(3).getStatus());
+        assertEquals("Cada evento deve ser um objeto JSON.", results.get(3).getError());
+        assertEquals(ItemStatus.PERSISTED, results.get(4).getStatus());
+        verify(auditEventService, times(1)).saveBatch(anyList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testIngest_WithSyntaxErrorMidStream_ShouldAbortAndKeepPreviousItems(boolean array) throws Exception {
+        // Act: o terceiro item é JSON malformado; o quarto não chega a ser lido.
+        BulkIngestionResponse response = ingest(array, VALID, VALID, "{\"systemName\":\"Vendas\",,}", VALID);
+
+        // Assert
+        assertTrue(response.isAborted());
+        assertEquals(3, response.getTotal());
+        assertEquals(2, response.getPersisted());
+        BulkIngestionResponse.ItemResult broken = response.getResults().get(2);
+        assertEquals(ItemStatus.INVALID, broken.getStatus());
+        assertTrue(broken.getError().startsWith("JSON malformado"), broken.getError());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testIngest_WithSyntaxErrorBeforeFirstItem_ShouldAbortWithoutResults(boolean array) throws Exception {
+        // Act
+        BulkIngestionResponse response = ingest(array, "}");
+
+        // Assert
+        assertTrue(response.isAborted());
+        assertEquals(0, response.getPersisted());
+        verify(auditEventService, never()).saveBatch(anyList());
+    }
+
+    /**
+     * Monta o corpo com os itens em um array JSON ou em NDJSON (um por linha).
+     */
+    private BulkIngestionResponse ingest(boolean array, String... items) throws Exception {
+        String body = array ? "[" + String.join(",", items) + "]" : String.join("\n", items) + "\n";
+        return bulkIngestionService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
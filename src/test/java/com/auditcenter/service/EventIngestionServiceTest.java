@@ -0,0 +1,221 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.IngestionRejectedException;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o pipeline de ingestão assíncrona (EventIngestionService).
+ */
+@ExtendWith(MockitoExtension.class)
+class EventIngestionServiceTest {
+
+    @Mock
+    private AuditEventService auditEventService;
+
+    @Mock
+    private AuditEventMapper auditEventMapper;
+
+    @Mock
+    private IdempotencyIndex idempotencyIndex;
+
+    private EventIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = new EventIngestionService(auditEventService, auditEventMapper, new ObjectMapper(),
+                new AuditMetrics(new SimpleMeterRegistry()), idempotencyIndex);
+        ReflectionTestUtils.setField(ingestionService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(ingestionService, "batchSize", 10);
+        ReflectionTestUtils.setField(ingestionService, "maxBatchDelayMs", 5L);
+        ReflectionTestUtils.setField(ingestionService, "ticketCapacity", 100);
+        ReflectionTestUtils.setField(ingestionService, "blockTimeoutMs", 1L);
+        when(auditEventMapper.toEntity(any())).thenAnswer(inv -> new AuditEvent());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ingestionService.stop();
+    }
+
+    @Test
+    void testSubmit_ShouldPersistInBatchAndUpdateTicket() throws Exception {
+        // Arrange: o "banco" devolve IDs sequenciais para cada lote.
+        when(auditEventService.saveBatch(anyList())).thenAnswer(inv -> toDtos(inv.getArgument(0)));
+        ReflectionTestUtils.setField(ingestionService, "backpressurePolicy", BackpressurePolicy.BLOCK);
+        ingestionService.start();
+
+        // Act
+        IngestionTicket ticket = ingestionService.submit(newRequest());
+
+        // Assert: o ticket é atualizado assim que o escritor grava o lote.
+        IngestionTicket current = awaitStatus(ticket.getTicketId(), IngestionTicket.Status.PERSISTED);
+        assertEquals(1L, current.getEventId());
+        assertEquals(1, ingestionService.getStats().getPersisted());
+    }
+
+    @Test
+    void testSubmit_WithRejectPolicyAndFullQueue_ShouldThrow() throws Exception {
+        // Arrange: o primeiro lote fica "preso" no banco, então a fila (capacidade 2) enche.
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        when(auditEventService.saveBatch(anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return toDtos(inv.getArgument(0));
+        });
+        ReflectionTestUtils.setField(ingestionService, "backpressurePolicy", BackpressurePolicy.REJECT);
+        ingestionService.start();
+
+        ingestionService.submit(newRequest());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        ingestionService.submit(newRequest());
+        ingestionService.submit(newRequest());
+
+        // Act & Assert
+        assertThrows(IngestionRejectedException.class, () -> ingestionService.submit(newRequest()));
+        assertEquals(1, ingestionService.getStats().getRejected());
+        release.countDown();
+    }
+
+    @Test
+    void testSubmit_WhenDatabaseFailsThenRecovers_ShouldRetryBatchInsteadOfFailing() throws Exception {
+        // Arrange: a primeira gravação falha (banco fora do ar); a seguinte dá certo.
+        when(auditEventService.saveBatch(anyList()))
+                .thenThrow(new CannotGetJdbcConnectionException("Banco fora do ar"))
+                .thenAnswer(inv -> toDtos(inv.getArgument(0)));
+        ReflectionTestUtils.setField(ingestionService, "backpressurePolicy", BackpressurePolicy.BLOCK);
+        ReflectionTestUtils.setField(ingestionService, "retryMaxDelayMs", 100L);
+        ingestionService.start();
+
+        // Act
+        IngestionTicket ticket = ingestionService.submit(newRequest());
+
+        // Assert: o evento já aceito não é descartado; o lote é refeito e gravado.
+        IngestionTicket current = awaitStatus(ticket.getTicketId(), IngestionTicket.Status.PERSISTED);
+        assertEquals(1L, current.getEventId());
+        assertEquals(0, ingestionService.getStats().getFailed());
+        verify(auditEventService, times(2)).saveBatch(anyList());
+    }
+
+    @Test
+    void testSubmit_WithWalAndDatabaseDown_ShouldAcknowledgeAndPersistAfterRestart(@TempDir Path walDirectory) throws Exception {
+        // Arrange: o banco está fora do ar.
+        when(auditEventService.saveBatch(anyList())).thenThrow(new CannotGetJdbcConnectionException("Banco fora do ar"));
+        ReflectionTestUtils.setField(ingestionService, "walEnabled", true);
+        ReflectionTestUtils.setField(ingestionService, "walDirectory", walDirectory);
+        ReflectionTestUtils.setField(ingestionService, "walSegmentBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(ingestionService, "walMaxPendingBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(ingestionService, "walRetryMaxDelayMs", 100L);
+        ingestionService.start();
+
+        // Act: o evento é aceito mesmo sem banco e continua no log após a parada.
+        IngestionTicket ticket = ingestionService.submit(newRequest());
+        assertEquals(IngestionTicket.Status.QUEUED, ticket.getStatus());
+        assertTrue(ingestionService.getStats().getWalPendingBytes() > 0);
+        ingestionService.stop();
+
+        // Assert: na nova inicialização, com o banco de volta, o evento é gravado e sai do log.
+        reset(auditEventService);
+        when(auditEventService.saveBatch(anyList())).thenAnswer(inv -> toDtos(inv.getArgument(0)));
+        ingestionService = new EventIngestionService(auditEventService, auditEventMapper, new ObjectMapper(),
+                new AuditMetrics(new SimpleMeterRegistry()), idempotencyIndex);
+        ReflectionTestUtils.setField(ingestionService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(ingestionService, "batchSize", 10);
+        ReflectionTestUtils.setField(ingestionService, "maxBatchDelayMs", 5L);
+        ReflectionTestUtils.setField(ingestionService, "ticketCapacity", 100);
+        ReflectionTestUtils.setField(ingestionService, "walEnabled", true);
+        ReflectionTestUtils.setField(ingestionService, "walDirectory", walDirectory);
+        ReflectionTestUtils.setField(ingestionService, "walSegmentBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(ingestionService, "walRetryMaxDelayMs", 100L);
+        ingestionService.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ingestionService.getStats().getWalPendingBytes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, ingestionService.getStats().getWalPendingBytes());
+        assertEquals(1, ingestionService.getStats().getPersisted());
+    }
+
+    @Test
+    void testSubmit_WhenKeyIsAlreadyStored_ShouldPointTicketToOriginalEvent() throws Exception {
+        // Arrange: a memória não reconhece a chave (ex.: outra instância), mas o banco a recusa.
+        when(idempotencyIndex.keyFor(any(), eq("pedido-1"))).thenReturn("chave");
+        when(auditEventService.saveBatch(anyList())).thenThrow(new DuplicateKeyException("audit_event_keys"));
+        when(idempotencyIndex.findEventId("chave")).thenReturn(7L);
+        ReflectionTestUtils.setField(ingestionService, "backpressurePolicy", BackpressurePolicy.BLOCK);
+        ingestionService.start();
+
+        // Act
+        IngestionTicket ticket = ingestionService.submit(newRequest(), "pedido-1");
+
+        // Assert: o evento não é gravado de novo e o ticket aponta para o original.
+        IngestionTicket current = awaitStatus(ticket.getTicketId(), IngestionTicket.Status.PERSISTED);
+        assertEquals(7L, current.getEventId());
+        assertTrue(current.isDuplicate());
+        assertEquals(1, ingestionService.getStats().getDuplicates());
+        assertEquals(0, ingestionService.getStats().getFailed());
+    }
+
+    private IngestionTicket awaitStatus(String ticketId, IngestionTicket.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            IngestionTicket ticket = ingestionService.getTicket(ticketId).orElseThrow();
+            if (ticket.getStatus() == status) {
+                return ticket;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Ticket não chegou ao estado " + status);
+    }
+
+    private List<AuditEventDto> toDtos(List<AuditEvent> events) {
+        List<AuditEventDto> dtos = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            dtos.add(AuditEventDto.builder().id((long) i + 1).build());
+        }
+        return dtos;
+    }
+
+    private WebhookEventRequest newRequest() {
+        return WebhookEventRequest.builder()
+                .systemName("Vendas")
+                .userEmail("user@test.com")
+                .action("VENDA_REALIZADA")
+                .metadata("{\"pedido\":1}")
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.EventSearchPage;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.InvalidQueryException;
+import com.auditcenter.exception.SearchUnavailableException;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para a busca textual (EventSearchService), sobre um índice real em memória.
+ */
+@ExtendWith(MockitoExtension.class)
+class EventSearchServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Mock
+    private AuditEventService auditEventService;
+
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditEventMapper auditEventMapper;
+
+    @Mock
+    private AuditMetrics auditMetrics;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, AuditEvent> database = new HashMap<>();
+    private EventSearchService eventSearchService;
+
+    @BeforeEach
+    void setUp() {
+        eventSearchService = new EventSearchService(auditEventService, eventSearchIndex, auditEventRepository,
+                auditEventMapper, auditMetrics);
+        ReflectionTestUtils.setField(eventSearchService, "maxPageSize", 500);
+        lenient().when(eventSearchIndex.isEnabled()).thenReturn(true);
+        lenient().when(eventSearchIndex.isComplete()).thenReturn(true);
+        lenient().when(eventSearchIndex.search(any())).thenAnswer(inv -> index.search(inv.getArgument(0)));
+        lenient().when(auditEventRepository.findByIds(any(), any(), any())).thenAnswer(inv -> {
+            List<AuditEvent> found = new ArrayList<>();
+            for (Object id : (Collection<?>) inv.getArgument(0)) {
+                if (database.containsKey((Long) id)) {
+                    found.add(database.get((Long) id));
+                }
+            }
+            return found;
+        });
+        lenient().when(auditEventMapper.toDtoList(any())).thenAnswer(inv -> {
+            List<AuditEventDto> dtos = new ArrayList<>();
+            for (Object event : (List<?>) inv.getArgument(0)) {
+                AuditEvent auditEvent = (AuditEvent) event;
+                dtos.add(AuditEventDto.builder().id(auditEvent.getId()).userEmail(auditEvent.getUserEmail()).build());
+            }
+            return dtos;
+        });
+        add(1, "ana@example.com", "{\"invoice\":12345}");
+        add(2, "bia@example.com", "{\"invoice\":12345}");
+        add(3, "analyst@test.com", "{\"invoice\":12345,\"note\":\"reprint\"}");
+    }
+
+    @Test
+    void testSearch_WhenDisabled_ShouldThrowSearchUnavailable() {
+        // Arrange
+        when(eventSearchIndex.isEnabled()).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(SearchUnavailableException.class, () ->
+                eventSearchService.search(new AuditEventFilter(), "invoice", SearchOrder.RELEVANCE, null, 10));
+        verify(auditEventService, never()).scopeToCurrentUser(any());
+    }
+
+    @Test
+    void testSearch_ForAnalyst_ShouldSearchOnlyWithScopedFilter() {
+        // Arrange: o filtro do ANALYST é restrito ao próprio e-mail.
+        AuditEventFilter requested = new AuditEventFilter();
+        AuditEventFilter scoped = AuditEventFilter.builder().userEmail("analyst@test.com").build();
+        when(auditEventService.scopeToCurrentUser(requested)).thenReturn(Optional.of(scoped));
+
+        // Act
+        EventSearchPage page = eventSearchService.search(requested, "invoice", SearchOrder.RELEVANCE, null, 10);
+
+        // Assert: só o evento do próprio ANALYST, e o índice recebeu o e-mail do filtro restrito.
+        assertEquals(List.of(3L), ids(page));
+        assertEquals(1, page.getTotalMatches());
+        ArgumentCaptor<InvertedIndex.Query> query = ArgumentCaptor.forClass(InvertedIndex.Query.class);
+        verify(eventSearchIndex).search(query.capture());
+        assertEquals("analyst@test.com", query.getValue().getUserEmail());
+    }
+
+    @Test
+    void testSearch_ForAnalystAskingOtherEmail_ShouldReturnEmptyPage() {
+        // Arrange: um ANALYST pediu os eventos de outro e-mail.
+        AuditEventFilter requested = AuditEventFilter.builder().userEmail("ana@example.com").build();
+        when(auditEventService.scopeToCurrentUser(requested)).thenReturn(Optional.empty());
+
+        // Act
+        EventSearchPage page = eventSearchService.search(requested, "invoice", SearchOrder.RELEVANCE, null, 10);
+
+        // Assert: página vazia, sem consultar o índice nem o banco.
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(eventSearchIndex, never()).search(any());
+        verify(auditEventRepository, never()).findByIds(any(), any(), any());
+    }
+
+    @Test
+    void testSearch_ByRelevanceWithEventsAddedBetweenPages_ShouldNotSkipOrRepeat() {
+        // Arrange: "erro" é raro e "disco" é comum; o 10 (que repete "erro") vem antes do 11.
+        AuditEventFilter filter = new AuditEventFilter();
+        when(auditEventService.scopeToCurrentUser(filter)).thenReturn(Optional.of(filter));
+        add(10, "ana@example.com", "erro erro erro disco");
+        add(11, "ana@example.com", "erro disco disco disco");
+        for (int i = 0; i < 3; i++) {
+            add(20 + i, "ana@example.com", "disco");
+        }
+        EventSearchPage first = eventSearchService.search(filter, "erro disco", SearchOrder.RELEVANCE, null, 1);
+
+        // Act: "erro" fica comum antes da próxima página, o que inverteria a ordem dos dois.
+        for (int i = 0; i < 100; i++) {
+            add(100 + i, "ana@example.com", "erro");
+        }
+        EventSearchPage second = eventSearchService.search(filter, "erro disco", SearchOrder.RELEVANCE,
+                first.getNextCursor(), 1);
+
+        // Assert: a segunda página continua a ordem da primeira, com a mesma escala de pontuação.
+        assertEquals(List.of(10L), ids(first));
+        assertEquals(List.of(11L), ids(second));
+        assertTrue(second.getItems().get(0).getScore() < first.getItems().get(0).getScore());
+        assertNull(second.getNextCursor());
+        // Um cursor de outra busca é recusado.
+        assertThrows(InvalidQueryException.class, () -> eventSearchService.search(filter,
+                "erro disco alerta", SearchOrder.RELEVANCE, first.getNextCursor(), 1));
+    }
+
+    private void add(long id, String email, String metadata) {
+        AuditEvent event = AuditEvent.builder().id(id).timestamp(START.plusMinutes(id)).systemName("Financeiro")
+                .action("ALERTA").userEmail(email).metadata(metadata).build();
+        database.put(id, event);
+        index.add(new InvertedIndex.Document(event, 256));
+    }
+
+    private static List<Long> ids(EventSearchPage page) {
+        return page.getItems().stream().map(hit -> hit.getEvent().getId()).toList();
+    }
+}
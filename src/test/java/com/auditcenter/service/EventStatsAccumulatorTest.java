@@ -0,0 +1,67 @@
+package com.auditcenter.service;
+
+import com.auditcenter.service.EventStatsAccumulator.BucketKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para os contadores em memória das estatísticas (EventStatsAccumulator).
+ */
+class EventStatsAccumulatorTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2026, 10, 17, 10, 15);
+
+    @Test
+    void testDrain_ShouldCountPerMinuteSystemAndActionAndReset() {
+        EventStatsAccumulator accumulator = new EventStatsAccumulator();
+        accumulator.record("Financeiro", "LOGIN", MINUTE.plusSeconds(1));
+        accumulator.record("Financeiro", "LOGIN", MINUTE.plusSeconds(59));
+        accumulator.record("Financeiro", "LOGIN", MINUTE.plusMinutes(1));
+        accumulator.record("RH", "LOGIN", MINUTE.plusSeconds(30));
+
+        Map<BucketKey, Long> counts = accumulator.drain(MINUTE.plusMinutes(1));
+
+        assertEquals(3, counts.size());
+        assertEquals(2L, counts.get(new BucketKey(MINUTE, "Financeiro", "LOGIN")));
+        assertEquals(1L, counts.get(new BucketKey(MINUTE.plusMinutes(1), "Financeiro", "LOGIN")));
+        assertEquals(1L, counts.get(new BucketKey(MINUTE, "RH", "LOGIN")));
+        assertTrue(accumulator.drain(MINUTE.plusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void testRestore_ShouldReturnCountsToTheNextDrain() {
+        EventStatsAccumulator accumulator = new EventStatsAccumulator();
+        accumulator.record("Financeiro", "LOGIN", MINUTE);
+        Map<BucketKey, Long> failed = accumulator.drain(MINUTE);
+        accumulator.record("Financeiro", "LOGIN", MINUTE);
+
+        accumulator.restore(failed);
+
+        assertEquals(Map.of(new BucketKey(MINUTE, "Financeiro", "LOGIN"), 2L), accumulator.drain(MINUTE));
+    }
+
+    @Test
+    void testRecord_FromManyThreads_ShouldNotLoseCounts() throws InterruptedException {
+        EventStatsAccumulator accumulator = new EventStatsAccumulator();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    accumulator.record("Financeiro", "LOGIN", MINUTE);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80_000L, accumulator.snapshot().get(new BucketKey(MINUTE, "Financeiro", "LOGIN")));
+    }
+}
@@ -0,0 +1,189 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.EventStats;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.exception.InvalidQueryException;
+import com.auditcenter.repository.AuditArchive;
+import com.auditcenter.repository.AuditEventRepository;
+import com.auditcenter.repository.AuditPartitionCatalog;
+import com.auditcenter.repository.AuditPartitionScheme;
+import com.auditcenter.repository.AuditRetentionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testes das estatísticas de eventos (EventStatsService) sobre um banco H2 com as migrações do
+ * Flyway: a contagem inicial das partições, a consolidação na tabela audit_event_stats e a consulta
+ * por intervalo.
+ */
+@DataJpaTest(properties = {
+        "audit.partition.period=MONTH",
+        "audit.archive.directory=${java.io.tmpdir}/auditcenter-test/archive"
+})
+@Import({AuditPartitionCatalog.class, AuditPartitionScheme.class, AuditRetentionPolicy.class, AuditArchive.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventStatsServiceTest {
+
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private AuditPartitionCatalog partitionCatalog;
+
+    @Autowired
+    private AuditArchive archive;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EventStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM audit_event_stats");
+        statsService = new EventStatsService(jdbcTemplate, transactionManager, partitionCatalog, archive);
+        ReflectionTestUtils.setField(statsService, "maxBuckets", 10_000);
+        statsService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_event_stats");
+        // Os eventos dos testes são de 2024; as partições do período atual continuam.
+        partitionCatalog.partitions().stream()
+                .filter(partition -> partition.getPeriodStart().getYear() == 2024)
+                .forEach(partitionCatalog::drop);
+    }
+
+    @Test
+    void testInit_WithEmptyTable_ShouldCountEventsAlreadyInPartitions() {
+        // Arrange: eventos em duas partições, gravados antes de existir qualquer contagem.
+        auditEventRepository.batchInsert(List.of(
+                event("Vendas", LocalDateTime.of(2024, 1, 15, 10, 0, 5)),
+                event("Vendas", LocalDateTime.of(2024, 1, 15, 10, 0, 40)),
+                event("Vendas", LocalDateTime.of(2024, 1, 15, 10, 30)),
+                event("Crm", LocalDateTime.of(2024, 1, 15, 10, 0, 10)),
+                event("Vendas", LocalDateTime.of(2024, 2, 1, 0, 0))));
+        jdbcTemplate.update("DELETE FROM audit_event_stats");
+
+        // Act
+        statsService.init();
+
+        // Assert: uma linha por minuto, somada nos intervalos maiores na consulta.
+        assertEquals(2, storedCount(LocalDateTime.of(2024, 1, 15, 10, 0), "Vendas"));
+        EventStats byDay = statsService.getStats(LocalDateTime.of(2024, 1, 15, 0, 0),
+                LocalDateTime.of(2024, 2, 2, 0, 0), StatsGranularity.DAY, null, null);
+        assertEquals(5, byDay.getTotal());
+        assertEquals(List.of("2024-01-15T00:00 Crm 1", "2024-01-15T00:00 Vendas 3", "2024-02-01T00:00 Vendas 1"),
+                describe(byDay));
+        EventStats vendasByHour = statsService.getStats(LocalDateTime.of(2024, 1, 15, 10, 0),
+                LocalDateTime.of(2024, 1, 15, 11, 0), StatsGranularity.HOUR, "Vendas", "LOGIN");
+        assertEquals(List.of("2024-01-15T10:00 Vendas 3"), describe(vendasByHour));
+    }
+
+    @Test
+    void testFlush_ShouldAddToStoredCountsAndStatsShouldIncludeUnflushedCounts() {
+        // Arrange: duas contagens consolidadas e mais duas ainda em memória, no mesmo minuto e na mesma hora.
+        statsService.record(List.of(event("Vendas", LocalDateTime.of(2024, 3, 10, 8, 15, 1)),
+                event("Vendas", LocalDateTime.of(2024, 3, 10, 8, 15, 2))));
+        statsService.flush();
+        statsService.record(List.of(event("Vendas", LocalDateTime.of(2024, 3, 10, 8, 15, 3)),
+                event("Vendas", LocalDateTime.of(2024, 3, 10, 8, 45))));
+        LocalDateTime from = LocalDateTime.of(2024, 3, 10, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 3, 10, 9, 0);
+
+        // Act & Assert: a consulta soma a tabela e a memória no intervalo de uma hora.
+        assertEquals(2, storedCount(LocalDateTime.of(2024, 3, 10, 8, 15), "Vendas"));
+        assertEquals(List.of("2024-03-10T08:00 Vendas 4"),
+                describe(statsService.getStats(from, to, StatsGranularity.HOUR, null, null)));
+
+        // Act & Assert: o MERGE soma à linha existente, e nada é contado duas vezes.
+        statsService.flush();
+        assertEquals(3, storedCount(LocalDateTime.of(2024, 3, 10, 8, 15), "Vendas"));
+        assertEquals(1, storedCount(LocalDateTime.of(2024, 3, 10, 8, 45), "Vendas"));
+        assertEquals(List.of("2024-03-10T08:00 Vendas 4"),
+                describe(statsService.getStats(from, to, StatsGranularity.HOUR, null, null)));
+    }
+
+    @Test
+    void testFlush_WhenWriteFails_ShouldKeepCountsForNextFlush() {
+        // Arrange
+        statsService.record(List.of(event("Vendas", LocalDateTime.of(2024, 4, 1, 12, 0)),
+                event("Crm", LocalDateTime.of(2024, 4, 1, 12, 0))));
+        LocalDateTime from = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 4, 2, 0, 0);
+
+        // Act: a tabela está indisponível durante a primeira consolidação.
+        jdbcTemplate.execute("ALTER TABLE audit_event_stats RENAME TO audit_event_stats_off");
+        try {
+            statsService.flush();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE audit_event_stats_off RENAME TO audit_event_stats");
+        }
+
+        // Assert: as contagens voltaram para a memória e continuam na consulta.
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_event_stats", Long.class));
+        assertEquals(2, statsService.getStats(from, to, StatsGranularity.DAY, null, null).getTotal());
+
+        // Act & Assert: a próxima consolidação grava as duas, uma única vez.
+        statsService.flush();
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT SUM(event_count) FROM audit_event_stats", Long.class));
+        assertEquals(2, statsService.getStats(from, to, StatsGranularity.DAY, null, null).getTotal());
+    }
+
+    @Test
+    void testGetStats_WithTooManyBucketsOrEmptyRange_ShouldReject() {
+        // Arrange
+        ReflectionTestUtils.setField(statsService, "maxBuckets", 60);
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        // Act & Assert: 60 intervalos de um minuto cabem; 61 não. Um período vazio também é recusado.
+        assertEquals(from.plusHours(1), statsService.getStats(from, from.plusHours(1), StatsGranularity.MINUTE,
+                null, null).getTo());
+        assertThrows(InvalidQueryException.class, () -> statsService.getStats(from, from.plusMinutes(61),
+                StatsGranularity.MINUTE, null, null));
+        assertThrows(InvalidQueryException.class, () -> statsService.getStats(from, from,
+                StatsGranularity.HOUR, null, null));
+    }
+
+    private long storedCount(LocalDateTime bucketStart, String systemName) {
+        return jdbcTemplate.queryForObject("SELECT event_count FROM audit_event_stats"
+                + " WHERE bucket_start = ? AND system_name = ? AND action = 'LOGIN'",
+                Long.class, Timestamp.valueOf(bucketStart), systemName);
+    }
+
+    private static List<String> describe(EventStats stats) {
+        return stats.getBuckets().stream()
+                .map(bucket -> bucket.getBucketStart() + " " + bucket.getSystemName() + " " + bucket.getCount())
+                .toList();
+    }
+
+    private static AuditEvent event(String systemName, LocalDateTime timestamp) {
+        return AuditEvent.builder()
+                .systemName(systemName)
+                .userEmail("user@test.com")
+                .action("LOGIN")
+                .timestamp(timestamp)
+                .metadata("{}")
+                .build();
+    }
+}
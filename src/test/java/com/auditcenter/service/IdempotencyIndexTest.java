@@ -0,0 +1,139 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.IngestionTicket;
+import com.auditcenter.dto.WebhookEventRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para a detecção de eventos repetidos (IdempotencyIndex e BloomFilter).
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyIndexTest {
+
+    private static final String FIND_EVENT = "SELECT event_id FROM audit_event_keys WHERE idempotency_key = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testClaim_WithRepeatedHeaderKey_ShouldReturnOriginalTicketWithoutQueryingDatabase() {
+        IdempotencyIndex index = newIndex(IdempotencyMode.HEADER, List.of());
+        String key = index.keyFor(newRequest("{\"pedido\":1}"), "pedido-1");
+        IngestionTicket original = newTicket();
+
+        assertNull(index.claim(key, original));
+        assertSame(original, index.claim(key, newTicket()));
+        // Mesmo cabeçalho em outro sistema é outra chave.
+        WebhookEventRequest otherSystem = newRequest("{\"pedido\":1}");
+        otherSystem.setSystemName("Estoque");
+        assertNotEquals(key, index.keyFor(otherSystem, "pedido-1"));
+        verify(jdbcTemplate, never()).queryForList(eq(FIND_EVENT), eq(Long.class), anyString());
+    }
+
+    @Test
+    void testKeyFor_ShouldDependOnMode() {
+        IdempotencyIndex header = newIndex(IdempotencyMode.HEADER, List.of());
+        IdempotencyIndex content = newIndex(IdempotencyMode.CONTENT, List.of());
+
+        assertNull(header.keyFor(newRequest("{\"pedido\":1}"), null));
+        assertEquals(content.keyFor(newRequest("{\"pedido\":1}"), null), content.keyFor(newRequest("{\"pedido\":1}"), " "));
+        assertNotEquals(content.keyFor(newRequest("{\"pedido\":1}"), null), content.keyFor(newRequest("{\"pedido\":2}"), null));
+        assertEquals(64, content.keyFor(newRequest("{}"), null).length());
+    }
+
+    @Test
+    void testClaim_WithKeyStoredBeforeRestart_ShouldFindOriginalEvent() {
+        String key = newIndex(IdempotencyMode.HEADER, List.of()).keyFor(newRequest("{}"), "pedido-1");
+        // O filtro é preenchido com as chaves do banco na inicialização.
+        IdempotencyIndex index = newIndex(IdempotencyMode.HEADER, List.of(key));
+        when(jdbcTemplate.queryForList(FIND_EVENT, Long.class, key)).thenReturn(List.of(42L));
+        IngestionTicket ticket = newTicket();
+
+        assertSame(ticket, index.claim(key, ticket));
+        assertEquals(IngestionTicket.Status.PERSISTED, ticket.getStatus());
+        assertEquals(42L, ticket.getEventId());
+        assertTrue(ticket.isDuplicate());
+    }
+
+    @Test
+    void testClaim_AfterOriginalFailed_ShouldAcceptRetry() {
+        IdempotencyIndex index = newIndex(IdempotencyMode.HEADER, List.of());
+        String key = index.keyFor(newRequest("{}"), "pedido-1");
+        IngestionTicket original = newTicket();
+        assertNull(index.claim(key, original));
+        original.setStatus(IngestionTicket.Status.FAILED);
+        // A chave já está no filtro: a consulta ao banco confirma que o evento não foi gravado.
+        when(jdbcTemplate.queryForList(FIND_EVENT, Long.class, key)).thenReturn(List.of());
+
+        IngestionTicket retry = newTicket();
+        assertNull(index.claim(key, retry));
+        assertSame(retry, index.claim(key, newTicket()));
+    }
+
+    @Test
+    void testBloomFilter_ShouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[][] inserted = new long[10_000][2];
+        for (long[] hashes : inserted) {
+            hashes[0] = random.nextLong();
+            hashes[1] = random.nextLong();
+            filter.put(hashes[0], hashes[1]);
+        }
+        for (long[] hashes : inserted) {
+            assertTrue(filter.mightContain(hashes[0], hashes[1]));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(random.nextLong(), random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "falsos positivos: " + falsePositives);
+    }
+
+    private IdempotencyIndex newIndex(IdempotencyMode mode, List<String> storedKeys) {
+        when(jdbcTemplate.queryForList(any(String.class), eq(String.class), any(Object[].class))).thenReturn(storedKeys);
+        IdempotencyIndex index = new IdempotencyIndex(jdbcTemplate, new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(index, "mode", mode);
+        ReflectionTestUtils.setField(index, "recentKeys", 1000L);
+        ReflectionTestUtils.setField(index, "bloomExpectedKeys", 1000L);
+        ReflectionTestUtils.setField(index, "bloomFpp", 0.01);
+        index.init();
+        return index;
+    }
+
+    private static IngestionTicket newTicket() {
+        return IngestionTicket.builder().status(IngestionTicket.Status.QUEUED).build();
+    }
+
+    private static WebhookEventRequest newRequest(String metadata) {
+        return WebhookEventRequest.builder()
+                .systemName("Vendas")
+                .userEmail("user@test.com")
+                .action("VENDA_REALIZADA")
+                .metadata(metadata)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.auditcenter.service;
+
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.repository.EventTimestamps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes para o índice da busca textual (InvertedIndex): termos, busca com todos os termos,
+ * relevância, paginação e filtros.
+ */
+class InvertedIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        add(1, 0, "PAGAMENTO_APROVADO", "ana@example.com", "{\"invoice\":12345,\"note\":\"Não autorizado\"}");
+        add(2, 1, "PAGAMENTO_APROVADO", "bia@example.com", "{\"invoice\":12346}");
+        add(3, 2, "NOTA_EMITIDA", "ana@example.com",
+                "{\"invoice\":12345,\"items\":[\"invoice copy\",\"invoice reprint\"],\"total\":\"9.90\"}");
+        add(4, 3, "LOGIN", "bia@example.com", null);
+        add(5, 4, "NOTA_EMITIDA", "bia@example.com", "{\"invoice\":12345}");
+    }
+
+    @Test
+    void testTerms_ShouldNormalizeCaseAndAccentsAndSkipLongTerms() {
+        assertEquals(List.of("nao", "autorizado", "pagamento", "aprovado", "9", "90"),
+                InvertedIndex.terms("Não AUTORIZADO: pagamento_aprovado 9.90", 100));
+        assertEquals(List.of("ok"), InvertedIndex.terms("a".repeat(65) + " ok", 100));
+        assertEquals(List.of("um", "dois"), InvertedIndex.terms("um dois tres", 2));
+        assertEquals(Set.of("invoice", "12345"), InvertedIndex.queryTerms("Invoice 12345 invoice"));
+    }
+
+    @Test
+    void testSearch_ShouldRequireAllTermsAndRankByRelevance() {
+        InvertedIndex.Result result = search(Set.of("invoice", "12345"), SearchOrder.RELEVANCE, null, null, 10);
+
+        assertEquals(3, result.getMatches());
+        // O evento 5 é o mais curto; o 3 repete "invoice", mas a repetição não compensa o seu tamanho.
+        assertEquals(List.of(5L, 1L, 3L), ids(result));
+        assertTrue(result.getHits().get(0).getScore() > result.getHits().get(2).getScore());
+        // Acentos e maiúsculas na busca e no evento.
+        assertEquals(List.of(1L), ids(search(InvertedIndex.queryTerms("NAO autorizado"), SearchOrder.RELEVANCE, null, null, 10)));
+        assertEquals(0, search(Set.of("invoice", "99999"), SearchOrder.RELEVANCE, null, null, 10).getMatches());
+    }
+
+    @Test
+    void testSearch_WhenOrderedByTime_ShouldPageWithCursor() {
+        List<Long> ids = new ArrayList<>();
+        InvertedIndex.Hit after = null;
+        InvertedIndex.Result page;
+        do {
+            page = search(Set.of("invoice"), SearchOrder.TIME, null, after, 2);
+            ids.addAll(ids(page));
+            after = page.getHits().isEmpty() ? null : page.getHits().get(page.getHits().size() - 1);
+        } while (!page.getHits().isEmpty());
+
+        assertEquals(List.of(5L, 3L, 2L, 1L), ids);
+        assertEquals(0.0, search(Set.of("invoice"), SearchOrder.TIME, null, null, 1).getHits().get(0).getScore());
+    }
+
+    @Test
+    void testSearch_ShouldApplyFiltersAndSkipDeletedDocuments() {
+        assertEquals(List.of(3L, 1L), ids(search(Set.of("invoice"), SearchOrder.TIME, "ana@example.com", null, 10)));
+        assertEquals(0, search(Set.of("invoice"), SearchOrder.TIME, "nobody@example.com", null, 10).getMatches());
+
+        InvertedIndex.Result window = index.search(new InvertedIndex.Query(Set.of("invoice"), null, "NOTA_EMITIDA", null,
+                EventTimestamps.toMicros(START.plusMinutes(2)), EventTimestamps.toMicros(START.plusMinutes(4)),
+                SearchOrder.TIME, null, 10, null));
+        assertEquals(List.of(3L), ids(window));
+
+        InvertedIndex.Result result = search(Set.of("invoice", "12345"), SearchOrder.TIME, null, null, 10);
+        index.delete(result.getHits().get(0).getDocument());
+        assertEquals(List.of(3L, 1L), ids(search(Set.of("invoice", "12345"), SearchOrder.TIME, null, null, 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testSearch_WithStatisticsFromFirstPage_ShouldKeepRelevanceOrderAcrossChanges() {
+        // Arrange: "erro" é raro e "disco" é comum, então o 10 (que repete "erro") vem antes do 11.
+        add(10, 10, "ALERTA", "ana@example.com", "erro erro erro disco");
+        add(11, 11, "ALERTA", "ana@example.com", "erro disco disco disco");
+        for (int i = 0; i < 3; i++) {
+            add(20 + i, 20 + i, "ALERTA", "ana@example.com", "disco");
+        }
+        Set<String> terms = InvertedIndex.queryTerms("erro disco");
+        InvertedIndex.Result first = search(terms, SearchOrder.RELEVANCE, null, null, 1);
+        assertEquals(List.of(10L), ids(first));
+        InvertedIndex.Hit after = first.getHits().get(0);
+
+        // Act: antes da próxima página, "erro" fica comum e passa a valer menos que "disco".
+        for (int i = 0; i < 100; i++) {
+            add(100 + i, 100 + i, "ALERTA", "ana@example.com", "erro");
+        }
+        InvertedIndex.Result current = index.search(new InvertedIndex.Query(terms, null, null, null, Long.MIN_VALUE,
+                Long.MAX_VALUE, SearchOrder.RELEVANCE, after, 1, null));
+        InvertedIndex.Result kept = index.search(new InvertedIndex.Query(terms, null, null, null, Long.MIN_VALUE,
+                Long.MAX_VALUE, SearchOrder.RELEVANCE, after, 1, first.getStatistics()));
+
+        // Assert: com as estatísticas atuais, o 11 pontua acima do cursor e é pulado, e o próprio 10
+        // pontua abaixo e se repete; com as da primeira página, o 11 é o próximo. Uma busca nova usa as atuais.
+        assertEquals(List.of(10L), ids(current));
+        assertEquals(List.of(11L), ids(kept));
+        assertSame(first.getStatistics(), kept.getStatistics());
+        assertEquals(List.of(11L, 10L), ids(search(terms, SearchOrder.RELEVANCE, null, null, 2)));
+    }
+
+    private void add(long id, int minutes, String action, String email, String metadata) {
+        index.add(new InvertedIndex.Document(AuditEvent.builder().id(id).timestamp(START.plusMinutes(minutes))
+                .systemName("Financeiro").action(action).userEmail(email).metadata(metadata).build(), 256));
+    }
+
+    private InvertedIndex.Result search(Set<String> terms, SearchOrder order, String email, InvertedIndex.Hit after, int limit) {
+        return index.search(new InvertedIndex.Query(terms, null, null, email, Long.MIN_VALUE, Long.MAX_VALUE,
+                order, after, limit, null));
+    }
+
+    private static List<Long> ids(InvertedIndex.Result result) {
+        return result.getHits().stream().map(InvertedIndex.Hit::getId).toList();
+    }
+}
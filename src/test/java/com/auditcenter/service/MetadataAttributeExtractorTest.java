@@ -0,0 +1,56 @@
+package com.auditcenter.service;
+
+import com.auditcenter.entity.AuditEventAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para a extração dos atributos indexados dos metadados.
+ */
+class MetadataAttributeExtractorTest {
+
+    private MetadataAttributeExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new MetadataAttributeExtractor();
+        // Simula 'audit.metadata.indexed-attributes' e 'audit.metadata.max-attribute-values'.
+        ReflectionTestUtils.setField(extractor, "indexedAttributes", List.of("orderId", "customer.id", "items.sku"));
+        ReflectionTestUtils.setField(extractor, "maxValuesPerEvent", 3);
+        extractor.init();
+    }
+
+    @Test
+    void testExtract_ShouldReadConfiguredPathsOnly() {
+        String metadata = "{\"orderId\":12345,\"note\":{\"orderId\":1},\"customer\":{\"id\":\"C-9\",\"name\":\"Ana\"},"
+                + "\"items\":[{\"sku\":\"A\"},{\"sku\":null},{\"qty\":2}],\"other\":[1,2]}";
+
+        Set<AuditEventAttribute> attributes = extractor.extract(metadata);
+
+        assertEquals(Set.of(
+                new AuditEventAttribute("orderId", "12345"),
+                new AuditEventAttribute("customer.id", "C-9"),
+                new AuditEventAttribute("items.sku", "A")
+        ), attributes);
+    }
+
+    @Test
+    void testExtract_ShouldLimitValuesPerEvent() {
+        String metadata = "{\"items\":[{\"sku\":\"A\"},{\"sku\":\"B\"},{\"sku\":\"C\"},{\"sku\":\"D\"}]}";
+
+        assertEquals(3, extractor.extract(metadata).size());
+    }
+
+    @Test
+    void testExtract_WithInvalidJson_ShouldReturnNoAttributes() {
+        assertTrue(extractor.extract("{\"orderId\":1,").isEmpty());
+        assertTrue(extractor.isIndexed("customer.id"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.WebhookEventRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o arquivo de transbordo (SpillFileStore).
+ */
+class SpillFileStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testPoll_WithoutAcknowledge_ShouldDeliverSameEventsAgain() throws Exception {
+        // Arrange
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        appendEvents(store, 3);
+
+        // Act: o lote lido não é confirmado (a gravação no banco falhou).
+        List<SpillFileStore.SpilledEvent> first = store.poll(2);
+        List<SpillFileStore.SpilledEvent> again = store.poll(2);
+
+        // Assert
+        assertEquals(List.of("t0", "t1"), ticketIds(first));
+        assertEquals(List.of("t0", "t1"), ticketIds(again));
+        assertEquals(3, store.pending());
+        store.close();
+    }
+
+    @Test
+    void testAcknowledge_ShouldAdvanceAndDeleteFileAtEnd() throws Exception {
+        // Arrange
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        appendEvents(store, 3);
+
+        // Act & Assert: cada confirmação avança a leitura.
+        assertEquals(List.of("t0", "t1"), ticketIds(store.poll(2)));
+        store.acknowledge();
+        assertEquals(1, store.pending());
+        assertEquals(List.of("t2"), ticketIds(store.poll(2)));
+        store.acknowledge();
+
+        // Assert: depois da última confirmação, nada mais é lido e o arquivo é apagado.
+        assertEquals(0, store.pending());
+        assertTrue(store.poll(2).isEmpty());
+        assertFalse(Files.exists(directory.resolve("spill-draining.ndjson")));
+        store.close();
+    }
+
+    @Test
+    void testReopen_ShouldResumeFromLastAcknowledgedEvent() throws Exception {
+        // Arrange: o primeiro lote é confirmado; o segundo é lido, mas a aplicação para antes da confirmação.
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        appendEvents(store, 4);
+        store.poll(2);
+        store.acknowledge();
+        store.poll(2);
+        store.close();
+
+        // Act
+        SpillFileStore reopened = new SpillFileStore(directory, objectMapper);
+
+        // Assert: só os eventos não confirmados voltam.
+        assertEquals(2, reopened.pending());
+        assertEquals(List.of("t2", "t3"), ticketIds(reopened.poll(10)));
+        reopened.close();
+    }
+
+    @Test
+    void testAppend_DuringDrain_ShouldBeReadAfterDrainingFile() throws Exception {
+        // Arrange
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        appendEvents(store, 2);
+        store.poll(1);
+        store.acknowledge();
+
+        // Act: um evento novo chega enquanto o arquivo anterior ainda é drenado.
+        store.append(new SpillFileStore.SpilledEvent("novo", null, newRequest()));
+
+        // Assert
+        assertEquals(List.of("t1"), ticketIds(store.poll(10)));
+        store.acknowledge();
+        assertEquals(List.of("novo"), ticketIds(store.poll(10)));
+        store.acknowledge();
+        assertEquals(0, store.pending());
+        store.close();
+    }
+
+    @Test
+    void testPoll_ShouldKeepRawMetadataThroughSpillFile() throws Exception {
+        // Arrange: metadados lidos pelo RawJsonObjectDeserializer, com decimais, inteiros grandes e escapes.
+        String body = "{\"systemName\":\"Vendas\",\"userEmail\":\"user@test.com\",\"action\":\"VENDA\","
+                + "\"metadata\":{\"totalPrice\": 150.00, \"grande\": 123456789012345678901234567890,"
+                + " \"nota\": \"aspas \\\" e\\nlinha\", \"itens\": [{\"id\": 1}]}}";
+        WebhookEventRequest request = objectMapper.readValue(body, WebhookEventRequest.class);
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+
+        // Act
+        store.append(new SpillFileStore.SpilledEvent("t0", null, request));
+        List<SpillFileStore.SpilledEvent> polled = store.poll(1);
+
+        // Assert: no arquivo, 'metadata' é um objeto (@JsonRawValue); na volta, o texto é o mesmo.
+        String line = Files.readString(directory.resolve("spill-draining.ndjson"));
+        assertTrue(line.contains("\"metadata\":{\"totalPrice\":150.00,"), line);
+        assertEquals(request.getMetadata(), polled.get(0).getRequest().getMetadata());
+        assertEquals("{\"totalPrice\":150.00,\"grande\":123456789012345678901234567890,"
+                + "\"nota\":\"aspas \\\" e\\nlinha\",\"itens\":[{\"id\":1}]}", polled.get(0).getRequest().getMetadata());
+        store.close();
+    }
+
+    @Test
+    void testPoll_WithMalformedLine_ShouldRejectItAndKeepOtherEvents() throws Exception {
+        // Arrange: uma linha ilegível entre dois eventos, encontrada na inicialização.
+        SpillFileStore previous = new SpillFileStore(directory, objectMapper);
+        previous.append(new SpillFileStore.SpilledEvent("t0", null, newRequest()));
+        previous.close();
+        Files.writeString(directory.resolve("spill-active.ndjson"), "{\"ticketId\":\n", StandardOpenOption.APPEND);
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        store.append(new SpillFileStore.SpilledEvent("t1", null, newRequest()));
+
+        // Act: o lote não é confirmado na primeira vez e é lido de novo.
+        List<SpillFileStore.SpilledEvent> first = store.poll(10);
+        List<SpillFileStore.SpilledEvent> again = store.poll(10);
+        store.acknowledge();
+
+        // Assert: os dois eventos chegam; a linha ilegível vai uma única vez para o arquivo de rejeitados.
+        assertEquals(List.of("t0", "t1"), ticketIds(first));
+        assertEquals(List.of("t0", "t1"), ticketIds(again));
+        assertEquals(List.of("{\"ticketId\":"), Files.readAllLines(directory.resolve("spill-rejected.ndjson")));
+        assertEquals(0, store.pending());
+        assertTrue(store.poll(10).isEmpty());
+        store.close();
+    }
+
+    @Test
+    void testReopen_WithLineCutOffByCrash_ShouldNotMergeItWithNextEvent() throws Exception {
+        // Arrange: a aplicação parou no meio da gravação do segundo evento.
+        SpillFileStore store = new SpillFileStore(directory, objectMapper);
+        store.append(new SpillFileStore.SpilledEvent("t0", null, newRequest()));
+        store.close();
+        Files.writeString(directory.resolve("spill-active.ndjson"), "{\"ticketId\":\"t1\",\"requ", StandardOpenOption.APPEND);
+
+        // Act: depois de reabrir, um novo evento é anexado.
+        SpillFileStore reopened = new SpillFileStore(directory, objectMapper);
+        reopened.append(new SpillFileStore.SpilledEvent("t2", null, newRequest()));
+        List<SpillFileStore.SpilledEvent> polled = reopened.poll(10);
+        reopened.acknowledge();
+
+        // Assert: só a linha cortada é perdida (e guardada nos rejeitados).
+        assertEquals(List.of("t0", "t2"), ticketIds(polled));
+        assertEquals(List.of("{\"ticketId\":\"t1\",\"requ"), Files.readAllLines(directory.resolve("spill-rejected.ndjson")));
+        assertEquals(0, reopened.pending());
+        reopened.close();
+    }
+
+    private void appendEvents(SpillFileStore store, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            store.append(new SpillFileStore.SpilledEvent("t" + i, null, newRequest()));
+        }
+    }
+
+    private static List<String> ticketIds(List<SpillFileStore.SpilledEvent> events) {
+        return events.stream().map(SpillFileStore.SpilledEvent::getTicketId).toList();
+    }
+
+    private static WebhookEventRequest newRequest() {
+        return WebhookEventRequest.builder()
+                .systemName("Vendas")
+                .userEmail("user@test.com")
+                .action("VENDA_REALIZADA")
+                .metadata("{\"pedido\":1}")
+                .build();
+    }
+}
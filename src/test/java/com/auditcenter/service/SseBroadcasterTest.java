@@ -0,0 +1,329 @@
+package com.auditcenter.service;
+
+import com.auditcenter.dto.AuditEventDto;
+import com.auditcenter.dto.AuditEventFilter;
+import com.auditcenter.dto.StreamStats;
+import com.auditcenter.entity.AuditEvent;
+import com.auditcenter.mapper.AuditEventMapper;
+import com.auditcenter.repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para o motor de distribuição SSE (SseBroadcaster).
+ */
+class SseBroadcasterTest {
+
+    private ObjectMapper objectMapper;
+    private AuditEventRepository auditEventRepository;
+    private AuditEventMapper auditEventMapper;
+    private SseBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapper().registerModule(new JavaTimeModule()));
+        auditEventRepository = mock(AuditEventRepository.class);
+        auditEventMapper = mock(AuditEventMapper.class);
+        broadcaster = new SseBroadcaster(objectMapper, auditEventRepository, auditEventMapper,
+                new AuditMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(broadcaster, "subscriberBufferSize", 2);
+        ReflectionTestUtils.setField(broadcaster, "writerThreads", 2);
+        ReflectionTestUtils.setField(broadcaster, "dispatchQueueCapacity", 100);
+        ReflectionTestUtils.setField(broadcaster, "replayBufferSize", 10);
+        ReflectionTestUtils.setField(broadcaster, "replayMaxEvents", 100);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broadcaster.stop();
+    }
+
+    @Test
+    void testPublish_ShouldSerializeOnceAndDeliverSameFrameToEverySubscriber() throws Exception {
+        // Arrange
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        RecordingEmitter first = new RecordingEmitter(null);
+        RecordingEmitter second = new RecordingEmitter(null);
+        broadcaster.register(first, "admin@test.com", null, null);
+        broadcaster.register(second, "analyst@test.com", null, null);
+
+        // Act
+        broadcaster.publish(event(1L));
+
+        // Assert: um único JSON, compartilhado pelas duas conexões.
+        first.awaitSends(1);
+        second.awaitSends(1);
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        assertSame(first.sent.get(0), second.sent.get(0));
+    }
+
+    @Test
+    void testPublish_WithSlowSubscriberAndDropOldest_ShouldDropWithoutBlockingPublisher() throws Exception {
+        // Arrange: o envio do primeiro evento fica "preso" até o fim do teste.
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.register(slow, "analyst@test.com", null, null);
+        broadcaster.publish(event(1L));
+        slow.awaitSends(1);
+
+        // Act: buffer de 2 posições recebe mais 4 eventos.
+        for (long id = 2; id <= 5; id++) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(5);
+
+        // Assert: os 2 mais antigos do buffer foram descartados e o cliente continua conectado.
+        StreamStats stats = broadcaster.getStats();
+        assertEquals(1, stats.getSubscribers());
+        assertEquals(2, stats.getDropped());
+        assertEquals(2, stats.getSubscriberStats().get(0).getQueued());
+        release.countDown();
+    }
+
+    @Test
+    void testPublish_WithSlowSubscriberAndDisconnect_ShouldRemoveSubscriber() throws Exception {
+        // Arrange
+        start(SlowConsumerPolicy.DISCONNECT);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.register(slow, "analyst@test.com", null, null);
+        broadcaster.publish(event(1L));
+        slow.awaitSends(1);
+
+        // Act: o terceiro evento pendente não cabe no buffer.
+        for (long id = 2; id <= 4; id++) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(4);
+
+        // Assert
+        StreamStats stats = broadcaster.getStats();
+        assertEquals(0, stats.getSubscribers());
+        assertEquals(1, stats.getSlowConsumersDisconnected());
+        release.countDown();
+    }
+
+    @Test
+    void testPublish_WithFilteredSubscriptions_ShouldDeliverOnlyMatchingEvents() throws Exception {
+        // Arrange: buffer suficiente para os 3 eventos, que podem ser distribuídos no mesmo lote.
+        ReflectionTestUtils.setField(broadcaster, "subscriberBufferSize", 4);
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        RecordingEmitter analyst = new RecordingEmitter(null);
+        RecordingEmitter billing = new RecordingEmitter(null);
+        RecordingEmitter admin = new RecordingEmitter(null);
+        broadcaster.register(analyst, "analyst@test.com", AuditEventFilter.builder().userEmail("analyst@test.com").build(), null);
+        broadcaster.register(billing, "admin@test.com", AuditEventFilter.builder().systemName("billing").action("USER_LOGIN").build(), null);
+        broadcaster.register(admin, "admin@test.com", null, null);
+
+        // Act
+        broadcaster.publish(event(1L, "crm", "analyst@test.com", "USER_LOGIN"));
+        broadcaster.publish(event(2L, "billing", "other@test.com", "USER_LOGIN"));
+        broadcaster.publish(event(3L, "billing", "other@test.com", "INVOICE_PAID"));
+        awaitDispatched(3);
+        admin.awaitSends(3);
+
+        // Assert
+        analyst.awaitSends(1);
+        billing.awaitSends(1);
+        assertEquals(1, analyst.sent.size());
+        assertEquals(1, billing.sent.size());
+        assertEquals(5, broadcaster.getStats().getDeliveries());
+    }
+
+    @Test
+    void testRegister_WithLastEventIdInsideBuffer_ShouldReplayMissedEventsFromMemory() throws Exception {
+        // Arrange: eventos publicados enquanto o cliente estava desconectado.
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(3);
+
+        // Act
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+        broadcaster.register(reconnected, "analyst@test.com", null, 1L);
+        broadcaster.publish(event(4L));
+
+        // Assert: primeiro o que foi perdido, depois o evento ao vivo, cada um com o seu ID.
+        reconnected.awaitSends(3);
+        assertEquals(List.of(2L, 3L, 4L), reconnected.sentEventIds());
+        assertEquals(1, broadcaster.getStats().getReplaysFromBuffer());
+        verifyNoInteractions(auditEventRepository);
+    }
+
+    @Test
+    void testRegister_WithIdsPublishedOutOfOrder_ShouldReplayInPublishOrder() throws Exception {
+        // Arrange: dois escritores com blocos da sequência; o 7 foi gravado antes do 3 e do 4.
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        for (long id : new long[]{1, 7, 3, 4}) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(4);
+
+        // Act: o cliente caiu logo depois de receber o 7.
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+        broadcaster.register(reconnected, "analyst@test.com", null, 7L);
+
+        // Assert: recebe o 3 e o 4, mesmo com IDs menores que o Last-Event-ID.
+        reconnected.awaitSends(2);
+        assertEquals(List.of(3L, 4L), reconnected.sentEventIds());
+        verifyNoInteractions(auditEventRepository);
+    }
+
+    @Test
+    void testRegister_WithGapLargerThanBuffer_ShouldCatchUpFromDatabase() throws Exception {
+        // Arrange: o buffer guarda só os 2 eventos mais recentes.
+        ReflectionTestUtils.setField(broadcaster, "replayBufferSize", 2);
+        start(SlowConsumerPolicy.DROP_OLDEST);
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(5);
+        List<AuditEvent> missed = List.of(AuditEvent.builder().id(2L).build(), AuditEvent.builder().id(3L).build(),
+                AuditEvent.builder().id(4L).build(), AuditEvent.builder().id(5L).build());
+        when(auditEventRepository.findAfterId(any(AuditEventFilter.class), eq(1L), eq(100))).thenReturn(missed);
+        when(auditEventMapper.toDtoList(missed)).thenReturn(List.of(event(2L), event(3L), event(4L), event(5L)));
+
+        // Act
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+        broadcaster.register(reconnected, "analyst@test.com", null, 1L);
+
+        // Assert
+        reconnected.awaitSends(4);
+        assertEquals(List.of(2L, 3L, 4L, 5L), reconnected.sentEventIds());
+        assertEquals(1, broadcaster.getStats().getReplaysFromDatabase());
+    }
+
+    @Test
+    void testRegister_WithLiveEventsDuringDatabaseReplay_ShouldKeepThemAndSkipRepeated() throws Exception {
+        // Arrange: buffer de 2 posições por cliente, desconexão de lentos e o histórico vindo do banco.
+        ReflectionTestUtils.setField(broadcaster, "replayBufferSize", 2);
+        start(SlowConsumerPolicy.DISCONNECT);
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.publish(event(id));
+        }
+        awaitDispatched(5);
+        List<AuditEvent> missed = List.of(AuditEvent.builder().id(2L).build(), AuditEvent.builder().id(3L).build(),
+                AuditEvent.builder().id(4L).build(), AuditEvent.builder().id(5L).build());
+        // Enquanto o banco é lido, chegam 5 eventos ao vivo: mais que o buffer, e um repetido (o 4)
+        // depois de um ID maior que todo o histórico.
+        when(auditEventRepository.findAfterId(any(AuditEventFilter.class), eq(1L), eq(100))).thenAnswer(inv -> {
+            for (long id : new long[]{6, 9, 4, 7, 8}) {
+                broadcaster.publish(event(id));
+            }
+            awaitDispatched(10);
+            return missed;
+        });
+        when(auditEventMapper.toDtoList(missed)).thenReturn(List.of(event(2L), event(3L), event(4L), event(5L)));
+
+        // Act
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+        broadcaster.register(reconnected, "analyst@test.com", null, 1L);
+
+        // Assert: o histórico, depois os eventos ao vivo, sem o 4 de novo e sem desconectar o cliente.
+        reconnected.awaitSends(8);
+        Thread.sleep(50);
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 9L, 7L, 8L), reconnected.sentEventIds());
+        StreamStats stats = broadcaster.getStats();
+        assertEquals(1, stats.getSubscribers());
+        assertEquals(0, stats.getSlowConsumersDisconnected());
+        assertEquals(4, stats.getSubscriberStats().get(0).getReplayed());
+    }
+
+    private void start(SlowConsumerPolicy policy) {
+        ReflectionTestUtils.setField(broadcaster, "slowConsumerPolicy", policy);
+        broadcaster.start();
+    }
+
+    private void awaitDispatched(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (broadcaster.getStats().getDispatched() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, broadcaster.getStats().getDispatched());
+    }
+
+    private static AuditEventDto event(Long id) {
+        return event(id, "billing", "analyst@test.com", "USER_LOGIN");
+    }
+
+    private static AuditEventDto event(Long id, String systemName, String userEmail, String action) {
+        AuditEventDto dto = new AuditEventDto();
+        dto.setId(id);
+        dto.setSystemName(systemName);
+        dto.setUserEmail(userEmail);
+        dto.setAction(action);
+        return dto;
+    }
+
+    /**
+     * SseEmitter sem conexão real: guarda os quadros enviados e, opcionalmente,
+     * bloqueia cada envio até o latch ser liberado (simulando um cliente lento).
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<ResponseBodyEmitter.DataWithMediaType>> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sent.add(items);
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        List<Long> sentEventIds() {
+            List<Long> ids = new ArrayList<>();
+            for (Set<ResponseBodyEmitter.DataWithMediaType> items : sent) {
+                // O primeiro trecho do quadro é "id:<id>\nevent:audit-event\ndata:".
+                String header = items.iterator().next().getData().toString();
+                ids.add(Long.parseLong(header.substring(3, header.indexOf('\n'))));
+            }
+            return ids;
+        }
+
+        void awaitSends(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sent.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(sent.size() >= count, "Esperava " + count + " envios, recebeu " + sent.size());
+        }
+    }
+}
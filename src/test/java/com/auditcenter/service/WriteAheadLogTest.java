@@ -0,0 +1,166 @@
+package com.auditcenter.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes unitários para o log de ingestão em disco (WriteAheadLog).
+ */
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRead_AfterReopen_ShouldResumeFromCheckpoint() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append(bytes("a"));
+            wal.append(bytes("b"));
+            wal.append(bytes("c"));
+            List<WriteAheadLog.Record> records = wal.read(2);
+            assertEquals(List.of("a", "b"), text(records));
+            // Sem commit, a leitura recomeça do mesmo ponto.
+            assertEquals(List.of("a", "b"), text(wal.read(2)));
+            wal.commit(records.get(1).getEndOffset());
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            assertTrue(wal.awaitRecords(0));
+            assertEquals(List.of("c"), text(wal.read(10)));
+            wal.append(bytes("d"));
+            assertEquals(List.of("c", "d"), text(wal.read(10)));
+        }
+    }
+
+    @Test
+    void testOpen_WithTornRecordAtTheEnd_ShouldDiscardIt() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append(bytes("a"));
+            wal.append(bytes("b"));
+        }
+        // Queda no meio de uma gravação: cabeçalho de 20 bytes, só 3 gravados.
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 20, 1, 2, 3, 4, 'x', 'y', 'z'}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append(bytes("c"));
+            assertEquals(List.of("a", "b", "c"), text(wal.read(10)));
+        }
+    }
+
+    @Test
+    void testCommit_ShouldDeleteFullyReadSegments() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 20)) {
+            for (int i = 0; i < 10; i++) {
+                wal.append(bytes("evento-" + i));
+            }
+            assertEquals(10, segments().size());
+
+            List<WriteAheadLog.Record> records = wal.read(100);
+            assertEquals(10, records.size());
+            wal.commit(records.get(records.size() - 1).getEndOffset());
+
+            assertEquals(1, segments().size());
+            assertEquals(0, wal.pendingBytes());
+            assertFalse(wal.awaitRecords(0));
+        }
+    }
+
+    @Test
+    void testAppend_FromManyThreads_ShouldKeepEveryRecordAndShareFsyncs() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 4096)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            wal.append(bytes(thread + ":" + i));
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            List<String> records = text(wal.read(10_000));
+            assertEquals(1600, records.size());
+            assertEquals(1600, new HashSet<>(records).size());
+            assertTrue(wal.syncs() <= 1600);
+        }
+    }
+
+    @Test
+    void testOpen_WhenDirectoryIsInUse_ShouldFail() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append(bytes("a"));
+            assertThrows(IllegalStateException.class, () -> new WriteAheadLog(directory, 1024));
+            // O log que já estava aberto continua funcionando.
+            assertEquals(List.of("a"), text(wal.read(10)));
+        }
+    }
+
+    @Test
+    void testAppend_WhenAppenderIsInterrupted_ShouldFailOnlyThatRecord() throws Exception {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append(bytes("a"));
+
+            // Act: uma thread interrompida anexa um registro; a interrupção fecha o canal do segmento.
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread appender = new Thread(() -> {
+                Thread.currentThread().interrupt();
+                try {
+                    wal.append(bytes("b"));
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            appender.start();
+            appender.join(5_000);
+
+            // Assert: só esse registro falha; as próximas gravações continuam no mesmo segmento.
+            assertInstanceOf(ClosedByInterruptException.class, failure.get());
+            wal.append(bytes("c"));
+            assertEquals(List.of("a", "c"), text(wal.read(10)));
+        }
+
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            assertEquals(List.of("a", "c"), text(wal.read(10)));
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> text(List<WriteAheadLog.Record> records) {
+        return records.stream().map(record -> new String(record.getPayload(), StandardCharsets.UTF_8)).toList();
+    }
+}